@@ -8,6 +8,16 @@ EXTENSION IF NOT EXISTS "uuid-ossp";
 SELECT *
 FROM pg_extension
 WHERE extname = 'uuid-ossp';
+
+-- Tìm kiếm không dấu: unaccent + trigram (GIN) cho LIKE '%...%' và so khớp gần đúng
+CREATE EXTENSION IF NOT EXISTS unaccent;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- unaccent() chỉ là STABLE nên không dùng được trong generated column / index; bọc lại thành IMMUTABLE
+CREATE OR REPLACE FUNCTION f_unaccent(text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT AS
+$$ SELECT public.unaccent('public.unaccent'::regdictionary, $1) $$;
+
 CREATE TABLE users
 (
     id            UUID PRIMARY KEY DEFAULT gen_random_uuid(),
@@ -23,12 +33,16 @@ CREATE TABLE users
     is_active     BOOLEAN          DEFAULT TRUE,
     created_at    TIMESTAMPTZ      DEFAULT CURRENT_TIMESTAMP,
     updated_at    TIMESTAMPTZ      DEFAULT CURRENT_TIMESTAMP,
+    search_text   TEXT GENERATED ALWAYS AS (lower(f_unaccent(username || ' ' || coalesce(fullname, '') || ' ' ||
+                                            coalesce(email, '') || ' ' || phone_number))) STORED,
     CONSTRAINT check_email_format CHECK
     (email ~* '^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\.[A-Za-z]{2,}$'),
     CONSTRAINT check_phone_format CHECK
     (phone_number ~ '^[0-9]{10,15}$' OR phone_number IS NULL)
 );
 
+CREATE INDEX idx_users_search_trgm ON users USING GIN (search_text gin_trgm_ops);
+
 CREATE TABLE tokens
 (
     id              UUID PRIMARY KEY DEFAULT gen_random_uuid(),
@@ -75,15 +89,22 @@ CREATE TABLE farms
     avg_temperature NUMERIC(5, 2),                -- Nhiệt độ TB (°C)
     -- Status
     farm_status     VARCHAR(20) DEFAULT 'ACTIVE', -- ACTIVE, INACTIVE, CLOSED
+    enrichment_status VARCHAR(20),                -- ENRICHMENT_PENDING, ENRICHED, ENRICHMENT_FAILED (lấy toạ độ/môi trường chạy nền)
     -- Tracking
     created_by      UUID REFERENCES users (id),
     created_at      TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
     updated_at      TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
     deleted_at      TIMESTAMPTZ,
+    search_text     TEXT GENERATED ALWAYS AS (lower(f_unaccent(code || ' ' || name || ' ' ||
+                                              coalesce(location, '')))) STORED, -- Văn bản tìm kiếm không dấu
     CONSTRAINT unique_farm_code UNIQUE (code),
     CONSTRAINT check_usable_area CHECK (usable_area IS NULL OR usable_area <= area)
 );
 
+CREATE INDEX idx_farms_enrichment_pending ON farms(updated_at) WHERE enrichment_status = 'ENRICHMENT_PENDING';
+CREATE INDEX idx_farms_search_trgm ON farms USING GIN (search_text gin_trgm_ops) WHERE deleted_at IS NULL;
+CREATE INDEX idx_farms_created_id ON farms(created_at, id) WHERE deleted_at IS NULL;
+
 -- Bảng yếu tố môi trường theo từng khoảng thời gian cho farm (để tự động hóa chỉ số carbon)
 CREATE TABLE farm_environment_records
 (
@@ -128,9 +149,15 @@ CREATE TABLE projects
 
     -- Tracking
     created_at              TIMESTAMPTZ    DEFAULT CURRENT_TIMESTAMP,
-    updated_at              TIMESTAMPTZ    DEFAULT CURRENT_TIMESTAMP
+    updated_at              TIMESTAMPTZ    DEFAULT CURRENT_TIMESTAMP,
+
+    -- Văn bản tìm kiếm không dấu
+    search_text             TEXT GENERATED ALWAYS AS (lower(f_unaccent(code || ' ' || name || ' ' ||
+                                                      coalesce(description, '')))) STORED
 );
 
+CREATE INDEX idx_projects_search_trgm ON projects USING GIN (search_text gin_trgm_ops);
+
 -- Bảng vòng đời dự án
 CREATE TABLE project_phases
 (
@@ -217,6 +244,9 @@ CREATE TABLE tree_batches
     updated_at            TIMESTAMPTZ    DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Phân trang keyset (sort key, id)
+CREATE INDEX idx_tree_batches_created_id ON tree_batches(created_at, id);
+
 -- Bảng ghi nhận sinh trưởng theo thời gian
 -- Current status = record mới nhất (ORDER BY recorded_date DESC LIMIT 1)
 CREATE TABLE tree_growth_records
@@ -249,6 +279,12 @@ CREATE TABLE tree_growth_records
     UNIQUE (batch_id, recorded_date)
 );
 
+CREATE INDEX idx_growth_records_recorded_id ON tree_growth_records(recorded_date, id);
+-- Quét cảnh báo sức khỏe tăng dần theo id (HealthAlertScheduler)
+CREATE INDEX idx_growth_records_unhealthy_id ON tree_growth_records(id) WHERE health_status IN ('DISEASED', 'STRESSED');
+-- Đọc lại bản ghi tạo gần đây có id dưới watermark (transaction commit muộn)
+CREATE INDEX idx_growth_records_unhealthy_created ON tree_growth_records(created_at) WHERE health_status IN ('DISEASED', 'STRESSED');
+
 -- View để lấy trạng thái hiện tại của mỗi batch (optional - dùng trong query)
 -- CREATE VIEW tree_batches_current_status AS
 -- SELECT
@@ -322,9 +358,18 @@ CREATE TABLE contracts
     -- Tracking
     notes                    TEXT,
     created_at               TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
-    updated_at               TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+    updated_at               TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+
+    -- Văn bản tìm kiếm không dấu
+    search_text              TEXT GENERATED ALWAYS AS (lower(f_unaccent(contract_code || ' ' ||
+                                                       contract_type))) STORED
 );
 
+CREATE INDEX idx_contracts_search_trgm ON contracts USING GIN (search_text gin_trgm_ops);
+CREATE INDEX idx_contracts_created_id ON contracts(created_at, id);
+-- Quét vòng đời hợp đồng (hết hạn, sắp hết hạn, tự gia hạn) theo end_date
+CREATE INDEX idx_contracts_active_end_date ON contracts(end_date, id) WHERE contract_status = 'ACTIVE';
+
 CREATE TABLE contract_renewals
 (
     id                   INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
@@ -346,7 +391,20 @@ CREATE TABLE contract_renewals
     approved_by          UUID REFERENCES users (id),
     approved_at          TIMESTAMPTZ,
     notes                TEXT,
-    created_at           TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+    idempotency_key      VARCHAR(80) UNIQUE,            -- AUTO:<contract_id>:<renewal_number> (gia hạn tự động)
+    created_at           TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+
+    UNIQUE (original_contract_id, renewal_number)
+);
+
+-- Cảnh báo sắp hết hạn đã gửi: mỗi hợp đồng một lần cho mỗi ngưỡng và end_date
+CREATE TABLE contract_expiry_warnings
+(
+    contract_id    INTEGER     NOT NULL REFERENCES contracts (id) ON DELETE CASCADE,
+    threshold_days INTEGER     NOT NULL,
+    end_date       DATE        NOT NULL,
+    sent_at        TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (contract_id, threshold_days, end_date)
 );
 
 CREATE TABLE contract_transfers
@@ -415,6 +473,8 @@ CREATE TABLE carbon_credits
     )
 );
 
+CREATE INDEX idx_carbon_credits_created_id ON carbon_credits(created_at, id);
+
 CREATE TABLE credit_allocations
 (
     id                    INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
@@ -519,6 +579,8 @@ CREATE TABLE payments
         )
 );
 
+CREATE INDEX idx_payments_payer_created_id ON payments(payer_id, created_at, id);
+
 -- =============================================
 -- NOTIFICATIONS (Real-time với WebSocket)
 -- =============================================
@@ -552,7 +614,10 @@ CREATE TABLE notifications
 );
 
 CREATE INDEX idx_notifications_user_unread ON notifications(user_id, is_read) WHERE is_read = FALSE;
-CREATE INDEX idx_notifications_user_created ON notifications(user_id, created_at DESC);
+CREATE INDEX idx_notifications_user_created ON notifications(user_id, created_at DESC, id DESC);
+-- Chống gửi lặp cảnh báo cho cùng một đối tượng trong khoảng cooldown
+CREATE INDEX idx_notifications_reference ON notifications(reference_type, reference_id, created_at)
+    WHERE reference_id IS NOT NULL;
 
 -- =============================================
 -- AI CHATBOT
@@ -629,3 +694,96 @@ CREATE TABLE faqs
 CREATE INDEX idx_faqs_category ON faqs(category) WHERE is_active = TRUE;
 CREATE INDEX idx_faqs_keywords ON faqs USING GIN(keywords) WHERE is_active = TRUE;
 
+
+-- Cache dữ liệu môi trường theo ô lưới toạ độ (weather / climate / soil)
+CREATE TABLE spatial_tile_cache
+(
+    cache_key       VARCHAR(160) PRIMARY KEY,     -- type:resolution:latIndex:lonIndex[:qualifier]
+    data_type       VARCHAR(30) NOT NULL,         -- WEATHER_DAILY, CLIMATE, SOIL
+    payload         TEXT NOT NULL,                -- JSON
+    fetched_at      TIMESTAMPTZ NOT NULL,
+    expires_at      TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX idx_spatial_tile_cache_expires ON spatial_tile_cache(expires_at);
+
+-- Cache geocoding: "F:<địa chỉ chuẩn hoá>" → toạ độ, "R:<lat>,<lon>" → địa chỉ
+CREATE TABLE geocoding_cache
+(
+    cache_key         VARCHAR(512) PRIMARY KEY,
+    latitude          NUMERIC(10, 8),
+    longitude         NUMERIC(11, 8),
+    formatted_address TEXT,
+    provider          VARCHAR(30) NOT NULL,       -- nominatim, google-maps
+    resolved_at       TIMESTAMPTZ NOT NULL,
+    expires_at        TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX idx_geocoding_cache_expires ON geocoding_cache(expires_at);
+
+-- Vị trí đã xử lý tới của các job quét tăng dần (vd. health-alert: id tree_growth_records)
+CREATE TABLE scan_watermarks
+(
+    scan_name  VARCHAR(60) PRIMARY KEY,
+    last_id    BIGINT      NOT NULL DEFAULT 0,
+    -- Thời điểm bắt đầu lần quét hoàn tất gần nhất
+    updated_at TIMESTAMPTZ NOT NULL
+);
+
+-- Thống kê chạy của phát hiện bất thường sinh trưởng: "B:<batch_id>" / "S:<tree_species_id>"
+-- state: Welford (n, mean, m2) + EWMA cho từng metric, bố cục theo GrowthAnomalyDetector
+CREATE TABLE growth_anomaly_states
+(
+    state_key  VARCHAR(40) PRIMARY KEY,
+    state      DOUBLE PRECISION[] NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL
+);
+
+-- Bất thường phát hiện trên bản ghi sinh trưởng; chưa xử lý thì chặn xác minh tín chỉ của lô
+CREATE TABLE growth_anomalies
+(
+    id           BIGSERIAL PRIMARY KEY,
+    record_id    INTEGER NOT NULL REFERENCES tree_growth_records (id) ON DELETE CASCADE,
+    batch_id     INTEGER NOT NULL REFERENCES tree_batches (id) ON DELETE CASCADE,
+    metric       VARCHAR(30) NOT NULL,        -- HEIGHT, TRUNK_DIAMETER, CANOPY_DIAMETER, MORTALITY
+    anomaly_kind VARCHAR(20) NOT NULL,        -- OUTLIER, STAGNATION, DIE_OFF
+    observed     DOUBLE PRECISION NOT NULL,   -- tốc độ theo ngày
+    expected     DOUBLE PRECISION,
+    z_score      DOUBLE PRECISION,
+    detected_at  TIMESTAMPTZ DEFAULT NOW(),
+    resolved_at  TIMESTAMPTZ,
+    resolved_by  UUID REFERENCES users (id)
+);
+
+CREATE INDEX idx_growth_anomalies_batch ON growth_anomalies (batch_id, resolved_at);
+
+-- Lease của job định kỳ trong cụm (ClusterJobRunner): node giữ lease mới được chạy job/partition
+-- job_name của job partition có dạng "<job>#<partition>"
+CREATE TABLE job_leases
+(
+    job_name    VARCHAR(100) PRIMARY KEY,
+    owner       VARCHAR(120) NOT NULL,
+    lease_until TIMESTAMPTZ  NOT NULL,
+    acquired_at TIMESTAMPTZ  NOT NULL
+);
+
+-- Lịch sử chạy job định kỳ; RUNNING còn lại sau khi node dừng nghĩa là node chết giữa chừng.
+-- scheduled_at là mốc cron của lần kích hoạt (null với job fixedDelay): partition đã SUCCEEDED
+-- cho mốc đó thì node khác không chạy lại
+CREATE TABLE job_runs
+(
+    id             BIGSERIAL PRIMARY KEY,
+    job_name       VARCHAR(100) NOT NULL,
+    partition_no   INTEGER,
+    scheduled_at   TIMESTAMPTZ,
+    node_id        VARCHAR(120) NOT NULL,
+    status         VARCHAR(20)  NOT NULL, -- RUNNING, SUCCEEDED, FAILED
+    started_at     TIMESTAMPTZ  NOT NULL,
+    finished_at    TIMESTAMPTZ,
+    duration_ms    BIGINT,
+    rows_processed INTEGER,
+    error_message  TEXT
+);
+
+CREATE INDEX idx_job_runs_job_started ON job_runs (job_name, started_at);
+CREATE INDEX idx_job_runs_job_scheduled ON job_runs (job_name, scheduled_at);
@@ -0,0 +1,75 @@
+-- Benchmark tìm kiếm: LOWER(col) LIKE '%kw%' (cũ) so với search_text + GIN trigram (mới) trên 1 triệu dự án.
+-- Chạy trên database đã tạo bằng database.sql (cần unaccent, pg_trgm, f_unaccent):
+--   psql -d <db> -f search-benchmark.sql
+-- Dữ liệu nằm trong schema riêng search_bench, xoá ở cuối script.
+
+\timing on
+
+DROP SCHEMA IF EXISTS search_bench CASCADE;
+CREATE SCHEMA search_bench;
+
+CREATE TABLE search_bench.projects
+(
+    LIKE public.projects INCLUDING DEFAULTS INCLUDING GENERATED INCLUDING IDENTITY
+);
+
+-- Tên/mô tả ghép ngẫu nhiên từ địa danh, loài cây, mô tả tiếng Việt có dấu
+INSERT INTO search_bench.projects (code, name, description)
+SELECT 'PRJ-' || lpad(g::text, 7, '0'),
+       'Dự án ' || (ARRAY ['rừng ngập mặn', 'keo lai', 'thông ba lá', 'tràm', 'bạch đàn', 'lim xanh', 'sao đen',
+                           'dầu rái', 'mắm trắng', 'đước'])[1 + g % 10]
+           || ' ' || (ARRAY ['Đà Lạt', 'Cà Mau', 'Đắk Lắk', 'Gia Lai', 'Kon Tum', 'Lâm Đồng', 'Bến Tre',
+                             'Quảng Trị', 'Nghệ An', 'Sơn La', 'Hà Giang', 'Yên Bái', 'Trà Vinh'])[1 + (g / 10) % 13]
+           || ' ' || g,
+       'Trồng ' || (ARRAY ['mới', 'bổ sung', 'phục hồi', 'làm giàu'])[1 + g % 4]
+           || ' rừng trên đất ' || (ARRAY ['đồi trọc', 'ven biển', 'bãi bồi', 'nương rẫy cũ'])[1 + (g / 7) % 4]
+           || ', diện tích ' || (g % 500 + 10) || ' ha, hấp thụ khoảng ' || (g % 9000 + 100) || ' tấn CO2'
+FROM generate_series(1, 1000000) AS g;
+
+-- Truy vấn cũ không có index nào dùng được (LIKE '%...%' trên LOWER(col)); chỉ cần index trigram cho search_text
+CREATE INDEX ON search_bench.projects USING GIN (search_text gin_trgm_ops);
+VACUUM ANALYZE search_bench.projects;
+
+-- 1. Truy vấn cũ (ProjectRepository.searchByKeyword trước đây): seq scan toàn bảng
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT *
+FROM search_bench.projects p
+WHERE LOWER(p.name) LIKE LOWER('%' || 'Đà Lạt 13005' || '%')
+   OR LOWER(p.description) LIKE LOWER('%' || 'Đà Lạt 13005' || '%')
+ORDER BY created_at DESC
+LIMIT 20;
+
+-- 1b. Truy vấn cũ với input không dấu: không trả về dòng nào
+SELECT count(*) AS legacy_unaccented_hits
+FROM search_bench.projects p
+WHERE LOWER(p.name) LIKE '%da lat 13005%'
+   OR LOWER(p.description) LIKE '%da lat 13005%';
+
+-- 2. Truy vấn mới (legacy endpoint sau khi đổi): bitmap scan trên index trigram, khớp cả có dấu/không dấu
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT *
+FROM search_bench.projects p
+WHERE p.search_text LIKE '%da lat 13005%'
+ORDER BY created_at DESC
+LIMIT 20;
+
+-- 3. /api/search: chuỗi con hoặc gần đúng (word similarity), xếp theo điểm, keyset LIMIT
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT 'PROJECT' AS type, p.id::text AS id, p.name AS title,
+       round((word_similarity('da lat 13005', p.search_text)
+           + CASE WHEN lower(f_unaccent(p.name)) LIKE 'da lat 13005%' THEN 0.5 ELSE 0 END)::numeric, 4) AS score
+FROM search_bench.projects p
+WHERE p.search_text LIKE '%da lat 13005%'
+   OR 'da lat 13005' <% p.search_text
+ORDER BY score DESC, type DESC, id DESC
+LIMIT 21;
+
+-- 4. Từ khoá phổ biến (nhiều dòng khớp): trường hợp xấu nhất của trigram vì phải xếp hạng mọi dòng khớp
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.id, p.name
+FROM search_bench.projects p
+WHERE p.search_text LIKE '%keo lai%'
+ORDER BY created_at DESC
+LIMIT 20;
+
+DROP SCHEMA search_bench CASCADE;
@@ -0,0 +1,269 @@
+package com.capston.project.back.end.cache;
+
+import com.capston.project.back.end.common.MessageRole;
+import com.capston.project.back.end.entity.ChatMessage;
+import com.capston.project.back.end.entity.ChatSession;
+import com.capston.project.back.end.repository.ChatMessageRepository;
+import com.capston.project.back.end.repository.ChatSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Ngữ cảnh hội thoại chatbot theo user: các lượt gần nhất nằm trong bộ nhớ và
+ * được nối thêm sau mỗi câu trả lời nên không phải query lại lịch sử. Lịch sử
+ * cắt theo ngân sách token ước lượng; lượt cũ bị đẩy ra được rút gọn vào bản
+ * tóm tắt (lưu ở chat_sessions.context_summary). LRU, xoá entry khi idle.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatContextCache {
+
+	// Tiếng Việt có dấu trung bình ~3 ký tự/token, mỗi message thêm ~4 token overhead
+	private static final double CHARS_PER_TOKEN = 3.0;
+	private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+	private static final int SUMMARY_USER_CHARS = 200;
+	private static final int SUMMARY_ASSISTANT_CHARS = 120;
+	private static final String SUMMARY_HEADER = "Tóm tắt các lượt trao đổi trước đó:\n";
+
+	private final ChatSessionRepository sessionRepository;
+	private final ChatMessageRepository messageRepository;
+
+	@Value("${chatbot.context.max-sessions:2000}")
+	private int maxSessions;
+
+	@Value("${chatbot.context.idle-ttl:PT30M}")
+	private Duration idleTtl;
+
+	@Value("${chatbot.context.history-token-budget:1500}")
+	private int historyTokenBudget;
+
+	@Value("${chatbot.context.summary-token-budget:400}")
+	private int summaryTokenBudget;
+
+	@Value("${chatbot.context.warmup-messages:40}")
+	private int warmupMessages;
+
+	private final LinkedHashMap<UUID, Conversation> conversations = new LinkedHashMap<>(128, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<UUID, Conversation> eldest) {
+			return size() > maxSessions;
+		}
+	};
+
+	/**
+	 * Ngữ cảnh của user; chưa có trong bộ nhớ thì lấy session từ loader và nạp
+	 * lịch sử gần nhất một lần
+	 */
+	public Conversation getOrLoad(UUID userId, Supplier<ChatSession> sessionLoader) {
+		synchronized (conversations) {
+			Conversation cached = conversations.get(userId);
+			if (cached != null) {
+				cached.touch();
+				return cached;
+			}
+		}
+
+		Conversation loaded = load(sessionLoader.get());
+		synchronized (conversations) {
+			// Request song song của cùng user có thể đã nạp trước
+			Conversation existing = conversations.get(userId);
+			if (existing != null && existing.sessionId.equals(loaded.sessionId)) {
+				return existing;
+			}
+			conversations.put(userId, loaded);
+		}
+		return loaded;
+	}
+
+	/**
+	 * Nối một lượt hỏi/đáp vào ngữ cảnh; bản tóm tắt thay đổi thì lưu xuống session
+	 */
+	public void record(Conversation conversation, String userMessage, String assistantReply) {
+		String summary = conversation.append(userMessage, assistantReply);
+		if (summary == null) {
+			return;
+		}
+		try {
+			sessionRepository.updateContextSummary(conversation.sessionId, summary);
+		} catch (RuntimeException e) {
+			log.warn("Failed to persist context summary for chat session {}: {}", conversation.sessionId,
+					e.getMessage());
+		}
+	}
+
+	public void evict(UUID userId) {
+		synchronized (conversations) {
+			conversations.remove(userId);
+		}
+	}
+
+	/**
+	 * Bỏ ngữ cảnh không dùng quá idle-ttl; lần sau nạp lại từ DB
+	 */
+	@Scheduled(fixedDelayString = "${chatbot.context.eviction-interval-ms:60000}")
+	public void evictIdle() {
+		long cutoff = System.currentTimeMillis() - idleTtl.toMillis();
+		int removed = 0;
+		synchronized (conversations) {
+			var iterator = conversations.values().iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().lastAccess < cutoff) {
+					iterator.remove();
+					removed++;
+				}
+			}
+		}
+		if (removed > 0) {
+			log.debug("Evicted {} idle chat contexts", removed);
+		}
+	}
+
+	/**
+	 * Ước lượng số token của một message (không cần tokenizer của model)
+	 */
+	public static int estimateTokens(String text) {
+		int codePoints = text.codePointCount(0, text.length());
+		return (int) Math.ceil(codePoints / CHARS_PER_TOKEN) + MESSAGE_OVERHEAD_TOKENS;
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private Conversation load(ChatSession session) {
+		Conversation conversation = new Conversation(session.getId());
+
+		// Lượt cũ hơn ngân sách đã nằm trong bản tóm tắt đã lưu (hoặc bị bỏ), không rút gọn lại lần nữa
+		List<ChatMessage> recent = messageRepository
+				.findBySessionIdOrderByCreatedAtDesc(session.getId(), PageRequest.of(0, warmupMessages));
+		for (ChatMessage message : recent) {
+			Turn turn = new Turn(message.getRole() == MessageRole.USER ? "user" : "assistant", message.getContent());
+			if (conversation.historyTokens + turn.tokens() > historyTokenBudget) {
+				break;
+			}
+			conversation.turns.addFirst(turn);
+			conversation.historyTokens += turn.tokens();
+		}
+
+		if (session.getContextSummary() != null && !session.getContextSummary().isBlank()) {
+			for (String line : session.getContextSummary().split("\n")) {
+				conversation.addSummaryLine(line);
+			}
+		}
+		log.debug("Loaded chat context for session {}: {} turns", session.getId(), conversation.turns.size());
+		return conversation;
+	}
+
+	private static String abbreviate(String content, int maxChars) {
+		String flat = content.replaceAll("\\s+", " ").trim();
+		return flat.length() > maxChars ? flat.substring(0, maxChars) + "…" : flat;
+	}
+
+	/**
+	 * Ngữ cảnh một session; mọi thay đổi synchronized trên chính object
+	 */
+	public final class Conversation {
+
+		private final Integer sessionId;
+		private final Deque<Turn> turns = new ArrayDeque<>();
+		private final Deque<String> summaryLines = new ArrayDeque<>();
+		private int historyTokens;
+		private int summaryTokens;
+		private volatile long lastAccess = System.currentTimeMillis();
+
+		private Conversation(Integer sessionId) {
+			this.sessionId = sessionId;
+		}
+
+		public Integer getSessionId() {
+			return sessionId;
+		}
+
+		/**
+		 * Chưa có lượt nào (kể cả trong bản tóm tắt): câu hỏi tiếp theo không phụ thuộc ngữ cảnh
+		 */
+		public synchronized boolean isEmpty() {
+			return turns.isEmpty() && summaryLines.isEmpty();
+		}
+
+		/**
+		 * Messages gửi cho model: system prompt, bản tóm tắt, các lượt gần nhất, dữ liệu
+		 * tham chiếu cho câu hỏi này (nếu có), tin nhắn mới
+		 */
+		public synchronized List<Map<String, String>> prompt(String systemPrompt, String groundingFacts,
+		                                                     String userMessage) {
+			touch();
+			List<Map<String, String>> messages = new ArrayList<>(turns.size() + 4);
+			messages.add(Map.of("role", "system", "content", systemPrompt));
+			if (!summaryLines.isEmpty()) {
+				messages.add(Map.of("role", "system", "content", SUMMARY_HEADER + String.join("\n", summaryLines)));
+			}
+			for (Turn turn : turns) {
+				messages.add(Map.of("role", turn.role(), "content", turn.content()));
+			}
+			if (groundingFacts != null) {
+				messages.add(Map.of("role", "system", "content", groundingFacts));
+			}
+			messages.add(Map.of("role", "user", "content", userMessage));
+			return messages;
+		}
+
+		// Trả về bản tóm tắt mới nếu có lượt bị rút gọn, ngược lại null
+		private synchronized String append(String userMessage, String assistantReply) {
+			touch();
+			addTurn(new Turn("user", userMessage));
+			if (assistantReply != null && !assistantReply.isEmpty()) {
+				addTurn(new Turn("assistant", assistantReply));
+			}
+
+			boolean folded = false;
+			// Luôn giữ nguyên lượt hỏi/đáp vừa xong
+			while (historyTokens > historyTokenBudget && turns.size() > 2) {
+				Turn oldest = turns.removeFirst();
+				historyTokens -= oldest.tokens();
+				addSummaryLine("user".equals(oldest.role())
+						? "Người dùng: " + abbreviate(oldest.content(), SUMMARY_USER_CHARS)
+						: "Trợ lý: " + abbreviate(oldest.content(), SUMMARY_ASSISTANT_CHARS));
+				folded = true;
+			}
+			return folded ? String.join("\n", summaryLines) : null;
+		}
+
+		private void addTurn(Turn turn) {
+			turns.addLast(turn);
+			historyTokens += turn.tokens();
+		}
+
+		private void addSummaryLine(String line) {
+			summaryLines.addLast(line);
+			summaryTokens += estimateTokens(line);
+			while (summaryTokens > summaryTokenBudget && summaryLines.size() > 1) {
+				summaryTokens -= estimateTokens(summaryLines.removeFirst());
+			}
+		}
+
+		private void touch() {
+			lastAccess = System.currentTimeMillis();
+		}
+	}
+
+	private record Turn(String role, String content, int tokens) {
+
+		private Turn(String role, String content) {
+			this(role, content, estimateTokens(content));
+		}
+	}
+}
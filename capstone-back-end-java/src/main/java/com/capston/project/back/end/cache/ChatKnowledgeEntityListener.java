@@ -0,0 +1,31 @@
+package com.capston.project.back.end.cache;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener gắn vào Project, TreeSpecies và CarbonCredit để cập nhật
+ * {@link ChatKnowledgeIndex}. Index phụ thuộc repository nên lấy lười qua
+ * ObjectProvider, tránh vòng phụ thuộc với EntityManagerFactory.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatKnowledgeEntityListener {
+
+	private final ObjectProvider<ChatKnowledgeIndex> knowledgeIndex;
+
+	@PostPersist
+	@PostUpdate
+	public void onSaved(Object entity) {
+		knowledgeIndex.ifAvailable(index -> index.onSaved(entity));
+	}
+
+	@PostRemove
+	public void onRemoved(Object entity) {
+		knowledgeIndex.ifAvailable(index -> index.onRemoved(entity));
+	}
+}
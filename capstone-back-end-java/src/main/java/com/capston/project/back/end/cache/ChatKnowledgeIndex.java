@@ -0,0 +1,325 @@
+package com.capston.project.back.end.cache;
+
+import com.capston.project.back.end.common.CreditStatus;
+import com.capston.project.back.end.entity.CarbonCredit;
+import com.capston.project.back.end.entity.Project;
+import com.capston.project.back.end.entity.TreeSpecies;
+import com.capston.project.back.end.repository.CarbonCreditRepository;
+import com.capston.project.back.end.repository.ProjectRepository;
+import com.capston.project.back.end.repository.TreeSpeciesRepository;
+import com.capston.project.back.end.util.TextSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Dữ liệu nền tảng cho chatbot: index toàn văn trong bộ nhớ trên dự án, loài
+ * cây và tín chỉ còn bán. Mỗi câu hỏi lấy top-k entity liên quan và trả về
+ * các dòng fact ngắn để đưa vào prompt. Entity thay đổi được cập nhật sau
+ * commit qua {@link ChatKnowledgeEntityListener}; định kỳ dựng lại toàn bộ.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatKnowledgeIndex {
+
+	private static final int DESCRIPTION_CHARS = 160;
+	private static final int LOAD_PAGE_SIZE = 1000;
+	private static final String FACTS_HEADER =
+			"Dữ liệu hiện tại trên nền tảng (chỉ dùng khi liên quan đến câu hỏi, không bịa thêm số liệu):\n";
+
+	private final ProjectRepository projectRepository;
+	private final TreeSpeciesRepository treeSpeciesRepository;
+	private final CarbonCreditRepository carbonCreditRepository;
+
+	@Value("${chatbot.knowledge.top-k:5}")
+	private int topK;
+
+	@Value("${chatbot.knowledge.min-score:2.0}")
+	private float minScore;
+
+	private volatile Snapshot current = new Snapshot();
+
+	// Thay đổi áp dụng trong lúc rebuild được ghi lại để áp dụng lên index mới trước khi đổi
+	private final Object writeLock = new Object();
+	private List<Consumer<Snapshot>> pendingDuringRebuild;
+
+	/**
+	 * Entity tham chiếu trong câu trả lời
+	 */
+	public record Fact(String key, Integer id, String name, String text) {}
+
+	/**
+	 * Kết quả truy xuất cho một câu hỏi
+	 */
+	public record Retrieval(List<String> facts, List<Map<String, Object>> referencedProjects,
+	                        List<Map<String, Object>> referencedCredits) {
+
+		public static final Retrieval EMPTY = new Retrieval(List.of(), List.of(), List.of());
+
+		public boolean isEmpty() {
+			return facts.isEmpty();
+		}
+
+		/**
+		 * Khối system message đưa vào prompt, null nếu không có fact
+		 */
+		public String promptBlock() {
+			return facts.isEmpty() ? null : FACTS_HEADER + "- " + String.join("\n- ", facts);
+		}
+	}
+
+	public Retrieval retrieve(String question) {
+		Snapshot snapshot = current;
+		List<TextSearchIndex.Hit<String>> hits = snapshot.index.search(question, topK, minScore);
+		if (hits.isEmpty()) {
+			return Retrieval.EMPTY;
+		}
+
+		List<String> facts = new ArrayList<>();
+		List<Map<String, Object>> projects = new ArrayList<>();
+		List<Map<String, Object>> credits = new ArrayList<>();
+		for (TextSearchIndex.Hit<String> hit : hits) {
+			Fact fact = snapshot.facts.get(hit.key());
+			if (fact == null) {
+				continue;
+			}
+			facts.add(fact.text());
+			if (fact.key().startsWith("P:")) {
+				projects.add(reference(fact, "name", hit.score()));
+			} else if (fact.key().startsWith("C:")) {
+				credits.add(reference(fact, "creditCode", hit.score()));
+			}
+		}
+		return new Retrieval(facts, projects, credits);
+	}
+
+	public int size() {
+		return current.index.size();
+	}
+
+	// ==================== INCREMENTAL UPDATES ====================
+
+	/**
+	 * Entity được thêm/sửa: đọc giá trị ngay, cập nhật index sau khi transaction commit
+	 */
+	public void onSaved(Object entity) {
+		if (entity instanceof Project project) {
+			Fact fact = describe(project);
+			applyAfterCommit(snapshot -> snapshot.putProject(project.getId(), fact));
+		} else if (entity instanceof TreeSpecies species) {
+			String key = "S:" + species.getId();
+			applyAfterCommit(species.getDeletedAt() == null ? describe(species) : snapshot -> snapshot.remove(key));
+		} else if (entity instanceof CarbonCredit credit) {
+			String key = "C:" + credit.getId();
+			applyAfterCommit(isAvailable(credit) ? describe(credit) : snapshot -> snapshot.remove(key));
+		}
+	}
+
+	public void onRemoved(Object entity) {
+		String key = null;
+		if (entity instanceof Project project) {
+			key = "P:" + project.getId();
+		} else if (entity instanceof TreeSpecies species) {
+			key = "S:" + species.getId();
+		} else if (entity instanceof CarbonCredit credit) {
+			key = "C:" + credit.getId();
+		}
+		if (key != null) {
+			String removedKey = key;
+			applyAfterCommit(snapshot -> snapshot.remove(removedKey));
+		}
+	}
+
+	/**
+	 * Dựng lại toàn bộ index từ DB (khi khởi động và định kỳ) để dọn document đã xoá
+	 * và bắt các thay đổi không đi qua entity (bulk update)
+	 */
+	@Scheduled(fixedDelayString = "${chatbot.knowledge.rebuild-interval-ms:1800000}")
+	public void rebuild() {
+		synchronized (writeLock) {
+			pendingDuringRebuild = new ArrayList<>();
+		}
+		try {
+			long startedAt = System.currentTimeMillis();
+			Snapshot fresh = load();
+			synchronized (writeLock) {
+				pendingDuringRebuild.forEach(change -> change.accept(fresh));
+				current = fresh;
+			}
+			log.info("Chatbot knowledge index rebuilt: {} entities in {} ms", fresh.index.size(),
+					System.currentTimeMillis() - startedAt);
+		} catch (RuntimeException e) {
+			log.warn("Chatbot knowledge index rebuild failed: {}", e.getMessage());
+		} finally {
+			synchronized (writeLock) {
+				pendingDuringRebuild = null;
+			}
+		}
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private Snapshot load() {
+		Snapshot snapshot = new Snapshot();
+		for (Project project : projectRepository.findAll()) {
+			snapshot.putProject(project.getId(), describe(project));
+		}
+		for (TreeSpecies species : treeSpeciesRepository.findAllActive()) {
+			describe(species).accept(snapshot);
+		}
+		Page<CarbonCredit> page;
+		int pageNumber = 0;
+		do {
+			page = carbonCreditRepository.findAvailableCredits(PageRequest.of(pageNumber++, LOAD_PAGE_SIZE));
+			for (CarbonCredit credit : page) {
+				if (isAvailable(credit)) {
+					describe(credit).accept(snapshot);
+				}
+			}
+		} while (page.hasNext());
+		return snapshot;
+	}
+
+	private void applyAfterCommit(Consumer<Snapshot> change) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					apply(change);
+				}
+			});
+		} else {
+			apply(change);
+		}
+	}
+
+	private void apply(Consumer<Snapshot> change) {
+		synchronized (writeLock) {
+			change.accept(current);
+			if (pendingDuringRebuild != null) {
+				pendingDuringRebuild.add(change);
+			}
+		}
+	}
+
+	private static Fact describe(Project project) {
+		StringBuilder text = new StringBuilder("Dự án ").append(project.getName())
+				.append(" (mã ").append(project.getCode());
+		if (project.getProjectStatus() != null) {
+			text.append(", trạng thái ").append(project.getProjectStatus());
+		}
+		text.append("): mục tiêu ").append(plain(project.getTargetCo2Kg())).append(" kg CO2, đã hấp thụ ")
+				.append(plain(project.getActualCo2Kg())).append(" kg CO2");
+		appendDescription(text, project.getDescription());
+		return new Fact("P:" + project.getId(), project.getId(), project.getName(), text.toString());
+	}
+
+	private static Consumer<Snapshot> describe(TreeSpecies species) {
+		StringBuilder text = new StringBuilder("Loài cây ").append(species.getName());
+		if (species.getScientificName() != null) {
+			text.append(" (").append(species.getScientificName()).append(")");
+		}
+		text.append(": hấp thụ ").append(plain(species.getBaseCarbonRate())).append(" kg CO2/cây/năm");
+		appendDescription(text, species.getDescription());
+		Fact fact = new Fact("S:" + species.getId(), species.getId(), species.getName(), text.toString());
+		String title = "Loài cây " + species.getName();
+		String body = Objects.toString(species.getScientificName(), "") + " "
+				+ Objects.toString(species.getDescription(), "");
+		return snapshot -> snapshot.put(fact, title, body);
+	}
+
+	// Tên dự án lấy từ index lúc áp dụng để không phải load quan hệ lazy
+	private static Consumer<Snapshot> describe(CarbonCredit credit) {
+		Integer id = credit.getId();
+		String creditCode = credit.getCreditCode();
+		Integer projectId = credit.getProjectId();
+		StringBuilder details = new StringBuilder();
+		details.append(", năm ").append(credit.getIssuanceYear())
+				.append(": còn ").append(credit.getCreditsAvailable()).append("/").append(credit.getCreditsIssued())
+				.append(" tín chỉ, giá ").append(plain(credit.getCurrentPricePerCredit() != null
+						? credit.getCurrentPricePerCredit() : credit.getBasePricePerCredit()))
+				.append(" VND/tín chỉ");
+		if (credit.getVerificationStandard() != null) {
+			details.append(", chuẩn ").append(credit.getVerificationStandard());
+		}
+		String body = "còn bán " + Objects.toString(credit.getVerificationStandard(), "") + " "
+				+ credit.getIssuanceYear();
+		return snapshot -> {
+			String projectName = snapshot.projectNames.getOrDefault(projectId, "");
+			Fact fact = new Fact("C:" + id, id, creditCode, "Tín chỉ carbon " + creditCode
+					+ (projectName.isEmpty() ? "" : " của dự án " + projectName) + details);
+			snapshot.put(fact, "Tín chỉ carbon " + creditCode + " " + projectName, body);
+		};
+	}
+
+	private static boolean isAvailable(CarbonCredit credit) {
+		return (credit.getCreditStatus() == CreditStatus.AVAILABLE
+				|| credit.getCreditStatus() == CreditStatus.PARTIALLY_SOLD)
+				&& credit.getCreditsAvailable() != null && credit.getCreditsAvailable() > 0
+				&& (credit.getExpiresAt() == null || credit.getExpiresAt().isAfter(OffsetDateTime.now()));
+	}
+
+	private static void appendDescription(StringBuilder text, String description) {
+		if (description == null || description.isBlank()) {
+			return;
+		}
+		String flat = description.replaceAll("\\s+", " ").trim();
+		text.append(". ").append(flat.length() > DESCRIPTION_CHARS ? flat.substring(0, DESCRIPTION_CHARS) + "…" : flat);
+	}
+
+	private static String plain(BigDecimal value) {
+		return value != null ? value.stripTrailingZeros().toPlainString() : "0";
+	}
+
+	private static Map<String, Object> reference(Fact fact, String nameField, float score) {
+		Map<String, Object> reference = new LinkedHashMap<>();
+		reference.put("id", fact.id());
+		reference.put(nameField, fact.name());
+		reference.put("score", Math.round(score * 100) / 100.0);
+		return reference;
+	}
+
+	/**
+	 * Index và fact đi kèm; được thay nguyên khối khi rebuild
+	 */
+	private static final class Snapshot {
+
+		private final TextSearchIndex<String> index = new TextSearchIndex<>();
+		private final Map<String, Fact> facts = new ConcurrentHashMap<>();
+		private final Map<Integer, String> projectNames = new ConcurrentHashMap<>();
+
+		void putProject(Integer id, Fact fact) {
+			if (fact.name() != null) {
+				projectNames.put(id, fact.name());
+			}
+			put(fact, fact.name(), fact.text());
+		}
+
+		void put(Fact fact, String title, String body) {
+			facts.put(fact.key(), fact);
+			index.put(fact.key(), title, body);
+		}
+
+		void remove(String key) {
+			index.remove(key);
+			facts.remove(key);
+		}
+	}
+}
@@ -0,0 +1,283 @@
+package com.capston.project.back.end.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache câu trả lời chatbot cho các câu hỏi lặp lại. Tầng 1: khớp chính xác
+ * theo câu hỏi đã chuẩn hoá + hash system prompt. Tầng 2: so khớp gần đúng bằng
+ * cosine giữa vector trigram ký tự, chỉ nhận khi vượt ngưỡng. Tầng 2 tra index
+ * trigram → entry và chỉ tính cosine cho các entry có nhiều trigram chung nhất,
+ * ngoài lock. TTL + LRU.
+ */
+@Component
+@Slf4j
+public class ChatResponseCache {
+
+	private static final int NGRAM_SIZE = 3;
+
+	@Value("${chatbot.response-cache.enabled:true}")
+	private boolean enabled;
+
+	@Value("${chatbot.response-cache.max-entries:1000}")
+	private int maxEntries;
+
+	@Value("${chatbot.response-cache.ttl:PT24H}")
+	private Duration ttl;
+
+	@Value("${chatbot.response-cache.similarity-threshold:0.85}")
+	private double similarityThreshold;
+
+	// Câu quá ngắn ("ok", "cảm ơn") dễ khớp nhầm nên chỉ dùng tầng khớp chính xác
+	@Value("${chatbot.response-cache.min-similarity-length:12}")
+	private int minSimilarityLength;
+
+	// Số entry tối đa được tính cosine cho một lần tra
+	@Value("${chatbot.response-cache.max-similarity-candidates:50}")
+	private int maxSimilarityCandidates;
+
+	// LRU theo thứ tự truy cập, mọi thao tác phải synchronized trên chính map
+	private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(128, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			if (size() <= maxEntries) {
+				return false;
+			}
+			unindex(eldest.getValue());
+			return true;
+		}
+	};
+
+	// Trigram → các entry chứa trigram đó; cập nhật cùng memory, dưới lock của memory
+	private final Map<String, Set<Entry>> entriesByGram = new HashMap<>();
+
+	private final AtomicLong exactHits = new AtomicLong();
+	private final AtomicLong similarHits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong stores = new AtomicLong();
+
+	// System prompt gần nhất và hash của nó (prompt gần như không đổi giữa các request)
+	private volatile PromptHash lastPromptHash;
+
+	/**
+	 * Câu trả lời đã cache cho câu hỏi (khớp chính xác hoặc đủ giống)
+	 */
+	public Optional<String> lookup(String systemPrompt, String question) {
+		if (!enabled) {
+			return Optional.empty();
+		}
+		String promptHash = promptHash(systemPrompt);
+		String normalized = normalizeQuestion(question);
+		String key = promptHash + ":" + normalized;
+		boolean similarity = normalized.length() >= minSimilarityLength;
+		Map<String, Double> vector = similarity ? vectorize(normalized) : Map.of();
+		long now = System.currentTimeMillis();
+
+		List<Entry> candidates;
+		synchronized (memory) {
+			Entry exact = memory.get(key);
+			if (exact != null) {
+				if (exact.expiresAt() > now) {
+					exactHits.incrementAndGet();
+					return Optional.of(exact.answer());
+				}
+				remove(key);
+			}
+			candidates = similarity ? candidates(vector, promptHash, now) : List.of();
+		}
+
+		// Entry không đổi sau khi tạo nên tính cosine ngoài lock
+		Entry best = null;
+		double bestScore = similarityThreshold;
+		for (Entry entry : candidates) {
+			double score = cosine(vector, entry.vector());
+			if (score >= bestScore) {
+				best = entry;
+				bestScore = score;
+			}
+		}
+		if (best != null) {
+			synchronized (memory) {
+				// Đánh dấu vừa dùng cho LRU
+				memory.get(best.key());
+			}
+			similarHits.incrementAndGet();
+			log.debug("Chatbot response cache similar hit ({}): \"{}\"", bestScore, normalized);
+			return Optional.of(best.answer());
+		}
+		misses.incrementAndGet();
+		return Optional.empty();
+	}
+
+	public void put(String systemPrompt, String question, String answer) {
+		if (!enabled || answer == null || answer.isBlank()) {
+			return;
+		}
+		String promptHash = promptHash(systemPrompt);
+		String normalized = normalizeQuestion(question);
+		if (normalized.isEmpty()) {
+			return;
+		}
+		Entry entry = new Entry(promptHash + ":" + normalized, promptHash, answer, vectorize(normalized),
+				System.currentTimeMillis() + ttl.toMillis());
+		synchronized (memory) {
+			// Index trước khi put: nếu chính entry mới bị đẩy ra thì removeEldestEntry gỡ index
+			index(entry);
+			Entry previous = memory.put(entry.key(), entry);
+			if (previous != null) {
+				unindex(previous);
+			}
+		}
+		stores.incrementAndGet();
+	}
+
+	/**
+	 * Xoá toàn bộ cache, trả về số entry đã xoá
+	 */
+	public int purge() {
+		int purged;
+		synchronized (memory) {
+			purged = memory.size();
+			memory.clear();
+			entriesByGram.clear();
+		}
+		log.info("Chatbot response cache purged: {} entries", purged);
+		return purged;
+	}
+
+	public Map<String, Object> getStats() {
+		long hits = exactHits.get() + similarHits.get();
+		long total = hits + misses.get();
+
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("exactHits", exactHits.get());
+		stats.put("similarHits", similarHits.get());
+		stats.put("misses", misses.get());
+		stats.put("stores", stores.get());
+		stats.put("hitRatio", total > 0 ? (double) hits / total : 0.0);
+		synchronized (memory) {
+			stats.put("memoryEntries", memory.size());
+		}
+		return stats;
+	}
+
+	/**
+	 * Chuẩn hoá câu hỏi: Unicode NFC, chữ thường, bỏ dấu câu, gộp khoảng trắng.
+	 * Giữ nguyên dấu tiếng Việt vì bỏ dấu có thể đổi nghĩa.
+	 */
+	public static String normalizeQuestion(String question) {
+		return Normalizer.normalize(question, Normalizer.Form.NFC)
+				.toLowerCase(Locale.ROOT)
+				.replaceAll("[^\\p{L}\\p{N}]+", " ")
+				.trim();
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	/**
+	 * Các entry còn hạn cùng prompt có nhiều trigram chung nhất với câu hỏi, tối đa
+	 * maxSimilarityCandidates. Entry không chung trigram nào có cosine 0 nên không xét.
+	 * Gọi khi đang giữ lock của memory.
+	 */
+	private List<Entry> candidates(Map<String, Double> vector, String promptHash, long now) {
+		Map<Entry, Integer> shared = new IdentityHashMap<>();
+		for (String gram : vector.keySet()) {
+			for (Entry entry : entriesByGram.getOrDefault(gram, Set.of())) {
+				shared.merge(entry, 1, Integer::sum);
+			}
+		}
+		return shared.entrySet().stream()
+				.filter(candidate -> candidate.getKey().expiresAt() > now
+						&& candidate.getKey().promptHash().equals(promptHash))
+				.sorted(Map.Entry.<Entry, Integer>comparingByValue().reversed())
+				.limit(maxSimilarityCandidates)
+				.map(Map.Entry::getKey)
+				.toList();
+	}
+
+	private void remove(String key) {
+		Entry removed = memory.remove(key);
+		if (removed != null) {
+			unindex(removed);
+		}
+	}
+
+	private void index(Entry entry) {
+		for (String gram : entry.vector().keySet()) {
+			entriesByGram.computeIfAbsent(gram, g -> Collections.newSetFromMap(new IdentityHashMap<>())).add(entry);
+		}
+	}
+
+	private void unindex(Entry entry) {
+		for (String gram : entry.vector().keySet()) {
+			Set<Entry> entries = entriesByGram.get(gram);
+			if (entries != null && entries.remove(entry) && entries.isEmpty()) {
+				entriesByGram.remove(gram);
+			}
+		}
+	}
+
+	// Vector tần suất trigram ký tự, chuẩn hoá độ dài 1
+	private static Map<String, Double> vectorize(String normalized) {
+		String padded = " " + normalized + " ";
+		Map<String, Double> counts = new HashMap<>();
+		for (int i = 0; i + NGRAM_SIZE <= padded.length(); i++) {
+			counts.merge(padded.substring(i, i + NGRAM_SIZE), 1.0, Double::sum);
+		}
+		double norm = Math.sqrt(counts.values().stream().mapToDouble(c -> c * c).sum());
+		if (norm > 0) {
+			counts.replaceAll((gram, count) -> count / norm);
+		}
+		return counts;
+	}
+
+	private static double cosine(Map<String, Double> a, Map<String, Double> b) {
+		Map<String, Double> smaller = a.size() <= b.size() ? a : b;
+		Map<String, Double> larger = smaller == a ? b : a;
+		double dot = 0;
+		for (Map.Entry<String, Double> gram : smaller.entrySet()) {
+			Double other = larger.get(gram.getKey());
+			if (other != null) {
+				dot += gram.getValue() * other;
+			}
+		}
+		return dot;
+	}
+
+	private String promptHash(String systemPrompt) {
+		PromptHash cached = lastPromptHash;
+		if (cached != null && cached.prompt().equals(systemPrompt)) {
+			return cached.hash();
+		}
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(systemPrompt.getBytes(StandardCharsets.UTF_8));
+			String hash = HexFormat.of().formatHex(digest, 0, 8);
+			lastPromptHash = new PromptHash(systemPrompt, hash);
+			return hash;
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}
+
+	private record PromptHash(String prompt, String hash) {}
+
+	private record Entry(String key, String promptHash, String answer, Map<String, Double> vector, long expiresAt) {}
+}
@@ -0,0 +1,335 @@
+package com.capston.project.back.end.cache;
+
+import com.capston.project.back.end.common.FarmStatus;
+import com.capston.project.back.end.common.ProjectStatus;
+import com.capston.project.back.end.event.CreditTransactionCompletedEvent;
+import com.capston.project.back.end.event.PaymentCompletedEvent;
+import com.capston.project.back.end.event.ProjectStatusChangedEvent;
+import com.capston.project.back.end.event.TreeBatchChangedEvent;
+import com.capston.project.back.end.repository.CarbonCreditRepository;
+import com.capston.project.back.end.repository.FarmRepository;
+import com.capston.project.back.end.repository.PaymentRepository;
+import com.capston.project.back.end.repository.ProjectPhaseRepository;
+import com.capston.project.back.end.repository.ProjectRepository;
+import com.capston.project.back.end.repository.TreeBatchRepository;
+import com.capston.project.back.end.repository.projection.ProjectCreditTotalsRow;
+import com.capston.project.back.end.repository.projection.ProjectFarmCountRow;
+import com.capston.project.back.end.repository.projection.ProjectMetricsRow;
+import com.capston.project.back.end.repository.projection.ProjectTreeCountRow;
+import com.capston.project.back.end.response.dashboard.DashboardSummaryResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Snapshot số liệu dashboard trong bộ nhớ. Counter toàn hệ thống và theo từng
+ * dự án được cộng dồn từ domain event sau khi transaction commit, nên đọc
+ * dashboard không chạm DB. Định kỳ reconcile lại bằng vài query GROUP BY để sửa
+ * các thay đổi không phát event (CO2 từ growth record, farm, SQL trực tiếp...).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardMetricsCache {
+
+	private static final BigDecimal THOUSAND = new BigDecimal(1000);
+	private static final BigDecimal HUNDRED = new BigDecimal(100);
+
+	private final ProjectRepository projectRepository;
+	private final ProjectPhaseRepository projectPhaseRepository;
+	private final FarmRepository farmRepository;
+	private final TreeBatchRepository treeBatchRepository;
+	private final CarbonCreditRepository creditRepository;
+	private final PaymentRepository paymentRepository;
+
+	private final Object reconcileLock = new Object();
+	// Phase không đổi project nên map này không cần invalidate
+	private final Map<Integer, Integer> projectIdByPhase = new ConcurrentHashMap<>();
+
+	private volatile Snapshot snapshot;
+
+	public DashboardSummaryResponse getSummary() {
+		Counters global = current().global();
+		return toResponse(global, global.totalProjects.get(), global.activeProjects.get(), global.completedProjects.get());
+	}
+
+	/**
+	 * Số liệu của một dự án; dự án chưa có trong snapshot (vừa tạo) trả về 0
+	 */
+	public DashboardSummaryResponse getProjectSummary(Integer projectId) {
+		Counters counters = current().projects().get(projectId);
+		if (counters == null) {
+			counters = new Counters();
+		}
+		ProjectStatus status = counters.status;
+		return toResponse(counters, 1L,
+				status == ProjectStatus.ACTIVE ? 1L : 0L,
+				status == ProjectStatus.COMPLETED ? 1L : 0L);
+	}
+
+	// ==================== EVENT LISTENERS ====================
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProjectStatusChanged(ProjectStatusChangedEvent event) {
+		Snapshot current = current();
+		Counters global = current.global();
+
+		if (event.oldStatus() == null) {
+			global.totalProjects.incrementAndGet();
+		}
+		if (event.newStatus() == null) {
+			global.totalProjects.decrementAndGet();
+			current.projects().remove(event.projectId());
+		} else {
+			project(current, event.projectId()).status = event.newStatus();
+		}
+		adjustStatusCount(global, event.oldStatus(), -1);
+		adjustStatusCount(global, event.newStatus(), 1);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onTreeBatchChanged(TreeBatchChangedEvent event) {
+		Snapshot current = current();
+		current.global().totalTrees.addAndGet(event.newActiveTrees() - event.oldActiveTrees());
+
+		Integer oldProjectId = projectIdOfPhase(event.oldPhaseId());
+		if (oldProjectId != null) {
+			project(current, oldProjectId).totalTrees.addAndGet(-event.oldActiveTrees());
+		}
+		Integer newProjectId = projectIdOfPhase(event.newPhaseId());
+		if (newProjectId != null) {
+			project(current, newProjectId).totalTrees.addAndGet(event.newActiveTrees());
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCreditTransactionCompleted(CreditTransactionCompletedEvent event) {
+		Snapshot current = current();
+		Counters project = event.projectId() != null ? project(current, event.projectId()) : null;
+		int quantity = event.quantity();
+
+		switch (event.transactionType()) {
+			case PURCHASE -> {
+				current.global().creditsSold.addAndGet(quantity);
+				current.global().creditsAvailable.addAndGet(-quantity);
+				if (project != null) {
+					project.creditsSold.addAndGet(quantity);
+					project.creditsAvailable.addAndGet(-quantity);
+					// Doanh thu toàn hệ thống tính theo payment, doanh thu dự án theo giao dịch bán credit
+					project.revenue.accumulateAndGet(nz(event.totalAmount()), BigDecimal::add);
+				}
+			}
+			case RETIREMENT -> {
+				current.global().creditsRetired.addAndGet(quantity);
+				if (project != null) {
+					project.creditsRetired.addAndGet(quantity);
+				}
+			}
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPaymentCompleted(PaymentCompletedEvent event) {
+		current().global().revenue.accumulateAndGet(nz(event.amount()), BigDecimal::add);
+	}
+
+	// ==================== RECONCILE ====================
+
+	/**
+	 * Tính lại toàn bộ snapshot từ SQL rồi thay thế nguyên khối
+	 */
+	@Scheduled(fixedDelayString = "${dashboard.metrics.reconcile-interval-ms:60000}",
+			initialDelayString = "${dashboard.metrics.reconcile-interval-ms:60000}")
+	public void reconcile() {
+		synchronized (reconcileLock) {
+			long start = System.currentTimeMillis();
+			Counters global = new Counters();
+			Map<Integer, Counters> projects = new ConcurrentHashMap<>();
+
+			for (ProjectMetricsRow row : projectRepository.findAllMetricsRows()) {
+				Counters counters = new Counters();
+				counters.status = row.getProjectStatus();
+				counters.co2Kg.set(nz(row.getActualCo2Kg()));
+				counters.targetCo2Kg.set(nz(row.getTargetCo2Kg()));
+				projects.put(row.getProjectId(), counters);
+
+				global.totalProjects.incrementAndGet();
+				adjustStatusCount(global, counters.status, 1);
+				global.co2Kg.accumulateAndGet(counters.co2Kg.get(), BigDecimal::add);
+				global.targetCo2Kg.accumulateAndGet(counters.targetCo2Kg.get(), BigDecimal::add);
+			}
+
+			for (ProjectFarmCountRow row : farmRepository.countFarmsGroupByProject()) {
+				Counters counters = projects.get(row.getProjectId());
+				if (counters != null) {
+					counters.totalFarms.set(nz(row.getTotalFarms()));
+					counters.activeFarms.set(nz(row.getActiveFarms()));
+				}
+			}
+			// Một farm có thể thuộc nhiều dự án nên tổng toàn hệ thống đếm riêng
+			global.totalFarms.set(nz(farmRepository.countByDeletedAtIsNull()));
+			global.activeFarms.set(nz(farmRepository.countByFarmStatusAndDeletedAtIsNull(FarmStatus.ACTIVE)));
+
+			for (ProjectTreeCountRow row : treeBatchRepository.sumActiveTreesGroupByProject()) {
+				global.totalTrees.addAndGet(nz(row.getTotalTrees()));
+				Counters counters = row.getProjectId() != null ? projects.get(row.getProjectId()) : null;
+				if (counters != null) {
+					counters.totalTrees.set(nz(row.getTotalTrees()));
+				}
+			}
+
+			for (ProjectCreditTotalsRow row : creditRepository.sumCreditTotalsGroupByProject()) {
+				global.creditsIssued.addAndGet(nz(row.getCreditsIssued()));
+				global.creditsSold.addAndGet(nz(row.getCreditsSold()));
+				global.creditsRetired.addAndGet(nz(row.getCreditsRetired()));
+				global.creditsAvailable.addAndGet(nz(row.getCreditsAvailable()));
+				Counters counters = projects.get(row.getProjectId());
+				if (counters != null) {
+					counters.creditsIssued.set(nz(row.getCreditsIssued()));
+					counters.creditsSold.set(nz(row.getCreditsSold()));
+					counters.creditsRetired.set(nz(row.getCreditsRetired()));
+					counters.creditsAvailable.set(nz(row.getCreditsAvailable()));
+					counters.revenue.set(nz(row.getCreditRevenue()));
+				}
+			}
+
+			global.revenue.set(nz(paymentRepository.sumTotalRevenue()));
+
+			Snapshot previous = snapshot;
+			snapshot = new Snapshot(global, projects);
+			if (previous != null) {
+				logDrift(previous.global(), global);
+			}
+			log.debug("Dashboard metrics reconciled in {} ms ({} projects)",
+					System.currentTimeMillis() - start, projects.size());
+		}
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private Snapshot current() {
+		Snapshot current = snapshot;
+		if (current == null) {
+			// Lần đọc đầu tiên trước khi job reconcile chạy
+			synchronized (reconcileLock) {
+				if (snapshot == null) {
+					reconcile();
+				}
+				current = snapshot;
+			}
+		}
+		return current;
+	}
+
+	private static Counters project(Snapshot snapshot, Integer projectId) {
+		return snapshot.projects().computeIfAbsent(projectId, id -> new Counters());
+	}
+
+	private Integer projectIdOfPhase(Integer phaseId) {
+		if (phaseId == null) {
+			return null;
+		}
+		Integer cached = projectIdByPhase.get(phaseId);
+		if (cached != null) {
+			return cached;
+		}
+		Integer projectId = projectPhaseRepository.findProjectIdById(phaseId).orElse(null);
+		if (projectId != null) {
+			projectIdByPhase.put(phaseId, projectId);
+		}
+		return projectId;
+	}
+
+	private static void adjustStatusCount(Counters counters, ProjectStatus status, int delta) {
+		if (status == ProjectStatus.ACTIVE) {
+			counters.activeProjects.addAndGet(delta);
+		} else if (status == ProjectStatus.COMPLETED) {
+			counters.completedProjects.addAndGet(delta);
+		}
+	}
+
+	private static void logDrift(Counters before, Counters after) {
+		boolean drifted = before.totalProjects.get() != after.totalProjects.get()
+				|| before.totalTrees.get() != after.totalTrees.get()
+				|| before.creditsSold.get() != after.creditsSold.get()
+				|| before.creditsRetired.get() != after.creditsRetired.get()
+				|| before.revenue.get().compareTo(after.revenue.get()) != 0;
+		if (drifted) {
+			log.info("Dashboard metrics drift corrected: projects {} -> {}, trees {} -> {}, sold {} -> {}, retired {} -> {}, revenue {} -> {}",
+					before.totalProjects.get(), after.totalProjects.get(),
+					before.totalTrees.get(), after.totalTrees.get(),
+					before.creditsSold.get(), after.creditsSold.get(),
+					before.creditsRetired.get(), after.creditsRetired.get(),
+					before.revenue.get(), after.revenue.get());
+		}
+	}
+
+	private static DashboardSummaryResponse toResponse(Counters counters, long totalProjects,
+	                                                   long activeProjects, long completedProjects) {
+		BigDecimal co2Kg = counters.co2Kg.get();
+		BigDecimal targetCo2Kg = counters.targetCo2Kg.get();
+		BigDecimal completion = targetCo2Kg.signum() > 0
+				? co2Kg.multiply(HUNDRED).divide(targetCo2Kg, 2, RoundingMode.HALF_UP)
+				: BigDecimal.ZERO;
+
+		return DashboardSummaryResponse.builder()
+				.totalProjects(totalProjects)
+				.activeProjects(activeProjects)
+				.completedProjects(completedProjects)
+				.totalFarms(counters.totalFarms.get())
+				.activeFarms(counters.activeFarms.get())
+				.totalTrees(counters.totalTrees.get())
+				.totalCo2Absorbed(co2Kg)
+				.totalCo2AbsorbedTons(co2Kg.divide(THOUSAND, 2, RoundingMode.HALF_UP))
+				.targetCo2(targetCo2Kg)
+				.co2CompletionPercentage(completion)
+				.totalCreditsIssued(counters.creditsIssued.get())
+				.totalCreditsSold(counters.creditsSold.get())
+				.totalCreditsRetired(counters.creditsRetired.get())
+				.totalCreditsAvailable(counters.creditsAvailable.get())
+				.totalRevenue(counters.revenue.get())
+				.build();
+	}
+
+	private static BigDecimal nz(BigDecimal value) {
+		return value != null ? value : BigDecimal.ZERO;
+	}
+
+	private static long nz(Long value) {
+		return value != null ? value : 0L;
+	}
+
+	private record Snapshot(Counters global, Map<Integer, Counters> projects) {
+	}
+
+	/**
+	 * Bộ counter dùng cho cả toàn hệ thống lẫn từng dự án
+	 */
+	private static final class Counters {
+		private final AtomicLong totalProjects = new AtomicLong();
+		private final AtomicLong activeProjects = new AtomicLong();
+		private final AtomicLong completedProjects = new AtomicLong();
+		private final AtomicLong totalFarms = new AtomicLong();
+		private final AtomicLong activeFarms = new AtomicLong();
+		private final AtomicLong totalTrees = new AtomicLong();
+		private final AtomicLong creditsIssued = new AtomicLong();
+		private final AtomicLong creditsSold = new AtomicLong();
+		private final AtomicLong creditsRetired = new AtomicLong();
+		private final AtomicLong creditsAvailable = new AtomicLong();
+		private final AtomicReference<BigDecimal> co2Kg = new AtomicReference<>(BigDecimal.ZERO);
+		private final AtomicReference<BigDecimal> targetCo2Kg = new AtomicReference<>(BigDecimal.ZERO);
+		private final AtomicReference<BigDecimal> revenue = new AtomicReference<>(BigDecimal.ZERO);
+
+		// Chỉ dùng cho counter của dự án
+		private volatile ProjectStatus status;
+	}
+}
@@ -0,0 +1,25 @@
+package com.capston.project.back.end.cache;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener gắn vào các entity nguồn của report/dashboard. Hibernate
+ * lấy bean này từ Spring container nên có thể inject {@link DataVersionTracker}.
+ */
+@Component
+@RequiredArgsConstructor
+public class DataChangeEntityListener {
+
+	private final DataVersionTracker dataVersionTracker;
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void onChange(Object entity) {
+		dataVersionTracker.markChanged();
+	}
+}
@@ -0,0 +1,38 @@
+package com.capston.project.back.end.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Phiên bản dữ liệu toàn cục cho các cache đọc (report, export). Mỗi lần ghi
+ * vào các bảng nguồn sẽ tăng version; cache nào giữ entry của version cũ coi
+ * như đã hết hạn.
+ */
+@Component
+public class DataVersionTracker {
+
+	private final AtomicLong version = new AtomicLong();
+
+	public long currentVersion() {
+		return version.get();
+	}
+
+	/**
+	 * Tăng version ngay lập tức và thêm một lần nữa sau khi transaction commit,
+	 * để không có reader nào cache lại dữ liệu chưa commit dưới version mới.
+	 */
+	public void markChanged() {
+		version.incrementAndGet();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					version.incrementAndGet();
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package com.capston.project.back.end.cache;
+
+import com.capston.project.back.end.entity.GeocodingCacheEntry;
+import com.capston.project.back.end.repository.GeocodingCacheRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache kết quả geocoding: địa chỉ đã chuẩn hoá → toạ độ và toạ độ (làm tròn
+ * ~1m) → địa chỉ. LRU trong bộ nhớ, lưu bền ở bảng geocoding_cache. Chỉ kết quả
+ * thật từ provider được cache; loader trả về null (không tìm thấy) thì không lưu.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GeocodingCache {
+
+	private static final int REVERSE_SCALE = 5;
+
+	private final GeocodingCacheRepository repository;
+
+	@Value("${geocoding.cache.max-entries:5000}")
+	private int maxEntries;
+
+	@Value("${geocoding.cache.ttl:P180D}")
+	private Duration ttl;
+
+	private final LinkedHashMap<String, GeocodingCacheEntry> memory = new LinkedHashMap<>(128, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, GeocodingCacheEntry> eldest) {
+			return size() > maxEntries;
+		}
+	};
+
+	private final Map<String, CompletableFuture<Optional<GeocodingCacheEntry>>> inFlight = new ConcurrentHashMap<>();
+
+	private final AtomicLong memoryHits = new AtomicLong();
+	private final AtomicLong storeHits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Kết quả geocoding từ provider
+	 */
+	public record Result(BigDecimal latitude, BigDecimal longitude, String formattedAddress, String provider) {}
+
+	/**
+	 * Địa chỉ → toạ độ. Loader nhận địa chỉ gốc.
+	 */
+	public Optional<Result> forward(String address, Function<String, Result> loader) {
+		return resolve("F:" + normalizeAddress(address), () -> loader.apply(address));
+	}
+
+	/**
+	 * Toạ độ → địa chỉ. Loader nhận toạ độ đã làm tròn.
+	 */
+	public Optional<Result> reverse(BigDecimal latitude, BigDecimal longitude,
+	                                BiFunction<BigDecimal, BigDecimal, Result> loader) {
+		BigDecimal lat = latitude.setScale(REVERSE_SCALE, RoundingMode.HALF_UP);
+		BigDecimal lon = longitude.setScale(REVERSE_SCALE, RoundingMode.HALF_UP);
+		return resolve("R:" + lat.toPlainString() + "," + lon.toPlainString(), () -> loader.apply(lat, lon));
+	}
+
+	/**
+	 * Chuẩn hoá địa chỉ làm key: Unicode NFC, chữ thường, gộp khoảng trắng và dấu phẩy
+	 */
+	public static String normalizeAddress(String address) {
+		String normalized = Normalizer.normalize(address, Normalizer.Form.NFC)
+				.toLowerCase(Locale.ROOT)
+				.replaceAll("\\s*,\\s*", ",")
+				.replaceAll("\\s+", " ")
+				.replaceAll("^[\\s,.]+|[\\s,.]+$", "")
+				.replaceAll(",+", ", ");
+		return normalized.length() > 500 ? normalized.substring(0, 500) : normalized;
+	}
+
+	public Map<String, Object> getStats() {
+		long hits = memoryHits.get() + storeHits.get();
+		long total = hits + misses.get();
+
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("memoryHits", memoryHits.get());
+		stats.put("storeHits", storeHits.get());
+		stats.put("misses", misses.get());
+		stats.put("hitRatio", total > 0 ? (double) hits / total : 0.0);
+		synchronized (memory) {
+			stats.put("memoryEntries", memory.size());
+		}
+		return stats;
+	}
+
+	/**
+	 * Xoá các entry đã hết hạn trong bảng (mỗi ngày 04:15)
+	 */
+	@Scheduled(cron = "${geocoding.cache.cleanup-cron:0 15 4 * * ?}")
+	public void evictExpired() {
+		try {
+			int deleted = repository.deleteExpired(OffsetDateTime.now());
+			log.info("Geocoding cache cleanup: {} expired entries removed", deleted);
+		} catch (RuntimeException e) {
+			log.warn("Geocoding cache cleanup failed: {}", e.getMessage());
+		}
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private Optional<Result> resolve(String key, Supplier<Result> loader) {
+		GeocodingCacheEntry cached = lookup(key);
+		if (cached != null) {
+			return Optional.of(toResult(cached));
+		}
+
+		// Nhiều farm cùng địa chỉ tạo đồng thời chỉ gọi provider một lần
+		CompletableFuture<Optional<GeocodingCacheEntry>> loading = new CompletableFuture<>();
+		CompletableFuture<Optional<GeocodingCacheEntry>> existing = inFlight.putIfAbsent(key, loading);
+		if (existing != null) {
+			try {
+				return existing.join().map(this::toResult);
+			} catch (CompletionException e) {
+				throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+			}
+		}
+
+		misses.incrementAndGet();
+		try {
+			Result result = loader.get();
+			Optional<GeocodingCacheEntry> entry = Optional.ofNullable(result).map(r -> store(key, r));
+			loading.complete(entry);
+			return Optional.ofNullable(result);
+		} catch (RuntimeException e) {
+			loading.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, loading);
+		}
+	}
+
+	private GeocodingCacheEntry lookup(String key) {
+		OffsetDateTime now = OffsetDateTime.now();
+		synchronized (memory) {
+			GeocodingCacheEntry entry = memory.get(key);
+			if (entry != null) {
+				if (entry.getExpiresAt().isAfter(now)) {
+					memoryHits.incrementAndGet();
+					return entry;
+				}
+				memory.remove(key);
+			}
+		}
+
+		try {
+			GeocodingCacheEntry stored = repository.findById(key).orElse(null);
+			if (stored != null && stored.getExpiresAt().isAfter(now)) {
+				remember(stored);
+				storeHits.incrementAndGet();
+				return stored;
+			}
+		} catch (RuntimeException e) {
+			// DB lỗi thì coi như miss, vẫn geocode bình thường
+			log.warn("Geocoding cache store unavailable: {}", e.getMessage());
+		}
+		return null;
+	}
+
+	private GeocodingCacheEntry store(String key, Result result) {
+		OffsetDateTime now = OffsetDateTime.now();
+		GeocodingCacheEntry entry = GeocodingCacheEntry.builder()
+				.cacheKey(key)
+				.latitude(result.latitude())
+				.longitude(result.longitude())
+				.formattedAddress(result.formattedAddress())
+				.provider(result.provider())
+				.resolvedAt(now)
+				.expiresAt(now.plus(ttl))
+				.build();
+		remember(entry);
+		try {
+			repository.save(entry);
+		} catch (RuntimeException e) {
+			log.warn("Failed to persist geocoding result {}: {}", key, e.getMessage());
+		}
+		return entry;
+	}
+
+	private void remember(GeocodingCacheEntry entry) {
+		synchronized (memory) {
+			memory.put(entry.getCacheKey(), entry);
+		}
+	}
+
+	private Result toResult(GeocodingCacheEntry entry) {
+		return new Result(entry.getLatitude(), entry.getLongitude(), entry.getFormattedAddress(), entry.getProvider());
+	}
+}
@@ -0,0 +1,63 @@
+package com.capston.project.back.end.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache kết quả report theo key filter đã chuẩn hoá. Entry bị bỏ qua khi data
+ * version thay đổi (có ghi mới) hoặc quá TTL.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportCache {
+
+	private final DataVersionTracker dataVersionTracker;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	@Value("${report.cache.ttl:PT10M}")
+	private Duration ttl;
+
+	@Value("${report.cache.max-entries:500}")
+	private int maxEntries;
+
+	@SuppressWarnings("unchecked")
+	public <T> T get(String key, Supplier<T> loader) {
+		long version = dataVersionTracker.currentVersion();
+		long now = System.currentTimeMillis();
+
+		Entry cached = entries.get(key);
+		if (cached != null && cached.version() == version && cached.expiresAt() > now) {
+			return (T) cached.value();
+		}
+
+		T value = loader.get();
+		// Chỉ lưu nếu không có ghi mới trong lúc đang tính
+		if (version == dataVersionTracker.currentVersion()) {
+			if (entries.size() >= maxEntries) {
+				evictStale(version, now);
+			}
+			entries.put(key, new Entry(value, version, now + ttl.toMillis()));
+		}
+		return value;
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+	private void evictStale(long version, long now) {
+		entries.values().removeIf(e -> e.version() != version || e.expiresAt() <= now);
+		if (entries.size() >= maxEntries) {
+			entries.clear();
+		}
+	}
+
+	private record Entry(Object value, long version, long expiresAt) {
+	}
+}
@@ -0,0 +1,349 @@
+package com.capston.project.back.end.cache;
+
+import com.capston.project.back.end.common.TileDataType;
+import com.capston.project.back.end.entity.SpatialTileCacheEntry;
+import com.capston.project.back.end.repository.SpatialTileCacheRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Cache dữ liệu môi trường theo ô lưới toạ độ: các farm nằm chung một ô dùng
+ * chung kết quả API. Hai tầng: LRU trong bộ nhớ (giới hạn số entry) và bảng
+ * spatial_tile_cache để restart không phải gọi lại. Mỗi loại dữ liệu có độ phân
+ * giải ô và TTL riêng.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SpatialTileCache {
+
+	private final SpatialTileCacheRepository repository;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Value("${spatial-cache.max-entries:20000}")
+	private int maxEntries;
+
+	@Value("${spatial-cache.weather.resolution-deg:0.05}")
+	private double weatherResolution;
+
+	@Value("${spatial-cache.weather.ttl:P365D}")
+	private Duration weatherTtl;
+
+	@Value("${spatial-cache.climate.resolution-deg:0.1}")
+	private double climateResolution;
+
+	@Value("${spatial-cache.climate.ttl:P30D}")
+	private Duration climateTtl;
+
+	@Value("${spatial-cache.soil.resolution-deg:0.0025}")
+	private double soilResolution;
+
+	@Value("${spatial-cache.soil.ttl:P3650D}")
+	private Duration soilTtl;
+
+	// LRU theo thứ tự truy cập, mọi thao tác phải synchronized trên chính map
+	private final LinkedHashMap<String, MemoryEntry> memory = new LinkedHashMap<>(256, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, MemoryEntry> eldest) {
+			return size() > maxEntries;
+		}
+	};
+
+	// Các ô đang được load: request trùng key chờ chung một lần gọi API
+	private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+	private final Map<TileDataType, TileStats> stats = new EnumMap<>(TileDataType.class);
+
+	@PostConstruct
+	void initStats() {
+		for (TileDataType type : TileDataType.values()) {
+			stats.put(type, new TileStats());
+		}
+	}
+
+	/**
+	 * Ô lưới chứa toạ độ; toạ độ tâm ô là toạ độ dùng để gọi API
+	 */
+	public Tile tile(TileDataType type, BigDecimal latitude, BigDecimal longitude) {
+		double resolution = resolution(type);
+		long latIndex = (long) Math.floor(latitude.doubleValue() / resolution);
+		long lonIndex = (long) Math.floor(longitude.doubleValue() / resolution);
+		return new Tile(type, BigDecimal.valueOf(resolution).stripTrailingZeros().toPlainString(), latIndex, lonIndex,
+				center(latIndex, resolution), center(lonIndex, resolution));
+	}
+
+	/**
+	 * Lấy giá trị của ô (bộ nhớ → bảng → loader). Loader nhận toạ độ tâm ô; lỗi
+	 * của loader được ném ra và không cache.
+	 */
+	public <T> T get(TileDataType type, BigDecimal latitude, BigDecimal longitude, String qualifier,
+	                 Class<T> valueType, BiFunction<BigDecimal, BigDecimal, T> loader) {
+		Tile tile = tile(type, latitude, longitude);
+		String key = tile.key(qualifier);
+		T cached = lookup(type, key, valueType);
+		if (cached != null) {
+			return cached;
+		}
+
+		CompletableFuture<Object> loading = new CompletableFuture<>();
+		CompletableFuture<Object> existing = inFlight.putIfAbsent(key, loading);
+		if (existing != null) {
+			stats.get(type).coalesced.incrementAndGet();
+			try {
+				return valueType.cast(existing.join());
+			} catch (CompletionException e) {
+				throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+			}
+		}
+
+		stats.get(type).misses.incrementAndGet();
+		try {
+			T value = loader.apply(tile.latitude(), tile.longitude());
+			store(type, Map.of(key, value));
+			loading.complete(value);
+			return value;
+		} catch (RuntimeException e) {
+			loading.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, loading);
+		}
+	}
+
+	/**
+	 * Tra nhiều qualifier của cùng một ô (ví dụ các ngày trong một khoảng); chỉ
+	 * trả về các giá trị đang có trong cache.
+	 */
+	public <T> Map<String, T> peekAll(Tile tile, Collection<String> qualifiers, Class<T> valueType) {
+		TileStats tileStats = stats.get(tile.type());
+		Map<String, T> found = new HashMap<>();
+		Map<String, String> keysToQualifier = new HashMap<>();
+		long now = System.currentTimeMillis();
+
+		synchronized (memory) {
+			for (String qualifier : qualifiers) {
+				String key = tile.key(qualifier);
+				MemoryEntry entry = memory.get(key);
+				if (entry != null && entry.expiresAt() > now) {
+					found.put(qualifier, valueType.cast(entry.value()));
+				} else {
+					keysToQualifier.put(key, qualifier);
+				}
+			}
+		}
+		tileStats.memoryHits.addAndGet(found.size());
+
+		if (!keysToQualifier.isEmpty()) {
+			for (SpatialTileCacheEntry stored : findStored(keysToQualifier.keySet())) {
+				T value = read(stored, valueType);
+				if (value != null) {
+					found.put(keysToQualifier.get(stored.getCacheKey()), value);
+					remember(stored.getCacheKey(), value, stored.getExpiresAt().toInstant().toEpochMilli());
+					tileStats.storeHits.incrementAndGet();
+				}
+			}
+		}
+		tileStats.misses.addAndGet(qualifiers.size() - found.size());
+		return found;
+	}
+
+	/**
+	 * Ghi nhiều giá trị của cùng một ô (qualifier → value)
+	 */
+	public void putAll(Tile tile, Map<String, ?> valuesByQualifier) {
+		Map<String, Object> byKey = new HashMap<>();
+		valuesByQualifier.forEach((qualifier, value) -> byKey.put(tile.key(qualifier), value));
+		store(tile.type(), byKey);
+	}
+
+	/**
+	 * Hit/miss theo loại dữ liệu và provider
+	 */
+	public Map<String, Object> getStats() {
+		Map<String, Object> result = new LinkedHashMap<>();
+		for (Map.Entry<TileDataType, TileStats> entry : stats.entrySet()) {
+			TileStats tileStats = entry.getValue();
+			long hits = tileStats.memoryHits.get() + tileStats.storeHits.get() + tileStats.coalesced.get();
+			long total = hits + tileStats.misses.get();
+
+			Map<String, Object> typeStats = new LinkedHashMap<>();
+			typeStats.put("provider", entry.getKey().getProvider());
+			typeStats.put("memoryHits", tileStats.memoryHits.get());
+			typeStats.put("storeHits", tileStats.storeHits.get());
+			typeStats.put("coalesced", tileStats.coalesced.get());
+			typeStats.put("misses", tileStats.misses.get());
+			typeStats.put("hitRatio", total > 0 ? (double) hits / total : 0.0);
+			result.put(entry.getKey().name(), typeStats);
+		}
+		synchronized (memory) {
+			result.put("memoryEntries", memory.size());
+		}
+		return result;
+	}
+
+	/**
+	 * Xoá các entry đã hết hạn trong bảng (mỗi ngày 04:00)
+	 */
+	@Scheduled(cron = "${spatial-cache.cleanup-cron:0 0 4 * * ?}")
+	public void evictExpired() {
+		try {
+			int deleted = repository.deleteExpired(OffsetDateTime.now());
+			log.info("Spatial tile cache cleanup: {} expired entries removed, stats {}", deleted, getStats());
+		} catch (RuntimeException e) {
+			log.warn("Spatial tile cache cleanup failed: {}", e.getMessage());
+		}
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private <T> T lookup(TileDataType type, String key, Class<T> valueType) {
+		long now = System.currentTimeMillis();
+		synchronized (memory) {
+			MemoryEntry entry = memory.get(key);
+			if (entry != null) {
+				if (entry.expiresAt() > now) {
+					stats.get(type).memoryHits.incrementAndGet();
+					return valueType.cast(entry.value());
+				}
+				memory.remove(key);
+			}
+		}
+
+		for (SpatialTileCacheEntry stored : findStored(List.of(key))) {
+			T value = read(stored, valueType);
+			if (value != null) {
+				remember(key, value, stored.getExpiresAt().toInstant().toEpochMilli());
+				stats.get(type).storeHits.incrementAndGet();
+				return value;
+			}
+		}
+		return null;
+	}
+
+	private List<SpatialTileCacheEntry> findStored(Collection<String> keys) {
+		OffsetDateTime now = OffsetDateTime.now();
+		try {
+			List<SpatialTileCacheEntry> valid = new ArrayList<>();
+			for (SpatialTileCacheEntry stored : repository.findAllById(keys)) {
+				if (stored.getExpiresAt().isAfter(now)) {
+					valid.add(stored);
+				}
+			}
+			return valid;
+		} catch (RuntimeException e) {
+			// Cache không được làm hỏng lời gọi chính: DB lỗi thì coi như miss
+			log.warn("Spatial tile cache store unavailable: {}", e.getMessage());
+			return List.of();
+		}
+	}
+
+	private void store(TileDataType type, Map<String, ?> valuesByKey) {
+		if (valuesByKey.isEmpty()) {
+			return;
+		}
+		OffsetDateTime fetchedAt = OffsetDateTime.now();
+		OffsetDateTime expiresAt = fetchedAt.plus(ttl(type));
+		long expiresAtMillis = expiresAt.toInstant().toEpochMilli();
+
+		List<SpatialTileCacheEntry> entries = new ArrayList<>(valuesByKey.size());
+		for (Map.Entry<String, ?> entry : valuesByKey.entrySet()) {
+			remember(entry.getKey(), entry.getValue(), expiresAtMillis);
+			try {
+				entries.add(SpatialTileCacheEntry.builder()
+						.cacheKey(entry.getKey())
+						.dataType(type)
+						.payload(objectMapper.writeValueAsString(entry.getValue()))
+						.fetchedAt(fetchedAt)
+						.expiresAt(expiresAt)
+						.build());
+			} catch (JsonProcessingException e) {
+				log.warn("Cannot serialize spatial tile {}: {}", entry.getKey(), e.getMessage());
+			}
+		}
+
+		try {
+			repository.saveAll(entries);
+		} catch (RuntimeException e) {
+			log.warn("Failed to persist {} spatial tiles: {}", entries.size(), e.getMessage());
+		}
+	}
+
+	private <T> T read(SpatialTileCacheEntry stored, Class<T> valueType) {
+		try {
+			return objectMapper.readValue(stored.getPayload(), valueType);
+		} catch (JsonProcessingException e) {
+			log.warn("Discarding unreadable spatial tile {}: {}", stored.getCacheKey(), e.getMessage());
+			return null;
+		}
+	}
+
+	private void remember(String key, Object value, long expiresAtMillis) {
+		synchronized (memory) {
+			memory.put(key, new MemoryEntry(value, expiresAtMillis));
+		}
+	}
+
+	private double resolution(TileDataType type) {
+		return switch (type) {
+			case WEATHER_DAILY -> weatherResolution;
+			case CLIMATE -> climateResolution;
+			case SOIL -> soilResolution;
+		};
+	}
+
+	private Duration ttl(TileDataType type) {
+		return switch (type) {
+			case WEATHER_DAILY -> weatherTtl;
+			case CLIMATE -> climateTtl;
+			case SOIL -> soilTtl;
+		};
+	}
+
+	private static BigDecimal center(long index, double resolution) {
+		return BigDecimal.valueOf((index + 0.5) * resolution).setScale(6, RoundingMode.HALF_UP);
+	}
+
+	/**
+	 * Một ô lưới của một loại dữ liệu; key gồm cả độ phân giải để đổi cấu hình không lẫn dữ liệu cũ
+	 */
+	public record Tile(TileDataType type, String resolution, long latIndex, long lonIndex,
+	                   BigDecimal latitude, BigDecimal longitude) {
+
+		public String key(String qualifier) {
+			String base = type + ":" + resolution + ":" + latIndex + ":" + lonIndex;
+			return qualifier != null ? base + ":" + qualifier : base;
+		}
+	}
+
+	private record MemoryEntry(Object value, long expiresAt) {
+	}
+
+	private static final class TileStats {
+		private final AtomicLong memoryHits = new AtomicLong();
+		private final AtomicLong storeHits = new AtomicLong();
+		private final AtomicLong coalesced = new AtomicLong();
+		private final AtomicLong misses = new AtomicLong();
+	}
+}
@@ -0,0 +1,7 @@
+package com.capston.project.back.end.common;
+
+public enum AnomalyKind {
+	OUTLIER,    // Giá trị lệch xa thống kê, nghi nhập sai
+	STAGNATION, // Lô tăng trưởng chậm hơn nhiều so với loài
+	DIE_OFF     // Cây chết hàng loạt so với loài
+}
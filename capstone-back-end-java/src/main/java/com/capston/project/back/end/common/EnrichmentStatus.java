@@ -0,0 +1,10 @@
+package com.capston.project.back.end.common;
+
+/**
+ * Trạng thái bổ sung dữ liệu vị trí/môi trường của farm từ API bên ngoài (chạy nền)
+ */
+public enum EnrichmentStatus {
+	ENRICHMENT_PENDING, // Đã lưu farm, đang chờ geocoding + dữ liệu môi trường
+	ENRICHED, // Đã có toạ độ, đất, khí hậu
+	ENRICHMENT_FAILED // Lỗi khi lấy dữ liệu, cần nhập tay hoặc cập nhật lại địa chỉ
+}
@@ -0,0 +1,8 @@
+package com.capston.project.back.end.common;
+
+public enum ExportJobStatus {
+	PENDING,    // Đang chờ trong hàng đợi
+	RUNNING,    // Đang render file
+	COMPLETED,  // File sẵn sàng để tải
+	FAILED      // Lỗi khi render
+}
@@ -0,0 +1,32 @@
+package com.capston.project.back.end.common;
+
+public enum ExportType {
+	CO2_EXCEL("CO2_Report", ".xlsx"),
+	REVENUE_EXCEL("Revenue_Report", ".xlsx"),
+	CREDIT_EXCEL("Credit_Report", ".xlsx"),
+	PROJECTS_EXCEL("Projects", ".xlsx"),
+	FARMS_EXCEL("Farms", ".xlsx"),
+	CO2_PDF("CO2_Report", ".pdf"),
+	REVENUE_PDF("Revenue_Report", ".pdf"),
+	CREDIT_PDF("Credit_Report", ".pdf");
+
+	private final String filePrefix;
+	private final String extension;
+
+	ExportType(String filePrefix, String extension) {
+		this.filePrefix = filePrefix;
+		this.extension = extension;
+	}
+
+	public String getFilePrefix() {
+		return filePrefix;
+	}
+
+	public String getExtension() {
+		return extension;
+	}
+
+	public boolean isPdf() {
+		return ".pdf".equals(extension);
+	}
+}
@@ -0,0 +1,8 @@
+package com.capston.project.back.end.common;
+
+public enum GrowthMetric {
+	HEIGHT,          // Tốc độ tăng chiều cao (cm/ngày)
+	TRUNK_DIAMETER,  // Tốc độ tăng đường kính thân (cm/ngày)
+	CANOPY_DIAMETER, // Tốc độ tăng đường kính tán (cm/ngày)
+	MORTALITY        // Tỉ lệ cây sống bị chết mỗi ngày
+}
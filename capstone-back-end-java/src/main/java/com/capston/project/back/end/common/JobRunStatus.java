@@ -0,0 +1,7 @@
+package com.capston.project.back.end.common;
+
+public enum JobRunStatus {
+	RUNNING,   // Đang chạy (còn RUNNING sau khi node dừng nghĩa là node chết giữa chừng)
+	SUCCEEDED, // Thành công
+	FAILED     // Lỗi
+}
@@ -0,0 +1,8 @@
+package com.capston.project.back.end.common;
+
+public enum SearchType {
+    PROJECT,    // Dự án
+    FARM,       // Nông trại
+    CONTRACT,   // Hợp đồng
+    USER        // Người dùng (chỉ admin)
+}
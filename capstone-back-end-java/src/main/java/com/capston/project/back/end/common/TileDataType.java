@@ -0,0 +1,20 @@
+package com.capston.project.back.end.common;
+
+/**
+ * Loại dữ liệu lưu trong spatial tile cache (mỗi loại có độ phân giải ô lưới và TTL riêng)
+ */
+public enum TileDataType {
+    WEATHER_DAILY("open-meteo"),   // Thời tiết theo ngày (bất biến khi ngày đã qua)
+    CLIMATE("open-meteo"),         // Thống kê khí hậu 1 năm
+    SOIL("soilgrids");             // Thuộc tính đất (gần như không đổi)
+
+    private final String provider;
+
+    TileDataType(String provider) {
+        this.provider = provider;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+}
@@ -0,0 +1,81 @@
+package com.capston.project.back.end.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Thread pool dùng riêng cho các tác vụ nền, tách khỏi thread Tomcat
+ */
+@Configuration
+public class AsyncConfig {
+
+	/**
+	 * Chạy song song các phần độc lập của một report (theo dự án, farm, loại
+	 * cây, tháng...). CallerRuns để khi pool đầy thì thread gọi tự chạy thay vì
+	 * reject.
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor reportExecutor(@Value("${report.executor.pool-size:4}") int poolSize) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(100);
+		executor.setThreadNamePrefix("report-");
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.initialize();
+		return executor;
+	}
+
+	/**
+	 * Worker render file export. Queue có giới hạn và reject khi đầy để request
+	 * nhận lỗi ngay thay vì chiếm thread Tomcat.
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor exportExecutor(@Value("${export.executor.pool-size:2}") int poolSize,
+			@Value("${export.executor.queue-capacity:20}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("export-");
+		executor.initialize();
+		return executor;
+	}
+
+	/**
+	 * Worker enrichment farm (geocoding, thổ nhưỡng, khí hậu). Queue đầy thì
+	 * reject; farm vẫn ở ENRICHMENT_PENDING và được lần quét định kỳ đưa lại.
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor farmEnrichmentExecutor(@Value("${farm.enrichment.pool-size:4}") int poolSize,
+			@Value("${farm.enrichment.queue-capacity:500}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("farm-enrich-");
+		executor.initialize();
+		return executor;
+	}
+
+	/**
+	 * Gửi cảnh báo sức khỏe lô cây sau khi bản ghi sinh trưởng được commit (tra người
+	 * nhận, lưu notification). CallerRuns để không mất cảnh báo khi queue đầy.
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor healthAlertExecutor(@Value("${health-alert.executor.pool-size:2}") int poolSize,
+			@Value("${health-alert.executor.queue-capacity:1000}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("health-alert-");
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.initialize();
+		return executor;
+	}
+}
@@ -0,0 +1,92 @@
+package com.capston.project.back.end.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client cho các API bên ngoài: mỗi provider một client riêng (connection
+ * pool, timeout, giới hạn số request đồng thời) và dùng chung giữa các thread.
+ * Header mặc định được gắn lúc build nên không phải sửa interceptor khi gọi.
+ */
+@Configuration
+public class HttpClientConfig {
+
+	@Value("${http-client.user-agent:CarbonCreditApp/1.0 (Educational Project)}")
+	private String userAgent;
+
+	@Value("${http-client.connect-timeout:PT5S}")
+	private Duration connectTimeout;
+
+	@Value("${http-client.read-timeout:PT20S}")
+	private Duration readTimeout;
+
+	@Bean
+	public RestClient openMeteoRestClient(@Value("${http-client.open-meteo.max-concurrent:8}") int maxConcurrent) {
+		return build("open-meteo", maxConcurrent);
+	}
+
+	@Bean
+	public RestClient soilGridsRestClient(@Value("${http-client.soilgrids.max-concurrent:2}") int maxConcurrent) {
+		return build("soilgrids", maxConcurrent);
+	}
+
+	@Bean
+	public RestClient nominatimRestClient(@Value("${http-client.nominatim.max-concurrent:1}") int maxConcurrent) {
+		return build("nominatim", maxConcurrent);
+	}
+
+	@Bean
+	public RestClient googleMapsRestClient(@Value("${http-client.google-maps.max-concurrent:4}") int maxConcurrent) {
+		return build("google-maps", maxConcurrent);
+	}
+
+	private RestClient build(String provider, int maxConcurrent) {
+		HttpClient httpClient = HttpClient.newBuilder()
+				.connectTimeout(connectTimeout)
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.build();
+		JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+		requestFactory.setReadTimeout(readTimeout);
+
+		return RestClient.builder()
+				.requestFactory(requestFactory)
+				.defaultHeader(HttpHeaders.USER_AGENT, userAgent)
+				.requestInterceptor(concurrencyLimit(provider, maxConcurrent))
+				.build();
+	}
+
+	/**
+	 * Chặn số request đồng thời tới một provider; chờ quá read timeout thì báo lỗi
+	 * thay vì xếp hàng vô hạn
+	 */
+	private ClientHttpRequestInterceptor concurrencyLimit(String provider, int maxConcurrent) {
+		Semaphore permits = new Semaphore(maxConcurrent, true);
+		return (request, body, execution) -> {
+			boolean acquired;
+			try {
+				acquired = permits.tryAcquire(readTimeout.toMillis(), TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for " + provider + " connection", e);
+			}
+			if (!acquired) {
+				throw new IllegalStateException("Too many concurrent requests to " + provider);
+			}
+			try {
+				return execution.execute(request, body);
+			} finally {
+				permits.release();
+			}
+		};
+	}
+}
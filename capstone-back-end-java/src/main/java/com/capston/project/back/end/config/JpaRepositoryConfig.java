@@ -0,0 +1,14 @@
+package com.capston.project.back.end.config;
+
+import com.capston.project.back.end.repository.keyset.KeysetJpaRepository;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Mọi repository dùng KeysetJpaRepository làm base class để có phân trang keyset
+ */
+@Configuration
+@EnableJpaRepositories(basePackages = "com.capston.project.back.end.repository",
+		repositoryBaseClass = KeysetJpaRepository.class)
+public class JpaRepositoryConfig {
+}
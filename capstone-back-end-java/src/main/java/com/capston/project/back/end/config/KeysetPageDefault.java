@@ -0,0 +1,22 @@
+package com.capston.project.back.end.config;
+
+import org.springframework.data.domain.Sort;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Mặc định cho tham số KeysetPageRequest khi request không truyền sortBy/sortDir/size
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface KeysetPageDefault {
+
+	String sort() default "createdAt";
+
+	Sort.Direction direction() default Sort.Direction.DESC;
+
+	int size() default 10;
+}
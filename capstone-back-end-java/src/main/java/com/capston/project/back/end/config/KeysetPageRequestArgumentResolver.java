@@ -0,0 +1,49 @@
+package com.capston.project.back.end.config;
+
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.data.domain.Sort;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Tạo KeysetPageRequest từ query params: cursor, size, sortBy, sortDir, includeTotal
+ * (cùng tên tham số với các endpoint phân trang theo page). Có cursor thì thứ tự
+ * sắp xếp lấy từ cursor.
+ */
+public class KeysetPageRequestArgumentResolver implements HandlerMethodArgumentResolver {
+
+	private static final int MAX_PAGE_SIZE = 100;
+
+	@Override
+	public boolean supportsParameter(MethodParameter parameter) {
+		return KeysetPageRequest.class.equals(parameter.getParameterType());
+	}
+
+	@Override
+	public KeysetPageRequest resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+	                                         NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+		KeysetPageDefault defaults = parameter.getParameterAnnotation(KeysetPageDefault.class);
+		String sortBy = webRequest.getParameter("sortBy");
+		String sortDir = webRequest.getParameter("sortDir");
+		String size = webRequest.getParameter("size");
+
+		if (sortBy == null || sortBy.isBlank()) {
+			sortBy = defaults != null ? defaults.sort() : "createdAt";
+		}
+		Sort.Direction direction = sortDir == null || sortDir.isBlank()
+				? (defaults != null ? defaults.direction() : Sort.Direction.DESC)
+				: Sort.Direction.fromString(sortDir);
+		int pageSize;
+		try {
+			pageSize = size == null || size.isBlank() ? (defaults != null ? defaults.size() : 10) : Integer.parseInt(size);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid page size: " + size);
+		}
+
+		return KeysetPageRequest.of(sortBy, direction, Math.min(pageSize, MAX_PAGE_SIZE),
+				webRequest.getParameter("cursor"), Boolean.parseBoolean(webRequest.getParameter("includeTotal")));
+	}
+}
@@ -1,9 +1,24 @@
 package com.capston.project.back.end.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
+/**
+ * Thread của @Scheduled chỉ kích hoạt: job cụm chạy trên pool riêng của ClusterJobRunner,
+ * nhiều thread để tác vụ cục bộ của node (dọn cache, flush thống kê) không phải chờ nhau.
+ */
 @Configuration
 @EnableScheduling
 public class SchedulerConfig {
+
+	@Bean
+	public ThreadPoolTaskScheduler taskScheduler(@Value("${scheduler.trigger-pool-size:4}") int poolSize) {
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.setPoolSize(poolSize);
+		scheduler.setThreadNamePrefix("scheduling-");
+		return scheduler;
+	}
 }
@@ -1,6 +1,7 @@
 package com.capston.project.back.end.config;
 
 import com.capston.project.back.end.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -42,6 +43,8 @@ public class SecurityConfig {
 						// ==================== PUBLIC ENDPOINTS ====================
 						.requestMatchers("/api/auth/**", "/error").permitAll()
 						.requestMatchers("/ws/**", "/topic/**", "/queue/**", "/app/**").permitAll()
+						// Async dispatch của StreamingResponseBody (export): request gốc đã được xác thực
+						.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
 
 						// ==================== ADMIN ONLY ENDPOINTS ====================
 						// Admin Management
@@ -173,6 +176,9 @@ public class SecurityConfig {
 						// Notifications
 						.requestMatchers("/api/notifications/**").authenticated()
 
+						// Unified search
+						.requestMatchers(HttpMethod.GET, "/api/search").authenticated()
+
 						// All other authenticated requests
 						.anyRequest().authenticated())
 				.sessionManagement(session -> session
@@ -0,0 +1,62 @@
+package com.capston.project.back.end.config;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Đếm session WebSocket. Session vượt send-time-limit hoặc send-buffer-size-limit
+ * bị Spring đóng với SESSION_NOT_RELIABLE, được tính là bị drop.
+ */
+@Component
+public class WebSocketSessionMonitor implements WebSocketHandlerDecoratorFactory {
+
+	private final AtomicInteger openSessions = new AtomicInteger();
+	private final AtomicLong totalSessions = new AtomicLong();
+	private final AtomicLong droppedSessions = new AtomicLong();
+	private final AtomicLong transportErrors = new AtomicLong();
+
+	@Override
+	public WebSocketHandler decorate(WebSocketHandler handler) {
+		return new WebSocketHandlerDecorator(handler) {
+			@Override
+			public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+				openSessions.incrementAndGet();
+				totalSessions.incrementAndGet();
+				super.afterConnectionEstablished(session);
+			}
+
+			@Override
+			public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+				transportErrors.incrementAndGet();
+				super.handleTransportError(session, exception);
+			}
+
+			@Override
+			public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+				openSessions.decrementAndGet();
+				if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+					droppedSessions.incrementAndGet();
+				}
+				super.afterConnectionClosed(session, closeStatus);
+			}
+		};
+	}
+
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("openSessions", openSessions.get());
+		stats.put("totalSessions", totalSessions.get());
+		stats.put("droppedSlowSessions", droppedSessions.get());
+		stats.put("transportErrors", transportErrors.get());
+		return stats;
+	}
+}
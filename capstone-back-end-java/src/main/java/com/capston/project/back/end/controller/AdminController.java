@@ -1,6 +1,7 @@
 package com.capston.project.back.end.controller;
 
 import com.capston.project.back.end.common.Role;
+import com.capston.project.back.end.entity.JobRun;
 import com.capston.project.back.end.entity.User;
 import com.capston.project.back.end.request.RegisterRequest;
 import com.capston.project.back.end.response.generic.ApiResponse;
@@ -135,6 +136,60 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success(counts));
     }
 
+    /**
+     * Thống kê hit/miss của cache thời tiết, khí hậu, thổ nhưỡng, geocoding và chatbot
+     */
+    @GetMapping("/cache/statistics")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCacheStatistics() {
+        Map<String, Object> stats = adminService.getCacheStatistics();
+        return ResponseEntity.ok(ApiResponse.success("Cache statistics retrieved", stats));
+    }
+
+    /**
+     * Xoá cache câu trả lời chatbot (ví dụ sau khi cập nhật nội dung tư vấn)
+     */
+    @DeleteMapping("/cache/chatbot-responses")
+    public ResponseEntity<ApiResponse<Map<String, Integer>>> purgeChatbotResponseCache() {
+        int purged = adminService.purgeChatbotResponseCache();
+        return ResponseEntity.ok(ApiResponse.success("Chatbot response cache purged", Map.of("purged", purged)));
+    }
+
+    /**
+     * Thống kê gửi WebSocket của node hiện tại (gộp sự kiện, session chậm bị drop, outbound queue)
+     */
+    @GetMapping("/websocket/statistics")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getWebSocketStatistics() {
+        Map<String, Object> stats = adminService.getWebSocketStatistics();
+        return ResponseEntity.ok(ApiResponse.success("WebSocket statistics retrieved", stats));
+    }
+
+    /**
+     * Thống kê phát hiện bất thường sinh trưởng của node hiện tại
+     */
+    @GetMapping("/growth-anomaly/statistics")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getGrowthAnomalyStatistics() {
+        Map<String, Object> stats = adminService.getGrowthAnomalyStatistics();
+        return ResponseEntity.ok(ApiResponse.success("Growth anomaly statistics retrieved", stats));
+    }
+
+    /**
+     * Lịch sử chạy job định kỳ của cả cụm (thời gian, số bản ghi, lỗi), lọc theo tên job
+     */
+    @GetMapping("/jobs/runs")
+    public ResponseEntity<ApiResponse<List<JobRun>>> getJobRuns(@RequestParam(required = false) String jobName) {
+        List<JobRun> runs = adminService.getJobRuns(jobName);
+        return ResponseEntity.ok(ApiResponse.success("Job runs retrieved", runs));
+    }
+
+    /**
+     * Thống kê job định kỳ của node hiện tại
+     */
+    @GetMapping("/jobs/statistics")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSchedulerStatistics() {
+        Map<String, Object> stats = adminService.getSchedulerStatistics();
+        return ResponseEntity.ok(ApiResponse.success("Scheduler statistics retrieved", stats));
+    }
+
     // ==================== PENDING APPROVALS ====================
 
     /**
@@ -1,8 +1,11 @@
 package com.capston.project.back.end.controller;
 
 import com.capston.project.back.end.common.CreditStatus;
+import com.capston.project.back.end.config.KeysetPageDefault;
 import com.capston.project.back.end.entity.User;
 import com.capston.project.back.end.repository.UserRepository;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.request.CarbonCreditRequest;
 import com.capston.project.back.end.request.CreditPurchaseRequest;
 import com.capston.project.back.end.request.CreditRetireRequest;
@@ -141,6 +144,21 @@ public class CarbonCreditController {
 				buildPageInfo(creditPage)));
 	}
 
+	/**
+	 * Phân trang keyset (có tham số cursor, để trống cho trang đầu)
+	 */
+	@GetMapping(params = "cursor")
+	public ResponseEntity<ApiResponse<List<CarbonCreditResponse>>> getAllCredits(
+			@KeysetPageDefault KeysetPageRequest request) {
+
+		KeysetPage<CarbonCreditResponse> creditPage = carbonCreditService.getAllCredits(request);
+
+		return ResponseEntity.ok(ApiResponse.success("Carbon credits retrieved successfully",
+				creditPage.content(),
+				ApiResponse.PageInfo.keyset(creditPage.size(), creditPage.nextCursor(), creditPage.approximateTotal(),
+						request.cursor() != null)));
+	}
+
 	// ==================== CREDIT WORKFLOW ====================
 
 	@PostMapping("/{id}/verify")
@@ -11,11 +11,19 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.security.Principal;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -30,6 +38,7 @@ public class ChatbotController {
 
     private final ChatbotService chatbotService;
     private final SecurityUtils securityUtils;
+    private final SimpMessagingTemplate messagingTemplate;
 
     /**
      * Gửi tin nhắn đến chatbot
@@ -51,6 +60,40 @@ public class ChatbotController {
         return ResponseEntity.ok(ApiResponse.success("Message sent successfully", chatResponse));
     }
 
+    /**
+     * Gửi tin nhắn và nhận phản hồi dạng Server-Sent Events: các event "delta"
+     * chứa từng đoạn nội dung, kết thúc bằng event "done"
+     */
+    @PostMapping(value = "/message/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamMessage(@Valid @RequestBody ChatRequest request) {
+        UUID userId = securityUtils.getCurrentUserId();
+        log.info("Streaming chatbot message from user {}", userId);
+
+        return chatbotService.streamMessage(userId, request.getMessage())
+                .map(delta -> ServerSentEvent.builder(delta).event("delta").build())
+                .concatWith(Flux.just(ServerSentEvent.builder("").event("done").build()));
+    }
+
+    /**
+     * Bản STOMP của stream: client gửi tới /app/chatbot/stream, nhận các frame
+     * {type: delta|done, content} ở /user/queue/chatbot
+     */
+    @MessageMapping("/chatbot/stream")
+    public void streamMessageOverStomp(@Payload ChatRequest request, Principal principal) {
+        if (principal == null || request.getMessage() == null || request.getMessage().isBlank()) {
+            return;
+        }
+        UUID userId = securityUtils.getUserIdByUsername(principal.getName());
+        if (userId == null) {
+            return;
+        }
+
+        chatbotService.streamMessage(userId, request.getMessage())
+                .map(delta -> Map.of("type", "delta", "content", delta))
+                .concatWith(Flux.just(Map.of("type", "done", "content", "")))
+                .subscribe(frame -> messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/chatbot", frame));
+    }
+
     /**
      * Lấy lịch sử chat
      */
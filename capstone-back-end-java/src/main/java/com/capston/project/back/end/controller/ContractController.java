@@ -1,8 +1,11 @@
 package com.capston.project.back.end.controller;
 
 import com.capston.project.back.end.common.ContractStatus;
+import com.capston.project.back.end.config.KeysetPageDefault;
 import com.capston.project.back.end.entity.User;
 import com.capston.project.back.end.repository.UserRepository;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.request.ContractApprovalRequest;
 import com.capston.project.back.end.request.ContractRenewalRequest;
 import com.capston.project.back.end.request.ContractRequest;
@@ -113,6 +116,22 @@ public class ContractController {
 				buildPageInfo(contractPage)));
 	}
 
+	/**
+	 * Phân trang keyset (có tham số cursor, để trống cho trang đầu)
+	 */
+	@GetMapping(params = "cursor")
+	public ResponseEntity<ApiResponse<List<ContractResponse>>> getAllContracts(
+			@KeysetPageDefault KeysetPageRequest request) {
+
+		KeysetPage<ContractResponse> contractPage = contractService.getAllContracts(request);
+
+		return ResponseEntity.ok(ApiResponse.success(
+				"Contracts retrieved successfully",
+				contractPage.content(),
+				ApiResponse.PageInfo.keyset(contractPage.size(), contractPage.nextCursor(),
+						contractPage.approximateTotal(), request.cursor() != null)));
+	}
+
 	@GetMapping("/status/{status}")
 	public ResponseEntity<ApiResponse<List<ContractResponse>>> getContractsByStatus(@PathVariable ContractStatus status,
 			@RequestParam(defaultValue = "0") int page,
@@ -1,9 +1,12 @@
 package com.capston.project.back.end.controller;
 
 import com.capston.project.back.end.common.FarmStatus;
+import com.capston.project.back.end.config.KeysetPageDefault;
 import com.capston.project.back.end.entity.User;
 import com.capston.project.back.end.exception.ResourceNotFoundException;
 import com.capston.project.back.end.repository.UserRepository;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.request.FarmRequest;
 import com.capston.project.back.end.response.FarmResponse;
 import com.capston.project.back.end.response.generic.ApiResponse;
@@ -99,6 +102,19 @@ public class FarmController {
 				buildPageInfo(farmPage)));
 	}
 
+	/**
+	 * Phân trang keyset (có tham số cursor, để trống cho trang đầu)
+	 */
+	@GetMapping(params = "cursor")
+	public ResponseEntity<ApiResponse<List<FarmResponse>>> getAllFarms(@KeysetPageDefault KeysetPageRequest request) {
+		KeysetPage<FarmResponse> farmPage = farmService.getAllFarms(request);
+
+		return ResponseEntity.ok(ApiResponse.success("Farms retrieved successfully",
+				farmPage.content(),
+				ApiResponse.PageInfo.keyset(farmPage.size(), farmPage.nextCursor(), farmPage.approximateTotal(),
+						request.cursor() != null)));
+	}
+
 	@GetMapping("/status/{status}")
 	public ResponseEntity<ApiResponse<List<FarmResponse>>> getFarmsByStatus(@PathVariable FarmStatus status,
 			@RequestParam(defaultValue = "0") int page,
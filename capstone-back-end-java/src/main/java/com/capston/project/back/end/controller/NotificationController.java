@@ -1,8 +1,12 @@
 package com.capston.project.back.end.controller;
 
+import com.capston.project.back.end.config.KeysetPageDefault;
 import com.capston.project.back.end.entity.User;
 import com.capston.project.back.end.repository.UserRepository;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.response.NotificationResponse;
+import com.capston.project.back.end.response.generic.ApiResponse;
 import com.capston.project.back.end.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +40,20 @@ public class NotificationController {
         return ResponseEntity.ok(notificationService.getByUserId(userId, pageable));
     }
 
+    /**
+     * Hộp thư theo keyset (có tham số cursor, để trống cho trang đầu); nextCursor nằm trong pageInfo
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<ApiResponse<List<NotificationResponse>>> getNotifications(
+            Authentication authentication,
+            @KeysetPageDefault(size = 20) KeysetPageRequest request) {
+        UUID userId = getUserIdFromAuth(authentication);
+        KeysetPage<NotificationResponse> page = notificationService.getByUserId(userId, request);
+        return ResponseEntity.ok(ApiResponse.success("Notifications retrieved successfully", page.content(),
+                ApiResponse.PageInfo.keyset(page.size(), page.nextCursor(), page.approximateTotal(),
+                        request.cursor() != null)));
+    }
+
     /**
      * Lấy danh sách notifications chưa đọc
      */
@@ -1,6 +1,9 @@
 package com.capston.project.back.end.controller;
 
+import com.capston.project.back.end.config.KeysetPageDefault;
 import com.capston.project.back.end.entity.Payment;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.response.generic.ApiResponse;
 import com.capston.project.back.end.service.PaymentService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -70,4 +74,15 @@ public class PaymentController {
                 .timestamp(java.time.LocalDateTime.now())
                 .build()); // Tạm thời trả về content, thực tế nên build PageInfo
     }
+
+    // 4b. Lịch sử giao dịch theo keyset (có tham số cursor, để trống cho trang đầu)
+    @GetMapping(value = "/my-payments", params = "cursor")
+    public ResponseEntity<ApiResponse<List<Payment>>> getMyPayments(@KeysetPageDefault KeysetPageRequest request) {
+        KeysetPage<Payment> paymentPage = paymentService.getMyPayments(request);
+
+        return ResponseEntity.ok(ApiResponse.success("Payments retrieved successfully",
+                paymentPage.content(),
+                ApiResponse.PageInfo.keyset(paymentPage.size(), paymentPage.nextCursor(),
+                        paymentPage.approximateTotal(), request.cursor() != null)));
+    }
 }
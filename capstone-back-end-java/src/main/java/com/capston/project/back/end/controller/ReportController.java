@@ -1,21 +1,30 @@
 package com.capston.project.back.end.controller;
 
+import com.capston.project.back.end.request.ExportJobRequest;
+import com.capston.project.back.end.response.ExportJobResponse;
 import com.capston.project.back.end.response.dashboard.Co2ReportResponse;
 import com.capston.project.back.end.response.dashboard.CreditReportResponse;
 import com.capston.project.back.end.response.dashboard.ReportFilterRequest;
 import com.capston.project.back.end.response.dashboard.RevenueReportResponse;
 import com.capston.project.back.end.response.generic.ApiResponse;
+import com.capston.project.back.end.service.ExportJobService;
 import com.capston.project.back.end.service.ExportService;
 import com.capston.project.back.end.service.ReportService;
+import com.capston.project.back.end.util.SecurityUtils;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -23,8 +32,13 @@ import java.time.format.DateTimeFormatter;
 @PreAuthorize("hasRole('ADMIN')")
 public class ReportController {
 
+	private static final MediaType EXCEL_MEDIA_TYPE =
+			MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
 	private final ReportService reportService;
 	private final ExportService exportService;
+	private final ExportJobService exportJobService;
+	private final SecurityUtils securityUtils;
 
 	// ==================== CO2 REPORTS ====================
 
@@ -83,73 +97,87 @@ public class ReportController {
 	// ==================== EXCEL EXPORTS ====================
 
 	@GetMapping("/co2/export/excel")
-	public ResponseEntity<byte[]> exportCo2ReportToExcel(@ModelAttribute ReportFilterRequest filter) {
-		byte[] excelContent = exportService.exportCo2ReportToExcel(filter);
+	public ResponseEntity<StreamingResponseBody> exportCo2ReportToExcel(@ModelAttribute ReportFilterRequest filter) {
 		String filename = "CO2_Report_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".xlsx";
-
-		return ResponseEntity.ok()
-				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-				.contentType(
-						MediaType.parseMediaType("application/vnd. openxmlformats-officedocument.spreadsheetml.sheet"))
-				.body(excelContent);
+		return streamingResponse(filename, EXCEL_MEDIA_TYPE, out -> exportService.exportCo2ReportToExcel(filter, out));
 	}
 
 	@GetMapping("/revenue/export/excel")
-	public ResponseEntity<byte[]> exportRevenueReportToExcel(@ModelAttribute ReportFilterRequest filter) {
-		byte[] excelContent = exportService.exportRevenueReportToExcel(filter);
+	public ResponseEntity<StreamingResponseBody> exportRevenueReportToExcel(@ModelAttribute ReportFilterRequest filter) {
 		String filename = "Revenue_Report_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".xlsx";
-
-		return ResponseEntity.ok()
-				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-				.contentType(
-						MediaType.parseMediaType("application/vnd. openxmlformats-officedocument.spreadsheetml. sheet"))
-				.body(excelContent);
+		return streamingResponse(filename, EXCEL_MEDIA_TYPE, out -> exportService.exportRevenueReportToExcel(filter, out));
 	}
 
 	@GetMapping("/credits/export/excel")
-	public ResponseEntity<byte[]> exportCreditReportToExcel(@ModelAttribute ReportFilterRequest filter) {
-		byte[] excelContent = exportService.exportCreditReportToExcel(filter);
+	public ResponseEntity<StreamingResponseBody> exportCreditReportToExcel(@ModelAttribute ReportFilterRequest filter) {
 		String filename = "Credit_Report_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".xlsx";
+		return streamingResponse(filename, EXCEL_MEDIA_TYPE, out -> exportService.exportCreditReportToExcel(filter, out));
+	}
+
+	@GetMapping("/projects/export/excel")
+	public ResponseEntity<StreamingResponseBody> exportProjectsToExcel() {
+		String filename = "Projects_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".xlsx";
+		return streamingResponse(filename, EXCEL_MEDIA_TYPE, exportService::exportProjectsToExcel);
+	}
+
+	@GetMapping("/farms/export/excel")
+	public ResponseEntity<StreamingResponseBody> exportFarmsToExcel() {
+		String filename = "Farms_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".xlsx";
+		return streamingResponse(filename, EXCEL_MEDIA_TYPE, exportService::exportFarmsToExcel);
+	}
+
+	// ==================== EXPORT JOBS ====================
+
+	@PostMapping("/export-jobs")
+	public ResponseEntity<ApiResponse<ExportJobResponse>> submitExportJob(@Valid @RequestBody ExportJobRequest request) {
+		ExportJobResponse job = exportJobService.submit(request, securityUtils.getCurrentUserId());
+		return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Export job submitted", job));
+	}
+
+	@GetMapping("/export-jobs/{jobId}")
+	public ResponseEntity<ApiResponse<ExportJobResponse>> getExportJob(@PathVariable String jobId) {
+		ExportJobResponse job = exportJobService.getJob(jobId, securityUtils.getCurrentUserId());
+		return ResponseEntity.ok(ApiResponse.success(job));
+	}
+
+	// Trả về Resource nên Spring tự xử lý header Range (tải tiếp / tải song song)
+	@GetMapping("/export-jobs/{jobId}/download")
+	public ResponseEntity<Resource> downloadExport(@PathVariable String jobId) {
+		UUID userId = securityUtils.getCurrentUserId();
+		ExportJobResponse job = exportJobService.getJob(jobId, userId);
+		Resource file = exportJobService.loadArtifact(jobId, userId);
 
 		return ResponseEntity.ok()
-				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-				.contentType(
-						MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-				.body(excelContent);
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + job.getFileName())
+				.contentType(job.getType().isPdf() ? MediaType.APPLICATION_PDF : EXCEL_MEDIA_TYPE)
+				.body(file);
 	}
 
 	// ==================== PDF EXPORTS ====================
 
 	@GetMapping("/co2/export/pdf")
-	public ResponseEntity<byte[]> exportCo2ReportToPdf(@ModelAttribute ReportFilterRequest filter) {
-		byte[] pdfContent = exportService.exportCo2ReportToPdf(filter);
+	public ResponseEntity<StreamingResponseBody> exportCo2ReportToPdf(@ModelAttribute ReportFilterRequest filter) {
 		String filename = "CO2_Report_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".pdf";
-
-		return ResponseEntity.ok()
-				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-				.contentType(MediaType.APPLICATION_PDF)
-				.body(pdfContent);
+		return streamingResponse(filename, MediaType.APPLICATION_PDF, out -> exportService.exportCo2ReportToPdf(filter, out));
 	}
 
 	@GetMapping("/revenue/export/pdf")
-	public ResponseEntity<byte[]> exportRevenueReportToPdf(@ModelAttribute ReportFilterRequest filter) {
-		byte[] pdfContent = exportService.exportRevenueReportToPdf(filter);
+	public ResponseEntity<StreamingResponseBody> exportRevenueReportToPdf(@ModelAttribute ReportFilterRequest filter) {
 		String filename = "Revenue_Report_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".pdf";
-
-		return ResponseEntity.ok()
-				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-				.contentType(MediaType.APPLICATION_PDF)
-				.body(pdfContent);
+		return streamingResponse(filename, MediaType.APPLICATION_PDF, out -> exportService.exportRevenueReportToPdf(filter, out));
 	}
 
 	@GetMapping("/credits/export/pdf")
-	public ResponseEntity<byte[]> exportCreditReportToPdf(@ModelAttribute ReportFilterRequest filter) {
-		byte[] pdfContent = exportService.exportCreditReportToPdf(filter);
+	public ResponseEntity<StreamingResponseBody> exportCreditReportToPdf(@ModelAttribute ReportFilterRequest filter) {
 		String filename = "Credit_Report_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".pdf";
+		return streamingResponse(filename, MediaType.APPLICATION_PDF, out -> exportService.exportCreditReportToPdf(filter, out));
+	}
 
+	private ResponseEntity<StreamingResponseBody> streamingResponse(String filename, MediaType mediaType,
+			StreamingResponseBody body) {
 		return ResponseEntity.ok()
 				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-				.contentType(MediaType.APPLICATION_PDF)
-				.body(pdfContent);
+				.contentType(mediaType)
+				.body(body);
 	}
 }
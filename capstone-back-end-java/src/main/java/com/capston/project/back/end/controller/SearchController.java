@@ -0,0 +1,34 @@
+package com.capston.project.back.end.controller;
+
+import com.capston.project.back.end.common.SearchType;
+import com.capston.project.back.end.response.SearchHitResponse;
+import com.capston.project.back.end.response.generic.ApiResponse;
+import com.capston.project.back.end.response.generic.CursorPageResponse;
+import com.capston.project.back.end.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+public class SearchController {
+	private final SearchService searchService;
+
+	/**
+	 * Tìm kiếm chung (không phân biệt dấu). Trang tiếp theo: truyền lại nextCursor vào cursor
+	 */
+	@GetMapping
+	public ResponseEntity<ApiResponse<CursorPageResponse<SearchHitResponse>>> search(@RequestParam String q,
+			@RequestParam(required = false) Set<SearchType> types,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "20") int size) {
+		CursorPageResponse<SearchHitResponse> result = searchService.search(q, types, cursor, size);
+		return ResponseEntity.ok(ApiResponse.success("Search completed", result));
+	}
+}
@@ -1,5 +1,8 @@
 package com.capston.project.back.end.controller;
 
+import com.capston.project.back.end.config.KeysetPageDefault;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.response.generic.ApiResponse;
 import com.capston.project.back.end.service.TreeBatchService;
 import com.capston.project.back.end.request.TreeBatchRequest;
@@ -88,6 +91,22 @@ public class TreeBatchController {
                 buildPageInfo(batchPage)));
     }
 
+    /**
+     * Phân trang keyset (có tham số cursor, để trống cho trang đầu)
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<ApiResponse<List<TreeBatchResponse>>> getAllTreeBatches(
+            @KeysetPageDefault KeysetPageRequest request) {
+
+        KeysetPage<TreeBatchResponse> batchPage = treeBatchService.getAllTreeBatches(request);
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "Tree batches retrieved successfully",
+                batchPage.content(),
+                ApiResponse.PageInfo.keyset(batchPage.size(), batchPage.nextCursor(), batchPage.approximateTotal(),
+                        request.cursor() != null)));
+    }
+
 //    @GetMapping("/farm/{farmId}")
 //    public ResponseEntity<ApiResponse<List<TreeBatchResponse>>> getTreeBatchesByFarm(@PathVariable Integer farmId) {
 //        List<TreeBatchResponse> batches = treeBatchService.getTreeBatchesByFarmId(farmId);
@@ -1,9 +1,15 @@
 package com.capston.project.back.end.controller;
 
+import com.capston.project.back.end.config.KeysetPageDefault;
+import com.capston.project.back.end.entity.GrowthAnomaly;
 import com.capston.project.back.end.entity.TreeGrowthRecord;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.request.TreeGrowthRecordRequest;
 import com.capston.project.back.end.response.generic.ApiResponse;
+import com.capston.project.back.end.service.GrowthAnomalyService;
 import com.capston.project.back.end.service.TreeGrowthRecordService;
+import com.capston.project.back.end.util.SecurityUtils;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +37,8 @@ import java.util.Map;
 public class TreeGrowthRecordController {
 
     private final TreeGrowthRecordService growthRecordService;
+    private final GrowthAnomalyService growthAnomalyService;
+    private final SecurityUtils securityUtils;
 
     // ==================== CRUD ====================
 
@@ -80,6 +88,22 @@ public class TreeGrowthRecordController {
                 buildPageInfo(recordPage)));
     }
 
+    /**
+     * Phân trang keyset (có tham số cursor, để trống cho trang đầu)
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<ApiResponse<List<TreeGrowthRecord>>> getAllGrowthRecords(
+            @KeysetPageDefault(sort = "recordedDate") KeysetPageRequest request) {
+
+        KeysetPage<TreeGrowthRecord> recordPage = growthRecordService.getAllGrowthRecords(request);
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "Growth records retrieved successfully",
+                recordPage.content(),
+                ApiResponse.PageInfo.keyset(recordPage.size(), recordPage.nextCursor(), recordPage.approximateTotal(),
+                        request.cursor() != null)));
+    }
+
     @GetMapping("/batch/{batchId}")
     public ResponseEntity<ApiResponse<List<TreeGrowthRecord>>> getGrowthRecordsByBatch(
             @PathVariable Integer batchId) {
@@ -127,6 +151,22 @@ public class TreeGrowthRecordController {
         return ResponseEntity.ok(ApiResponse.success("Unhealthy batches retrieved", records));
     }
 
+    // ==================== ANOMALIES ====================
+
+    @GetMapping("/batch/{batchId}/anomalies")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FARMER')")
+    public ResponseEntity<ApiResponse<List<GrowthAnomaly>>> getUnresolvedAnomalies(@PathVariable Integer batchId) {
+        List<GrowthAnomaly> anomalies = growthAnomalyService.getUnresolvedAnomalies(batchId);
+        return ResponseEntity.ok(ApiResponse.success("Unresolved growth anomalies retrieved", anomalies));
+    }
+
+    @PutMapping("/anomalies/{id}/resolve")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<GrowthAnomaly>> resolveAnomaly(@PathVariable Long id) {
+        GrowthAnomaly anomaly = growthAnomalyService.resolveAnomaly(id, securityUtils.getCurrentUserId());
+        return ResponseEntity.ok(ApiResponse.success("Growth anomaly resolved", anomaly));
+    }
+
     // ==================== HELPER ====================
 
     private ApiResponse.PageInfo buildPageInfo(Page<?> page) {
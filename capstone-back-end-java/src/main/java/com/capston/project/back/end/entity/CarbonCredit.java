@@ -1,5 +1,7 @@
 package com.capston.project.back.end.entity;
 
+import com.capston.project.back.end.cache.ChatKnowledgeEntityListener;
+import com.capston.project.back.end.cache.DataChangeEntityListener;
 import com.capston.project.back.end.common.CreditStatus;
 import jakarta.persistence.*;
 import lombok.*;
@@ -18,6 +20,7 @@ import java.util.Map;
 import java.util.UUID;
 
 @Entity
+@EntityListeners({DataChangeEntityListener.class, ChatKnowledgeEntityListener.class})
 @Table(name = "carbon_credits")
 @Getter
 @Setter
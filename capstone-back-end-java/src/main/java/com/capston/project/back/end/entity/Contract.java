@@ -2,6 +2,7 @@ package com.capston.project.back.end.entity;
 
 import com.capston.project.back.end.common.ContractStatus;
 import com.capston.project.back.end.common.ContractType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -141,6 +142,11 @@ public class Contract {
 	@Column(name = "updated_at")
 	private OffsetDateTime updatedAt;
 
+	// Generated column cho tìm kiếm, DB tự tính
+	@JsonIgnore
+	@Column(name = "search_text", insertable = false, updatable = false)
+	private String searchText;
+
 	// Relationships
 	@OneToMany(mappedBy = "originalContract", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	@Builder.Default
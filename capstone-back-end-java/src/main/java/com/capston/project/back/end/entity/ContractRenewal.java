@@ -12,7 +12,9 @@ import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "contract_renewals")
+@Table(name = "contract_renewals", uniqueConstraints = {
+		@UniqueConstraint(columnNames = { "original_contract_id", "renewal_number" })
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -70,6 +72,10 @@ public class ContractRenewal {
 	@Column(name = "notes", columnDefinition = "TEXT")
 	private String notes;
 
+	// AUTO:<contractId>:<renewalNumber> cho gia hạn tự động, null với yêu cầu thủ công
+	@Column(name = "idempotency_key", unique = true, length = 80)
+	private String idempotencyKey;
+
 	@CreationTimestamp
 	@Column(name = "created_at", updatable = false)
 	private OffsetDateTime createdAt;
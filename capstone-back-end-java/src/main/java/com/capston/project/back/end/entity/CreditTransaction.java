@@ -1,5 +1,6 @@
 package com.capston.project.back.end.entity;
 
+import com.capston.project.back.end.cache.DataChangeEntityListener;
 import com.capston.project.back.end.common.TransactionStatus;
 import com.capston.project.back.end.common.TransactionType;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -17,6 +18,7 @@ import java.util.Map;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(DataChangeEntityListener.class)
 @Table(name = "credit_transactions")
 @Getter
 @Setter
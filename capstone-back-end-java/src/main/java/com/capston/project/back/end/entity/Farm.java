@@ -1,5 +1,7 @@
 package com.capston.project.back.end.entity;
 
+import com.capston.project.back.end.cache.DataChangeEntityListener;
+import com.capston.project.back.end.common.EnrichmentStatus;
 import com.capston.project.back.end.common.FarmStatus;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
@@ -14,6 +16,7 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(DataChangeEntityListener.class)
 @Table(name = "farms")
 @Getter
 @Setter
@@ -66,6 +69,10 @@ public class Farm {
 	@Builder.Default
 	private FarmStatus farmStatus = FarmStatus.ACTIVE;
 
+	@Enumerated(EnumType.STRING)
+	@Column(name = "enrichment_status", length = 20)
+	private EnrichmentStatus enrichmentStatus;
+
 	@Column(name = "created_by")
 	private UUID createdBy;
 
@@ -80,6 +87,11 @@ public class Farm {
 	@Column(name = "deleted_at")
 	private OffsetDateTime deletedAt;
 
+	// code + name + location đã bỏ dấu (generated column)
+	@JsonIgnore
+	@Column(name = "search_text", insertable = false, updatable = false)
+	private String searchText;
+
 	// Relationships
 	@OneToMany(mappedBy = "farm", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
 	@Builder.Default
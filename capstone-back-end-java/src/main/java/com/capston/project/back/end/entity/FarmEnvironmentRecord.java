@@ -80,7 +80,7 @@ public class FarmEnvironmentRecord {
 
     @PrePersist
     @PreUpdate
-    protected void calculateFactors() {
+    public void calculateFactors() {
         // Individual Factors Logic (Threshold-based)
         if (rainfallMm != null) {
             // Optimal rainfall 50-150mm: factor 1.0, >150: 1.2, <50: 0.8
@@ -0,0 +1,45 @@
+package com.capston.project.back.end.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Entity cho bảng geocoding_cache - kết quả geocoding (địa chỉ → toạ độ) và
+ * reverse geocoding (toạ độ → địa chỉ) đã lấy từ provider
+ */
+@Entity
+@Table(name = "geocoding_cache", indexes = {
+    @Index(name = "idx_geocoding_cache_expires", columnList = "expires_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GeocodingCacheEntry {
+
+    @Id
+    @Column(name = "cache_key", length = 512)
+    private String cacheKey;
+
+    @Column(precision = 10, scale = 8)
+    private BigDecimal latitude;
+
+    @Column(precision = 11, scale = 8)
+    private BigDecimal longitude;
+
+    @Column(name = "formatted_address", columnDefinition = "TEXT")
+    private String formattedAddress;
+
+    @Column(nullable = false, length = 30)
+    private String provider;
+
+    @Column(name = "resolved_at", nullable = false)
+    private OffsetDateTime resolvedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+}
@@ -0,0 +1,64 @@
+package com.capston.project.back.end.entity;
+
+import com.capston.project.back.end.common.AnomalyKind;
+import com.capston.project.back.end.common.GrowthMetric;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Entity cho bảng growth_anomalies - bất thường phát hiện trên bản ghi sinh trưởng,
+ * chờ xem xét trước khi xác minh tín chỉ của lô
+ */
+@Entity
+@Table(name = "growth_anomalies", indexes = {
+        @Index(name = "idx_growth_anomalies_batch", columnList = "batch_id, resolved_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GrowthAnomaly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "record_id", nullable = false)
+    private Integer recordId;
+
+    @Column(name = "batch_id", nullable = false)
+    private Integer batchId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metric", nullable = false, length = 30)
+    private GrowthMetric metric;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "anomaly_kind", nullable = false, length = 20)
+    private AnomalyKind anomalyKind;
+
+    // Tốc độ theo ngày quan sát được và giá trị kỳ vọng (trung bình lô hoặc loài)
+    @Column(name = "observed", nullable = false)
+    private Double observed;
+
+    @Column(name = "expected")
+    private Double expected;
+
+    @Column(name = "z_score")
+    private Double zScore;
+
+    @CreationTimestamp
+    @Column(name = "detected_at", updatable = false)
+    private OffsetDateTime detectedAt;
+
+    @Column(name = "resolved_at")
+    private OffsetDateTime resolvedAt;
+
+    @Column(name = "resolved_by")
+    private UUID resolvedBy;
+}
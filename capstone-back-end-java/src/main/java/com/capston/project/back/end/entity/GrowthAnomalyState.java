@@ -0,0 +1,34 @@
+package com.capston.project.back.end.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Entity cho bảng growth_anomaly_states - thống kê chạy của phát hiện bất thường theo lô/loài
+ */
+@Entity
+@Table(name = "growth_anomaly_states")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GrowthAnomalyState {
+
+    // "B:<batchId>" hoặc "S:<treeSpeciesId>"
+    @Id
+    @Column(name = "state_key", length = 40)
+    private String stateKey;
+
+    // Bố cục mảng theo GrowthAnomalyDetector
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "state", nullable = false, columnDefinition = "double precision[]")
+    private double[] state;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+}
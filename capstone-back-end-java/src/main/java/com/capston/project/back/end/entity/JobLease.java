@@ -0,0 +1,33 @@
+package com.capston.project.back.end.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Entity cho bảng job_leases - node đang giữ quyền chạy một job (hoặc một partition của job)
+ */
+@Entity
+@Table(name = "job_leases")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobLease {
+
+    // Tên job, job partition có dạng "<job>#<partition>"
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Column(name = "owner", nullable = false, length = 120)
+    private String owner;
+
+    @Column(name = "lease_until", nullable = false)
+    private OffsetDateTime leaseUntil;
+
+    @Column(name = "acquired_at", nullable = false)
+    private OffsetDateTime acquiredAt;
+}
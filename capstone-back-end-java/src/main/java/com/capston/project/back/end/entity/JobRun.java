@@ -0,0 +1,61 @@
+package com.capston.project.back.end.entity;
+
+import com.capston.project.back.end.common.JobRunStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Entity cho bảng job_runs - lịch sử chạy job định kỳ
+ */
+@Entity
+@Table(name = "job_runs", indexes = {
+        @Index(name = "idx_job_runs_job_started", columnList = "job_name, started_at"),
+        @Index(name = "idx_job_runs_job_scheduled", columnList = "job_name, scheduled_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    // null với job không chia partition
+    @Column(name = "partition_no")
+    private Integer partitionNo;
+
+    // Mốc cron của lần kích hoạt, null với job fixedDelay
+    @Column(name = "scheduled_at")
+    private OffsetDateTime scheduledAt;
+
+    @Column(name = "node_id", nullable = false, length = 120)
+    private String nodeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private JobRunStatus status;
+
+    @Column(name = "started_at", nullable = false)
+    private OffsetDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private OffsetDateTime finishedAt;
+
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    // null nếu job không đếm số bản ghi
+    @Column(name = "rows_processed")
+    private Integer rowsProcessed;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+}
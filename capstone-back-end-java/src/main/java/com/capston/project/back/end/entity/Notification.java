@@ -14,7 +14,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "notifications", indexes = {
     @Index(name = "idx_notifications_user_unread", columnList = "user_id, is_read"),
-    @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at")
+    @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_notifications_reference", columnList = "reference_type, reference_id, created_at")
 })
 @Getter
 @Setter
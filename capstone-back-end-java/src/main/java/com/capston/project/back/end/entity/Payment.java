@@ -1,5 +1,6 @@
 package com.capston.project.back.end.entity;
 
+import com.capston.project.back.end.cache.DataChangeEntityListener;
 import com.capston.project.back.end.common.PaymentStatus;
 import jakarta.persistence.*;
 import lombok.*;
@@ -11,6 +12,7 @@ import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(DataChangeEntityListener.class)
 @Table(name = "payments")
 @Getter
 @Setter
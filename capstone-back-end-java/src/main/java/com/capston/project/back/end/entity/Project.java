@@ -1,10 +1,14 @@
 package com.capston.project.back.end.entity;
 
+import com.capston.project.back.end.cache.ChatKnowledgeEntityListener;
+import com.capston.project.back.end.cache.DataChangeEntityListener;
 import com.capston.project.back.end.common.ProjectStatus;
 import com.capston.project.back.end.common.PhaseStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
@@ -28,6 +32,7 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
+@EntityListeners({DataChangeEntityListener.class, ChatKnowledgeEntityListener.class})
 @Table(name = "projects")
 @Getter
 @Setter
@@ -81,6 +86,11 @@ public class Project {
 	@Column(name = "updated_at")
 	private OffsetDateTime updatedAt;
 
+	// Cột generated (không dấu, chữ thường) để tìm kiếm qua index trigram; chỉ đọc
+	@JsonIgnore
+	@Column(name = "search_text", insertable = false, updatable = false)
+	private String searchText;
+
 	// Relationship với Phases - sử dụng LAZY để tránh N+1
 	@OneToMany(mappedBy = "project", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
 	@Builder.Default
@@ -1,5 +1,6 @@
 package com.capston.project.back.end.entity;
 
+import com.capston.project.back.end.cache.DataChangeEntityListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -7,6 +8,7 @@ import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(DataChangeEntityListener.class)
 @Table(name = "project_farms", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"project_id", "farm_id"})
 })
@@ -1,5 +1,6 @@
 package com.capston.project.back.end.entity;
 
+import com.capston.project.back.end.cache.DataChangeEntityListener;
 import com.capston.project.back.end.common.PhaseStatus;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
@@ -13,6 +14,7 @@ import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(DataChangeEntityListener.class)
 @Table(name = "project_phases", uniqueConstraints = @UniqueConstraint(columnNames = { "project_id", "phase_number" }))
 @Getter
 @Setter
@@ -0,0 +1,31 @@
+package com.capston.project.back.end.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Entity cho bảng scan_watermarks - vị trí đã xử lý tới của các job quét tăng dần
+ */
+@Entity
+@Table(name = "scan_watermarks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScanWatermark {
+
+    @Id
+    @Column(name = "scan_name", length = 60)
+    private String scanName;
+
+    // id lớn nhất đã xử lý
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    // Thời điểm bắt đầu lần quét hoàn tất gần nhất
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+}
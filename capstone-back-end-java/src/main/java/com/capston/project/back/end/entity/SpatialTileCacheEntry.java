@@ -0,0 +1,39 @@
+package com.capston.project.back.end.entity;
+
+import com.capston.project.back.end.common.TileDataType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Entity cho bảng spatial_tile_cache - tầng lưu bền của cache dữ liệu môi trường theo ô lưới
+ */
+@Entity
+@Table(name = "spatial_tile_cache", indexes = {
+    @Index(name = "idx_spatial_tile_cache_expires", columnList = "expires_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpatialTileCacheEntry {
+
+    @Id
+    @Column(name = "cache_key", length = 160)
+    private String cacheKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "data_type", nullable = false, length = 30)
+    private TileDataType dataType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "fetched_at", nullable = false)
+    private OffsetDateTime fetchedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+}
@@ -1,5 +1,6 @@
 package com.capston.project.back.end.entity;
 
+import com.capston.project.back.end.cache.DataChangeEntityListener;
 import com.capston.project.back.end.common.BatchStatus;
 import jakarta.persistence.*;
 import lombok.*;
@@ -15,6 +16,7 @@ import java.util.UUID;
  * Entity cho bảng tree_batches - Lô cây trồng
  */
 @Entity
+@EntityListeners(DataChangeEntityListener.class)
 @Table(name = "tree_batches")
 @Getter
 @Setter
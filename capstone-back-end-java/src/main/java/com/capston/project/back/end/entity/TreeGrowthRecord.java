@@ -1,5 +1,6 @@
 package com.capston.project.back.end.entity;
 
+import com.capston.project.back.end.cache.DataChangeEntityListener;
 import com.capston.project.back.end.common.HealthStatus;
 import jakarta.persistence.*;
 import lombok.*;
@@ -14,6 +15,7 @@ import java.util.UUID;
  * Entity cho bảng tree_growth_records - Ghi nhận sinh trưởng cây
  */
 @Entity
+@EntityListeners(DataChangeEntityListener.class)
 @Table(name = "tree_growth_records", uniqueConstraints = {
         @UniqueConstraint(columnNames = { "batch_id", "recorded_date" })
 })
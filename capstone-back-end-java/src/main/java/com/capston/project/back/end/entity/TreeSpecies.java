@@ -1,5 +1,7 @@
 package com.capston.project.back.end.entity;
 
+import com.capston.project.back.end.cache.ChatKnowledgeEntityListener;
+import com.capston.project.back.end.cache.DataChangeEntityListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
@@ -12,6 +14,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners({DataChangeEntityListener.class, ChatKnowledgeEntityListener.class})
 @Table(name = "tree_species")
 @Getter
 @Setter
@@ -69,6 +69,11 @@ public class User {
   @Column(name = "updated_at")
   private OffsetDateTime updatedAt;
 
+  // Generated column: username, họ tên, email, SĐT đã bỏ dấu
+  @JsonIgnore
+  @Column(name = "search_text", insertable = false, updatable = false)
+  private String searchText;
+
   @Column(name = "is_active")
   @Builder.Default
   private Boolean isActive = true;
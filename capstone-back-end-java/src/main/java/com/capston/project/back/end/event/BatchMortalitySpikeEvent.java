@@ -0,0 +1,8 @@
+package com.capston.project.back.end.event;
+
+/**
+ * Số cây chết mới trong một bản ghi vượt health-alert.rules.mortality-percent của số cây trồng
+ */
+public record BatchMortalitySpikeEvent(Integer recordId, Integer batchId, int newDeaths, int quantityPlanted,
+                                       double mortalityPercent) {
+}
@@ -0,0 +1,13 @@
+package com.capston.project.back.end.event;
+
+import com.capston.project.back.end.common.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Giao dịch tín chỉ (mua / retire) đã hoàn tất
+ */
+public record CreditTransactionCompletedEvent(Integer transactionId, Integer creditId, Integer projectId,
+                                              TransactionType transactionType, int quantity,
+                                              BigDecimal totalAmount) {
+}
@@ -0,0 +1,8 @@
+package com.capston.project.back.end.event;
+
+/**
+ * Farm vừa được tạo hoặc đổi địa chỉ, cần geocoding và lấy dữ liệu môi trường.
+ * Worker đọc địa chỉ hiện tại của farm khi chạy.
+ */
+public record FarmEnrichmentRequestedEvent(Integer farmId) {
+}
@@ -0,0 +1,26 @@
+package com.capston.project.back.end.event;
+
+import com.capston.project.back.end.common.HealthStatus;
+import com.capston.project.back.end.entity.TreeGrowthRecord;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Bản ghi sinh trưởng vừa được tạo (created = true) hoặc sửa. previousStatus là tình trạng
+ * trước đó của lô (bản ghi gần nhất khi tạo, giá trị cũ của bản ghi khi sửa), null nếu chưa có.
+ */
+public record GrowthRecordSavedEvent(Integer recordId, Integer batchId, Integer treeSpeciesId,
+                                     LocalDate recordedDate, HealthStatus previousStatus,
+                                     HealthStatus healthStatus, Integer quantityAlive, BigDecimal avgHeightCm,
+                                     BigDecimal avgTrunkDiameterCm, BigDecimal avgCanopyDiameterCm,
+                                     String healthNotes, boolean created) {
+
+    public static GrowthRecordSavedEvent of(TreeGrowthRecord record, Integer treeSpeciesId,
+                                            HealthStatus previousStatus, boolean created) {
+        return new GrowthRecordSavedEvent(record.getId(), record.getBatchId(), treeSpeciesId,
+                record.getRecordedDate(), previousStatus, record.getHealthStatus(), record.getQuantityAlive(),
+                record.getAvgHeightCm(), record.getAvgTrunkDiameterCm(), record.getAvgCanopyDiameterCm(),
+                record.getHealthNotes(), created);
+    }
+}
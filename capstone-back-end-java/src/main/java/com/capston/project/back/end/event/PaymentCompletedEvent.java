@@ -0,0 +1,9 @@
+package com.capston.project.back.end.event;
+
+import java.math.BigDecimal;
+
+/**
+ * Thanh toán chuyển sang COMPLETED
+ */
+public record PaymentCompletedEvent(Integer paymentId, BigDecimal amount) {
+}
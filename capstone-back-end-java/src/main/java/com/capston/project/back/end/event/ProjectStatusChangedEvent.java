@@ -0,0 +1,9 @@
+package com.capston.project.back.end.event;
+
+import com.capston.project.back.end.common.ProjectStatus;
+
+/**
+ * Trạng thái dự án thay đổi. oldStatus = null khi tạo mới, newStatus = null khi xoá.
+ */
+public record ProjectStatusChangedEvent(Integer projectId, ProjectStatus oldStatus, ProjectStatus newStatus) {
+}
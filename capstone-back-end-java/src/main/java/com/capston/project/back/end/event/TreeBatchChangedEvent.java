@@ -0,0 +1,10 @@
+package com.capston.project.back.end.event;
+
+/**
+ * Số cây đang ACTIVE của một lô thay đổi (tạo, sửa số lượng/phase, xoá).
+ * activeTrees = quantityPlanted nếu lô ACTIVE, ngược lại 0.
+ */
+public record TreeBatchChangedEvent(Integer batchId,
+                                    Integer oldPhaseId, long oldActiveTrees,
+                                    Integer newPhaseId, long newActiveTrees) {
+}
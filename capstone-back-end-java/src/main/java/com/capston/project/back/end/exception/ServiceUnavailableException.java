@@ -0,0 +1,19 @@
+package com.capston.project.back.end.exception;
+
+import java.time.Duration;
+
+/**
+ * Server tạm thời hết năng lực xử lý (hàng đợi đầy); client nên thử lại sau retryAfter
+ */
+public class ServiceUnavailableException extends RuntimeException {
+	private final Duration retryAfter;
+
+	public ServiceUnavailableException(String message, Duration retryAfter) {
+		super(message);
+		this.retryAfter = retryAfter;
+	}
+
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+}
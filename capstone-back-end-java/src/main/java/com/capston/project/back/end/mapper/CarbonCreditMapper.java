@@ -0,0 +1,64 @@
+package com.capston.project.back.end.mapper;
+
+import com.capston.project.back.end.entity.CarbonCredit;
+import com.capston.project.back.end.response.CarbonCreditResponse;
+import com.capston.project.back.end.response.CreditAllocationResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CarbonCredit -> CarbonCreditResponse. Giữ đúng output của ModelMapper trước
+ * đây (bao gồm danh sách allocations); project info, origins và các field tính
+ * toán vẫn do service bổ sung.
+ */
+@Component
+@RequiredArgsConstructor
+public class CarbonCreditMapper implements DtoMapper<CarbonCredit, CarbonCreditResponse> {
+
+	private final CreditAllocationMapper allocationMapper;
+
+	@Override
+	public Class<CarbonCredit> sourceType() {
+		return CarbonCredit.class;
+	}
+
+	@Override
+	public Class<CarbonCreditResponse> targetType() {
+		return CarbonCreditResponse.class;
+	}
+
+	@Override
+	public CarbonCreditResponse map(CarbonCredit source) {
+		if (source == null) {
+			return null;
+		}
+		CarbonCreditResponse response = CarbonCreditResponse.builder()
+				.id(source.getId())
+				.creditCode(source.getCreditCode())
+				.projectId(source.getProjectId())
+				.issuanceYear(source.getIssuanceYear())
+				.totalCo2Tons(source.getTotalCo2Tons())
+				.creditsIssued(source.getCreditsIssued())
+				.creditsSold(source.getCreditsSold())
+				.creditsRetired(source.getCreditsRetired())
+				.creditsAvailable(source.getCreditsAvailable())
+				.verificationStandard(source.getVerificationStandard())
+				.certificateUrl(source.getCertificateUrl())
+				.issuedBy(source.getIssuedBy())
+				.issuedAt(source.getIssuedAt())
+				.expiresAt(source.getExpiresAt())
+				.createdAt(source.getCreatedAt())
+				.updatedAt(source.getUpdatedAt())
+				.build();
+
+		if (source.getAllocations() != null) {
+			List<CreditAllocationResponse> allocations = new ArrayList<>(source.getAllocations().size());
+			source.getAllocations().forEach(a -> allocations.add(allocationMapper.map(a)));
+			response.setAllocations(allocations);
+		}
+		return response;
+	}
+}
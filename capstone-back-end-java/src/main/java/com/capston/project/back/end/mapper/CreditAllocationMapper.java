@@ -0,0 +1,40 @@
+package com.capston.project.back.end.mapper;
+
+import com.capston.project.back.end.entity.CreditAllocation;
+import com.capston.project.back.end.response.CreditAllocationResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * CreditAllocation -> CreditAllocationResponse. Chỉ copy các field trùng tên
+ * (giống cấu hình STRICT của ModelMapper); creditCode/project được service bổ
+ * sung.
+ */
+@Component
+public class CreditAllocationMapper implements DtoMapper<CreditAllocation, CreditAllocationResponse> {
+
+	@Override
+	public Class<CreditAllocation> sourceType() {
+		return CreditAllocation.class;
+	}
+
+	@Override
+	public Class<CreditAllocationResponse> targetType() {
+		return CreditAllocationResponse.class;
+	}
+
+	@Override
+	public CreditAllocationResponse map(CreditAllocation source) {
+		if (source == null) {
+			return null;
+		}
+		return CreditAllocationResponse.builder()
+				.id(source.getId())
+				.creditId(source.getCreditId())
+				.ownerId(source.getOwnerId())
+				.allocatedCredits(source.getAllocatedCredits())
+				.claimedAt(source.getClaimedAt())
+				.notes(source.getNotes())
+				.createdAt(source.getCreatedAt())
+				.build();
+	}
+}
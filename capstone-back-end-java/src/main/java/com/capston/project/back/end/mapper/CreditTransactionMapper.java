@@ -0,0 +1,41 @@
+package com.capston.project.back.end.mapper;
+
+import com.capston.project.back.end.entity.CreditTransaction;
+import com.capston.project.back.end.response.CreditTransactionResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * CreditTransaction -> CreditTransactionResponse (các field trùng tên).
+ */
+@Component
+public class CreditTransactionMapper implements DtoMapper<CreditTransaction, CreditTransactionResponse> {
+
+	@Override
+	public Class<CreditTransaction> sourceType() {
+		return CreditTransaction.class;
+	}
+
+	@Override
+	public Class<CreditTransactionResponse> targetType() {
+		return CreditTransactionResponse.class;
+	}
+
+	@Override
+	public CreditTransactionResponse map(CreditTransaction source) {
+		if (source == null) {
+			return null;
+		}
+		return CreditTransactionResponse.builder()
+				.id(source.getId())
+				.transactionCode(source.getTransactionCode())
+				.creditId(source.getCreditId())
+				.quantity(source.getQuantity())
+				.unitPrice(source.getUnitPrice())
+				.totalAmount(source.getTotalAmount())
+				.transactionStatus(source.getTransactionStatus())
+				.retirementReason(source.getRetirementReason())
+				.retiredAt(source.getRetiredAt())
+				.createdAt(source.getCreatedAt())
+				.build();
+	}
+}
@@ -0,0 +1,14 @@
+package com.capston.project.back.end.mapper;
+
+/**
+ * Mapper viết tay cho một cặp entity <-> DTO, thay cho ModelMapper trên các
+ * đường gọi nóng (list endpoints). Không dùng reflection, chỉ gọi getter/setter.
+ */
+public interface DtoMapper<S, T> {
+
+	Class<S> sourceType();
+
+	Class<T> targetType();
+
+	T map(S source);
+}
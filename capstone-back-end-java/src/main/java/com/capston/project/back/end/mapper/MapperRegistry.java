@@ -0,0 +1,58 @@
+package com.capston.project.back.end.mapper;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry tra cứu mapper theo cặp (source, target), được dựng một lần lúc
+ * khởi động từ tất cả các bean {@link DtoMapper}.
+ */
+@Component
+public class MapperRegistry {
+
+	private final Map<Class<?>, Map<Class<?>, DtoMapper<?, ?>>> mappers = new HashMap<>();
+
+	public MapperRegistry(List<DtoMapper<?, ?>> dtoMappers) {
+		for (DtoMapper<?, ?> mapper : dtoMappers) {
+			DtoMapper<?, ?> previous = mappers
+					.computeIfAbsent(mapper.sourceType(), k -> new HashMap<>())
+					.put(mapper.targetType(), mapper);
+			if (previous != null) {
+				throw new IllegalStateException(String.format("Duplicate mapper for %s -> %s",
+						mapper.sourceType().getSimpleName(), mapper.targetType().getSimpleName()));
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public <S, T> DtoMapper<S, T> get(Class<S> sourceType, Class<T> targetType) {
+		Map<Class<?>, DtoMapper<?, ?>> byTarget = mappers.get(sourceType);
+		DtoMapper<?, ?> mapper = byTarget != null ? byTarget.get(targetType) : null;
+		if (mapper == null) {
+			throw new IllegalArgumentException(String.format("No mapper registered for %s -> %s",
+					sourceType.getSimpleName(), targetType.getSimpleName()));
+		}
+		return (DtoMapper<S, T>) mapper;
+	}
+
+	/**
+	 * Map theo kiểu runtime của source; proxy Hibernate (lớp con của entity) được tra theo lớp cha
+	 */
+	@SuppressWarnings("unchecked")
+	public <S, T> T map(S source, Class<T> targetType) {
+		if (source == null) {
+			return null;
+		}
+		for (Class<?> type = source.getClass(); type != null; type = type.getSuperclass()) {
+			Map<Class<?>, DtoMapper<?, ?>> byTarget = mappers.get(type);
+			if (byTarget != null && byTarget.containsKey(targetType)) {
+				return ((DtoMapper<S, T>) byTarget.get(targetType)).map(source);
+			}
+		}
+		throw new IllegalArgumentException(String.format("No mapper registered for %s -> %s",
+				source.getClass().getSimpleName(), targetType.getSimpleName()));
+	}
+}
@@ -0,0 +1,40 @@
+package com.capston.project.back.end.mapper;
+
+import com.capston.project.back.end.entity.Project;
+import com.capston.project.back.end.request.ProjectRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * ProjectRequest -> Project. Bỏ qua id, code, phases và các field tính toán
+ * (giống PropertyMap trong ModelMapperConfig); phases do service xử lý riêng.
+ */
+@Component
+public class ProjectRequestMapper implements DtoMapper<ProjectRequest, Project> {
+
+	@Override
+	public Class<ProjectRequest> sourceType() {
+		return ProjectRequest.class;
+	}
+
+	@Override
+	public Class<Project> targetType() {
+		return Project.class;
+	}
+
+	@Override
+	public Project map(ProjectRequest source) {
+		if (source == null) {
+			return null;
+		}
+		Project project = Project.builder()
+				.name(source.getName())
+				.description(source.getDescription())
+				.managerId(source.getManagerId())
+				.build();
+		// skipNull: giữ giá trị mặc định của entity khi request không gửi status
+		if (source.getProjectStatus() != null) {
+			project.setProjectStatus(source.getProjectStatus());
+		}
+		return project;
+	}
+}
@@ -2,6 +2,12 @@ package com.capston.project.back.end.repository;
 
 import com.capston.project.back.end.common.CreditStatus;
 import com.capston.project.back.end.entity.CarbonCredit;
+import com.capston.project.back.end.repository.keyset.KeysetRepository;
+import com.capston.project.back.end.repository.projection.CreditStatusRow;
+import com.capston.project.back.end.repository.projection.MonthlyCreditRow;
+import com.capston.project.back.end.repository.projection.ProjectCreditTotalsRow;
+import com.capston.project.back.end.repository.projection.ProjectCreditRow;
+import com.capston.project.back.end.repository.projection.YearlyCreditRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,12 +15,13 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface CarbonCreditRepository extends JpaRepository<CarbonCredit, Integer> {
+public interface CarbonCreditRepository extends JpaRepository<CarbonCredit, Integer>, KeysetRepository<CarbonCredit> {
 
 	boolean existsByCreditCode(String creditCode);
 
@@ -61,4 +68,91 @@ public interface CarbonCreditRepository extends JpaRepository<CarbonCredit, Inte
 	@Query("SELECT COALESCE(SUM(c.creditsAvailable), 0) FROM CarbonCredit c " +
 			"WHERE c.projectId = :projectId AND c.creditStatus IN ('AVAILABLE', 'PARTIALLY_SOLD')")
 	Long sumCreditsAvailableByProjectId(@Param("projectId") Integer projectId);
-}
\ No newline at end of file
+
+	// ==================== REPORT AGGREGATES ====================
+
+	// Lọc tín chỉ theo dự án và theo farm nguồn gốc (origins jsonb: [{farmId, batchId, quantity}])
+	String CREDIT_SCOPE_FILTER = "(:allProjects = TRUE OR cc.project_id IN (:projectIds)) " +
+			"AND (:allFarms = TRUE OR EXISTS (SELECT 1 FROM jsonb_array_elements(cc.origins) o " +
+			"WHERE CAST(o ->> 'farmId' AS integer) IN (:farmIds))) ";
+
+	String CREDIT_ISSUED_IN_RANGE = "(CAST(:fromDate AS date) IS NULL OR cc.issued_at >= CAST(:fromDate AS date)) " +
+			"AND (CAST(:toDate AS date) IS NULL OR cc.issued_at < CAST(:toDate AS date) + 1) ";
+
+	String CREDIT_REVENUE_JOIN = "LEFT JOIN (SELECT t.credit_id, SUM(t.total_amount) AS revenue " +
+			"FROM credit_transactions t WHERE t.transaction_type = 'PURCHASE' AND t.transaction_status = 'COMPLETED' " +
+			"GROUP BY t.credit_id) rev ON rev.credit_id = cc.id ";
+
+	@Query(value = "SELECT cc.issuance_year AS year, " +
+			"COALESCE(SUM(cc.credits_issued), 0) AS creditsIssued, COALESCE(SUM(cc.credits_sold), 0) AS creditsSold, " +
+			"COALESCE(SUM(cc.credits_retired), 0) AS creditsRetired, " +
+			"COALESCE(SUM(cc.credits_available), 0) AS creditsAvailable, " +
+			"COALESCE(SUM(cc.total_co2_tons), 0) AS co2Tons, COALESCE(SUM(rev.revenue), 0) AS revenue " +
+			"FROM carbon_credits cc " + CREDIT_REVENUE_JOIN +
+			"WHERE " + CREDIT_ISSUED_IN_RANGE + "AND " + CREDIT_SCOPE_FILTER +
+			"GROUP BY cc.issuance_year ORDER BY cc.issuance_year", nativeQuery = true)
+	List<YearlyCreditRow> aggregateCreditsByYear(@Param("fromDate") LocalDate fromDate,
+			@Param("toDate") LocalDate toDate,
+			@Param("allProjects") boolean allProjects, @Param("projectIds") List<Integer> projectIds,
+			@Param("allFarms") boolean allFarms, @Param("farmIds") List<Integer> farmIds);
+
+	@Query(value = "SELECT p.id AS projectId, p.code AS projectCode, p.name AS projectName, " +
+			"COALESCE(SUM(cc.credits_issued), 0) AS creditsIssued, COALESCE(SUM(cc.credits_sold), 0) AS creditsSold, " +
+			"COALESCE(SUM(cc.credits_retired), 0) AS creditsRetired, " +
+			"COALESCE(SUM(cc.total_co2_tons), 0) AS co2Tons, COALESCE(SUM(rev.revenue), 0) AS revenue " +
+			"FROM carbon_credits cc JOIN projects p ON p.id = cc.project_id " + CREDIT_REVENUE_JOIN +
+			"WHERE " + CREDIT_ISSUED_IN_RANGE + "AND " + CREDIT_SCOPE_FILTER +
+			"GROUP BY p.id, p.code, p.name ORDER BY creditsIssued DESC", nativeQuery = true)
+	List<ProjectCreditRow> aggregateCreditsByProject(@Param("fromDate") LocalDate fromDate,
+			@Param("toDate") LocalDate toDate,
+			@Param("allProjects") boolean allProjects, @Param("projectIds") List<Integer> projectIds,
+			@Param("allFarms") boolean allFarms, @Param("farmIds") List<Integer> farmIds);
+
+	@Query(value = "SELECT cc.credit_status AS status, COUNT(*) AS count, " +
+			"COALESCE(SUM(cc.credits_issued), 0) AS totalCredits " +
+			"FROM carbon_credits cc " +
+			"WHERE " + CREDIT_ISSUED_IN_RANGE + "AND " + CREDIT_SCOPE_FILTER +
+			"GROUP BY cc.credit_status ORDER BY totalCredits DESC", nativeQuery = true)
+	List<CreditStatusRow> aggregateCreditsByStatus(@Param("fromDate") LocalDate fromDate,
+			@Param("toDate") LocalDate toDate,
+			@Param("allProjects") boolean allProjects, @Param("projectIds") List<Integer> projectIds,
+			@Param("allFarms") boolean allFarms, @Param("farmIds") List<Integer> farmIds);
+
+	// Phát hành theo tháng issued_at, bán/retire theo tháng transaction_date
+	@Query(value = "SELECT CAST(EXTRACT(YEAR FROM x.m) AS integer) AS year, " +
+			"CAST(EXTRACT(MONTH FROM x.m) AS integer) AS month, " +
+			"COALESCE(SUM(x.issued), 0) AS creditsIssued, COALESCE(SUM(x.sold), 0) AS creditsSold, " +
+			"COALESCE(SUM(x.retired), 0) AS creditsRetired, COALESCE(SUM(x.revenue), 0) AS revenue " +
+			"FROM (" +
+			"  SELECT date_trunc('month', cc.issued_at) AS m, cc.credits_issued AS issued, 0 AS sold, " +
+			"  0 AS retired, 0 AS revenue " +
+			"  FROM carbon_credits cc " +
+			"  WHERE " + CREDIT_ISSUED_IN_RANGE + "AND " + CREDIT_SCOPE_FILTER +
+			"  UNION ALL " +
+			"  SELECT date_trunc('month', t.transaction_date), 0, " +
+			"  CASE WHEN t.transaction_type = 'PURCHASE' THEN t.quantity ELSE 0 END, " +
+			"  CASE WHEN t.transaction_type = 'RETIREMENT' THEN t.quantity ELSE 0 END, " +
+			"  CASE WHEN t.transaction_type = 'PURCHASE' THEN t.total_amount ELSE 0 END " +
+			"  FROM credit_transactions t JOIN carbon_credits cc ON cc.id = t.credit_id " +
+			"  WHERE t.transaction_status = 'COMPLETED' " +
+			"  AND (CAST(:fromDate AS date) IS NULL OR t.transaction_date >= CAST(:fromDate AS date)) " +
+			"  AND (CAST(:toDate AS date) IS NULL OR t.transaction_date < CAST(:toDate AS date) + 1) " +
+			"  AND " + CREDIT_SCOPE_FILTER +
+			") x GROUP BY x.m ORDER BY x.m", nativeQuery = true)
+	List<MonthlyCreditRow> aggregateMonthlyCredits(@Param("fromDate") LocalDate fromDate,
+			@Param("toDate") LocalDate toDate,
+			@Param("allProjects") boolean allProjects, @Param("projectIds") List<Integer> projectIds,
+			@Param("allFarms") boolean allFarms, @Param("farmIds") List<Integer> farmIds);
+
+	// ==================== DASHBOARD METRICS ====================
+
+	@Query(value = "SELECT cc.project_id AS projectId, " +
+			"COALESCE(SUM(cc.credits_issued), 0) AS creditsIssued, COALESCE(SUM(cc.credits_sold), 0) AS creditsSold, " +
+			"COALESCE(SUM(cc.credits_retired), 0) AS creditsRetired, " +
+			"COALESCE(SUM(cc.credits_available) FILTER (WHERE cc.credit_status IN ('AVAILABLE', 'PARTIALLY_SOLD')), 0) " +
+			"AS creditsAvailable, " +
+			"COALESCE(SUM(rev.revenue), 0) AS creditRevenue " +
+			"FROM carbon_credits cc " + CREDIT_REVENUE_JOIN +
+			"GROUP BY cc.project_id", nativeQuery = true)
+	List<ProjectCreditTotalsRow> sumCreditTotalsGroupByProject();
+}
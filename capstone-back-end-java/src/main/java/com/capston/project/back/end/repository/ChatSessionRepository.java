@@ -3,7 +3,11 @@ package com.capston.project.back.end.repository;
 import com.capston.project.back.end.common.SessionStatus;
 import com.capston.project.back.end.entity.ChatSession;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -11,4 +15,9 @@ import java.util.UUID;
 @Repository
 public interface ChatSessionRepository extends JpaRepository<ChatSession, Integer> {
     Optional<ChatSession> findByUserIdAndSessionStatus(UUID userId, SessionStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChatSession s SET s.contextSummary = :summary WHERE s.id = :sessionId")
+    void updateContextSummary(@Param("sessionId") Integer sessionId, @Param("summary") String summary);
 }
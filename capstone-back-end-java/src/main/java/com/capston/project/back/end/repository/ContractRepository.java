@@ -2,6 +2,10 @@ package com.capston.project.back.end.repository;
 
 import com.capston.project.back.end.common.ContractStatus;
 import com.capston.project.back.end.entity.Contract;
+import com.capston.project.back.end.repository.keyset.KeysetRepository;
+import com.capston.project.back.end.repository.projection.ContractLifecycleRow;
+import com.capston.project.back.end.repository.projection.ContractStatisticsRow;
+import com.capston.project.back.end.repository.projection.PendingApprovalCountsRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +13,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -17,7 +22,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ContractRepository extends JpaRepository<Contract, Integer> {
+public interface ContractRepository extends JpaRepository<Contract, Integer>, KeysetRepository<Contract> {
 
 	boolean existsByContractCode(String contractCode);
 
@@ -74,11 +79,39 @@ public interface ContractRepository extends JpaRepository<Contract, Integer> {
 			"AND end_date < :today", nativeQuery = true)
 	List<Contract> findActiveContractsExpiredBefore(@Param("today") LocalDate today);
 
-	// Search
+	@Query(value = "SELECT COUNT(*) FROM contracts WHERE contract_status = 'ACTIVE' " +
+			"AND end_date BETWEEN :today AND :warningDate", nativeQuery = true)
+	long countExpiringSoon(@Param("today") LocalDate today, @Param("warningDate") LocalDate warningDate);
+
+	// ==================== LIFECYCLE (ContractScheduler) ====================
+
+	// Chuyển hết hạn hàng loạt trong một câu lệnh, chỉ trả về các hợp đồng vừa đổi trạng thái
+	@Transactional
+	@Query(value = "UPDATE contracts SET contract_status = 'EXPIRED', updated_at = NOW() " +
+			"WHERE contract_status = 'ACTIVE' AND end_date < :today " +
+			"RETURNING id AS id, contract_code AS contractCode, end_date AS endDate, " +
+			"party_a_id AS partyAId, party_b_id AS partyBId", nativeQuery = true)
+	List<ContractLifecycleRow> expireActiveContractsBefore(@Param("today") LocalDate today);
+
+	// Ghi nhận cảnh báo (hợp đồng, ngưỡng, end_date); đã có thì bỏ qua nên mỗi mốc chỉ gửi một lần,
+	// gia hạn đổi end_date thì được cảnh báo lại
+	@Transactional
+	@Query(value = "WITH warned AS (" +
+			"INSERT INTO contract_expiry_warnings (contract_id, threshold_days, end_date, sent_at) " +
+			"SELECT c.id, :thresholdDays, c.end_date, NOW() FROM contracts c " +
+			"WHERE c.contract_status = 'ACTIVE' AND c.end_date BETWEEN :fromDate AND :toDate " +
+			"ON CONFLICT DO NOTHING RETURNING contract_id) " +
+			"SELECT c.id AS id, c.contract_code AS contractCode, c.end_date AS endDate, " +
+			"c.party_a_id AS partyAId, c.party_b_id AS partyBId " +
+			"FROM warned w JOIN contracts c ON c.id = w.contract_id", nativeQuery = true)
+	List<ContractLifecycleRow> recordExpiryWarnings(@Param("thresholdDays") int thresholdDays,
+			@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+	// Search theo mã hợp đồng hoặc dự án; keyword đã bỏ dấu + chữ thường (TextSearchIndex.fold)
 	@Query("SELECT c FROM Contract c " +
 			"LEFT JOIN c.project p " +
-			"WHERE LOWER(c.contractCode) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-			"OR LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%'))")
+			"WHERE c.searchText LIKE CONCAT('%', :keyword, '%') " +
+			"OR p.searchText LIKE CONCAT('%', :keyword, '%')")
 	Page<Contract> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
 	// Statistics
@@ -88,6 +121,20 @@ public interface ContractRepository extends JpaRepository<Contract, Integer> {
 	// Count by contract status
 	long countByContractStatus(ContractStatus status);
 
+	@Query(value = "SELECT COUNT(*) AS totalContracts, " +
+			"COUNT(*) FILTER (WHERE contract_status = 'PENDING') AS pendingContracts, " +
+			"COUNT(*) FILTER (WHERE contract_status = 'ACTIVE') AS activeContracts " +
+			"FROM contracts", nativeQuery = true)
+	ContractStatisticsRow getContractStatistics();
+
+	// Đếm các yêu cầu chờ duyệt của cả 3 bảng trong một round-trip
+	@Query(value = "SELECT " +
+			"(SELECT COUNT(*) FROM contracts WHERE contract_status = 'PENDING') AS pendingContracts, " +
+			"(SELECT COUNT(*) FROM contract_renewals WHERE renewal_status = 'PENDING') AS pendingRenewals, " +
+			"(SELECT COUNT(*) FROM contract_transfers WHERE transfer_status = 'PENDING') AS pendingTransfers",
+			nativeQuery = true)
+	PendingApprovalCountsRow countPendingApprovals();
+
 	@Query("SELECT COALESCE(SUM(c.totalValue), 0) FROM Contract c WHERE c.contractStatus = :status")
 	BigDecimal sumTotalValueByStatus(@Param("status") ContractStatus status);
 
@@ -106,14 +153,46 @@ public interface ContractRepository extends JpaRepository<Contract, Integer> {
 	@Query("SELECT DISTINCT c FROM Contract c LEFT JOIN FETCH c.project WHERE c.id IN :ids")
 	List<Contract> findAllWithProjectByIds(@Param("ids") List<Integer> ids);
 
-	// Auto renewal candidates
-	@Query(value = "SELECT * FROM contracts WHERE contract_status = 'ACTIVE' " +
-			"AND is_renewable = true " +
-			"AND end_date IS NOT NULL " +
-			"AND end_date BETWEEN :today AND :warningDate " +
-			"AND (max_renewals IS NULL OR current_renewal_count < max_renewals)", nativeQuery = true)
-	List<Contract> findAutoRenewalCandidates(@Param("today") LocalDate today,
-			@Param("warningDate") LocalDate warningDate);
+	// Auto renewal candidates, theo chunk id tăng dần (keyset). Hợp đồng đang có yêu cầu gia hạn
+	// PENDING để người duyệt xử lý, không tự gia hạn chồng lên
+	@Query(value = "SELECT c.id FROM contracts c WHERE c.contract_status = 'ACTIVE' " +
+			"AND c.is_renewable = true " +
+			"AND c.end_date IS NOT NULL " +
+			"AND c.end_date BETWEEN :today AND :warningDate " +
+			"AND (c.max_renewals IS NULL OR c.current_renewal_count < c.max_renewals) " +
+			"AND NOT EXISTS (SELECT 1 FROM contract_renewals r WHERE r.original_contract_id = c.id " +
+			"AND r.renewal_status = 'PENDING') " +
+			"AND c.id > :afterId ORDER BY c.id LIMIT :limit", nativeQuery = true)
+	List<Integer> findAutoRenewalCandidates(@Param("today") LocalDate today,
+			@Param("warningDate") LocalDate warningDate, @Param("afterId") int afterId, @Param("limit") int limit);
+
+	// Tạo renewal APPROVED và dời end_date trong một câu lệnh. Số lần gia hạn tính một lần trong
+	// candidates, dùng cho cả renewal_number và khoá idempotency AUTO:<contract>:<renewal_number>; khoá
+	// trùng (chạy lại, node khác đã xử lý) hoặc renewal_number trùng với yêu cầu thủ công vừa tạo thì
+	// hợp đồng không bị gia hạn thêm
+	@Transactional
+	@Query(value = "WITH candidates AS (" +
+			"SELECT c.id, c.end_date, c.duration_years, GREATEST(c.current_renewal_count, " +
+			"COALESCE((SELECT MAX(p.renewal_number) FROM contract_renewals p WHERE p.original_contract_id = c.id), 0)) " +
+			"+ 1 AS renewal_number " +
+			"FROM contracts c WHERE c.id IN (:ids) AND c.contract_status = 'ACTIVE' AND c.is_renewable = true " +
+			"AND (c.max_renewals IS NULL OR c.current_renewal_count < c.max_renewals) " +
+			"AND NOT EXISTS (SELECT 1 FROM contract_renewals r WHERE r.original_contract_id = c.id " +
+			"AND r.renewal_status = 'PENDING')), " +
+			"renewed AS (" +
+			"INSERT INTO contract_renewals (original_contract_id, renewal_number, new_start_date, new_end_date, " +
+			"renewal_status, requested_at, approved_at, notes, idempotency_key) " +
+			"SELECT k.id, k.renewal_number, k.end_date, " +
+			"(k.end_date + make_interval(years => GREATEST(COALESCE(k.duration_years, 0), :minTermYears)))::date, " +
+			"'APPROVED', NOW(), NOW(), 'Tự động gia hạn', 'AUTO:' || k.id || ':' || k.renewal_number " +
+			"FROM candidates k " +
+			"ON CONFLICT DO NOTHING " +
+			"RETURNING original_contract_id, renewal_number, new_end_date) " +
+			"UPDATE contracts c SET end_date = r.new_end_date, current_renewal_count = c.current_renewal_count + 1, " +
+			"updated_at = NOW() FROM renewed r WHERE c.id = r.original_contract_id " +
+			"RETURNING c.id AS id, c.contract_code AS contractCode, c.end_date AS endDate, " +
+			"c.party_a_id AS partyAId, c.party_b_id AS partyBId", nativeQuery = true)
+	List<ContractLifecycleRow> autoRenew(@Param("ids") List<Integer> ids, @Param("minTermYears") int minTermYears);
 
 	@Query("SELECT c FROM Contract c ORDER BY c.createdAt DESC LIMIT :limit")
 	List<Contract> findRecentContracts(@Param("limit") int limit);
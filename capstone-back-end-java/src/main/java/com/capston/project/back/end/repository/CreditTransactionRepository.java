@@ -2,6 +2,9 @@ package com.capston.project.back.end.repository;
 
 import com.capston.project.back.end.common.TransactionType;
 import com.capston.project.back.end.entity.CreditTransaction;
+import com.capston.project.back.end.repository.projection.MonthlyRevenueRow;
+import com.capston.project.back.end.repository.projection.ProjectRevenueRow;
+import com.capston.project.back.end.repository.projection.TopBuyerRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,6 +13,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -77,4 +81,71 @@ public interface CreditTransactionRepository extends JpaRepository<CreditTransac
 	@Query(value = "SELECT COALESCE(SUM(quantity), 0) FROM credit_transactions " +
 			"WHERE buyer_id = :userId AND transaction_type = 'RETIREMENT'", nativeQuery = true)
 	Integer sumRetiredByUserId(@Param("userId") UUID userId);
+
+	// ==================== REPORT AGGREGATES ====================
+	// Doanh thu hợp đồng (payments gắn contract) chỉ có phạm vi dự án, nên bị loại
+	// khi report lọc theo farm; doanh thu tín chỉ lọc farm qua origins của tín chỉ.
+
+	String TXN_SCOPE_FILTER = "t.transaction_status = 'COMPLETED' " +
+			"AND (CAST(:fromDate AS date) IS NULL OR t.transaction_date >= CAST(:fromDate AS date)) " +
+			"AND (CAST(:toDate AS date) IS NULL OR t.transaction_date < CAST(:toDate AS date) + 1) " +
+			"AND " + CarbonCreditRepository.CREDIT_SCOPE_FILTER;
+
+	String CREDIT_SALE_FILTER = "t.transaction_type = 'PURCHASE' AND " + TXN_SCOPE_FILTER;
+
+	String CONTRACT_PAYMENT_FILTER = "pay.payment_status = 'COMPLETED' AND :allFarms = TRUE " +
+			"AND (CAST(:fromDate AS date) IS NULL OR COALESCE(pay.completed_at, pay.created_at) >= CAST(:fromDate AS date)) " +
+			"AND (CAST(:toDate AS date) IS NULL OR COALESCE(pay.completed_at, pay.created_at) < CAST(:toDate AS date) + 1) " +
+			"AND (:allProjects = TRUE OR c.project_id IN (:projectIds)) ";
+
+	@Query(value = "SELECT p.id AS projectId, p.code AS projectCode, p.name AS projectName, " +
+			"COALESCE(cr.revenue, 0) AS creditRevenue, COALESCE(ct.revenue, 0) AS contractRevenue, " +
+			"COALESCE(cr.credits_sold, 0) AS creditsSold, " +
+			"COALESCE(cr.txn_count, 0) + COALESCE(ct.txn_count, 0) AS transactionCount " +
+			"FROM projects p " +
+			"LEFT JOIN (SELECT cc.project_id, SUM(t.total_amount) AS revenue, SUM(t.quantity) AS credits_sold, " +
+			"  COUNT(*) AS txn_count FROM credit_transactions t JOIN carbon_credits cc ON cc.id = t.credit_id " +
+			"  WHERE " + CREDIT_SALE_FILTER + "GROUP BY cc.project_id) cr ON cr.project_id = p.id " +
+			"LEFT JOIN (SELECT c.project_id, SUM(pay.amount) AS revenue, COUNT(*) AS txn_count " +
+			"  FROM payments pay JOIN contracts c ON c.id = pay.contract_id " +
+			"  WHERE " + CONTRACT_PAYMENT_FILTER + "GROUP BY c.project_id) ct ON ct.project_id = p.id " +
+			"WHERE cr.project_id IS NOT NULL OR ct.project_id IS NOT NULL " +
+			"ORDER BY COALESCE(cr.revenue, 0) + COALESCE(ct.revenue, 0) DESC", nativeQuery = true)
+	List<ProjectRevenueRow> aggregateRevenueByProject(@Param("fromDate") LocalDate fromDate,
+			@Param("toDate") LocalDate toDate,
+			@Param("allProjects") boolean allProjects, @Param("projectIds") List<Integer> projectIds,
+			@Param("allFarms") boolean allFarms, @Param("farmIds") List<Integer> farmIds);
+
+	@Query(value = "SELECT CAST(EXTRACT(YEAR FROM x.m) AS integer) AS year, " +
+			"CAST(EXTRACT(MONTH FROM x.m) AS integer) AS month, " +
+			"COALESCE(SUM(x.credit_revenue), 0) AS creditRevenue, " +
+			"COALESCE(SUM(x.contract_revenue), 0) AS contractRevenue, COUNT(*) AS transactionCount " +
+			"FROM (" +
+			"  SELECT date_trunc('month', t.transaction_date) AS m, t.total_amount AS credit_revenue, " +
+			"  0 AS contract_revenue " +
+			"  FROM credit_transactions t JOIN carbon_credits cc ON cc.id = t.credit_id " +
+			"  WHERE " + CREDIT_SALE_FILTER +
+			"  UNION ALL " +
+			"  SELECT date_trunc('month', COALESCE(pay.completed_at, pay.created_at)), 0, pay.amount " +
+			"  FROM payments pay JOIN contracts c ON c.id = pay.contract_id " +
+			"  WHERE " + CONTRACT_PAYMENT_FILTER +
+			") x GROUP BY x.m ORDER BY x.m", nativeQuery = true)
+	List<MonthlyRevenueRow> aggregateMonthlyRevenue(@Param("fromDate") LocalDate fromDate,
+			@Param("toDate") LocalDate toDate,
+			@Param("allProjects") boolean allProjects, @Param("projectIds") List<Integer> projectIds,
+			@Param("allFarms") boolean allFarms, @Param("farmIds") List<Integer> farmIds);
+
+	@Query(value = "SELECT t.buyer_id AS buyerId, " +
+			"COALESCE(SUM(t.total_amount) FILTER (WHERE t.transaction_type = 'PURCHASE'), 0) AS totalSpent, " +
+			"COALESCE(SUM(t.quantity) FILTER (WHERE t.transaction_type = 'PURCHASE'), 0) AS creditsPurchased, " +
+			"COALESCE(SUM(t.quantity) FILTER (WHERE t.transaction_type = 'RETIREMENT'), 0) AS creditsRetired, " +
+			"COUNT(*) AS transactionCount " +
+			"FROM credit_transactions t JOIN carbon_credits cc ON cc.id = t.credit_id " +
+			"WHERE " + TXN_SCOPE_FILTER +
+			"GROUP BY t.buyer_id ORDER BY totalSpent DESC LIMIT :limit", nativeQuery = true)
+	List<TopBuyerRow> aggregateTopBuyers(@Param("fromDate") LocalDate fromDate,
+			@Param("toDate") LocalDate toDate,
+			@Param("allProjects") boolean allProjects, @Param("projectIds") List<Integer> projectIds,
+			@Param("allFarms") boolean allFarms, @Param("farmIds") List<Integer> farmIds,
+			@Param("limit") int limit);
 }
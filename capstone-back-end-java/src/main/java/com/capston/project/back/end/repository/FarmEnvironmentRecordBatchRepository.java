@@ -0,0 +1,17 @@
+package com.capston.project.back.end.repository;
+
+import com.capston.project.back.end.entity.FarmEnvironmentRecord;
+
+import java.util.List;
+
+/**
+ * Ghi hàng loạt record môi trường (ingestion / catch-up)
+ */
+public interface FarmEnvironmentRecordBatchRepository {
+
+    /**
+     * Insert một batch JDBC, bỏ qua các (farm_id, recorded_date) đã tồn tại
+     * @return số record thực sự được insert
+     */
+    int insertIgnoringExisting(List<FarmEnvironmentRecord> records);
+}
@@ -0,0 +1,58 @@
+package com.capston.project.back.end.repository;
+
+import com.capston.project.back.end.entity.FarmEnvironmentRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Entity dùng IDENTITY nên Hibernate không batch được insert; fragment này ghi
+ * thẳng bằng JDBC batch với ON CONFLICT DO NOTHING.
+ */
+@RequiredArgsConstructor
+public class FarmEnvironmentRecordBatchRepositoryImpl implements FarmEnvironmentRecordBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO farm_environment_records " +
+            "(farm_id, recorded_date, rainfall_mm, temperature_c, soil_ph, soil_moisture_percent, " +
+            "rainfall_factor, temperature_factor, soil_factor, overall_factor, recorded_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (farm_id, recorded_date) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public int insertIgnoringExisting(List<FarmEnvironmentRecord> records) {
+        if (records.isEmpty()) {
+            return 0;
+        }
+        // Không qua persist nên phải tự tính hệ số như @PrePersist
+        records.forEach(FarmEnvironmentRecord::calculateFactors);
+
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, records, records.size(), (ps, record) -> {
+            ps.setInt(1, record.getFarmId());
+            ps.setDate(2, Date.valueOf(record.getRecordedDate()));
+            ps.setBigDecimal(3, record.getRainfallMm());
+            ps.setBigDecimal(4, record.getTemperatureC());
+            ps.setBigDecimal(5, record.getSoilPh());
+            ps.setBigDecimal(6, record.getSoilMoisturePercent());
+            ps.setBigDecimal(7, record.getRainfallFactor());
+            ps.setBigDecimal(8, record.getTemperatureFactor());
+            ps.setBigDecimal(9, record.getSoilFactor());
+            ps.setBigDecimal(10, record.getOverallFactor());
+            ps.setObject(11, record.getRecordedBy());
+        })[0];
+
+        int inserted = 0;
+        for (int count : counts) {
+            if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+}
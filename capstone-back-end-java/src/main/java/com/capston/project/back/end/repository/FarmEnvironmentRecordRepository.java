@@ -1,6 +1,9 @@
 package com.capston.project.back.end.repository;
 
 import com.capston.project.back.end.entity.FarmEnvironmentRecord;
+import com.capston.project.back.end.repository.projection.FarmFactorRow;
+import com.capston.project.back.end.repository.projection.FarmRecordedDateRow;
+import com.capston.project.back.end.repository.projection.FarmSoilPhRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,11 +11,13 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface FarmEnvironmentRecordRepository extends JpaRepository<FarmEnvironmentRecord, Integer> {
+public interface FarmEnvironmentRecordRepository extends JpaRepository<FarmEnvironmentRecord, Integer>,
+        FarmEnvironmentRecordBatchRepository {
 
     List<FarmEnvironmentRecord> findByFarmIdOrderByRecordedDateDesc(Integer farmId);
 
@@ -25,6 +30,27 @@ public interface FarmEnvironmentRecordRepository extends JpaRepository<FarmEnvir
     // Alias for findByFarmIdAndDate
     Optional<FarmEnvironmentRecord> findByFarmIdAndRecordedDate(Integer farmId, LocalDate recordedDate);
 
+    // Các farm đã có record cho ngày (ingestion kiểm tra một lần thay vì từng farm)
+    @Query("SELECT fer.farmId FROM FarmEnvironmentRecord fer WHERE fer.recordedDate = :date")
+    List<Integer> findFarmIdsWithRecordOn(@Param("date") LocalDate date);
+
+    // Các ngày đã có record trong khoảng (catch-up tìm ngày thiếu)
+    @Query("SELECT fer.farmId AS farmId, fer.recordedDate AS recordedDate FROM FarmEnvironmentRecord fer " +
+            "WHERE fer.recordedDate BETWEEN :from AND :to")
+    List<FarmRecordedDateRow> findRecordedDatesBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // pH đất gần nhất của mỗi farm; pH gần như không đổi nên ingestion dùng lại thay vì gọi SoilGrids
+    @Query(value = "SELECT DISTINCT ON (farm_id) farm_id AS farmId, soil_ph AS soilPh " +
+            "FROM farm_environment_records WHERE soil_ph IS NOT NULL " +
+            "ORDER BY farm_id, recorded_date DESC", nativeQuery = true)
+    List<FarmSoilPhRow> findLatestSoilPhPerFarm();
+
+    // Chuỗi hệ số theo ngày của nhiều farm (nạp index EnvironmentFactorService)
+    @Query("SELECT fer.farmId AS farmId, fer.recordedDate AS recordedDate, fer.overallFactor AS overallFactor " +
+            "FROM FarmEnvironmentRecord fer WHERE fer.farmId IN :farmIds AND fer.overallFactor IS NOT NULL " +
+            "ORDER BY fer.farmId, fer.recordedDate")
+    List<FarmFactorRow> findFactorSeries(@Param("farmIds") Collection<Integer> farmIds);
+
     @Query("SELECT AVG(fer.overallFactor) FROM FarmEnvironmentRecord fer WHERE fer.farmId = :farmId")
     BigDecimal getAverageFactorByFarmId(@Param("farmId") Integer farmId);
 
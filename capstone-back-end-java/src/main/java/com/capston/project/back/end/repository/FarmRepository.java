@@ -1,20 +1,29 @@
 package com.capston.project.back.end.repository;
 
+import com.capston.project.back.end.common.EnrichmentStatus;
 import com.capston.project.back.end.common.FarmStatus;
 import com.capston.project.back.end.entity.Farm;
+import com.capston.project.back.end.repository.keyset.KeysetRepository;
+import com.capston.project.back.end.repository.projection.FarmExportRow;
+import com.capston.project.back.end.repository.projection.ProjectFarmCountRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface FarmRepository extends JpaRepository<Farm, Integer> {
+public interface FarmRepository extends JpaRepository<Farm, Integer>, KeysetRepository<Farm> {
 
 	boolean existsByCode(String code);
 
@@ -31,15 +40,14 @@ public interface FarmRepository extends JpaRepository<Farm, Integer> {
 
 	Page<Farm> findByFarmStatusAndCreatedByAndDeletedAtIsNull(FarmStatus status, UUID createdBy, Pageable pageable);
 
+	// keyword đã bỏ dấu + chữ thường (TextSearchIndex.fold)
 	@Query("SELECT f FROM Farm f WHERE f.deletedAt IS NULL " +
-			"AND (LOWER(f.name) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-			"OR LOWER(f.location) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+			"AND f.searchText LIKE CONCAT('%', :keyword, '%')")
 	List<Farm> searchByKeyword(@Param("keyword") String keyword);
 
 	@Query("SELECT f FROM Farm f WHERE f.deletedAt IS NULL " +
 			"AND f.createdBy = :createdBy " +
-			"AND (LOWER(f.name) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-			"OR LOWER(f.location) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+			"AND f.searchText LIKE CONCAT('%', :keyword, '%')")
 	List<Farm> searchByKeywordAndCreatedBy(@Param("keyword") String keyword, @Param("createdBy") UUID createdBy);
 
 	@Query("SELECT f FROM Farm f WHERE f.deletedAt IS NULL")
@@ -48,4 +56,27 @@ public interface FarmRepository extends JpaRepository<Farm, Integer> {
 	Long countByDeletedAtIsNull();
 
 	Long countByFarmStatusAndDeletedAtIsNull(FarmStatus status);
+
+	// Export: đọc bằng cursor (fetch size) để không giữ toàn bộ danh sách trong heap
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("SELECT f.code AS code, f.name AS name, f.location AS location, f.area AS area, " +
+			"f.usableArea AS usableArea, f.soilType AS soilType, f.climateZone AS climateZone, " +
+			"f.farmStatus AS farmStatus, f.createdAt AS createdAt " +
+			"FROM Farm f WHERE f.deletedAt IS NULL ORDER BY f.id")
+	Stream<FarmExportRow> streamActiveForExport();
+
+	// Dashboard metrics: số farm theo dự án
+	@Query(value = "SELECT pf.project_id AS projectId, " +
+			"COUNT(DISTINCT f.id) AS totalFarms, " +
+			"COUNT(DISTINCT f.id) FILTER (WHERE f.farm_status = 'ACTIVE') AS activeFarms " +
+			"FROM project_farms pf JOIN farms f ON f.id = pf.farm_id " +
+			"WHERE f.deleted_at IS NULL " +
+			"GROUP BY pf.project_id", nativeQuery = true)
+	List<ProjectFarmCountRow> countFarmsGroupByProject();
+
+	// Farm kẹt ở trạng thái chờ enrichment (restart, hàng đợi đầy...)
+	@Query("SELECT f.id FROM Farm f WHERE f.enrichmentStatus = :status " +
+			"AND f.updatedAt < :before AND f.deletedAt IS NULL")
+	List<Integer> findIdsByEnrichmentStatusUpdatedBefore(@Param("status") EnrichmentStatus status,
+			@Param("before") OffsetDateTime before);
 }
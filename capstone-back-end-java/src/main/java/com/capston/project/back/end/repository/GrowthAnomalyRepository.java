@@ -0,0 +1,24 @@
+package com.capston.project.back.end.repository;
+
+import com.capston.project.back.end.entity.GrowthAnomaly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface GrowthAnomalyRepository extends JpaRepository<GrowthAnomaly, Long> {
+
+    List<GrowthAnomaly> findByBatchIdAndResolvedAtIsNullOrderByDetectedAtDesc(Integer batchId);
+
+    long countByBatchIdInAndResolvedAtIsNull(Collection<Integer> batchIds);
+
+    // Tín chỉ không khai báo origins: xét mọi lô thuộc các giai đoạn của dự án
+    @Query("SELECT COUNT(a) FROM GrowthAnomaly a JOIN TreeBatch b ON b.id = a.batchId " +
+            "JOIN ProjectPhase ph ON ph.id = b.phaseId " +
+            "WHERE ph.project.id = :projectId AND a.resolvedAt IS NULL")
+    long countUnresolvedByProjectId(@Param("projectId") Integer projectId);
+}
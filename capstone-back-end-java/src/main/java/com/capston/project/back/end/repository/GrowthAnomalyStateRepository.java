@@ -0,0 +1,21 @@
+package com.capston.project.back.end.repository;
+
+import com.capston.project.back.end.entity.GrowthAnomalyState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface GrowthAnomalyStateRepository extends JpaRepository<GrowthAnomalyState, String> {
+
+    // Khoá theo thứ tự key trước khi gộp, để hai node flush cùng lúc không ghi đè nhau
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM GrowthAnomalyState s WHERE s.stateKey IN :keys ORDER BY s.stateKey")
+    List<GrowthAnomalyState> findAllForUpdate(@Param("keys") Collection<String> keys);
+}
@@ -0,0 +1,41 @@
+package com.capston.project.back.end.repository;
+
+import com.capston.project.back.end.entity.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    // Lấy lease nếu chưa có hoặc đã hết hạn; trả về 1 nếu lấy được. Thời gian theo đồng hồ DB
+    // nên các node lệch giờ vẫn so sánh cùng một mốc
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO job_leases (job_name, owner, lease_until, acquired_at) " +
+            "VALUES (:jobName, :owner, NOW() + :leaseSeconds * INTERVAL '1 second', NOW()) " +
+            "ON CONFLICT (job_name) DO UPDATE SET owner = EXCLUDED.owner, lease_until = EXCLUDED.lease_until, " +
+            "acquired_at = EXCLUDED.acquired_at " +
+            "WHERE job_leases.lease_until <= NOW()", nativeQuery = true)
+    int tryAcquire(@Param("jobName") String jobName, @Param("owner") String owner,
+                   @Param("leaseSeconds") long leaseSeconds);
+
+    // Gia hạn lease đang giữ trong lúc job chạy; trả về 0 nếu lease đã thuộc node khác
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE job_leases SET lease_until = NOW() + :leaseSeconds * INTERVAL '1 second' " +
+            "WHERE job_name = :jobName AND owner = :owner", nativeQuery = true)
+    int renew(@Param("jobName") String jobName, @Param("owner") String owner,
+              @Param("leaseSeconds") long leaseSeconds);
+
+    // Giữ lease tối thiểu minHoldSeconds kể từ lúc lấy để node có cron lệch vài giây không chạy lại
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE job_leases SET lease_until = GREATEST(NOW(), acquired_at + :minHoldSeconds * INTERVAL '1 second') " +
+            "WHERE job_name = :jobName AND owner = :owner", nativeQuery = true)
+    int release(@Param("jobName") String jobName, @Param("owner") String owner,
+                @Param("minHoldSeconds") long minHoldSeconds);
+}
@@ -0,0 +1,21 @@
+package com.capston.project.back.end.repository;
+
+import com.capston.project.back.end.common.JobRunStatus;
+import com.capston.project.back.end.entity.JobRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Repository
+public interface JobRunRepository extends JpaRepository<JobRun, Long> {
+
+    List<JobRun> findTop100ByOrderByStartedAtDesc();
+
+    List<JobRun> findTop100ByJobNameOrderByStartedAtDesc(String jobName);
+
+    // partitionNo null được dịch thành IS NULL (job không chia partition)
+    boolean existsByJobNameAndPartitionNoAndScheduledAtAndStatus(String jobName, Integer partitionNo,
+                                                                 OffsetDateTime scheduledAt, JobRunStatus status);
+}
@@ -1,6 +1,9 @@
 package com.capston.project.back.end.repository;
 
+import com.capston.project.back.end.common.NotificationType;
+import com.capston.project.back.end.common.ReferenceType;
 import com.capston.project.back.end.entity.Notification;
+import com.capston.project.back.end.repository.keyset.KeysetRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,11 +12,13 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface NotificationRepository extends JpaRepository<Notification, Integer> {
+public interface NotificationRepository extends JpaRepository<Notification, Integer>, KeysetRepository<Notification> {
 
     Page<Notification> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
 
@@ -28,5 +33,13 @@ public interface NotificationRepository extends JpaRepository<Notification, Inte
     @Modifying
     @Query("DELETE FROM Notification n WHERE n.userId = :userId")
     void deleteAllByUserId(@Param("userId") UUID userId);
+
+    // Đối tượng (vd. lô cây) đã được gửi thông báo loại này kể từ :since - dùng để chống gửi lặp
+    @Query("SELECT DISTINCT n.referenceId FROM Notification n WHERE n.notificationType = :type " +
+            "AND n.referenceType = :referenceType AND n.referenceId IN :referenceIds AND n.createdAt > :since")
+    List<Integer> findReferenceIdsNotifiedSince(@Param("type") NotificationType type,
+            @Param("referenceType") ReferenceType referenceType,
+            @Param("referenceIds") Collection<Integer> referenceIds,
+            @Param("since") OffsetDateTime since);
 }
 
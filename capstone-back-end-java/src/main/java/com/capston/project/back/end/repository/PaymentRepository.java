@@ -2,6 +2,7 @@ package com.capston.project.back.end.repository;
 
 import com.capston.project.back.end.common.PaymentStatus;
 import com.capston.project.back.end.entity.Payment;
+import com.capston.project.back.end.repository.keyset.KeysetRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -11,7 +12,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, Integer> {
+public interface PaymentRepository extends JpaRepository<Payment, Integer>, KeysetRepository<Payment> {
 
     Optional<Payment> findByVnpTxnRef(String vnpTxnRef);
 
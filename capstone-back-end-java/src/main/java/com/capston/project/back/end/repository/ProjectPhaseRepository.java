@@ -24,6 +24,10 @@ public interface ProjectPhaseRepository extends JpaRepository<ProjectPhase, Inte
 	// Đếm số phase theo status của project
 	long countByProject_IdAndPhaseStatus(Integer projectId, PhaseStatus status);
 
+	// Project chứa phase (dashboard metrics map batch -> project)
+	@Query("SELECT pp.project.id FROM ProjectPhase pp WHERE pp.id = :phaseId")
+	Optional<Integer> findProjectIdById(@Param("phaseId") Integer phaseId);
+
 	// Lấy max phase number của project
 	@Query("SELECT COALESCE(MAX(pp.phaseNumber), 0) FROM ProjectPhase pp WHERE pp.project.id = :projectId")
 	Integer findMaxPhaseNumberByProjectId(@Param("projectId") Integer projectId);
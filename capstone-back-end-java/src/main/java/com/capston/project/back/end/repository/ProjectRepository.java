@@ -2,11 +2,16 @@ package com.capston.project.back.end.repository;
 
 import com.capston.project.back.end.common.ProjectStatus;
 import com.capston.project.back.end.entity.Project;
+import com.capston.project.back.end.repository.projection.ProjectExportRow;
+import com.capston.project.back.end.repository.projection.ProjectMetricsRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -14,6 +19,7 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Integer> {
@@ -47,15 +53,12 @@ public interface ProjectRepository extends JpaRepository<Project, Integer> {
 	@Query("SELECT DISTINCT p FROM Project p LEFT JOIN FETCH p.phases WHERE p.id IN :ids")
 	List<Project> findAllWithPhasesByIds(@Param("ids") List<Integer> ids);
 
-	@Query("SELECT p FROM Project p WHERE " +
-			"LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-			"LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
+	// keyword đã bỏ dấu + chữ thường (TextSearchIndex.fold) để khớp search_text và dùng index trigram
+	@Query("SELECT p FROM Project p WHERE p.searchText LIKE CONCAT('%', :keyword, '%')")
 	Page<Project> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
-	@Query("SELECT p FROM Project p WHERE " +
-			"(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-			"LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND " +
-			"p.managerId = :managerId")
+	@Query("SELECT p FROM Project p WHERE p.searchText LIKE CONCAT('%', :keyword, '%') " +
+			"AND p.managerId = :managerId")
 	Page<Project> searchByKeywordAndManager(@Param("keyword") String keyword, @Param("managerId") UUID managerId,
 			Pageable pageable);
 
@@ -98,4 +101,17 @@ public interface ProjectRepository extends JpaRepository<Project, Integer> {
 	@Query("SELECT COUNT(p) FROM Project p " +
 			"WHERE p.projectStatus NOT IN ('PLANNING', 'COMPLETED')")
 	Long countActiveInProgressProjects();
+
+	// Export: đọc bằng cursor (fetch size) để không giữ toàn bộ danh sách trong heap
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("SELECT p.code AS code, p.name AS name, p.projectStatus AS projectStatus, " +
+			"p.totalBudget AS totalBudget, p.actualCost AS actualCost, " +
+			"p.targetCo2Kg AS targetCo2Kg, p.actualCo2Kg AS actualCo2Kg, p.createdAt AS createdAt " +
+			"FROM Project p ORDER BY p.id")
+	Stream<ProjectExportRow> streamAllForExport();
+
+	// Dashboard metrics: trạng thái + CO2 của mọi dự án trong một query
+	@Query("SELECT p.id AS projectId, p.projectStatus AS projectStatus, " +
+			"p.targetCo2Kg AS targetCo2Kg, p.actualCo2Kg AS actualCo2Kg FROM Project p")
+	List<ProjectMetricsRow> findAllMetricsRows();
 }
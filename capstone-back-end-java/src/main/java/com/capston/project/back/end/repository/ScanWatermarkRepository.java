@@ -0,0 +1,9 @@
+package com.capston.project.back.end.repository;
+
+import com.capston.project.back.end.entity.ScanWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ScanWatermarkRepository extends JpaRepository<ScanWatermark, String> {
+}
@@ -0,0 +1,20 @@
+package com.capston.project.back.end.repository;
+
+import com.capston.project.back.end.entity.SpatialTileCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+
+@Repository
+public interface SpatialTileCacheRepository extends JpaRepository<SpatialTileCacheEntry, String> {
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SpatialTileCacheEntry e WHERE e.expiresAt < :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
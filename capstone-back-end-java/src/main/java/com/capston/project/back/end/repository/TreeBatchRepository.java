@@ -2,6 +2,9 @@ package com.capston.project.back.end.repository;
 
 import com.capston.project.back.end.common.BatchStatus;
 import com.capston.project.back.end.entity.TreeBatch;
+import com.capston.project.back.end.repository.keyset.KeysetRepository;
+import com.capston.project.back.end.repository.projection.BatchAlertRecipientsRow;
+import com.capston.project.back.end.repository.projection.ProjectTreeCountRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -14,7 +17,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TreeBatchRepository extends JpaRepository<TreeBatch, Integer> {
+public interface TreeBatchRepository extends JpaRepository<TreeBatch, Integer>, KeysetRepository<TreeBatch> {
 
     Optional<TreeBatch> findByBatchCode(String batchCode);
 
@@ -49,4 +52,26 @@ public interface TreeBatchRepository extends JpaRepository<TreeBatch, Integer> {
 
     @Query(value = "SELECT COALESCE(SUM(quantity_planted), 0) FROM tree_batches WHERE farm_id = :farmId AND batch_status = 'ACTIVE'", nativeQuery = true)
     Integer sumQuantityByFarmId(@Param("farmId") Integer farmId);
+
+    // Dashboard metrics: tổng cây ACTIVE theo dự án (một query thay vì load toàn bộ TreeBatch)
+    @Query(value = "SELECT ph.project_id AS projectId, COALESCE(SUM(tb.quantity_planted), 0) AS totalTrees " +
+            "FROM tree_batches tb LEFT JOIN project_phases ph ON ph.id = tb.phase_id " +
+            "WHERE tb.batch_status = 'ACTIVE' " +
+            "GROUP BY ph.project_id", nativeQuery = true)
+    List<ProjectTreeCountRow> sumActiveTreesGroupByProject();
+
+    // Chủ farm và quản lý dự án của lô trong một query (cảnh báo sức khỏe)
+    @Query("SELECT b.batchCode AS batchCode, b.farmId AS farmId, f.createdBy AS ownerId, p.managerId AS managerId " +
+            "FROM TreeBatch b JOIN Farm f ON f.id = b.farmId " +
+            "LEFT JOIN ProjectPhase ph ON ph.id = b.phaseId " +
+            "LEFT JOIN Project p ON p.id = ph.project.id " +
+            "WHERE b.id = :batchId")
+    Optional<BatchAlertRecipientsRow> findAlertRecipients(@Param("batchId") Integer batchId);
+
+    // Một partition của job tính CO2: các lô theo trạng thái có id % partitions = partition
+    @Query("SELECT b FROM TreeBatch b LEFT JOIN FETCH b.treeSpecies " +
+            "WHERE b.batchStatus = :status AND MOD(b.id, :partitions) = :partition")
+    List<TreeBatch> findByStatusInPartition(@Param("status") BatchStatus status,
+                                            @Param("partitions") int partitions,
+                                            @Param("partition") int partition);
 }
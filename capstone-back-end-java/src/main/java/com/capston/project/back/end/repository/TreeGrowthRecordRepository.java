@@ -2,6 +2,13 @@ package com.capston.project.back.end.repository;
 
 import com.capston.project.back.end.common.HealthStatus;
 import com.capston.project.back.end.entity.TreeGrowthRecord;
+import com.capston.project.back.end.repository.keyset.KeysetRepository;
+import com.capston.project.back.end.repository.projection.FarmCo2Row;
+import com.capston.project.back.end.repository.projection.MonthlyValueRow;
+import com.capston.project.back.end.repository.projection.ProjectCo2Row;
+import com.capston.project.back.end.repository.projection.SpeciesCo2Row;
+import com.capston.project.back.end.repository.projection.UnhealthyRecordRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -9,11 +16,13 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TreeGrowthRecordRepository extends JpaRepository<TreeGrowthRecord, Integer> {
+public interface TreeGrowthRecordRepository extends JpaRepository<TreeGrowthRecord, Integer>, KeysetRepository<TreeGrowthRecord> {
 
        List<TreeGrowthRecord> findByBatchIdOrderByRecordedDateDesc(Integer batchId);
 
@@ -54,6 +63,111 @@ public interface TreeGrowthRecordRepository extends JpaRepository<TreeGrowthReco
                      "ORDER BY recorded_date DESC", nativeQuery = true)
        List<TreeGrowthRecord> findUnhealthyRecords();
 
+       // Quét tăng dần theo id cho HealthAlertScheduler: bản ghi sau watermark hoặc tạo sau rescanAfter,
+       // phân trang theo afterId. Lô cây và quản lý dự án lấy trong cùng query
+       @Query("SELECT r.id AS recordId, r.batchId AS batchId, b.batchCode AS batchCode, b.farmId AS farmId, " +
+                     "r.healthStatus AS healthStatus, r.healthNotes AS healthNotes, r.recordedDate AS recordedDate, " +
+                     "r.quantityAlive AS quantityAlive, r.quantityDead AS quantityDead, p.managerId AS managerId " +
+                     "FROM TreeGrowthRecord r JOIN TreeBatch b ON b.id = r.batchId " +
+                     "LEFT JOIN ProjectPhase ph ON ph.id = b.phaseId " +
+                     "LEFT JOIN Project p ON p.id = ph.project.id " +
+                     "WHERE r.id > :afterId AND r.healthStatus IN :statuses AND r.createdAt > :createdAfter " +
+                     "AND (r.id > :watermarkId OR r.createdAt > :rescanAfter) " +
+                     "ORDER BY r.id")
+       List<UnhealthyRecordRow> findUnhealthyAfter(@Param("afterId") Integer afterId,
+                     @Param("watermarkId") Integer watermarkId,
+                     @Param("statuses") Collection<HealthStatus> statuses,
+                     @Param("createdAfter") OffsetDateTime createdAfter,
+                     @Param("rescanAfter") OffsetDateTime rescanAfter,
+                     Pageable pageable);
+
        // Find records by health status
        List<TreeGrowthRecord> findByHealthStatus(HealthStatus healthStatus);
+
+       // ==================== REPORT AGGREGATES ====================
+       // co2_absorbed_kg là giá trị luỹ kế từ ngày trồng, nên CO2 của một batch trong
+       // kỳ báo cáo = record mới nhất của batch trong khoảng [fromDate, toDate].
+
+       String LATEST_RECORD_IN_RANGE_CTE = "WITH latest AS (" +
+                     "  SELECT DISTINCT ON (tgr.batch_id) tgr.batch_id, tgr.co2_absorbed_kg, tgr.quantity_alive " +
+                     "  FROM tree_growth_records tgr " +
+                     "  WHERE (CAST(:fromDate AS date) IS NULL OR tgr.recorded_date >= CAST(:fromDate AS date)) " +
+                     "  AND (CAST(:toDate AS date) IS NULL OR tgr.recorded_date <= CAST(:toDate AS date)) " +
+                     "  ORDER BY tgr.batch_id, tgr.recorded_date DESC) ";
+
+       String REPORT_BATCH_FILTER = "tb.batch_status <> 'REMOVED' " +
+                     "AND (:allProjects = TRUE OR ph.project_id IN (:projectIds)) " +
+                     "AND (:allFarms = TRUE OR tb.farm_id IN (:farmIds)) ";
+
+       @Query(value = LATEST_RECORD_IN_RANGE_CTE +
+                     "SELECT p.id AS projectId, p.code AS projectCode, p.name AS projectName, " +
+                     "COALESCE(SUM(l.co2_absorbed_kg), 0) AS co2Absorbed, p.target_co2_kg AS targetCo2, " +
+                     "COALESCE(SUM(COALESCE(l.quantity_alive, tb.quantity_planted)), 0) AS totalTrees, " +
+                     "COUNT(DISTINCT tb.farm_id) AS totalFarms " +
+                     "FROM tree_batches tb " +
+                     "JOIN project_phases ph ON ph.id = tb.phase_id " +
+                     "JOIN projects p ON p.id = ph.project_id " +
+                     "LEFT JOIN latest l ON l.batch_id = tb.id " +
+                     "WHERE " + REPORT_BATCH_FILTER +
+                     "GROUP BY p.id, p.code, p.name, p.target_co2_kg " +
+                     "ORDER BY co2Absorbed DESC", nativeQuery = true)
+       List<ProjectCo2Row> aggregateCo2ByProject(@Param("fromDate") LocalDate fromDate,
+                     @Param("toDate") LocalDate toDate,
+                     @Param("allProjects") boolean allProjects, @Param("projectIds") List<Integer> projectIds,
+                     @Param("allFarms") boolean allFarms, @Param("farmIds") List<Integer> farmIds);
+
+       @Query(value = LATEST_RECORD_IN_RANGE_CTE +
+                     "SELECT f.id AS farmId, f.code AS farmCode, f.name AS farmName, f.location AS location, " +
+                     "f.area AS area, COALESCE(SUM(l.co2_absorbed_kg), 0) AS co2Absorbed, " +
+                     "COALESCE(SUM(tb.quantity_planted), 0) AS totalTrees, " +
+                     "COALESCE(SUM(COALESCE(l.quantity_alive, tb.quantity_planted)), 0) AS aliveTrees " +
+                     "FROM tree_batches tb " +
+                     "JOIN farms f ON f.id = tb.farm_id " +
+                     "LEFT JOIN project_phases ph ON ph.id = tb.phase_id " +
+                     "LEFT JOIN latest l ON l.batch_id = tb.id " +
+                     "WHERE f.deleted_at IS NULL AND " + REPORT_BATCH_FILTER +
+                     "GROUP BY f.id, f.code, f.name, f.location, f.area " +
+                     "ORDER BY co2Absorbed DESC", nativeQuery = true)
+       List<FarmCo2Row> aggregateCo2ByFarm(@Param("fromDate") LocalDate fromDate,
+                     @Param("toDate") LocalDate toDate,
+                     @Param("allProjects") boolean allProjects, @Param("projectIds") List<Integer> projectIds,
+                     @Param("allFarms") boolean allFarms, @Param("farmIds") List<Integer> farmIds);
+
+       @Query(value = LATEST_RECORD_IN_RANGE_CTE +
+                     "SELECT ts.id AS speciesId, ts.name AS speciesName, ts.scientific_name AS scientificName, " +
+                     "ts.base_carbon_rate AS carbonAbsorptionRate, " +
+                     "COALESCE(SUM(COALESCE(l.quantity_alive, tb.quantity_planted)), 0) AS totalTrees, " +
+                     "COALESCE(SUM(l.co2_absorbed_kg), 0) AS totalCo2Absorbed " +
+                     "FROM tree_batches tb " +
+                     "JOIN tree_species ts ON ts.id = tb.tree_species_id " +
+                     "LEFT JOIN project_phases ph ON ph.id = tb.phase_id " +
+                     "LEFT JOIN latest l ON l.batch_id = tb.id " +
+                     "WHERE " + REPORT_BATCH_FILTER +
+                     "GROUP BY ts.id, ts.name, ts.scientific_name, ts.base_carbon_rate " +
+                     "ORDER BY totalCo2Absorbed DESC", nativeQuery = true)
+       List<SpeciesCo2Row> aggregateCo2BySpecies(@Param("fromDate") LocalDate fromDate,
+                     @Param("toDate") LocalDate toDate,
+                     @Param("allProjects") boolean allProjects, @Param("projectIds") List<Integer> projectIds,
+                     @Param("allFarms") boolean allFarms, @Param("farmIds") List<Integer> farmIds);
+
+       // Snapshot CO2 luỹ kế cuối mỗi tháng (record mới nhất của mỗi batch trong tháng)
+       @Query(value = "WITH monthly AS (" +
+                     "  SELECT DISTINCT ON (tgr.batch_id, date_trunc('month', tgr.recorded_date)) " +
+                     "  tgr.batch_id, date_trunc('month', tgr.recorded_date) AS m, tgr.co2_absorbed_kg " +
+                     "  FROM tree_growth_records tgr " +
+                     "  WHERE (CAST(:fromDate AS date) IS NULL OR tgr.recorded_date >= CAST(:fromDate AS date)) " +
+                     "  AND (CAST(:toDate AS date) IS NULL OR tgr.recorded_date <= CAST(:toDate AS date)) " +
+                     "  ORDER BY tgr.batch_id, date_trunc('month', tgr.recorded_date), tgr.recorded_date DESC) " +
+                     "SELECT CAST(EXTRACT(YEAR FROM mo.m) AS integer) AS year, " +
+                     "CAST(EXTRACT(MONTH FROM mo.m) AS integer) AS month, " +
+                     "COALESCE(SUM(mo.co2_absorbed_kg), 0) AS value, COUNT(*) AS count " +
+                     "FROM monthly mo " +
+                     "JOIN tree_batches tb ON tb.id = mo.batch_id " +
+                     "LEFT JOIN project_phases ph ON ph.id = tb.phase_id " +
+                     "WHERE " + REPORT_BATCH_FILTER +
+                     "GROUP BY mo.m ORDER BY mo.m", nativeQuery = true)
+       List<MonthlyValueRow> aggregateMonthlyCo2(@Param("fromDate") LocalDate fromDate,
+                     @Param("toDate") LocalDate toDate,
+                     @Param("allProjects") boolean allProjects, @Param("projectIds") List<Integer> projectIds,
+                     @Param("allFarms") boolean allFarms, @Param("farmIds") List<Integer> farmIds);
 }
@@ -0,0 +1,126 @@
+package com.capston.project.back.end.repository;
+
+import com.capston.project.back.end.common.SearchType;
+import com.capston.project.back.end.response.SearchHitResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Tìm kiếm chung trên projects, farms, contracts, users qua cột search_text
+ * (không dấu, chữ thường) có index GIN trigram: LIKE '%q%' cho khớp chuỗi con/tiền tố,
+ * {@code <%} (word similarity) cho khớp gần đúng. Điểm = word_similarity, cộng thêm
+ * khi tiêu đề bắt đầu bằng từ khoá. Phân trang keyset theo (score, type, id) giảm dần.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UnifiedSearchRepository {
+
+	private static final String TITLE_PREFIX_BOOST = "0.5";
+
+	private static final String PROJECT_BRANCH = "SELECT 'PROJECT' AS type, p.id::text AS id, p.name AS title, " +
+			"p.code AS subtitle, " + score("word_similarity(:q, p.search_text)", "p.name") + " AS score " +
+			"FROM projects p " +
+			"WHERE (p.search_text LIKE :contains OR :q <% p.search_text)";
+
+	private static final String FARM_BRANCH = "SELECT 'FARM' AS type, f.id::text AS id, f.name AS title, " +
+			"f.location AS subtitle, " + score("word_similarity(:q, f.search_text)", "f.name") + " AS score " +
+			"FROM farms f " +
+			"WHERE f.deleted_at IS NULL AND (f.search_text LIKE :contains OR :q <% f.search_text)";
+
+	// Hợp đồng khớp theo mã/loại hoặc theo dự án; tách hai nhánh để mỗi nhánh dùng được index riêng
+	private static final String CONTRACT_BRANCH = "SELECT 'CONTRACT' AS type, c.id::text AS id, " +
+			"c.contract_code AS title, p.name AS subtitle, " +
+			score("GREATEST(word_similarity(:q, c.search_text), word_similarity(:q, p.search_text))",
+					"c.contract_code") + " AS score " +
+			"FROM contracts c JOIN projects p ON p.id = c.project_id " +
+			"WHERE c.id IN (" +
+			"SELECT mc.id FROM contracts mc WHERE mc.search_text LIKE :contains OR :q <% mc.search_text " +
+			"UNION " +
+			"SELECT pc.id FROM contracts pc JOIN projects pp ON pp.id = pc.project_id " +
+			"WHERE pp.search_text LIKE :contains OR :q <% pp.search_text)";
+
+	private static final String USER_BRANCH = "SELECT 'USER' AS type, u.id::text AS id, " +
+			"COALESCE(u.fullname, u.username) AS title, u.email AS subtitle, " +
+			score("word_similarity(:q, u.search_text)", "COALESCE(u.fullname, u.username)") + " AS score " +
+			"FROM users u " +
+			"WHERE (u.search_text LIKE :contains OR :q <% u.search_text)";
+
+	private static final RowMapper<SearchHitResponse> HIT_MAPPER = (rs, rowNum) -> SearchHitResponse.builder()
+			.type(SearchType.valueOf(rs.getString("type")))
+			.id(rs.getString("id"))
+			.title(rs.getString("title"))
+			.subtitle(rs.getString("subtitle"))
+			.score(rs.getBigDecimal("score"))
+			.build();
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+
+	/**
+	 * Tối đa {@code limit} kết quả đứng sau vị trí (afterScore, afterType, afterId)
+	 *
+	 * @param foldedQuery từ khoá đã bỏ dấu + chữ thường
+	 * @param types       loại cần tìm (không rỗng)
+	 * @param scopeUserId null: không giới hạn (admin); ngược lại chỉ dự án user quản lý,
+	 *                    farm user tạo
+	 * @param afterScore  null nếu là trang đầu
+	 */
+	public List<SearchHitResponse> search(String foldedQuery, Set<SearchType> types, UUID scopeUserId,
+	                                      BigDecimal afterScore, SearchType afterType, String afterId, int limit) {
+		MapSqlParameterSource params = new MapSqlParameterSource()
+				.addValue("q", foldedQuery)
+				.addValue("contains", "%" + escapeLike(foldedQuery) + "%")
+				.addValue("prefix", escapeLike(foldedQuery) + "%")
+				.addValue("limit", limit);
+
+		List<String> branches = new ArrayList<>(types.size());
+		if (types.contains(SearchType.PROJECT)) {
+			branches.add(scopeUserId == null ? PROJECT_BRANCH : PROJECT_BRANCH + " AND p.manager_id = :userId");
+		}
+		if (types.contains(SearchType.FARM)) {
+			branches.add(scopeUserId == null ? FARM_BRANCH : FARM_BRANCH + " AND f.created_by = :userId");
+		}
+		if (types.contains(SearchType.CONTRACT)) {
+			branches.add(CONTRACT_BRANCH);
+		}
+		if (types.contains(SearchType.USER)) {
+			branches.add(USER_BRANCH);
+		}
+		if (scopeUserId != null) {
+			params.addValue("userId", scopeUserId);
+		}
+
+		StringBuilder sql = new StringBuilder("SELECT type, id, title, subtitle, score FROM (")
+				.append(String.join(" UNION ALL ", branches))
+				.append(") hits");
+		if (afterScore != null) {
+			sql.append(" WHERE (score, type, id) < (CAST(:afterScore AS numeric), :afterType, :afterId)");
+			params.addValue("afterScore", afterScore)
+					.addValue("afterType", afterType.name())
+					.addValue("afterId", afterId);
+		}
+		sql.append(" ORDER BY score DESC, type DESC, id DESC LIMIT :limit");
+
+		return jdbcTemplate.query(sql.toString(), params, HIT_MAPPER);
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	// Làm tròn để giá trị trong cursor so sánh đúng với giá trị tính lại ở trang sau
+	private static String score(String similarity, String title) {
+		return "round((" + similarity + " + CASE WHEN lower(f_unaccent(" + title + ")) LIKE :prefix " +
+				"THEN " + TITLE_PREFIX_BOOST + " ELSE 0 END)::numeric, 4)";
+	}
+
+	private static String escapeLike(String value) {
+		return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+}
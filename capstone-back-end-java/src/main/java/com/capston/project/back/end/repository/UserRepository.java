@@ -2,6 +2,7 @@ package com.capston.project.back.end.repository;
 
 import com.capston.project.back.end.common.Role;
 import com.capston.project.back.end.entity.User;
+import com.capston.project.back.end.repository.projection.UserStatisticsRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -33,12 +34,8 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 	// Find by role and active status
 	Page<User> findByRoleAndIsActive(Role role, Boolean isActive, Pageable pageable);
 
-	// Search by keyword (username, fullname, email, phone)
-	@Query("SELECT u FROM User u WHERE " +
-			"LOWER(u.username) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-			"LOWER(u.fullname) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-			"LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-			"u.phoneNumber LIKE CONCAT('%', :keyword, '%')")
+	// Search by keyword (username, fullname, email, phone); keyword đã bỏ dấu + chữ thường
+	@Query("SELECT u FROM User u WHERE u.searchText LIKE CONCAT('%', :keyword, '%')")
 	Page<User> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
 	// Find all users by role (not pageable - for notifications)
@@ -49,4 +46,13 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
 	// Count active users
 	long countByIsActiveTrue();
+
+	// Tổng hợp số user theo trạng thái/role trong một query
+	@Query(value = "SELECT COUNT(*) AS totalUsers, " +
+			"COUNT(*) FILTER (WHERE is_active) AS activeUsers, " +
+			"COUNT(*) FILTER (WHERE role = 'ADMIN') AS adminCount, " +
+			"COUNT(*) FILTER (WHERE role = 'FARMER') AS farmerCount, " +
+			"COUNT(*) FILTER (WHERE role = 'USER') AS userCount " +
+			"FROM users", nativeQuery = true)
+	UserStatisticsRow getUserStatistics();
 }
@@ -0,0 +1,48 @@
+package com.capston.project.back.end.repository.keyset;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Vị trí của dòng cuối trang trước: khoá sắp xếp + id. Client chỉ thấy chuỗi
+ * base64url, không tự dựng được. Giá trị lưu dạng chuỗi, repository chuyển lại
+ * đúng kiểu theo metamodel của entity.
+ *
+ * @param value null nếu khoá sắp xếp của dòng đó là NULL
+ */
+public record KeysetCursor(String sortBy, Sort.Direction direction, String id, String value) {
+
+	private static final String NULL_VALUE = "~";
+	private static final String VALUE_PREFIX = "=";
+
+	public String encode() {
+		// Giá trị để cuối vì có thể chứa '|'
+		String raw = sortBy + "|" + direction.name() + "|" + id + "|"
+				+ (value == null ? NULL_VALUE : VALUE_PREFIX + value);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static KeysetCursor decode(String cursor) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			String[] parts = raw.split("\\|", 4);
+			if (parts.length != 4 || parts[0].isEmpty() || parts[2].isEmpty()) {
+				throw new IllegalArgumentException("Invalid page cursor");
+			}
+			String value;
+			if (NULL_VALUE.equals(parts[3])) {
+				value = null;
+			} else if (parts[3].startsWith(VALUE_PREFIX)) {
+				value = parts[3].substring(VALUE_PREFIX.length());
+			} else {
+				throw new IllegalArgumentException("Invalid page cursor");
+			}
+			return new KeysetCursor(parts[0], Sort.Direction.valueOf(parts[1]), parts[2], value);
+		} catch (IllegalArgumentException e) {
+			// Base64 hoặc direction sai cũng là IllegalArgumentException
+			throw new IllegalArgumentException("Invalid page cursor", e);
+		}
+	}
+}
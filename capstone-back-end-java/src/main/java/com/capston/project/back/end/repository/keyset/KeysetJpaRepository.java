@@ -0,0 +1,181 @@
+package com.capston.project.back.end.repository.keyset;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Table;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.data.util.DirectFieldAccessFallbackBeanWrapper;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base class cho mọi repository (xem JpaRepositoryConfig): giữ nguyên hành vi của
+ * SimpleJpaRepository, thêm {@link KeysetRepository#findAll(Specification, KeysetPageRequest)}.
+ *
+ * Seek predicate theo thứ tự mặc định của PostgreSQL: NULL lớn nhất (ASC: NULLS LAST,
+ * DESC: NULLS FIRST), id là khoá phụ để thứ tự duy nhất. Index (sort_key, id) giúp mỗi
+ * trang chỉ quét đúng số dòng cần lấy.
+ */
+@Slf4j
+public class KeysetJpaRepository<T, ID> extends SimpleJpaRepository<T, ID> implements KeysetRepository<T> {
+
+	private final JpaEntityInformation<T, ?> entityInformation;
+	private final EntityManager entityManager;
+	private final ConversionService conversionService = DefaultConversionService.getSharedInstance();
+
+	public KeysetJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+		super(entityInformation, entityManager);
+		this.entityInformation = entityInformation;
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public KeysetPage<T> findAll(Specification<T> spec, KeysetPageRequest request) {
+		SingularAttribute<? super T, ?> idAttribute = entityInformation.getIdAttribute();
+		SingularAttribute<? super T, ?> sortAttribute = sortAttribute(request.sortBy());
+		boolean ascending = request.direction().isAscending();
+		boolean sortById = sortAttribute.getName().equals(idAttribute.getName());
+
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<T> query = cb.createQuery(getDomainClass());
+		Root<T> root = query.from(getDomainClass());
+
+		List<Predicate> predicates = new ArrayList<>();
+		if (spec != null) {
+			Predicate filter = spec.toPredicate(root, query, cb);
+			if (filter != null) {
+				predicates.add(filter);
+			}
+		}
+		if (request.cursor() != null) {
+			predicates.add(seekPredicate(cb, root, request.cursor(), sortAttribute, idAttribute, ascending, sortById));
+		}
+		query.where(predicates.toArray(new Predicate[0]));
+
+		Expression<?> sortPath = root.get(sortAttribute.getName());
+		Expression<?> idPath = root.get(idAttribute.getName());
+		if (sortById) {
+			query.orderBy(ascending ? cb.asc(idPath) : cb.desc(idPath));
+		} else {
+			query.orderBy(ascending ? cb.asc(sortPath) : cb.desc(sortPath), ascending ? cb.asc(idPath) : cb.desc(idPath));
+		}
+
+		// Lấy dư một dòng để biết còn trang sau mà không cần COUNT
+		List<T> rows = entityManager.createQuery(query)
+				.setMaxResults(request.size() + 1)
+				.getResultList();
+		boolean hasNext = rows.size() > request.size();
+		List<T> content = hasNext ? rows.subList(0, request.size()) : rows;
+
+		String nextCursor = null;
+		if (hasNext) {
+			T last = content.get(content.size() - 1);
+			Object sortValue = new DirectFieldAccessFallbackBeanWrapper(last).getPropertyValue(sortAttribute.getName());
+			nextCursor = new KeysetCursor(sortAttribute.getName(), request.direction(),
+					String.valueOf(entityInformation.getId(last)), sortValue == null ? null : sortValue.toString())
+					.encode();
+		}
+
+		Long approximateTotal = request.includeTotal() && spec == null ? approximateRowCount() : null;
+		return new KeysetPage<>(List.copyOf(content), request.size(), nextCursor, approximateTotal);
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	// Chỉ cho sắp xếp theo thuộc tính đơn, kiểu so sánh được (không theo quan hệ)
+	private SingularAttribute<? super T, ?> sortAttribute(String name) {
+		SingularAttribute<? super T, ?> attribute;
+		try {
+			attribute = entityManager.getMetamodel().entity(getDomainClass()).getSingularAttribute(name);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown sort property: " + name);
+		}
+		if (attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC
+				|| !Comparable.class.isAssignableFrom(attribute.getJavaType())) {
+			throw new IllegalArgumentException("Cannot paginate by property: " + name);
+		}
+		return attribute;
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Predicate seekPredicate(CriteriaBuilder cb, Root<T> root, KeysetCursor cursor,
+	                                SingularAttribute<? super T, ?> sortAttribute,
+	                                SingularAttribute<? super T, ?> idAttribute, boolean ascending, boolean sortById) {
+		Expression<Comparable> id = root.get(idAttribute.getName());
+		Comparable lastId = (Comparable) parse(idAttribute.getJavaType(), cursor.id());
+		Predicate afterId = ascending ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+		if (sortById) {
+			return afterId;
+		}
+
+		Expression<Comparable> key = root.get(sortAttribute.getName());
+		if (cursor.value() == null) {
+			// Đang ở nhóm NULL: ASC thì NULL là cuối, DESC thì sau nhóm NULL là mọi giá trị khác
+			Predicate inNullGroup = cb.and(cb.isNull(key), afterId);
+			return ascending ? inNullGroup : cb.or(cb.isNotNull(key), inNullGroup);
+		}
+
+		Comparable lastValue = (Comparable) parse(sortAttribute.getJavaType(), cursor.value());
+		Predicate sameKey = cb.and(cb.equal(key, lastValue), afterId);
+		if (ascending) {
+			return cb.or(cb.greaterThan(key, lastValue), sameKey, cb.isNull(key));
+		}
+		return cb.or(cb.lessThan(key, lastValue), sameKey);
+	}
+
+	private Object parse(Class<?> type, String raw) {
+		try {
+			if (type == OffsetDateTime.class) {
+				return OffsetDateTime.parse(raw);
+			}
+			if (type == LocalDateTime.class) {
+				return LocalDateTime.parse(raw);
+			}
+			if (type == LocalDate.class) {
+				return LocalDate.parse(raw);
+			}
+			if (type == Instant.class) {
+				return Instant.parse(raw);
+			}
+			return conversionService.convert(raw, type);
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Invalid page cursor", e);
+		}
+	}
+
+	// Số dòng ước lượng của bảng từ lần ANALYZE gần nhất; -1 (chưa ANALYZE) coi như không có
+	private Long approximateRowCount() {
+		Table table = getDomainClass().getAnnotation(Table.class);
+		if (table == null || table.name().isEmpty()) {
+			return null;
+		}
+		try {
+			Number estimate = (Number) entityManager
+					.createNativeQuery("SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = to_regclass(?1)")
+					.setParameter(1, table.name())
+					.getSingleResult();
+			return estimate.longValue() >= 0 ? estimate.longValue() : null;
+		} catch (RuntimeException e) {
+			log.debug("Row estimate unavailable for {}: {}", table.name(), e.getMessage());
+			return null;
+		}
+	}
+}
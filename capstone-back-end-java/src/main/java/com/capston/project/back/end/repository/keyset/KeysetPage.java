@@ -0,0 +1,21 @@
+package com.capston.project.back.end.repository.keyset;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Một trang keyset
+ *
+ * @param nextCursor       null nếu là trang cuối
+ * @param approximateTotal tổng ước lượng (pg_class.reltuples), null nếu không yêu cầu hoặc không có
+ */
+public record KeysetPage<T>(List<T> content, int size, String nextCursor, Long approximateTotal) {
+
+	public boolean hasNext() {
+		return nextCursor != null;
+	}
+
+	public <R> KeysetPage<R> map(Function<? super T, ? extends R> mapper) {
+		return new KeysetPage<>(content.stream().<R>map(mapper).toList(), size, nextCursor, approximateTotal);
+	}
+}
@@ -0,0 +1,27 @@
+package com.capston.project.back.end.repository.keyset;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Yêu cầu một trang theo keyset (seek) thay cho OFFSET/LIMIT: không đếm tổng,
+ * trang sâu tốn như trang đầu. Sắp xếp theo {@code sortBy} rồi theo id để thứ tự
+ * là duy nhất.
+ *
+ * @param cursor       null cho trang đầu; khi có thì sortBy/direction lấy từ cursor
+ * @param includeTotal kèm tổng ước lượng từ thống kê planner (chỉ khi không lọc)
+ */
+public record KeysetPageRequest(String sortBy, Sort.Direction direction, int size, KeysetCursor cursor,
+                                boolean includeTotal) {
+
+	public static KeysetPageRequest of(String sortBy, Sort.Direction direction, int size, String cursor,
+	                                   boolean includeTotal) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Page size must be at least 1");
+		}
+		if (cursor == null || cursor.isBlank()) {
+			return new KeysetPageRequest(sortBy, direction, size, null, includeTotal);
+		}
+		KeysetCursor decoded = KeysetCursor.decode(cursor);
+		return new KeysetPageRequest(decoded.sortBy(), decoded.direction(), size, decoded, includeTotal);
+	}
+}
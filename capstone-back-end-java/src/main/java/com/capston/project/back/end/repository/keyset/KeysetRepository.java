@@ -0,0 +1,19 @@
+package com.capston.project.back.end.repository.keyset;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * Phân trang keyset cho repository; repository nào cần thì extends thêm interface
+ * này, phần cài đặt nằm ở {@link KeysetJpaRepository} (base class của mọi repository)
+ */
+@NoRepositoryBean
+public interface KeysetRepository<T> {
+
+	/**
+	 * Trang tiếp theo sau cursor trong request
+	 *
+	 * @param spec điều kiện lọc, null nếu lấy tất cả
+	 */
+	KeysetPage<T> findAll(Specification<T> spec, KeysetPageRequest request);
+}
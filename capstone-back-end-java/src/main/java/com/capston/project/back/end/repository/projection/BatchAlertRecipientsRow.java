@@ -0,0 +1,16 @@
+package com.capston.project.back.end.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Người nhận cảnh báo của một lô cây: chủ farm và quản lý dự án (null nếu lô chưa gắn phase)
+ */
+public interface BatchAlertRecipientsRow {
+	String getBatchCode();
+
+	Integer getFarmId();
+
+	UUID getOwnerId();
+
+	UUID getManagerId();
+}
@@ -0,0 +1,19 @@
+package com.capston.project.back.end.repository.projection;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Hợp đồng vừa đổi trạng thái/gia hạn/được cảnh báo (RETURNING), đủ để gửi notification cho các bên
+ */
+public interface ContractLifecycleRow {
+	Integer getId();
+
+	String getContractCode();
+
+	LocalDate getEndDate();
+
+	UUID getPartyAId();
+
+	UUID getPartyBId();
+}
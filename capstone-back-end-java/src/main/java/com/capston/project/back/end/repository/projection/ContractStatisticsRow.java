@@ -0,0 +1,12 @@
+package com.capston.project.back.end.repository.projection;
+
+/**
+ * Thống kê hợp đồng trong một lần quét bảng (admin statistics)
+ */
+public interface ContractStatisticsRow {
+	Long getTotalContracts();
+
+	Long getPendingContracts();
+
+	Long getActiveContracts();
+}
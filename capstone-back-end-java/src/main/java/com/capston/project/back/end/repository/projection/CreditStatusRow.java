@@ -0,0 +1,12 @@
+package com.capston.project.back.end.repository.projection;
+
+/**
+ * Tổng hợp tín chỉ theo trạng thái
+ */
+public interface CreditStatusRow {
+	String getStatus();
+
+	Long getCount();
+
+	Long getTotalCredits();
+}
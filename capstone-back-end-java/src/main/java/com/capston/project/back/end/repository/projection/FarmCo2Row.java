@@ -0,0 +1,24 @@
+package com.capston.project.back.end.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Dòng aggregate CO2 theo farm (native query report)
+ */
+public interface FarmCo2Row {
+	Integer getFarmId();
+
+	String getFarmCode();
+
+	String getFarmName();
+
+	String getLocation();
+
+	BigDecimal getArea();
+
+	BigDecimal getCo2Absorbed();
+
+	Long getTotalTrees();
+
+	Long getAliveTrees();
+}
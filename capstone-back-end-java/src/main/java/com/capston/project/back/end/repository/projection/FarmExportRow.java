@@ -0,0 +1,29 @@
+package com.capston.project.back.end.repository.projection;
+
+import com.capston.project.back.end.common.FarmStatus;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Dòng export danh sách farm (stream, không load entity)
+ */
+public interface FarmExportRow {
+	String getCode();
+
+	String getName();
+
+	String getLocation();
+
+	BigDecimal getArea();
+
+	BigDecimal getUsableArea();
+
+	String getSoilType();
+
+	String getClimateZone();
+
+	FarmStatus getFarmStatus();
+
+	OffsetDateTime getCreatedAt();
+}
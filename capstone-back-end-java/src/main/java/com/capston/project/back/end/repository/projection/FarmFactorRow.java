@@ -0,0 +1,15 @@
+package com.capston.project.back.end.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Hệ số môi trường tổng hợp của một farm tại một ngày
+ */
+public interface FarmFactorRow {
+	Integer getFarmId();
+
+	LocalDate getRecordedDate();
+
+	BigDecimal getOverallFactor();
+}
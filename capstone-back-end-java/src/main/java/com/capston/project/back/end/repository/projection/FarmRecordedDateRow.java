@@ -0,0 +1,12 @@
+package com.capston.project.back.end.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Cặp (farm, ngày) đã có record môi trường
+ */
+public interface FarmRecordedDateRow {
+	Integer getFarmId();
+
+	LocalDate getRecordedDate();
+}
@@ -0,0 +1,12 @@
+package com.capston.project.back.end.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * pH đất gần nhất đã ghi nhận của một farm
+ */
+public interface FarmSoilPhRow {
+	Integer getFarmId();
+
+	BigDecimal getSoilPh();
+}
@@ -0,0 +1,20 @@
+package com.capston.project.back.end.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Biến động tín chỉ theo tháng (phát hành, bán, retire)
+ */
+public interface MonthlyCreditRow {
+	Integer getYear();
+
+	Integer getMonth();
+
+	Long getCreditsIssued();
+
+	Long getCreditsSold();
+
+	Long getCreditsRetired();
+
+	BigDecimal getRevenue();
+}
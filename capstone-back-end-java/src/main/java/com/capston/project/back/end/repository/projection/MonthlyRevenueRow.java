@@ -0,0 +1,18 @@
+package com.capston.project.back.end.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Doanh thu theo tháng: bán tín chỉ + thanh toán hợp đồng
+ */
+public interface MonthlyRevenueRow {
+	Integer getYear();
+
+	Integer getMonth();
+
+	BigDecimal getCreditRevenue();
+
+	BigDecimal getContractRevenue();
+
+	Long getTransactionCount();
+}
@@ -0,0 +1,16 @@
+package com.capston.project.back.end.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Giá trị tổng hợp theo tháng (native query report/dashboard)
+ */
+public interface MonthlyValueRow {
+	Integer getYear();
+
+	Integer getMonth();
+
+	BigDecimal getValue();
+
+	Long getCount();
+}
@@ -0,0 +1,12 @@
+package com.capston.project.back.end.repository.projection;
+
+/**
+ * Số yêu cầu đang chờ duyệt (hợp đồng, gia hạn, chuyển nhượng)
+ */
+public interface PendingApprovalCountsRow {
+	Long getPendingContracts();
+
+	Long getPendingRenewals();
+
+	Long getPendingTransfers();
+}
@@ -0,0 +1,22 @@
+package com.capston.project.back.end.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Dòng aggregate CO2 theo dự án (native query report)
+ */
+public interface ProjectCo2Row {
+	Integer getProjectId();
+
+	String getProjectCode();
+
+	String getProjectName();
+
+	BigDecimal getCo2Absorbed();
+
+	BigDecimal getTargetCo2();
+
+	Long getTotalTrees();
+
+	Long getTotalFarms();
+}
@@ -0,0 +1,24 @@
+package com.capston.project.back.end.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Tổng hợp tín chỉ theo dự án
+ */
+public interface ProjectCreditRow {
+	Integer getProjectId();
+
+	String getProjectCode();
+
+	String getProjectName();
+
+	Long getCreditsIssued();
+
+	Long getCreditsSold();
+
+	Long getCreditsRetired();
+
+	BigDecimal getCo2Tons();
+
+	BigDecimal getRevenue();
+}
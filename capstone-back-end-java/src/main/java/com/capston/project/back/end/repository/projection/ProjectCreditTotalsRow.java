@@ -0,0 +1,20 @@
+package com.capston.project.back.end.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Tổng tín chỉ và doanh thu bán tín chỉ theo dự án
+ */
+public interface ProjectCreditTotalsRow {
+	Integer getProjectId();
+
+	Long getCreditsIssued();
+
+	Long getCreditsSold();
+
+	Long getCreditsRetired();
+
+	Long getCreditsAvailable();
+
+	BigDecimal getCreditRevenue();
+}
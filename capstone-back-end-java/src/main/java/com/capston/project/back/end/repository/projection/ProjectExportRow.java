@@ -0,0 +1,27 @@
+package com.capston.project.back.end.repository.projection;
+
+import com.capston.project.back.end.common.ProjectStatus;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Dòng export danh sách dự án (stream, không load entity)
+ */
+public interface ProjectExportRow {
+	String getCode();
+
+	String getName();
+
+	ProjectStatus getProjectStatus();
+
+	BigDecimal getTotalBudget();
+
+	BigDecimal getActualCost();
+
+	BigDecimal getTargetCo2Kg();
+
+	BigDecimal getActualCo2Kg();
+
+	OffsetDateTime getCreatedAt();
+}
@@ -0,0 +1,12 @@
+package com.capston.project.back.end.repository.projection;
+
+/**
+ * Số farm (còn hoạt động) gắn với từng dự án
+ */
+public interface ProjectFarmCountRow {
+	Integer getProjectId();
+
+	Long getTotalFarms();
+
+	Long getActiveFarms();
+}
@@ -0,0 +1,18 @@
+package com.capston.project.back.end.repository.projection;
+
+import com.capston.project.back.end.common.ProjectStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Trạng thái và CO2 của một dự án (reconcile dashboard metrics)
+ */
+public interface ProjectMetricsRow {
+	Integer getProjectId();
+
+	ProjectStatus getProjectStatus();
+
+	BigDecimal getTargetCo2Kg();
+
+	BigDecimal getActualCo2Kg();
+}
@@ -0,0 +1,22 @@
+package com.capston.project.back.end.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Doanh thu theo dự án: bán tín chỉ + thanh toán hợp đồng
+ */
+public interface ProjectRevenueRow {
+	Integer getProjectId();
+
+	String getProjectCode();
+
+	String getProjectName();
+
+	BigDecimal getCreditRevenue();
+
+	BigDecimal getContractRevenue();
+
+	Long getCreditsSold();
+
+	Long getTransactionCount();
+}
@@ -0,0 +1,10 @@
+package com.capston.project.back.end.repository.projection;
+
+/**
+ * Tổng cây ACTIVE theo dự án (projectId = null với lô chưa gắn phase)
+ */
+public interface ProjectTreeCountRow {
+	Integer getProjectId();
+
+	Long getTotalTrees();
+}
@@ -0,0 +1,20 @@
+package com.capston.project.back.end.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Dòng aggregate CO2 theo loại cây (native query report)
+ */
+public interface SpeciesCo2Row {
+	Integer getSpeciesId();
+
+	String getSpeciesName();
+
+	String getScientificName();
+
+	BigDecimal getCarbonAbsorptionRate();
+
+	Long getTotalTrees();
+
+	BigDecimal getTotalCo2Absorbed();
+}
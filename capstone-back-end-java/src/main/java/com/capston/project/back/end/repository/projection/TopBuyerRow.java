@@ -0,0 +1,19 @@
+package com.capston.project.back.end.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Top người mua tín chỉ
+ */
+public interface TopBuyerRow {
+	UUID getBuyerId();
+
+	BigDecimal getTotalSpent();
+
+	Long getCreditsPurchased();
+
+	Long getCreditsRetired();
+
+	Long getTransactionCount();
+}
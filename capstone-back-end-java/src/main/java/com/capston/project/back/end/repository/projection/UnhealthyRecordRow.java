@@ -0,0 +1,31 @@
+package com.capston.project.back.end.repository.projection;
+
+import com.capston.project.back.end.common.HealthStatus;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Bản ghi sinh trưởng không khỏe kèm lô cây và quản lý dự án (null nếu lô chưa gắn phase)
+ */
+public interface UnhealthyRecordRow {
+	Integer getRecordId();
+
+	Integer getBatchId();
+
+	String getBatchCode();
+
+	Integer getFarmId();
+
+	HealthStatus getHealthStatus();
+
+	String getHealthNotes();
+
+	LocalDate getRecordedDate();
+
+	Integer getQuantityAlive();
+
+	Integer getQuantityDead();
+
+	UUID getManagerId();
+}
@@ -0,0 +1,16 @@
+package com.capston.project.back.end.repository.projection;
+
+/**
+ * Thống kê user trong một lần quét bảng (admin statistics)
+ */
+public interface UserStatisticsRow {
+	Long getTotalUsers();
+
+	Long getActiveUsers();
+
+	Long getAdminCount();
+
+	Long getFarmerCount();
+
+	Long getUserCount();
+}
@@ -0,0 +1,22 @@
+package com.capston.project.back.end.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Tổng hợp tín chỉ theo năm phát hành
+ */
+public interface YearlyCreditRow {
+	Integer getYear();
+
+	Long getCreditsIssued();
+
+	Long getCreditsSold();
+
+	Long getCreditsRetired();
+
+	Long getCreditsAvailable();
+
+	BigDecimal getCo2Tons();
+
+	BigDecimal getRevenue();
+}
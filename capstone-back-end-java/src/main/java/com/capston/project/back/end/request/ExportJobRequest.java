@@ -0,0 +1,20 @@
+package com.capston.project.back.end.request;
+
+import com.capston.project.back.end.common.ExportType;
+import com.capston.project.back.end.response.dashboard.ReportFilterRequest;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExportJobRequest {
+
+	@NotNull(message = "Export type is required")
+	private ExportType type;
+
+	// Bỏ qua với PROJECTS_EXCEL / FARMS_EXCEL
+	private ReportFilterRequest filter;
+}
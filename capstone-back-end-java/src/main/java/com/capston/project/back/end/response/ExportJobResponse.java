@@ -0,0 +1,26 @@
+package com.capston.project.back.end.response;
+
+import com.capston.project.back.end.common.ExportJobStatus;
+import com.capston.project.back.end.common.ExportType;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExportJobResponse {
+	private String jobId;
+	private ExportType type;
+	private ExportJobStatus status;
+	private Integer progress;
+	private String fileName;
+	private Long fileSize;
+	private String downloadUrl;
+	private String errorMessage;
+	private OffsetDateTime createdAt;
+	private OffsetDateTime completedAt;
+	private OffsetDateTime expiresAt;
+}
@@ -1,5 +1,6 @@
 package com.capston.project.back.end.response;
 
+import com.capston.project.back.end.common.EnrichmentStatus;
 import com.capston.project.back.end.common.FarmStatus;
 import lombok.*;
 
@@ -35,6 +36,7 @@ public class FarmResponse {
 
 	// Status
 	private FarmStatus farmStatus;
+	private EnrichmentStatus enrichmentStatus;
 
 	// Stats (calculated from tree_batches)
 	private Integer totalBatches;
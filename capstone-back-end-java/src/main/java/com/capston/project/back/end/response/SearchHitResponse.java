@@ -0,0 +1,20 @@
+package com.capston.project.back.end.response;
+
+import com.capston.project.back.end.common.SearchType;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchHitResponse {
+	private SearchType type;
+	// Integer id (project/farm/contract) hoặc UUID (user) dạng chuỗi
+	private String id;
+	private String title;
+	private String subtitle;
+	private BigDecimal score;
+}
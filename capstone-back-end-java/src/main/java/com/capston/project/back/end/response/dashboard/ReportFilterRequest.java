@@ -4,6 +4,7 @@ import lombok.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 
 @Getter
 @Setter
@@ -18,4 +19,59 @@ public class ReportFilterRequest {
 	private Integer year;
 	private Integer month;
 	private String groupBy; // DAY, WEEK, MONTH, QUARTER, YEAR
+
+	/**
+	 * Ngày bắt đầu thực tế: fromDate nếu có, ngược lại suy ra từ year/month
+	 */
+	public LocalDate effectiveFromDate() {
+		if (fromDate != null || year == null) {
+			return fromDate;
+		}
+		return month != null ? LocalDate.of(year, month, 1) : LocalDate.of(year, 1, 1);
+	}
+
+	/**
+	 * Ngày kết thúc thực tế (inclusive): toDate nếu có, ngược lại suy ra từ
+	 * year/month
+	 */
+	public LocalDate effectiveToDate() {
+		if (toDate != null || year == null) {
+			return toDate;
+		}
+		if (month != null) {
+			LocalDate first = LocalDate.of(year, month, 1);
+			return first.withDayOfMonth(first.lengthOfMonth());
+		}
+		return LocalDate.of(year, 12, 31);
+	}
+
+	public List<Integer> normalizedProjectIds() {
+		return normalizeIds(projectIds);
+	}
+
+	public List<Integer> normalizedFarmIds() {
+		return normalizeIds(farmIds);
+	}
+
+	/**
+	 * Key chuẩn hoá cho cache: hai filter tương đương về ngữ nghĩa cho ra cùng
+	 * một key (thứ tự id, id trùng, year/month so với from/to)
+	 */
+	public String cacheKey() {
+		return "from=" + effectiveFromDate()
+				+ "|to=" + effectiveToDate()
+				+ "|projects=" + normalizedProjectIds()
+				+ "|farms=" + normalizedFarmIds();
+	}
+
+	public static ReportFilterRequest empty() {
+		return new ReportFilterRequest();
+	}
+
+	private static List<Integer> normalizeIds(List<Integer> ids) {
+		if (ids == null) {
+			return List.of();
+		}
+		return ids.stream().filter(Objects::nonNull).distinct().sorted().toList();
+	}
 }
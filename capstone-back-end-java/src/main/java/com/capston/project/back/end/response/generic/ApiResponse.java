@@ -1,5 +1,6 @@
 package com.capston.project.back.end.response.generic;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -35,6 +36,27 @@ public class ApiResponse<T> {
 		private int totalPages;
 		private boolean hasNext;
 		private boolean hasPrevious;
+
+		// Chỉ có khi phân trang keyset
+		@JsonInclude(JsonInclude.Include.NON_NULL)
+		private String nextCursor;
+		@JsonInclude(JsonInclude.Include.NON_NULL)
+		private Long approximateTotal;
+
+		/**
+		 * PageInfo cho trang keyset: không có số trang, totalElements là tổng ước lượng (-1 nếu không có)
+		 */
+		public static PageInfo keyset(int size, String nextCursor, Long approximateTotal, boolean hasPrevious) {
+			return PageInfo.builder()
+					.size(size)
+					.totalElements(approximateTotal != null ? approximateTotal : -1)
+					.totalPages(-1)
+					.hasNext(nextCursor != null)
+					.hasPrevious(hasPrevious)
+					.nextCursor(nextCursor)
+					.approximateTotal(approximateTotal)
+					.build();
+		}
 	}
 
 	public static <T> ApiResponse<T> success(T data) {
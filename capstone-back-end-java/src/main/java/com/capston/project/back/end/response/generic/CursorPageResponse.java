@@ -0,0 +1,23 @@
+package com.capston.project.back.end.response.generic;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Trang theo keyset: client gửi lại nextCursor để lấy trang tiếp theo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+	private List<T> content;
+	private int pageSize;
+
+	private String nextCursor;
+	private Boolean hasNext;
+}
@@ -1,45 +1,68 @@
 package com.capston.project.back.end.scheduler;
 
+import com.capston.project.back.end.common.BatchStatus;
 import com.capston.project.back.end.entity.TreeBatch;
 import com.capston.project.back.end.entity.TreeGrowthRecord;
-import com.capston.project.back.end.repository.FarmEnvironmentRecordRepository;
 import com.capston.project.back.end.repository.TreeBatchRepository;
 import com.capston.project.back.end.repository.TreeGrowthRecordRepository;
+import com.capston.project.back.end.service.EnvironmentFactorService;
 import com.capston.project.back.end.service.ProjectService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Job tính CO2 chia partition theo id lô (scheduler.jobs.carbon-recompute.partitions) để các
+ * node trong cụm cùng xử lý; mỗi partition chạy trong một transaction riêng.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class CarbonScheduler {
+	static final String CARBON_RECOMPUTE_JOB = "carbon-recompute";
+	static final String PROJECT_STATS_JOB = "project-stats";
+	static final String CARBON_RECOMPUTE_CRON = "0 0 1 * * ?";
+	static final String PROJECT_STATS_CRON = "0 0 3 * * ?";
+
+	private final ClusterJobRunner jobRunner;
+	private final TransactionTemplate transactionTemplate;
 	private final TreeBatchRepository treeBatchRepository;
 	private final TreeGrowthRecordRepository growthRecordRepository;
-	private final FarmEnvironmentRecordRepository environmentRecordRepository;
+	private final EnvironmentFactorService environmentFactorService;
 	private final ProjectService projectService;
 
 	/**
 	 * Cập nhật CO2 hấp thụ cho tất cả lô cây hàng ngày lúc 1:00 AM
 	 */
-	@Scheduled(cron = "0 0 1 * * ?")
-	@Transactional
+	@Scheduled(cron = CARBON_RECOMPUTE_CRON)
 	public void dailyUpdateCarbonAbsorption() {
-		log.info("Starting daily carbon absorption update...");
+		jobRunner.submitPartitioned(CARBON_RECOMPUTE_JOB, CARBON_RECOMPUTE_CRON, this::updateCarbonAbsorption);
+	}
 
-		try {
-			List<TreeBatch> activeBatches = treeBatchRepository.findAll().stream()
-			                                                   .filter(b -> "ACTIVE".equals(b.getBatchStatus()))
-			                                                   .toList();
+	/**
+	 * Một partition: các lô ACTIVE có id % partitions = partition; trả về số lô đã cập nhật
+	 */
+	Integer updateCarbonAbsorption(int partition, int partitions) {
+		return transactionTemplate.execute(status -> {
+			List<TreeBatch> activeBatches = treeBatchRepository.findByStatusInPartition(BatchStatus.ACTIVE,
+					partitions, partition);
 			int updated = 0;
 
+			// Hệ số môi trường của mọi farm tra một lần qua index thay vì một query mỗi lô
+			LocalDate today = LocalDate.now();
+			Map<EnvironmentFactorService.FarmDate, BigDecimal> envFactors = environmentFactorService.getFactors(
+					activeBatches.stream()
+					             .map(b -> new EnvironmentFactorService.FarmDate(b.getFarmId(), today))
+					             .toList());
+
 			for (TreeBatch batch : activeBatches) {
 				try {
 					// Get latest growth record
@@ -49,11 +72,10 @@ public class CarbonScheduler {
 					TreeGrowthRecord record = latestRecord.get();
 
 					// Get environmental factor
-					BigDecimal envFactor = environmentRecordRepository.getLatestFactorByFarmId(batch.getFarmId());
-					if (envFactor == null) envFactor = BigDecimal.ONE;
+					BigDecimal envFactor = envFactors.get(new EnvironmentFactorService.FarmDate(batch.getFarmId(), today));
 
 					// Calculate age in years
-					long daysOld = ChronoUnit.DAYS.between(batch.getPlantingDate(), LocalDate.now());
+					long daysOld = ChronoUnit.DAYS.between(batch.getPlantingDate(), today);
 					int ageInYears = (int) (daysOld / 365);
 					if (ageInYears < 1) ageInYears = 1;
 
@@ -80,25 +102,19 @@ public class CarbonScheduler {
 				}
 			}
 
-			log.info("Daily carbon update completed. Updated {} batch records", updated);
-
-		} catch (Exception e) {
-			log.error("Daily carbon absorption update failed: {}", e.getMessage(), e);
-		}
+			log.info("Carbon update partition {}/{} completed. Updated {} batch records", partition, partitions, updated);
+			return updated;
+		});
 	}
 
 	/**
 	 * Cập nhật computed fields của tất cả Projects hàng ngày lúc 3:00 AM
 	 */
-	@Scheduled(cron = "0 0 3 * * ?")
+	@Scheduled(cron = PROJECT_STATS_CRON)
 	public void dailyUpdateProjectStats() {
-		log.info("Starting daily project stats update...");
-
-		try {
+		jobRunner.submit(PROJECT_STATS_JOB, PROJECT_STATS_CRON, () -> {
 			projectService.recalculateAllProjects();
-			log.info("Daily project stats update completed");
-		} catch (Exception e) {
-			log.error("Daily project stats update failed: {}", e.getMessage(), e);
-		}
+			return null;
+		});
 	}
 }
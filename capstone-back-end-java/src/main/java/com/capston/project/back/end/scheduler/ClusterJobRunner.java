@@ -0,0 +1,344 @@
+package com.capston.project.back.end.scheduler;
+
+import com.capston.project.back.end.common.JobRunStatus;
+import com.capston.project.back.end.entity.JobRun;
+import com.capston.project.back.end.repository.JobLeaseRepository;
+import com.capston.project.back.end.repository.JobRunRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chạy job định kỳ an toàn khi có nhiều instance: job (hoặc từng partition của job) chỉ
+ * chạy trên node lấy được lease trong bảng job_leases.
+ *
+ * - lease (scheduler.jobs.<job>.lease): node chết giữa chừng thì node khác nhận lại sau khi hết hạn;
+ *   node đang chạy gia hạn lease mỗi lease/3 nên job chạy lâu hơn lease vẫn không bị node khác nhận
+ * - min-hold: lease giữ tối thiểu khoảng này kể từ lúc lấy, node có cron lệch vài giây không tranh lại
+ * - pool-size: mỗi job một thread pool riêng, thread của @Scheduled chỉ submit rồi trả về
+ * - partitions: các node cùng lấy lần lượt partition chưa có chủ, mỗi partition một lease "<job>#<n>"
+ *
+ * Mỗi lần chạy (mỗi partition) được ghi vào job_runs. Job theo cron ghi kèm mốc kích hoạt
+ * (scheduled_at, cùng giá trị trên mọi node); partition đã SUCCEEDED cho mốc đó thì node đến sau
+ * bỏ qua, kể cả khi cron của node đó trễ hơn min-hold. Job không theo cron (fixedDelay) chỉ có
+ * lease chống chạy song song nên phải chạy lại được.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterJobRunner {
+
+	private static final Duration DEFAULT_LEASE = Duration.ofHours(1);
+	private static final Duration DEFAULT_MIN_HOLD = Duration.ofMinutes(5);
+	private static final int MAX_ERROR_LENGTH = 2000;
+	// Executor có thể gọi sớm vài ms so với mốc cron
+	private static final Duration FIRE_TOLERANCE = Duration.ofSeconds(5);
+	private static final Duration MAX_CRON_LOOKBACK = Duration.ofDays(400);
+
+	/**
+	 * Một phần việc của job partition: xử lý các bản ghi có id % partitions = partition
+	 */
+	@FunctionalInterface
+	public interface PartitionTask {
+		// Trả về số bản ghi đã xử lý, null nếu job không đếm
+		Integer run(int partition, int partitions) throws Exception;
+	}
+
+	private final JobLeaseRepository leaseRepository;
+	private final JobRunRepository runRepository;
+	private final Environment environment;
+
+	// Trống thì dùng pid@hostname
+	@Value("${scheduler.node-id:}")
+	private String configuredNodeId;
+
+	// Tắt trên node chỉ phục vụ request
+	@Value("${scheduler.enabled:true}")
+	private boolean enabled;
+
+	private String nodeId;
+
+	private final Map<String, ThreadPoolTaskExecutor> executors = new ConcurrentHashMap<>();
+	private final Set<String> runningJobs = ConcurrentHashMap.newKeySet();
+	private ThreadPoolTaskScheduler heartbeats;
+
+	private final AtomicLong triggersSkipped = new AtomicLong();
+	private final AtomicLong leasesAcquired = new AtomicLong();
+	private final AtomicLong leasesMissed = new AtomicLong();
+	private final AtomicLong leasesLost = new AtomicLong();
+	private final AtomicLong partitionsAlreadyDone = new AtomicLong();
+	private final AtomicLong runsSucceeded = new AtomicLong();
+	private final AtomicLong runsFailed = new AtomicLong();
+
+	@PostConstruct
+	void init() {
+		nodeId = configuredNodeId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : configuredNodeId;
+		heartbeats = new ThreadPoolTaskScheduler();
+		heartbeats.setPoolSize(1);
+		heartbeats.setThreadNamePrefix("job-lease-heartbeat-");
+		heartbeats.initialize();
+		log.info("Cluster job runner started on node {} (enabled={})", nodeId, enabled);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		// Partition đang chạy dở sẽ được node khác nhận lại khi lease hết hạn
+		executors.values().forEach(ThreadPoolTaskExecutor::shutdown);
+		heartbeats.shutdown();
+	}
+
+	/**
+	 * Chạy job không chia partition được kích hoạt bởi {@code cron} (cùng biểu thức với @Scheduled);
+	 * mỗi mốc cron chạy thành công tối đa một lần trên cả cụm. Task trả về số bản ghi đã xử lý hoặc null
+	 */
+	public void submit(String jobName, String cron, Callable<Integer> task) {
+		dispatch(jobName, scheduledAt(cron, ZonedDateTime.now()), 1, (partition, partitions) -> task.call());
+	}
+
+	/**
+	 * Chạy job không theo cron (fixedDelay): chỉ lease chống chạy song song, không ghi nhận mốc
+	 */
+	public void submit(String jobName, Callable<Integer> task) {
+		dispatch(jobName, null, 1, (partition, partitions) -> task.call());
+	}
+
+	/**
+	 * Chạy job chia thành scheduler.jobs.<job>.partitions phần, kích hoạt bởi {@code cron}
+	 */
+	public void submitPartitioned(String jobName, String cron, PartitionTask task) {
+		dispatch(jobName, scheduledAt(cron, ZonedDateTime.now()),
+				Math.max(1, setting(jobName, "partitions", Integer.class, 1)), task);
+	}
+
+	public List<JobRun> getRecentRuns(String jobName) {
+		return jobName == null || jobName.isBlank()
+				? runRepository.findTop100ByOrderByStartedAtDesc()
+				: runRepository.findTop100ByJobNameOrderByStartedAtDesc(jobName);
+	}
+
+	public Map<String, Object> getStats() {
+		Map<String, Object> pools = new LinkedHashMap<>();
+		executors.forEach((job, executor) -> {
+			Map<String, Object> pool = new LinkedHashMap<>();
+			pool.put("poolSize", executor.getCorePoolSize());
+			pool.put("activeThreads", executor.getActiveCount());
+			pool.put("queueSize", executor.getQueueSize());
+			pools.put(job, pool);
+		});
+
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("nodeId", nodeId);
+		stats.put("enabled", enabled);
+		stats.put("runningJobs", List.copyOf(runningJobs));
+		stats.put("triggersSkipped", triggersSkipped.get());
+		stats.put("leasesAcquired", leasesAcquired.get());
+		stats.put("leasesMissed", leasesMissed.get());
+		stats.put("leasesLost", leasesLost.get());
+		stats.put("partitionsAlreadyDone", partitionsAlreadyDone.get());
+		stats.put("runsSucceeded", runsSucceeded.get());
+		stats.put("runsFailed", runsFailed.get());
+		stats.put("pools", pools);
+		return stats;
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	/**
+	 * Mốc kích hoạt gần nhất của cron tính tới {@code now}, theo múi giờ hệ thống như @Scheduled.
+	 * Node có trigger đến trễ vẫn ra cùng mốc với các node khác. Null nếu cron không có mốc nào
+	 * trong MAX_CRON_LOOKBACK.
+	 */
+	static OffsetDateTime scheduledAt(String cron, ZonedDateTime now) {
+		CronExpression expression = CronExpression.parse(cron);
+		ZonedDateTime until = now.plus(FIRE_TOLERANCE);
+		// Lùi cửa sổ gấp đôi tới khi có mốc, rồi đi tiếp tới mốc cuối không quá until
+		Duration window = Duration.ofMinutes(1);
+		ZonedDateTime fire = expression.next(until.minus(window));
+		while (fire == null || fire.isAfter(until)) {
+			if (window.equals(MAX_CRON_LOOKBACK)) {
+				return null;
+			}
+			Duration doubled = window.multipliedBy(2);
+			window = doubled.compareTo(MAX_CRON_LOOKBACK) < 0 ? doubled : MAX_CRON_LOOKBACK;
+			fire = expression.next(until.minus(window));
+		}
+		for (ZonedDateTime next = expression.next(fire); next != null && !next.isAfter(until);
+		     next = expression.next(next)) {
+			fire = next;
+		}
+		return fire.toOffsetDateTime();
+	}
+
+	private void dispatch(String jobName, OffsetDateTime scheduledAt, int partitions, PartitionTask task) {
+		if (!enabled) {
+			return;
+		}
+		if (!runningJobs.add(jobName)) {
+			// Lần trigger trước trên node này chưa xong
+			triggersSkipped.incrementAndGet();
+			log.warn("Job {} is still running on node {}, skipping trigger", jobName, nodeId);
+			return;
+		}
+
+		// Xáo thứ tự để các node bắt đầu từ các partition khác nhau, ít tranh lease hơn
+		List<Integer> order = new ArrayList<>(partitions);
+		for (int p = 0; p < partitions; p++) {
+			order.add(p);
+		}
+		Collections.shuffle(order);
+		Queue<Integer> pending = new ConcurrentLinkedQueue<>(order);
+
+		ThreadPoolTaskExecutor executor = executor(jobName);
+		int workers = Math.min(executor.getCorePoolSize(), partitions);
+		AtomicInteger remaining = new AtomicInteger(workers);
+		for (int w = 0; w < workers; w++) {
+			executor.execute(() -> {
+				try {
+					Integer partition;
+					while ((partition = pending.poll()) != null) {
+						runPartition(jobName, scheduledAt, partition, partitions, task);
+					}
+				} finally {
+					if (remaining.decrementAndGet() == 0) {
+						runningJobs.remove(jobName);
+					}
+				}
+			});
+		}
+	}
+
+	private void runPartition(String jobName, OffsetDateTime scheduledAt, int partition, int partitions,
+	                          PartitionTask task) {
+		String leaseName = partitions > 1 ? jobName + "#" + partition : jobName;
+		Integer partitionNo = partitions > 1 ? partition : null;
+		Duration lease = setting(jobName, "lease", Duration.class, DEFAULT_LEASE);
+		Duration minHold = setting(jobName, "min-hold", Duration.class, DEFAULT_MIN_HOLD);
+
+		try {
+			if (leaseRepository.tryAcquire(leaseName, nodeId, lease.toSeconds()) == 0) {
+				leasesMissed.incrementAndGet();
+				log.debug("Lease {} is held by another node", leaseName);
+				return;
+			}
+			// Kiểm tra sau khi giữ lease: node chạy trước đã ghi job_runs trước khi nhả lease
+			if (scheduledAt != null && runRepository.existsByJobNameAndPartitionNoAndScheduledAtAndStatus(
+					jobName, partitionNo, scheduledAt, JobRunStatus.SUCCEEDED)) {
+				partitionsAlreadyDone.incrementAndGet();
+				log.debug("Lease {} already completed for trigger {}", leaseName, scheduledAt);
+				release(leaseName, minHold);
+				return;
+			}
+		} catch (RuntimeException e) {
+			log.error("Failed to acquire lease {}: {}", leaseName, e.getMessage());
+			return;
+		}
+		leasesAcquired.incrementAndGet();
+
+		JobRun run = JobRun.builder()
+				.jobName(jobName)
+				.partitionNo(partitionNo)
+				.nodeId(nodeId)
+				.scheduledAt(scheduledAt)
+				.status(JobRunStatus.RUNNING)
+				.startedAt(OffsetDateTime.now())
+				.build();
+		run = saveQuietly(run);
+
+		Duration renewEvery = lease.dividedBy(3);
+		ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(() -> renew(leaseName, lease),
+				Instant.now().plus(renewEvery), renewEvery);
+		long started = System.nanoTime();
+		try {
+			run.setRowsProcessed(task.run(partition, partitions));
+			run.setStatus(JobRunStatus.SUCCEEDED);
+			runsSucceeded.incrementAndGet();
+		} catch (Exception e) {
+			run.setStatus(JobRunStatus.FAILED);
+			String error = String.valueOf(e);
+			run.setErrorMessage(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+			runsFailed.incrementAndGet();
+			log.error("Job {} failed on node {}: {}", leaseName, nodeId, e.getMessage(), e);
+		} finally {
+			heartbeat.cancel(false);
+			run.setFinishedAt(OffsetDateTime.now());
+			run.setDurationMs((System.nanoTime() - started) / 1_000_000);
+			saveQuietly(run);
+			release(leaseName, minHold);
+		}
+		log.info("Job {} finished on node {}: {} in {} ms, rows={}", leaseName, nodeId, run.getStatus(),
+				run.getDurationMs(), run.getRowsProcessed());
+	}
+
+	private void renew(String leaseName, Duration lease) {
+		try {
+			if (leaseRepository.renew(leaseName, nodeId, lease.toSeconds()) == 0) {
+				// Heartbeat trễ quá lease (DB chậm, GC dài): node khác có thể đang chạy cùng partition
+				leasesLost.incrementAndGet();
+				log.warn("Lease {} was taken over while still running on node {}", leaseName, nodeId);
+			}
+		} catch (RuntimeException e) {
+			log.warn("Failed to renew lease {}: {}", leaseName, e.getMessage());
+		}
+	}
+
+	private void release(String leaseName, Duration minHold) {
+		try {
+			leaseRepository.release(leaseName, nodeId, minHold.toSeconds());
+		} catch (RuntimeException e) {
+			// Lease tự hết hạn sau scheduler.jobs.<job>.lease
+			log.warn("Failed to release lease {}: {}", leaseName, e.getMessage());
+		}
+	}
+
+	// Lỗi ghi lịch sử không được làm hỏng job
+	private JobRun saveQuietly(JobRun run) {
+		try {
+			return runRepository.save(run);
+		} catch (RuntimeException e) {
+			log.warn("Failed to record run of job {}: {}", run.getJobName(), e.getMessage());
+			return run;
+		}
+	}
+
+	private ThreadPoolTaskExecutor executor(String jobName) {
+		return executors.computeIfAbsent(jobName, name -> {
+			int poolSize = Math.max(1, setting(name, "pool-size", Integer.class, 1));
+			ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+			executor.setCorePoolSize(poolSize);
+			executor.setMaxPoolSize(poolSize);
+			executor.setThreadNamePrefix("job-" + name + "-");
+			executor.initialize();
+			return executor;
+		});
+	}
+
+	private <T> T setting(String jobName, String key, Class<T> type, T defaultValue) {
+		return environment.getProperty("scheduler.jobs." + jobName + "." + key, type, defaultValue);
+	}
+}
@@ -2,53 +2,42 @@ package com.capston.project.back.end.scheduler;
 
 import com.capston.project.back.end.service.ContractService;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
-@Slf4j
 public class ContractScheduler {
 
+	// Dùng chung cho @Scheduled và ClusterJobRunner (mốc kích hoạt của lần chạy)
+	static final String EXPIRING_SOON_CRON = "0 0 8 * * ?";
+	static final String EXPIRED_CRON = "0 0 0 * * ?";
+	static final String AUTO_RENEWAL_CRON = "0 0 9 * * ?";
+
+	private final ClusterJobRunner jobRunner;
 	private final ContractService contractService;
 
 	/**
 	 * Kiểm tra hợp đồng sắp hết hạn - chạy mỗi ngày lúc 8:00 AM
 	 */
-	@Scheduled(cron = "0 0 8 * * ? ")
+	@Scheduled(cron = EXPIRING_SOON_CRON)
 	public void checkExpiringSoonContracts() {
-		log.info("Running scheduled task: Check expiring soon contracts");
-		try {
-			contractService.checkAndUpdateExpiringSoonContracts();
-		} catch (Exception e) {
-			log.error("Failed to check expiring soon contracts:  {}", e.getMessage(), e);
-		}
+		jobRunner.submit("contract-expiring-soon", EXPIRING_SOON_CRON, contractService::checkAndUpdateExpiringSoonContracts);
 	}
 
 	/**
 	 * Kiểm tra hợp đồng đã hết hạn - chạy mỗi ngày lúc 0:00 AM
 	 */
-	@Scheduled(cron = "0 0 0 * * ?")
+	@Scheduled(cron = EXPIRED_CRON)
 	public void checkExpiredContracts() {
-		log.info("Running scheduled task: Check expired contracts");
-		try {
-			contractService.checkAndUpdateExpiredContracts();
-		} catch (Exception e) {
-			log.error("Failed to check expired contracts: {}", e. getMessage(), e);
-		}
+		jobRunner.submit("contract-expired", EXPIRED_CRON, contractService::checkAndUpdateExpiredContracts);
 	}
 
 	/**
 	 * Xử lý tự động gia hạn - chạy mỗi ngày lúc 9:00 AM
 	 */
-	@Scheduled(cron = "0 0 9 * * ?")
+	@Scheduled(cron = AUTO_RENEWAL_CRON)
 	public void processAutoRenewals() {
-		log.info("Running scheduled task: Process auto renewals");
-		try {
-			contractService.processAutoRenewals();
-		} catch (Exception e) {
-			log.error("Failed to process auto renewals: {}", e.getMessage(), e);
-		}
+		jobRunner.submit("contract-auto-renewal", AUTO_RENEWAL_CRON, contractService::processAutoRenewals);
 	}
 }
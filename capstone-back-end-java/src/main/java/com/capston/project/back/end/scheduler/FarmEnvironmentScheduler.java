@@ -3,6 +3,7 @@ package com.capston.project.back.end.scheduler;
 import com.capston.project.back.end.service.FarmEnvironmentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -13,16 +14,45 @@ import java.time.LocalDate;
 @RequiredArgsConstructor
 public class FarmEnvironmentScheduler {
 
+    private static final String DAILY_FETCH_CRON = "0 0 2 * * ?";
+    private static final String CATCH_UP_CRON = "${environment.catch-up.cron:0 30 3 * * SUN}";
+
+    private final ClusterJobRunner jobRunner;
     private final FarmEnvironmentService farmEnvironmentService;
 
+    @Value("${environment.catch-up.window-days:30}")
+    private int catchUpWindowDays;
+
+    // Biểu thức đã resolve, để ClusterJobRunner tính mốc kích hoạt
+    @Value(CATCH_UP_CRON)
+    private String catchUpCron;
+
     /**
      * Fetch yesterday's environment data for all farms every day at 02:00 AM
      */
-    @Scheduled(cron = "0 0 2 * * ?")
+    @Scheduled(cron = DAILY_FETCH_CRON)
     public void fetchDailyEnvironmentRecords() {
-        LocalDate yesterday = LocalDate.now().minusDays(1);
-        log.info("Starting scheduled task: fetching environment records for {}", yesterday);
-        farmEnvironmentService.fetchAndSaveForAllFarms(yesterday);
-        log.info("Scheduled task finished: fetching environment records for {}", yesterday);
+        jobRunner.submit("environment-daily-fetch", DAILY_FETCH_CRON, () -> {
+            LocalDate yesterday = LocalDate.now().minusDays(1);
+            log.info("Starting scheduled task: fetching environment records for {}", yesterday);
+            farmEnvironmentService.fetchAndSaveForAllFarms(yesterday);
+            log.info("Scheduled task finished: fetching environment records for {}", yesterday);
+            return null;
+        });
+    }
+
+    /**
+     * Fill gaps left by API outages or archive delay (default: every Sunday at 03:30 AM)
+     */
+    @Scheduled(cron = CATCH_UP_CRON)
+    public void catchUpMissingEnvironmentRecords() {
+        jobRunner.submit("environment-catch-up", catchUpCron, () -> {
+            LocalDate to = LocalDate.now().minusDays(1);
+            LocalDate from = to.minusDays(catchUpWindowDays - 1L);
+            log.info("Starting scheduled task: environment catch-up {}..{}", from, to);
+            farmEnvironmentService.catchUpMissingRecords(from, to);
+            log.info("Scheduled task finished: environment catch-up {}..{}", from, to);
+            return null;
+        });
     }
 }
@@ -3,24 +3,30 @@ package com.capston.project.back.end.scheduler;
 import com.capston.project.back.end.common.HealthStatus;
 import com.capston.project.back.end.common.NotificationType;
 import com.capston.project.back.end.common.ReferenceType;
-import com.capston.project.back.end.entity.TreeBatch;
-import com.capston.project.back.end.entity.TreeGrowthRecord;
-import com.capston.project.back.end.entity.Project;
-import com.capston.project.back.end.repository.ProjectPhaseRepository;
-import com.capston.project.back.end.repository.ProjectRepository;
-import com.capston.project.back.end.repository.TreeBatchRepository;
+import com.capston.project.back.end.entity.Notification;
+import com.capston.project.back.end.entity.ScanWatermark;
+import com.capston.project.back.end.repository.NotificationRepository;
+import com.capston.project.back.end.repository.ScanWatermarkRepository;
 import com.capston.project.back.end.repository.TreeGrowthRecordRepository;
+import com.capston.project.back.end.repository.UserRepository;
+import com.capston.project.back.end.repository.projection.UnhealthyRecordRow;
 import com.capston.project.back.end.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -29,164 +35,196 @@ import java.util.UUID;
  * Nghiệp vụ: Chạy định kỳ quét bảng tree_growth_records
  * Nếu health_status là 'DISEASED' hoặc 'STRESSED', tạo notification cho quản lý
  * dự án
+ *
+ * Cảnh báo tức thời do HealthAlertService xử lý theo sự kiện sau commit; scheduler
+ * này chỉ là lớp dự phòng tần suất thấp cho bản ghi bị sót (restart, lỗi gửi).
+ *
+ * Quét tăng dần: đọc bản ghi có id lớn hơn watermark (bảng scan_watermarks), cộng
+ * với bản ghi tạo sau lần quét trước trừ rescan-window dù id nhỏ hơn watermark: id
+ * cấp lúc insert nên transaction commit muộn có thể lộ ra bản ghi id nhỏ sau khi
+ * watermark đã vượt qua. Đọc lại không gửi trùng vì mỗi lô tối đa một cảnh báo trong
+ * health-alert.cooldown. Transaction mở lâu hơn rescan-window vẫn có thể bị sót.
+ * Chạy qua ClusterJobRunner nên mỗi lần chỉ một node quét.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class HealthAlertScheduler {
 
+    static final String SCAN_NAME = "health-alert";
+    private static final List<HealthStatus> UNHEALTHY = List.of(HealthStatus.DISEASED, HealthStatus.STRESSED);
+
+    private final ClusterJobRunner jobRunner;
     private final TreeGrowthRecordRepository growthRecordRepository;
-    private final TreeBatchRepository treeBatchRepository;
-    private final ProjectPhaseRepository phaseRepository;
-    private final ProjectRepository projectRepository;
+    private final ScanWatermarkRepository watermarkRepository;
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
     private final NotificationService notificationService;
 
+    @Value("${health-alert.cooldown:PT24H}")
+    private Duration cooldown;
+
+    // Lần chạy đầu hoặc sau thời gian dài ngừng: không cảnh báo bản ghi cũ hơn khoảng này
+    @Value("${health-alert.max-lookback:P7D}")
+    private Duration maxLookback;
+
+    // Đọc lại bản ghi tạo sau (lần quét trước - khoảng này), phải dài hơn transaction ghi growth record lâu nhất
+    @Value("${health-alert.rescan-window:PT15M}")
+    private Duration rescanWindow;
+
+    @Value("${health-alert.chunk-size:500}")
+    private int chunkSize;
+
     /**
-     * Chạy mỗi ngày lúc 8:00 sáng
-     * Quét các bản ghi có health_status = DISEASED hoặc STRESSED
+     * Chạy mỗi 6 giờ (health-alert.scan-interval-ms)
+     * Quét các bản ghi mới có health_status = DISEASED hoặc STRESSED
      */
-    @Scheduled(cron = "0 0 8 * * *") // Mỗi ngày lúc 8:00 AM
-    @Transactional(readOnly = true)
+    @Scheduled(fixedDelayString = "${health-alert.scan-interval-ms:21600000}",
+            initialDelayString = "${health-alert.initial-delay-ms:60000}")
     public void scanUnhealthyTrees() {
-        log.info("Starting health alert scan...");
+        // fixedDelay không có mốc chung giữa các node: chạy lại được nhờ watermark và cooldown cảnh báo
+        jobRunner.submit(SCAN_NAME, this::scan);
+    }
 
-        try {
-            List<TreeGrowthRecord> unhealthyRecords = growthRecordRepository.findUnhealthyRecords();
+    // Trả về số bản ghi đã quét
+    private Integer scan() {
+        log.debug("Starting health alert scan...");
+
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime createdAfter = now.minus(maxLookback);
+        ScanWatermark watermark = watermarkRepository.findById(SCAN_NAME)
+                .orElseGet(() -> ScanWatermark.builder().scanName(SCAN_NAME).lastId(0L).updatedAt(createdAfter).build());
+        OffsetDateTime rescanAfter = watermark.getUpdatedAt().minus(rescanWindow);
+        if (rescanAfter.isBefore(createdAfter)) {
+            rescanAfter = createdAfter;
+        }
 
-            if (unhealthyRecords.isEmpty()) {
-                log.info("No unhealthy records found");
-                return;
+        int watermarkId = watermark.getLastId().intValue();
+        int afterId = 0;
+        int scanned = 0;
+        int alerted = 0;
+        List<UnhealthyRecordRow> rows;
+        do {
+            rows = growthRecordRepository.findUnhealthyAfter(afterId, watermarkId, UNHEALTHY, createdAfter,
+                    rescanAfter, PageRequest.of(0, chunkSize));
+            if (rows.isEmpty()) {
+                break;
             }
-
-            log.info("Found {} unhealthy records", unhealthyRecords.size());
-
-            for (TreeGrowthRecord record : unhealthyRecords) {
-                processUnhealthyRecord(record);
+            alerted += sendAlerts(rows, now);
+            scanned += rows.size();
+
+            // Lưu sau mỗi chunk; chạy lại chunk dở dang không gửi trùng nhờ cooldown
+            afterId = rows.getLast().getRecordId();
+            if (afterId > watermark.getLastId()) {
+                watermark.setLastId((long) afterId);
+                watermark = watermarkRepository.save(watermark);
             }
+        } while (rows.size() == chunkSize);
 
-            log.info("Health alert scan completed");
+        // Mốc cho cửa sổ đọc lại của lần sau; lần quét lỗi giữa chừng giữ mốc cũ nên cửa sổ chỉ rộng thêm
+        watermark.setUpdatedAt(now);
+        watermarkRepository.save(watermark);
 
-        } catch (Exception e) {
-            log.error("Error during health alert scan: {}", e.getMessage(), e);
+        if (scanned > 0) {
+            log.info("Health alert scan: {} unhealthy records (re-read since {}), {} batches alerted, watermark={}",
+                    scanned, rescanAfter, alerted, watermark.getLastId());
         }
+        return scanned;
     }
 
-    /**
-     * Chạy mỗi giờ để check các record mới (real-time hơn)
-     */
-    @Scheduled(cron = "0 0 * * * *") // Mỗi giờ
-    @Transactional(readOnly = true)
-    public void quickHealthCheck() {
-        log.debug("Running quick health check...");
-
-        try {
-            // Only check records from the last hour
-            List<TreeGrowthRecord> recentUnhealthy = growthRecordRepository.findByHealthStatus(HealthStatus.DISEASED);
-            List<TreeGrowthRecord> stressedRecords = growthRecordRepository.findByHealthStatus(HealthStatus.STRESSED);
-
-            recentUnhealthy.addAll(stressedRecords);
-
-            for (TreeGrowthRecord record : recentUnhealthy) {
-                // Only alert if this is a new issue (created within last hour)
-                if (record.getCreatedAt() != null &&
-                        record.getCreatedAt().isAfter(OffsetDateTime.now().minusHours(1))) {
-                    processUnhealthyRecord(record);
-                }
-            }
-
-        } catch (Exception e) {
-            log.error("Error during quick health check: {}", e.getMessage(), e);
+    // Trả về số lô đã gửi cảnh báo
+    private int sendAlerts(List<UnhealthyRecordRow> rows, OffsetDateTime now) {
+        // Mỗi lô một cảnh báo: bản ghi nặng nhất (DISEASED trước STRESSED), cùng mức thì lấy mới nhất
+        Map<Integer, UnhealthyRecordRow> worstByBatch = new LinkedHashMap<>();
+        for (UnhealthyRecordRow row : rows) {
+            worstByBatch.merge(row.getBatchId(), row,
+                    (current, next) -> severity(next) >= severity(current) ? next : current);
         }
-    }
 
-    private void processUnhealthyRecord(TreeGrowthRecord record) {
-        try {
-            // Get batch info
-            TreeBatch batch = treeBatchRepository.findById(record.getBatchId()).orElse(null);
-            if (batch == null) {
-                log.warn("Batch not found for record: {}", record.getId());
-                return;
-            }
+        Set<Integer> recentlyAlerted = new HashSet<>(notificationRepository.findReferenceIdsNotifiedSince(
+                NotificationType.HEALTH_ALERT, ReferenceType.TREE_BATCH, worstByBatch.keySet(), now.minus(cooldown)));
 
-            // Get project manager
-            UUID managerId = getProjectManagerId(batch);
-            if (managerId == null) {
-                log.warn("No manager found for batch: {}", batch.getBatchCode());
-                // Send to all admins instead
-                sendAlertToAdmins(record, batch);
-                return;
+        List<Notification> notifications = new ArrayList<>();
+        List<UUID> adminIds = null;
+        int alerted = 0;
+        for (UnhealthyRecordRow row : worstByBatch.values()) {
+            if (recentlyAlerted.contains(row.getBatchId())) {
+                continue;
+            }
+            alerted++;
+            if (row.getManagerId() != null) {
+                notifications.add(managerAlert(row));
+                continue;
             }
 
-            // Create alert notification
-            String title = record.getHealthStatus().equals(HealthStatus.DISEASED)
-                    ? "🚨 Cảnh báo: Lô cây bị bệnh"
-                    : "⚠️ Cảnh báo: Lô cây có dấu hiệu stress";
-
-            String message = String.format(
-                    "Lô cây %s tại Farm #%d có trạng thái %s. Ghi nhận ngày: %s. %s",
-                    batch.getBatchCode(),
-                    batch.getFarmId(),
-                    record.getHealthStatus(),
-                    record.getRecordedDate(),
-                    record.getHealthNotes() != null ? "Ghi chú: " + record.getHealthNotes() : "");
-
-            Map<String, Object> metadata = new HashMap<>();
-            metadata.put("batchId", batch.getId());
-            metadata.put("batchCode", batch.getBatchCode());
-            metadata.put("farmId", batch.getFarmId());
-            metadata.put("healthStatus", record.getHealthStatus());
-            metadata.put("recordedDate", record.getRecordedDate().toString());
-            metadata.put("quantityAlive", record.getQuantityAlive());
-            metadata.put("quantityDead", record.getQuantityDead());
-
-            notificationService.createAndSend(
-                    managerId,
-                    title,
-                    message,
-                    NotificationType.HEALTH_ALERT,
-                    ReferenceType.TREE_BATCH,
-                    batch.getId(),
-                    metadata);
-
-            log.info("Sent health alert for batch: {} to manager: {}", batch.getBatchCode(), managerId);
-
-        } catch (Exception e) {
-            log.error("Error processing unhealthy record {}: {}", record.getId(), e.getMessage());
+            log.warn("No manager found for batch: {}", row.getBatchCode());
+            // Send to all admins instead
+            if (adminIds == null) {
+                adminIds = userRepository.findAllAdminIds();
+            }
+            for (UUID adminId : adminIds) {
+                notifications.add(adminAlert(row, adminId));
+            }
         }
+
+        notificationService.createAndSendAll(notifications);
+        return alerted;
     }
 
-    private void sendAlertToAdmins(TreeGrowthRecord record, TreeBatch batch) {
-        String title = record.getHealthStatus().equals(HealthStatus.DISEASED)
-                ? "🚨 Cảnh báo: Lô cây bị bệnh"
-                : "⚠️ Cảnh báo: Lô cây có dấu hiệu stress";
+    private Notification managerAlert(UnhealthyRecordRow row) {
+        String message = String.format(
+                "Lô cây %s tại Farm #%d có trạng thái %s. Ghi nhận ngày: %s. %s",
+                row.getBatchCode(),
+                row.getFarmId(),
+                row.getHealthStatus(),
+                row.getRecordedDate(),
+                row.getHealthNotes() != null ? "Ghi chú: " + row.getHealthNotes() : "");
+
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("batchId", row.getBatchId());
+        metadata.put("batchCode", row.getBatchCode());
+        metadata.put("farmId", row.getFarmId());
+        metadata.put("healthStatus", row.getHealthStatus());
+        metadata.put("recordedDate", row.getRecordedDate().toString());
+        metadata.put("quantityAlive", row.getQuantityAlive());
+        metadata.put("quantityDead", row.getQuantityDead());
+
+        return Notification.builder()
+                .userId(row.getManagerId())
+                .title(title(row))
+                .message(message)
+                .notificationType(NotificationType.HEALTH_ALERT)
+                .referenceType(ReferenceType.TREE_BATCH)
+                .referenceId(row.getBatchId())
+                .metadata(metadata)
+                .build();
+    }
 
+    private Notification adminAlert(UnhealthyRecordRow row, UUID adminId) {
         String message = String.format(
                 "Lô cây %s tại Farm #%d có trạng thái %s. Ghi nhận ngày: %s.",
-                batch.getBatchCode(),
-                batch.getFarmId(),
-                record.getHealthStatus(),
-                record.getRecordedDate());
-
-        notificationService.sendToAdmins(
-                title,
-                message,
-                NotificationType.HEALTH_ALERT,
-                ReferenceType.TREE_BATCH,
-                batch.getId());
+                row.getBatchCode(),
+                row.getFarmId(),
+                row.getHealthStatus(),
+                row.getRecordedDate());
+
+        return Notification.builder()
+                .userId(adminId)
+                .title(title(row))
+                .message(message)
+                .notificationType(NotificationType.HEALTH_ALERT)
+                .referenceType(ReferenceType.TREE_BATCH)
+                .referenceId(row.getBatchId())
+                .build();
     }
 
-    private UUID getProjectManagerId(TreeBatch batch) {
-        if (batch.getPhaseId() == null) {
-            return null;
-        }
+    private static String title(UnhealthyRecordRow row) {
+        return row.getHealthStatus() == HealthStatus.DISEASED
+                ? "🚨 Cảnh báo: Lô cây bị bệnh"
+                : "⚠️ Cảnh báo: Lô cây có dấu hiệu stress";
+    }
 
-        return phaseRepository.findById(batch.getPhaseId())
-                .map(phase -> {
-                    Integer projectId = phase.getProjectId();
-                    return projectRepository.findById(projectId)
-                            .map(Project::getManagerId)
-                            .orElse(null);
-                })
-                .orElse(null);
+    private static int severity(UnhealthyRecordRow row) {
+        return row.getHealthStatus() == HealthStatus.DISEASED ? 2 : 1;
     }
 }
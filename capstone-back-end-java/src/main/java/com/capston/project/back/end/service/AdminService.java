@@ -1,11 +1,13 @@
 package com.capston.project.back.end.service;
 
 import com.capston.project.back.end.common.Role;
+import com.capston.project.back.end.entity.JobRun;
 import com.capston.project.back.end.entity.User;
 import com.capston.project.back.end.request.RegisterRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -58,6 +60,36 @@ public interface AdminService {
      */
     Map<String, Long> countUsersByRole();
 
+    /**
+     * Thống kê cache dữ liệu môi trường theo ô lưới, geocoding và câu trả lời chatbot
+     */
+    Map<String, Object> getCacheStatistics();
+
+    /**
+     * Xoá cache câu trả lời chatbot, trả về số entry đã xoá
+     */
+    int purgeChatbotResponseCache();
+
+    /**
+     * Thống kê gửi WebSocket: frame, tỉ lệ gộp, session bị drop, độ sâu outbound queue
+     */
+    Map<String, Object> getWebSocketStatistics();
+
+    /**
+     * Thống kê phát hiện bất thường sinh trưởng: số bản ghi, thời gian xử lý trung bình, trạng thái cache
+     */
+    Map<String, Object> getGrowthAnomalyStatistics();
+
+    /**
+     * Lịch sử chạy job định kỳ trong cụm (100 lần gần nhất), lọc theo tên job nếu có
+     */
+    List<JobRun> getJobRuns(String jobName);
+
+    /**
+     * Thống kê job định kỳ của node hiện tại: lease lấy được/bỏ lỡ, job đang chạy, thread pool
+     */
+    Map<String, Object> getSchedulerStatistics();
+
     // ==================== PENDING APPROVALS ====================
 
     /**
@@ -3,7 +3,6 @@ package com.capston.project.back.end.service;
 import com.capston.project.back.end.common.NotificationType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.OffsetDateTime;
@@ -13,14 +12,15 @@ import java.util.UUID;
 
 /**
  * Service để gửi real-time notifications qua WebSocket cho các tính năng phê
- * duyệt
+ * duyệt. Thông báo cho user và cảnh báo sức khỏe được gộp theo loại trong
+ * cửa sổ ngắn (xem WebSocketDeliveryService)
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ApprovalWebSocketService {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketDeliveryService deliveryService;
 
     /**
      * Gửi notification đến tất cả admins khi có yêu cầu phê duyệt mới
@@ -41,7 +41,7 @@ public class ApprovalWebSocketService {
         }
 
         // Broadcast to all admins listening on /topic/approvals
-        messagingTemplate.convertAndSend("/topic/approvals", (Object) payload);
+        deliveryService.sendToTopic("/topic/approvals", payload);
         log.info("Approval notification sent to /topic/approvals");
     }
 
@@ -62,11 +62,8 @@ public class ApprovalWebSocketService {
         payload.put("approved", approved);
         payload.put("timestamp", OffsetDateTime.now());
 
-        // Send to specific user
-        messagingTemplate.convertAndSendToUser(
-                userId.toString(),
-                "/queue/notifications",
-                payload);
+        // Send to specific user; nhiều kết quả cùng loại liên tiếp (phân bổ hàng loạt) gộp thành một frame
+        deliveryService.sendToUserCoalesced(userId, "/queue/notifications", type, payload);
         log.info("Approval result sent to user: {}", userId);
     }
 
@@ -217,26 +214,20 @@ public class ApprovalWebSocketService {
     // ==================== TREE HEALTH NOTIFICATION ====================
 
     /**
-     * Thông báo khi có vấn đề về sức khỏe cây trồng (Sâu bệnh, chết, ...)
+     * Phát cảnh báo sức khỏe cây trồng (sâu bệnh, chết, ...) cho admin trên /topic/alerts.
+     * Chủ farm và quản lý dự án nhận notification riêng (HealthAlertService)
      */
-    public void notifyTreeHealthIssue(UUID userId, Integer batchId, String batchCode, String status, String notes) {
-        log.info("Sending health issue notification for batch {}: status={}", batchCode, status);
+    public void broadcastTreeHealthAlert(Integer batchId, String batchCode, String status, String detail) {
+        log.info("Broadcasting health alert for batch {}: status={}", batchCode, status);
 
         Map<String, Object> payload = new HashMap<>();
         payload.put("type", "TREE_HEALTH_ISSUE");
         payload.put("notificationType", NotificationType.HEALTH_ALERT);
         payload.put("title", "Cảnh báo sức khỏe cây trồng");
-        payload.put("message", "Lô cây " + batchCode + " có tình trạng: " + status + ". Ghi chú: " + notes);
+        payload.put("message", "Lô cây " + batchCode + " có tình trạng: " + status + ". " + detail);
         payload.put("referenceId", batchId);
         payload.put("timestamp", OffsetDateTime.now());
 
-        // Send to specific user (Farmer)
-        messagingTemplate.convertAndSendToUser(
-                userId.toString(),
-                "/queue/notifications",
-                (Object) payload);
-
-        // Also broadcast to Admins
-        messagingTemplate.convertAndSend("/topic/alerts", (Object) payload);
+        deliveryService.sendToTopicCoalesced("/topic/alerts", "TREE_HEALTH_ISSUE", payload);
     }
 }
@@ -1,6 +1,8 @@
 package com.capston.project.back.end.service;
 
 import com.capston.project.back.end.common.CreditStatus;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.request.CarbonCreditRequest;
 import com.capston.project.back.end.request.CreditPurchaseRequest;
 import com.capston.project.back.end.request.CreditRetireRequest;
@@ -29,6 +31,8 @@ public interface CarbonCreditService {
 	// Carbon Credit List
 	Page<CarbonCreditResponse> getAllCredits(Pageable pageable);
 
+	KeysetPage<CarbonCreditResponse> getAllCredits(KeysetPageRequest request);
+
 	Page<CarbonCreditResponse> getCreditsByProjectId(Integer projectId, Pageable pageable);
 
 	Page<CarbonCreditResponse> getCreditsByStatus(CreditStatus status, Pageable pageable);
@@ -1,6 +1,7 @@
 package com.capston.project.back.end.service;
 
 import com.capston.project.back.end.entity.ChatMessage;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.UUID;
@@ -19,6 +20,16 @@ public interface ChatbotService {
      */
     String sendMessage(UUID userId, String userMessage);
 
+    /**
+     * Send a message and stream the AI response as content deltas.
+     * The assistant message is persisted once when the stream ends.
+     *
+     * @param userId      User sending the message
+     * @param userMessage Message content
+     * @return Content deltas in arrival order
+     */
+    Flux<String> streamMessage(UUID userId, String userMessage);
+
     /**
      * Get chat history for a user's active session
      * 
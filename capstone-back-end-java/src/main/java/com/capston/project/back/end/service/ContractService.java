@@ -1,6 +1,8 @@
 package com.capston.project.back.end.service;
 
 import com.capston.project.back.end.common.ContractStatus;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.request.ContractApprovalRequest;
 import com.capston.project.back.end.request.ContractRenewalRequest;
 import com.capston.project.back.end.request.ContractRequest;
@@ -28,6 +30,8 @@ public interface ContractService {
 	// Contract List
 	Page<ContractResponse> getAllContracts(Pageable pageable);
 
+	KeysetPage<ContractResponse> getAllContracts(KeysetPageRequest request);
+
 	Page<ContractResponse> getContractsByStatus(ContractStatus status, Pageable pageable);
 
 	List<ContractResponse> getContractsByProjectId(Integer projectId);
@@ -63,10 +67,10 @@ public interface ContractService {
 
 	List<ContractResponse> getExpiredContracts();
 
-	// Scheduled tasks
-	void checkAndUpdateExpiringSoonContracts();
+	// Scheduled tasks, trả về số hợp đồng đã xử lý
+	int checkAndUpdateExpiringSoonContracts();
 
-	void checkAndUpdateExpiredContracts();
+	int checkAndUpdateExpiredContracts();
 
-	void processAutoRenewals();
+	int processAutoRenewals();
 }
@@ -0,0 +1,35 @@
+package com.capston.project.back.end.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Tra hệ số môi trường (overall factor) của farm theo ngày từ index trong bộ nhớ
+ */
+public interface EnvironmentFactorService {
+
+    /**
+     * Hệ số của record gần nhất vào hoặc trước ngày; chưa có record nào trước ngày
+     * thì dùng record mới nhất, farm chưa có record thì trả về 1
+     */
+    BigDecimal getFactor(Integer farmId, LocalDate date);
+
+    /**
+     * Hệ số của record mới nhất (1 nếu chưa có)
+     */
+    BigDecimal getLatestFactor(Integer farmId);
+
+    /**
+     * Tra nhiều cặp (farm, ngày) cùng lúc; các farm chưa có trong index được nạp bằng một query
+     */
+    Map<FarmDate, BigDecimal> getFactors(Collection<FarmDate> keys);
+
+    /**
+     * Bỏ index của các farm vừa có record mới (áp dụng sau khi transaction commit)
+     */
+    void invalidate(Collection<Integer> farmIds);
+
+    record FarmDate(Integer farmId, LocalDate date) {}
+}
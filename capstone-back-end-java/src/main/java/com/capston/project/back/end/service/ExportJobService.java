@@ -0,0 +1,13 @@
+package com.capston.project.back.end.service;
+
+import com.capston.project.back.end.request.ExportJobRequest;
+import com.capston.project.back.end.response.ExportJobResponse;
+import org.springframework.core.io.Resource;
+
+import java.util.UUID;
+
+public interface ExportJobService {
+	ExportJobResponse submit(ExportJobRequest request, UUID userId);
+	ExportJobResponse getJob(String jobId, UUID userId);
+	Resource loadArtifact(String jobId, UUID userId);
+}
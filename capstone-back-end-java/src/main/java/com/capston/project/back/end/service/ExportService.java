@@ -2,16 +2,18 @@ package com.capston.project.back.end.service;
 
 import com.capston.project.back.end.response.dashboard.ReportFilterRequest;
 
+import java.io.OutputStream;
+
 public interface ExportService {
-	// Excel exports
-	byte[] exportCo2ReportToExcel(ReportFilterRequest filter);
-	byte[] exportRevenueReportToExcel(ReportFilterRequest filter);
-	byte[] exportCreditReportToExcel(ReportFilterRequest filter);
-	byte[] exportProjectsToExcel();
-	byte[] exportFarmsToExcel();
+	// Excel exports (ghi thẳng ra stream, không buffer cả file trong heap)
+	void exportCo2ReportToExcel(ReportFilterRequest filter, OutputStream out);
+	void exportRevenueReportToExcel(ReportFilterRequest filter, OutputStream out);
+	void exportCreditReportToExcel(ReportFilterRequest filter, OutputStream out);
+	void exportProjectsToExcel(OutputStream out);
+	void exportFarmsToExcel(OutputStream out);
 
 	// PDF exports
-	byte[] exportCo2ReportToPdf(ReportFilterRequest filter);
-	byte[] exportRevenueReportToPdf(ReportFilterRequest filter);
-	byte[] exportCreditReportToPdf(ReportFilterRequest filter);
+	void exportCo2ReportToPdf(ReportFilterRequest filter, OutputStream out);
+	void exportRevenueReportToPdf(ReportFilterRequest filter, OutputStream out);
+	void exportCreditReportToPdf(ReportFilterRequest filter, OutputStream out);
 }
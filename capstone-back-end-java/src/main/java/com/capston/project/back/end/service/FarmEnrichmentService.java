@@ -0,0 +1,13 @@
+package com.capston.project.back.end.service;
+
+/**
+ * Bổ sung toạ độ và dữ liệu môi trường cho farm ở background, tách khỏi request tạo/sửa farm
+ */
+public interface FarmEnrichmentService {
+
+	/**
+	 * Đưa farm vào hàng đợi enrichment. Trả về false nếu hàng đợi đầy (farm vẫn
+	 * ở ENRICHMENT_PENDING và sẽ được lần quét sau đưa vào lại).
+	 */
+	boolean submit(Integer farmId);
+}
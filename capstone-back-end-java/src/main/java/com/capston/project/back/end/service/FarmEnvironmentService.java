@@ -12,4 +12,10 @@ public interface FarmEnvironmentService {
      * Fetch environment data for a specific farm and date
      */
     void fetchAndSaveForFarm(Integer farmId, LocalDate date);
+
+    /**
+     * Fill missing daily records of all active farms between two dates (inclusive),
+     * using one date-range weather request per farm
+     */
+    void catchUpMissingRecords(LocalDate from, LocalDate to);
 }
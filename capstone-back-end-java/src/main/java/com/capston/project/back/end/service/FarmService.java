@@ -1,6 +1,8 @@
 package com.capston.project.back.end.service;
 
 import com.capston.project.back.end.common.FarmStatus;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.request.FarmRequest;
 import com.capston.project.back.end.response.FarmResponse;
 import org.springframework.data.domain.Page;
@@ -23,6 +25,8 @@ public interface FarmService {
 	// Farm List
 	Page<FarmResponse> getAllFarms(Pageable pageable);
 
+	KeysetPage<FarmResponse> getAllFarms(KeysetPageRequest request);
+
 	Page<FarmResponse> getFarmsByStatus(FarmStatus status, Pageable pageable);
 
 	List<FarmResponse> searchFarms(String keyword);
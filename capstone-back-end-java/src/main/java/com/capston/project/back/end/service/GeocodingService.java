@@ -1,6 +1,7 @@
 package com.capston.project.back.end.service;
 
 import java.math.BigDecimal;
+import java.util.Optional;
 
 /**
  * Service for geocoding addresses to coordinates
@@ -15,6 +16,14 @@ public interface GeocodingService {
      */
     Coordinates getCoordinates(String address);
 
+    /**
+     * Like {@link #getCoordinates(String)} but without the mock fallback: empty when no provider
+     * could geocode the address (mock mode still returns mock coordinates)
+     * @param address Full address string
+     * @return Coordinates from the provider, or empty
+     */
+    Optional<Coordinates> findCoordinates(String address);
+
     /**
      * Reverse geocoding: Get address from coordinates
      * @param latitude
@@ -0,0 +1,37 @@
+package com.capston.project.back.end.service;
+
+import com.capston.project.back.end.entity.GrowthAnomaly;
+import com.capston.project.back.end.event.GrowthRecordSavedEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Phát hiện bất thường theo luồng trên số đo sinh trưởng (GrowthAnomalyDetector): nhập sai,
+ * lô chậm phát triển, chết hàng loạt. Bất thường chưa xử lý chặn xác minh tín chỉ của lô.
+ */
+public interface GrowthAnomalyService {
+
+	/**
+	 * Cập nhật thống kê lô/loài theo bản ghi mới, lưu và cảnh báo các bất thường phát hiện được
+	 */
+	void onGrowthRecordSaved(GrowthRecordSavedEvent event);
+
+	/**
+	 * Bất thường chưa xử lý của một lô, mới nhất trước
+	 */
+	List<GrowthAnomaly> getUnresolvedAnomalies(Integer batchId);
+
+	/**
+	 * Đánh dấu đã xem xét (số đo đúng hoặc đã sửa bản ghi)
+	 */
+	GrowthAnomaly resolveAnomaly(Long anomalyId, UUID resolvedBy);
+
+	/**
+	 * Ghi các trạng thái thống kê đã thay đổi xuống growth_anomaly_states
+	 */
+	void flushState();
+
+	Map<String, Object> getStats();
+}
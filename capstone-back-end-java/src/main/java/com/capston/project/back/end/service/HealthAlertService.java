@@ -0,0 +1,30 @@
+package com.capston.project.back.end.service;
+
+import com.capston.project.back.end.entity.GrowthAnomaly;
+import com.capston.project.back.end.event.BatchMortalitySpikeEvent;
+import com.capston.project.back.end.event.GrowthRecordSavedEvent;
+
+import java.util.List;
+
+/**
+ * Cảnh báo sức khỏe lô cây theo sự kiện, chạy sau khi bản ghi sinh trưởng được commit.
+ * Cảnh báo gửi cho chủ farm và quản lý dự án trong vài giây; HealthAlertScheduler chỉ
+ * còn là lớp quét dự phòng.
+ */
+public interface HealthAlertService {
+
+	/**
+	 * Đánh giá các luật theo bản ghi: tình trạng xấu đi, chiều cao giảm liên tiếp
+	 */
+	void onGrowthRecordSaved(GrowthRecordSavedEvent event);
+
+	/**
+	 * Tỉ lệ chết trong một bản ghi vượt ngưỡng
+	 */
+	void onMortalitySpike(BatchMortalitySpikeEvent event);
+
+	/**
+	 * Bất thường số đo do GrowthAnomalyService phát hiện (đã lưu), gộp thành một cảnh báo
+	 */
+	void notifyGrowthAnomalies(Integer batchId, List<GrowthAnomaly> anomalies);
+}
@@ -2,6 +2,9 @@ package com.capston.project.back.end.service;
 
 import com.capston.project.back.end.common.NotificationType;
 import com.capston.project.back.end.common.ReferenceType;
+import com.capston.project.back.end.entity.Notification;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.response.NotificationResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -25,8 +28,12 @@ public interface NotificationService {
     void sendToAdmins(String title, String message, NotificationType type,
                      ReferenceType refType, Integer refId);
 
+    // Bulk: lưu tất cả trong một lần saveAll rồi đẩy WebSocket, trả về số notification đã tạo
+    int createAndSendAll(List<Notification> notifications);
+
     // Get notifications
     Page<NotificationResponse> getByUserId(UUID userId, Pageable pageable);
+    KeysetPage<NotificationResponse> getByUserId(UUID userId, KeysetPageRequest request);
     List<NotificationResponse> getUnreadByUserId(UUID userId);
     Long countUnreadByUserId(UUID userId);
 
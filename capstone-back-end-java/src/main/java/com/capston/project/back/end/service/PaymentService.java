@@ -1,6 +1,8 @@
 package com.capston.project.back.end.service;
 
 import com.capston.project.back.end.entity.Payment;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,4 +17,6 @@ public interface PaymentService {
     Payment confirmPayment(Integer paymentId);
 
     Page<Payment> getMyPayments(Pageable pageable);
+
+    KeysetPage<Payment> getMyPayments(KeysetPageRequest request);
 }
@@ -0,0 +1,18 @@
+package com.capston.project.back.end.service;
+
+import com.capston.project.back.end.common.SearchType;
+import com.capston.project.back.end.response.SearchHitResponse;
+import com.capston.project.back.end.response.generic.CursorPageResponse;
+
+import java.util.Set;
+
+public interface SearchService {
+
+	/**
+	 * Tìm kiếm không dấu trên dự án, farm, hợp đồng, người dùng; kết quả xếp theo độ khớp
+	 *
+	 * @param types  null/rỗng: mọi loại user được xem
+	 * @param cursor nextCursor của trang trước, null cho trang đầu
+	 */
+	CursorPageResponse<SearchHitResponse> search(String query, Set<SearchType> types, String cursor, int size);
+}
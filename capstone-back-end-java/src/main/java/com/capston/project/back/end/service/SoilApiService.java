@@ -16,6 +16,16 @@ public interface SoilApiService {
      */
     SoilData getSoilProperties(BigDecimal latitude, BigDecimal longitude);
 
+    /**
+     * Fetch only topsoil pH (one request, no classification call, no mock fallback).
+     * Failures are thrown so batch ingestion can retry. Calls are throttled by the
+     * SoilGrids rate limiter.
+     * @param latitude
+     * @param longitude
+     * @return Soil pH
+     */
+    BigDecimal fetchSoilPh(BigDecimal latitude, BigDecimal longitude);
+
     /**
      * Get soil type classification
      * @param latitude
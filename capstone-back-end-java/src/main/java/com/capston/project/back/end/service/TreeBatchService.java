@@ -1,5 +1,7 @@
 package com.capston.project.back.end.service;
 
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.response.TreeBatchResponse;
 import com.capston.project.back.end.request.TreeBatchRequest;
 import org.springframework.data.domain.Page;
@@ -28,6 +30,8 @@ public interface TreeBatchService {
 
     Page<TreeBatchResponse> getAllTreeBatches(Pageable pageable);
 
+    KeysetPage<TreeBatchResponse> getAllTreeBatches(KeysetPageRequest request);
+
 //    List<TreeBatchResponse> getTreeBatchesByFarmId(Integer farmId);
 //
 //    List<TreeBatchResponse> getTreeBatchesByPhaseId(Integer phaseId);
@@ -1,6 +1,8 @@
 package com.capston.project.back.end.service;
 
 import com.capston.project.back.end.entity.TreeGrowthRecord;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.request.TreeGrowthRecordRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -27,6 +29,8 @@ public interface TreeGrowthRecordService {
 
     Page<TreeGrowthRecord> getAllGrowthRecords(Pageable pageable);
 
+    KeysetPage<TreeGrowthRecord> getAllGrowthRecords(KeysetPageRequest request);
+
     List<TreeGrowthRecord> getGrowthRecordsByBatchId(Integer batchId);
 
     TreeGrowthRecord getLatestGrowthRecord(Integer batchId);
@@ -2,6 +2,7 @@ package com.capston.project.back.end.service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 /**
  * Service for fetching weather and climate data
@@ -18,6 +19,29 @@ public interface WeatherApiService {
      */
     WeatherData getHistoricalWeather(BigDecimal latitude, BigDecimal longitude, LocalDate date);
 
+    /**
+     * Like {@link #getHistoricalWeather} but without the mock fallback: failures are
+     * thrown so batch ingestion can retry or skip instead of storing fake data.
+     * Calls are throttled by the Open-Meteo rate limiter.
+     * @param latitude
+     * @param longitude
+     * @param date Date to fetch data for
+     * @return Weather data
+     */
+    WeatherData fetchHistoricalWeather(BigDecimal latitude, BigDecimal longitude, LocalDate date);
+
+    /**
+     * Fetch daily weather for a whole date range in a single request (no mock fallback,
+     * throttled like {@link #fetchHistoricalWeather}). Days the archive has no data for
+     * yet are left out of the result.
+     * @param latitude
+     * @param longitude
+     * @param startDate First day (inclusive)
+     * @param endDate Last day (inclusive)
+     * @return Weather data per available day, in date order
+     */
+    List<WeatherData> fetchWeatherRange(BigDecimal latitude, BigDecimal longitude, LocalDate startDate, LocalDate endDate);
+
     /**
      * Get climate statistics (average rainfall, temperature)
      * @param latitude
@@ -0,0 +1,249 @@
+package com.capston.project.back.end.service;
+
+import com.capston.project.back.end.config.WebSocketSessionMonitor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lớp gửi STOMP dùng chung: payload được serialize một lần thành JSON, các người
+ * nhận dùng chung mảng byte. Sự kiện cùng loại tới cùng một user/topic trong
+ * coalesce-window được gộp thành một frame {batch: true, count, items}; frame chỉ
+ * có một sự kiện giữ nguyên payload gốc.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebSocketDeliveryService {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketSessionMonitor sessionMonitor;
+    private final TaskExecutor clientOutboundChannelExecutor;
+
+    @Value("${websocket.delivery.coalesce-window-ms:500}")
+    private long coalesceWindowMs;
+
+    @Value("${websocket.delivery.max-batch-items:50}")
+    private int maxBatchItems;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ws-coalesce");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<BatchKey, PendingBatch> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong serializations = new AtomicLong();
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+    private final AtomicLong coalescedEvents = new AtomicLong();
+    private final AtomicLong coalescedFrames = new AtomicLong();
+
+    /**
+     * Gửi ngay tới một topic (mọi subscriber)
+     */
+    public void sendToTopic(String destination, Object payload) {
+        Message<byte[]> message = serialize(payload);
+        if (message != null) {
+            send(destination, message);
+        }
+    }
+
+    /**
+     * Gửi ngay tới một user (/user/{id}{destination})
+     */
+    public void sendToUser(UUID userId, String destination, Object payload) {
+        sendToUsers(List.of(userId), destination, payload);
+    }
+
+    /**
+     * Gửi cùng một payload cho nhiều user, chỉ serialize một lần
+     */
+    public void sendToUsers(Collection<UUID> userIds, String destination, Object payload) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Message<byte[]> message = serialize(payload);
+        if (message == null) {
+            return;
+        }
+        for (UUID userId : userIds) {
+            send(userDestination(userId, destination), message);
+        }
+    }
+
+    /**
+     * Gửi tới user sau coalesce-window, gộp với các sự kiện cùng eventType trong cửa sổ
+     */
+    public void sendToUserCoalesced(UUID userId, String destination, String eventType, Map<String, Object> payload) {
+        enqueue(new BatchKey(userDestination(userId, destination), eventType), payload);
+    }
+
+    /**
+     * Gửi tới topic sau coalesce-window, gộp với các sự kiện cùng eventType trong cửa sổ
+     */
+    public void sendToTopicCoalesced(String destination, String eventType, Map<String, Object> payload) {
+        enqueue(new BatchKey(destination, eventType), payload);
+    }
+
+    public Map<String, Object> getStats() {
+        long frames = framesSent.get();
+        long batched = coalescedFrames.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("framesSent", frames);
+        stats.put("serializations", serializations.get());
+        stats.put("sendFailures", sendFailures.get());
+        stats.put("coalescedEvents", coalescedEvents.get());
+        stats.put("coalescedFrames", batched);
+        stats.put("coalescingRatio", batched > 0 ? (double) coalescedEvents.get() / batched : 0.0);
+        stats.put("pendingBatches", pending.size());
+        if (clientOutboundChannelExecutor instanceof ThreadPoolTaskExecutor outbound) {
+            stats.put("outboundQueueDepth", outbound.getQueueSize());
+            stats.put("outboundActiveThreads", outbound.getActiveCount());
+            stats.put("outboundPoolSize", outbound.getPoolSize());
+        }
+        stats.putAll(sessionMonitor.getStats());
+        return stats;
+    }
+
+    /**
+     * Gửi nốt các batch đang chờ khi tắt ứng dụng
+     */
+    @PreDestroy
+    void shutdown() {
+        flushScheduler.shutdownNow();
+        pending.keySet().forEach(this::flush);
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void enqueue(BatchKey key, Map<String, Object> payload) {
+        coalescedEvents.incrementAndGet();
+        pending.compute(key, (k, batch) -> {
+            if (batch == null) {
+                batch = new PendingBatch();
+                flushScheduler.schedule(() -> flush(k), coalesceWindowMs, TimeUnit.MILLISECONDS);
+            }
+            batch.add(payload, maxBatchItems);
+            return batch;
+        });
+    }
+
+    private void flush(BatchKey key) {
+        // remove trong map là atomic với compute ở enqueue: sự kiện đến sau mở batch mới
+        PendingBatch batch = pending.remove(key);
+        if (batch == null) {
+            return;
+        }
+        coalescedFrames.incrementAndGet();
+        try {
+            Message<byte[]> message = serialize(batch.count == 1 ? batch.items.getFirst() : batch.toFrame(key.eventType()));
+            if (message != null) {
+                send(key.destination(), message);
+            }
+        } catch (RuntimeException e) {
+            sendFailures.incrementAndGet();
+            log.warn("Failed to flush coalesced {} batch to {}: {}", key.eventType(), key.destination(), e.getMessage());
+        }
+    }
+
+    private Message<byte[]> serialize(Object payload) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(payload);
+            serializations.incrementAndGet();
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            // Header bất biến: template tạo bản sao header cho từng đích, payload dùng chung
+            return MessageBuilder.createMessage(json, accessor.getMessageHeaders());
+        } catch (JsonProcessingException e) {
+            sendFailures.incrementAndGet();
+            log.error("Failed to serialize WebSocket payload: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void send(String destination, Message<byte[]> message) {
+        try {
+            messagingTemplate.send(destination, message);
+            framesSent.incrementAndGet();
+        } catch (MessagingException e) {
+            // Outbound queue đầy hoặc broker relay mất kết nối
+            sendFailures.incrementAndGet();
+            log.warn("Failed to send WebSocket message to {}: {}", destination, e.getMessage());
+        }
+    }
+
+    private String userDestination(UUID userId, String destination) {
+        return messagingTemplate.getUserDestinationPrefix() + userId + destination;
+    }
+
+    private record BatchKey(String destination, String eventType) {
+    }
+
+    /**
+     * Các sự kiện đang chờ của một (đích, loại); chỉ thay đổi bên trong compute của map
+     */
+    private static final class PendingBatch {
+
+        private final List<Map<String, Object>> items = new ArrayList<>();
+        private int count;
+
+        private void add(Map<String, Object> payload, int maxItems) {
+            count++;
+            // Quá giới hạn thì giữ các sự kiện mới nhất
+            if (items.size() >= maxItems) {
+                items.removeFirst();
+            }
+            items.add(payload);
+        }
+
+        private Map<String, Object> toFrame(String eventType) {
+            Map<String, Object> latest = items.getLast();
+            Map<String, Object> frame = new LinkedHashMap<>();
+            frame.put("type", eventType);
+            frame.put("notificationType", latest.get("notificationType"));
+            frame.put("title", latest.get("title"));
+            frame.put("message", count + " thông báo mới. Mới nhất: " + latest.get("message"));
+            frame.put("batch", true);
+            frame.put("count", count);
+            frame.put("items", List.copyOf(items));
+            frame.put("timestamp", OffsetDateTime.now());
+            return frame;
+        }
+    }
+}
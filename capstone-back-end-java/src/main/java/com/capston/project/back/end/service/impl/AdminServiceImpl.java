@@ -1,14 +1,23 @@
 package com.capston.project.back.end.service.impl;
 
-import com.capston.project.back.end.common.ContractStatus;
+import com.capston.project.back.end.cache.ChatResponseCache;
+import com.capston.project.back.end.cache.DashboardMetricsCache;
+import com.capston.project.back.end.cache.GeocodingCache;
+import com.capston.project.back.end.cache.SpatialTileCache;
 import com.capston.project.back.end.common.Role;
-import com.capston.project.back.end.common.RenewalStatus;
-import com.capston.project.back.end.common.TransferStatus;
+import com.capston.project.back.end.entity.JobRun;
 import com.capston.project.back.end.entity.User;
 import com.capston.project.back.end.exception.ResourceNotFoundException;
 import com.capston.project.back.end.repository.*;
+import com.capston.project.back.end.repository.projection.ContractStatisticsRow;
+import com.capston.project.back.end.repository.projection.PendingApprovalCountsRow;
+import com.capston.project.back.end.repository.projection.UserStatisticsRow;
 import com.capston.project.back.end.request.RegisterRequest;
+import com.capston.project.back.end.scheduler.ClusterJobRunner;
 import com.capston.project.back.end.service.AdminService;
+import com.capston.project.back.end.service.GrowthAnomalyService;
+import com.capston.project.back.end.service.WebSocketDeliveryService;
+import com.capston.project.back.end.util.TextSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -18,6 +27,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -29,12 +40,16 @@ public class AdminServiceImpl implements AdminService {
 
     private final UserRepository userRepository;
     private final ContractRepository contractRepository;
-    private final ContractRenewalRepository contractRenewalRepository;
-    private final ContractTransferRepository contractTransferRepository;
-    private final ProjectRepository projectRepository;
     private final FarmRepository farmRepository;
     private final CarbonCreditRepository carbonCreditRepository;
     private final PasswordEncoder passwordEncoder;
+    private final DashboardMetricsCache dashboardMetricsCache;
+    private final SpatialTileCache spatialTileCache;
+    private final GeocodingCache geocodingCache;
+    private final ChatResponseCache chatResponseCache;
+    private final WebSocketDeliveryService webSocketDeliveryService;
+    private final GrowthAnomalyService growthAnomalyService;
+    private final ClusterJobRunner clusterJobRunner;
 
     // ==================== USER MANAGEMENT ====================
 
@@ -45,7 +60,7 @@ public class AdminServiceImpl implements AdminService {
 
         // Ưu tiên tìm kiếm theo keyword
         if (keyword != null && !keyword.isBlank()) {
-            return userRepository.searchByKeyword(keyword, pageable);
+            return userRepository.searchByKeyword(TextSearchIndex.fold(keyword.trim()), pageable);
         }
 
         // Lọc theo role và isActive
@@ -150,22 +165,24 @@ public class AdminServiceImpl implements AdminService {
         Map<String, Object> stats = new HashMap<>();
 
         // User statistics
-        stats.put("totalUsers", userRepository.count());
-        stats.put("activeUsers", userRepository.countByIsActiveTrue());
-        stats.put("adminCount", userRepository.countByRole(Role.ADMIN));
-        stats.put("farmerCount", userRepository.countByRole(Role.FARMER));
-        stats.put("userCount", userRepository.countByRole(Role.USER));
+        UserStatisticsRow users = userRepository.getUserStatistics();
+        stats.put("totalUsers", users.getTotalUsers());
+        stats.put("activeUsers", users.getActiveUsers());
+        stats.put("adminCount", users.getAdminCount());
+        stats.put("farmerCount", users.getFarmerCount());
+        stats.put("userCount", users.getUserCount());
 
-        // Project statistics
-        stats.put("totalProjects", projectRepository.count());
+        // Project statistics (snapshot dashboard, không cần query)
+        stats.put("totalProjects", dashboardMetricsCache.getSummary().getTotalProjects());
 
         // Farm statistics
         stats.put("totalFarms", farmRepository.count());
 
         // Contract statistics
-        stats.put("totalContracts", contractRepository.count());
-        stats.put("pendingContracts", contractRepository.countByContractStatus(ContractStatus.PENDING));
-        stats.put("activeContracts", contractRepository.countByContractStatus(ContractStatus.ACTIVE));
+        ContractStatisticsRow contracts = contractRepository.getContractStatistics();
+        stats.put("totalContracts", contracts.getTotalContracts());
+        stats.put("pendingContracts", contracts.getPendingContracts());
+        stats.put("activeContracts", contracts.getActiveContracts());
 
         // Carbon credit statistics
         stats.put("totalCarbonCredits", carbonCreditRepository.count());
@@ -183,6 +200,40 @@ public class AdminServiceImpl implements AdminService {
         return counts;
     }
 
+    @Override
+    public Map<String, Object> getCacheStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>(spatialTileCache.getStats());
+        stats.put("GEOCODING", geocodingCache.getStats());
+        stats.put("CHATBOT_RESPONSE", chatResponseCache.getStats());
+        return stats;
+    }
+
+    @Override
+    public int purgeChatbotResponseCache() {
+        return chatResponseCache.purge();
+    }
+
+    @Override
+    public Map<String, Object> getWebSocketStatistics() {
+        return webSocketDeliveryService.getStats();
+    }
+
+    @Override
+    public Map<String, Object> getGrowthAnomalyStatistics() {
+        return growthAnomalyService.getStats();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<JobRun> getJobRuns(String jobName) {
+        return clusterJobRunner.getRecentRuns(jobName);
+    }
+
+    @Override
+    public Map<String, Object> getSchedulerStatistics() {
+        return clusterJobRunner.getStats();
+    }
+
     // ==================== PENDING APPROVALS ====================
 
     @Override
@@ -192,16 +243,13 @@ public class AdminServiceImpl implements AdminService {
 
         Map<String, Object> pendingApprovals = new HashMap<>();
 
-        // Pending contracts
-        long pendingContracts = contractRepository.countByContractStatus(ContractStatus.PENDING);
+        // Hợp đồng, gia hạn, chuyển nhượng đang chờ duyệt (một query)
+        PendingApprovalCountsRow counts = contractRepository.countPendingApprovals();
+        long pendingContracts = counts.getPendingContracts();
+        long pendingRenewals = counts.getPendingRenewals();
+        long pendingTransfers = counts.getPendingTransfers();
         pendingApprovals.put("pendingContracts", pendingContracts);
-
-        // Pending renewals
-        long pendingRenewals = contractRenewalRepository.countByRenewalStatus(RenewalStatus.PENDING);
         pendingApprovals.put("pendingRenewals", pendingRenewals);
-
-        // Pending transfers
-        long pendingTransfers = contractTransferRepository.countByTransferStatus(TransferStatus.PENDING);
         pendingApprovals.put("pendingTransfers", pendingTransfers);
 
         // Total pending
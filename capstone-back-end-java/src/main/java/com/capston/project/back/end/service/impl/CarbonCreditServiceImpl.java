@@ -2,8 +2,12 @@ package com.capston.project.back.end.service.impl;
 
 import com.capston.project.back.end.common.*;
 import com.capston.project.back.end.entity.*;
+import com.capston.project.back.end.event.CreditTransactionCompletedEvent;
 import com.capston.project.back.end.exception.ResourceNotFoundException;
+import com.capston.project.back.end.mapper.MapperRegistry;
 import com.capston.project.back.end.repository.*;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.request.CarbonCreditRequest;
 import com.capston.project.back.end.request.CreditPurchaseRequest;
 import com.capston.project.back.end.request.CreditRetireRequest;
@@ -15,7 +19,7 @@ import com.capston.project.back.end.service.ApprovalWebSocketService;
 import com.capston.project.back.end.service.CarbonCreditService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -41,8 +45,10 @@ public class CarbonCreditServiceImpl implements CarbonCreditService {
     private final FarmRepository farmRepository;
     private final TreeBatchRepository treeBatchRepository;
     private final ContractRepository contractRepository;
-    private final ModelMapper modelMapper;
+    private final GrowthAnomalyRepository growthAnomalyRepository;
+    private final MapperRegistry mapperRegistry;
     private final ApprovalWebSocketService webSocketService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public CarbonCreditResponse createCredit(CarbonCreditRequest request) {
@@ -101,6 +107,14 @@ public class CarbonCreditServiceImpl implements CarbonCreditService {
         CarbonCredit credit = carbonCreditRepository.findById(creditId)
                 .orElseThrow(() -> new ResourceNotFoundException("CarbonCredit", "id", creditId));
 
+        // Số đo bất thường của lô nguồn phải được xem xét trước khi xác minh
+        long unresolvedAnomalies = countUnresolvedAnomalies(credit);
+        if (unresolvedAnomalies > 0) {
+            throw new IllegalStateException(String.format(
+                    "Cannot verify credit %s: %d unresolved growth anomalies on its source batches",
+                    credit.getCreditCode(), unresolvedAnomalies));
+        }
+
         credit.setCreditStatus(CreditStatus.AVAILABLE);
         credit.setVerifierUserId(verifiedBy);
         credit.setVerificationDate(java.time.LocalDate.now());
@@ -213,6 +227,7 @@ public class CarbonCreditServiceImpl implements CarbonCreditService {
             credit.setCreditStatus(CreditStatus.PARTIALLY_SOLD);
         }
         carbonCreditRepository.save(credit);
+        publishTransactionCompleted(saved, credit);
 
         return mapToTransactionResponse(saved);
     }
@@ -250,10 +265,17 @@ public class CarbonCreditServiceImpl implements CarbonCreditService {
 
         credit.setCreditsRetired(credit.getCreditsRetired() + request.getQuantity());
         carbonCreditRepository.save(credit);
+        publishTransactionCompleted(saved, credit);
 
         return mapToTransactionResponse(saved);
     }
 
+    private void publishTransactionCompleted(CreditTransaction transaction, CarbonCredit credit) {
+        eventPublisher.publishEvent(new CreditTransactionCompletedEvent(
+                transaction.getId(), credit.getId(), credit.getProjectId(), transaction.getTransactionType(),
+                transaction.getQuantity(), transaction.getTotalAmount()));
+    }
+
     private int getUserCreditBalance(UUID userId, Integer creditId) {
         // Better: use specific creditId filter
         Integer specificAllocated = allocationRepository.findAll().stream()
@@ -311,6 +333,12 @@ public class CarbonCreditServiceImpl implements CarbonCreditService {
         return carbonCreditRepository.findAll(pageable).map(this::mapToResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<CarbonCreditResponse> getAllCredits(KeysetPageRequest request) {
+        return carbonCreditRepository.findAll(null, request).map(this::mapToResponse);
+    }
+
     @Override
     public Page<CarbonCreditResponse> getCreditsByProjectId(Integer projectId, Pageable pageable) {
         return carbonCreditRepository.findByProjectId(projectId, pageable).map(this::mapToResponse);
@@ -396,7 +424,7 @@ public class CarbonCreditServiceImpl implements CarbonCreditService {
     // ==================== MAPPING ====================
 
     private CarbonCreditResponse mapToResponse(CarbonCredit credit) {
-        CarbonCreditResponse response = modelMapper.map(credit, CarbonCreditResponse.class);
+        CarbonCreditResponse response = mapperRegistry.map(credit, CarbonCreditResponse.class);
 
         // Populate Project Info
         projectRepository.findById(credit.getProjectId()).ifPresent(p -> {
@@ -445,7 +473,7 @@ public class CarbonCreditServiceImpl implements CarbonCreditService {
     }
 
     private CreditAllocationResponse mapToAllocationResponse(CreditAllocation allocation) {
-        CreditAllocationResponse response = modelMapper.map(allocation, CreditAllocationResponse.class);
+        CreditAllocationResponse response = mapperRegistry.map(allocation, CreditAllocationResponse.class);
         carbonCreditRepository.findById(allocation.getCreditId()).ifPresent(c -> {
             response.setCreditCode(c.getCreditCode());
             projectRepository.findById(c.getProjectId()).ifPresent(p -> {
@@ -457,7 +485,7 @@ public class CarbonCreditServiceImpl implements CarbonCreditService {
     }
 
     private CreditTransactionResponse mapToTransactionResponse(CreditTransaction txn) {
-        CreditTransactionResponse response = modelMapper.map(txn, CreditTransactionResponse.class);
+        CreditTransactionResponse response = mapperRegistry.map(txn, CreditTransactionResponse.class);
         carbonCreditRepository.findById(txn.getCreditId()).ifPresent(c -> {
             response.setCreditCode(c.getCreditCode());
             projectRepository.findById(c.getProjectId()).ifPresent(p -> {
@@ -499,6 +527,20 @@ public class CarbonCreditServiceImpl implements CarbonCreditService {
         return response;
     }
 
+    // Lô nguồn lấy từ origins; tín chỉ không khai báo lô thì xét toàn bộ lô của dự án
+    private long countUnresolvedAnomalies(CarbonCredit credit) {
+        List<Integer> batchIds = credit.getOrigins() == null ? List.of() : credit.getOrigins().stream()
+                .map(o -> o.get("batchId"))
+                .filter(Number.class::isInstance)
+                .map(id -> ((Number) id).intValue())
+                .distinct()
+                .collect(Collectors.toList());
+        if (batchIds.isEmpty()) {
+            return growthAnomalyRepository.countUnresolvedByProjectId(credit.getProjectId());
+        }
+        return growthAnomalyRepository.countByBatchIdInAndResolvedAtIsNull(batchIds);
+    }
+
     private String generateCreditCode(String projectCode) {
         return "CC-" + projectCode + "-" + java.time.Year.now().getValue() + "-" + System.currentTimeMillis() % 1000;
     }
@@ -1,5 +1,10 @@
 package com.capston.project.back.end.service.impl;
 
+import com.capston.project.back.end.cache.ChatContextCache;
+import com.capston.project.back.end.cache.ChatContextCache.Conversation;
+import com.capston.project.back.end.cache.ChatKnowledgeIndex;
+import com.capston.project.back.end.cache.ChatKnowledgeIndex.Retrieval;
+import com.capston.project.back.end.cache.ChatResponseCache;
 import com.capston.project.back.end.common.MessageRole;
 import com.capston.project.back.end.common.SessionStatus;
 import com.capston.project.back.end.entity.ChatMessage;
@@ -7,14 +12,19 @@ import com.capston.project.back.end.entity.ChatSession;
 import com.capston.project.back.end.repository.ChatMessageRepository;
 import com.capston.project.back.end.repository.ChatSessionRepository;
 import com.capston.project.back.end.service.ChatbotService;
+import com.capston.project.back.end.util.ChatCompletionStreamClient;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
@@ -23,8 +33,10 @@ import java.net.HttpURLConnection;
 import java.net.InetAddress;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 @RequiredArgsConstructor
@@ -32,6 +44,10 @@ import java.util.*;
 @Transactional
 public class ChatbotServiceImpl implements ChatbotService {
 
+    private static final String ERROR_REPLY = "Xin lỗi, tôi đang gặp sự cố kỹ thuật. Vui lòng thử lại sau.";
+    private static final String NETWORK_ERROR_REPLY =
+            "Lỗi kết nối mạng. Vui lòng kiểm tra kết nối internet hoặc tắt VPN/Proxy.";
+
     @Value("${github.models.api.token}")
     private String githubToken;
 
@@ -44,10 +60,20 @@ public class ChatbotServiceImpl implements ChatbotService {
     @Value("${openai.system.prompt}")
     private String systemPrompt;
 
+    // Thời gian tối đa giữa hai chunk khi stream
+    @Value("${github.models.stream.idle-timeout:PT30S}")
+    private Duration streamIdleTimeout;
+
     private final ChatSessionRepository sessionRepository;
     private final ChatMessageRepository messageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ChatContextCache contextCache;
+    private final ChatResponseCache responseCache;
+    private final ChatKnowledgeIndex knowledgeIndex;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private ChatCompletionStreamClient streamClient;
+
     @jakarta.annotation.PostConstruct
     public void init() {
         log.info("=== CHATBOT SERVICE INITIALIZED ===");
@@ -57,6 +83,9 @@ public class ChatbotServiceImpl implements ChatbotService {
                 githubToken != null && !githubToken.isEmpty() ? "YES (length: " + githubToken.length() + ")"
                         : "NO/EMPTY");
 
+        streamClient = new ChatCompletionStreamClient(apiUrl, githubToken, model,
+                Duration.ofSeconds(30), streamIdleTimeout);
+
         // Set Java DNS cache TTL to 60 seconds (default is forever)
         java.security.Security.setProperty("networkaddress.cache.ttl", "60");
         java.security.Security.setProperty("networkaddress.cache.negative.ttl", "10");
@@ -77,23 +106,87 @@ public class ChatbotServiceImpl implements ChatbotService {
     public String sendMessage(UUID userId, String userMessage) {
         log.info("Processing chatbot message from user: {}", userId);
 
-        // 1. Tìm hoặc tạo session
-        ChatSession session = sessionRepository
-                .findByUserIdAndSessionStatus(userId, SessionStatus.ACTIVE)
-                .orElseGet(() -> createNewSession(userId));
+        // 1. Ngữ cảnh hội thoại (lần đầu mới tìm/tạo session và nạp lịch sử)
+        Conversation conversation = contextCache.getOrLoad(userId, () -> findOrCreateSession(userId));
+        ChatSession session = sessionRepository.getReferenceById(conversation.getSessionId());
+        boolean standalone = conversation.isEmpty();
 
         // 2. Lưu tin nhắn user
         saveMessage(session, MessageRole.USER, userMessage);
 
-        // 3. Gọi ChatGPT API
-        String botResponse = callChatGPT(session.getId(), userMessage);
+        // 3. Câu hỏi lặp lại lấy từ cache, còn lại lấy dữ liệu liên quan rồi gọi ChatGPT API.
+        // Giữa hội thoại câu trả lời phụ thuộc lịch sử nên không dùng cache
+        Optional<String> cached = standalone ? responseCache.lookup(systemPrompt, userMessage) : Optional.empty();
+        Retrieval retrieval = cached.isPresent() ? Retrieval.EMPTY : knowledgeIndex.retrieve(userMessage);
+        String botResponse = cached.orElseGet(() -> {
+            String reply = callChatGPT(conversation.prompt(systemPrompt, retrieval.promptBlock(), userMessage));
+            // Chỉ cache câu trả lời không phụ thuộc lịch sử hội thoại và dữ liệu đang thay đổi
+            if (standalone && retrieval.isEmpty() && !isErrorReply(reply)) {
+                responseCache.put(systemPrompt, userMessage, reply);
+            }
+            return reply;
+        });
 
-        // 4. Lưu phản hồi bot
-        saveMessage(session, MessageRole.ASSISTANT, botResponse);
+        // 4. Lưu phản hồi bot (kèm entity đã tham chiếu) và nối vào ngữ cảnh
+        messageRepository.save(ChatMessage.builder()
+                .session(session)
+                .role(MessageRole.ASSISTANT)
+                .content(botResponse)
+                .referencedProjects(references(retrieval.referencedProjects()))
+                .referencedCredits(references(retrieval.referencedCredits()))
+                .build());
+        contextCache.record(conversation, userMessage, botResponse);
 
         return botResponse;
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<String> streamMessage(UUID userId, String userMessage) {
+        log.info("Processing streaming chatbot message from user: {}", userId);
+
+        // Transaction ngắn: ngữ cảnh, tin nhắn user. Không giữ transaction trong lúc stream
+        StreamContext context = transactionTemplate.execute(status -> {
+            Conversation conversation = contextCache.getOrLoad(userId, () -> findOrCreateSession(userId));
+            boolean standalone = conversation.isEmpty();
+            saveMessage(sessionRepository.getReferenceById(conversation.getSessionId()), MessageRole.USER,
+                    userMessage);
+            return new StreamContext(conversation, standalone);
+        });
+
+        long startedAt = System.currentTimeMillis();
+        StringBuilder content = new StringBuilder();
+        AtomicBoolean failed = new AtomicBoolean();
+
+        // Câu hỏi lặp lại (đầu hội thoại) trả nguyên câu trả lời đã cache thành một delta
+        Optional<String> cached = context.standalone()
+                ? responseCache.lookup(systemPrompt, userMessage)
+                : Optional.empty();
+        Retrieval retrieval = cached.isPresent() ? Retrieval.EMPTY : knowledgeIndex.retrieve(userMessage);
+        Flux<String> deltas = cached.map(Flux::just).orElseGet(() -> streamClient.stream(
+                context.conversation().prompt(systemPrompt, retrieval.promptBlock(), userMessage), 0.7, 500));
+
+        return deltas
+                .doOnNext(content::append)
+                .onErrorResume(e -> {
+                    log.error("GitHub Models streaming error: {}", e.getMessage());
+                    failed.set(true);
+                    String reply = content.isEmpty() ? ERROR_REPLY : "\n\n" + ERROR_REPLY;
+                    content.append(reply);
+                    return Flux.just(reply);
+                })
+                // Hoàn thành, lỗi hay client ngắt kết nối đều lưu đúng một lần phần đã nhận (JDBC chạy ngoài event loop)
+                .doFinally(signal -> Schedulers.boundedElastic().schedule(() -> {
+                    if (signal == SignalType.ON_COMPLETE && cached.isEmpty() && context.standalone()
+                            && retrieval.isEmpty() && !failed.get()) {
+                        responseCache.put(systemPrompt, userMessage, content.toString());
+                    }
+                    saveAssistantMessage(context.conversation().getSessionId(), content.toString(), retrieval,
+                            (int) (System.currentTimeMillis() - startedAt));
+                    contextCache.record(context.conversation(), userMessage, content.toString());
+                }));
+    }
+
     @Override
     public List<ChatMessage> getChatHistory(UUID userId) {
         ChatSession session = sessionRepository
@@ -109,6 +202,7 @@ public class ChatbotServiceImpl implements ChatbotService {
 
     @Override
     public void closeSession(UUID userId) {
+        contextCache.evict(userId);
         sessionRepository.findByUserIdAndSessionStatus(userId, SessionStatus.ACTIVE)
                 .ifPresent(session -> {
                     session.setSessionStatus(SessionStatus.CLOSED);
@@ -119,31 +213,7 @@ public class ChatbotServiceImpl implements ChatbotService {
 
     // ==================== HELPER METHODS ====================
 
-    private String callChatGPT(Integer sessionId, String userMessage) {
-        // Lấy lịch sử chat (10 tin nhắn gần nhất để tiết kiệm tokens)
-        List<ChatMessage> history = messageRepository
-                .findBySessionIdOrderByCreatedAtDesc(sessionId, PageRequest.of(0, 10))
-                .stream()
-                .sorted(Comparator.comparing(ChatMessage::getCreatedAt))
-                .toList();
-
-        // Build messages cho GitHub Models API
-        List<Map<String, String>> messages = new ArrayList<>();
-
-        // System prompt (vai trò của bot)
-        messages.add(Map.of(
-                "role", "system",
-                "content", systemPrompt));
-
-        // Thêm lịch sử chat
-        for (ChatMessage msg : history) {
-            String role = msg.getRole().equals(MessageRole.USER) ? "user" : "assistant";
-            messages.add(Map.of("role", role, "content", msg.getContent()));
-        }
-
-        // Thêm tin nhắn mới
-        messages.add(Map.of("role", "user", "content", userMessage));
-
+    private String callChatGPT(List<Map<String, String>> messages) {
         // Gọi GitHub Models API using HttpURLConnection
         HttpURLConnection conn = null;
         try {
@@ -191,7 +261,7 @@ public class ChatbotServiceImpl implements ChatbotService {
 
             if (responseCode >= 400) {
                 log.error("GitHub Models API error response: {}", response);
-                return "Xin lỗi, tôi đang gặp sự cố kỹ thuật. Vui lòng thử lại sau.";
+                return ERROR_REPLY;
             }
 
             // Parse response
@@ -207,10 +277,10 @@ public class ChatbotServiceImpl implements ChatbotService {
             log.error("  1. Internet connection");
             log.error("  2. VPN/Proxy settings (try disabling Cloudflare WARP if installed)");
             log.error("  3. Add to hosts file: 51.12.47.32 models.inference.ai.azure.com");
-            return "Lỗi kết nối mạng. Vui lòng kiểm tra kết nối internet hoặc tắt VPN/Proxy.";
+            return NETWORK_ERROR_REPLY;
         } catch (Exception e) {
             log.error("GitHub Models API error: {}", e.getMessage(), e);
-            return "Xin lỗi, tôi đang gặp sự cố kỹ thuật. Vui lòng thử lại sau.";
+            return ERROR_REPLY;
         } finally {
             if (conn != null) {
                 conn.disconnect();
@@ -218,6 +288,36 @@ public class ChatbotServiceImpl implements ChatbotService {
         }
     }
 
+    private boolean isErrorReply(String reply) {
+        return ERROR_REPLY.equals(reply) || NETWORK_ERROR_REPLY.equals(reply);
+    }
+
+    private void saveAssistantMessage(Integer sessionId, String content, Retrieval retrieval, int responseTimeMs) {
+        if (content.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> messageRepository.save(ChatMessage.builder()
+                    .session(sessionRepository.getReferenceById(sessionId))
+                    .role(MessageRole.ASSISTANT)
+                    .content(content)
+                    .referencedProjects(references(retrieval.referencedProjects()))
+                    .referencedCredits(references(retrieval.referencedCredits()))
+                    .modelUsed(model)
+                    .responseTimeMs(responseTimeMs)
+                    .build()));
+            log.info("Streamed response saved for session {}, length: {}, {} ms", sessionId, content.length(),
+                    responseTimeMs);
+        } catch (Exception e) {
+            log.error("Failed to save streamed response for session {}: {}", sessionId, e.getMessage(), e);
+        }
+    }
+
+    // Cột jsonb để null khi không tham chiếu entity nào
+    private List<Map<String, Object>> references(List<Map<String, Object>> references) {
+        return references.isEmpty() ? null : references;
+    }
+
     private void saveMessage(ChatSession session, MessageRole role, String content) {
         ChatMessage message = ChatMessage.builder()
                 .session(session)
@@ -227,6 +327,12 @@ public class ChatbotServiceImpl implements ChatbotService {
         messageRepository.save(message);
     }
 
+    private ChatSession findOrCreateSession(UUID userId) {
+        return sessionRepository
+                .findByUserIdAndSessionStatus(userId, SessionStatus.ACTIVE)
+                .orElseGet(() -> createNewSession(userId));
+    }
+
     private ChatSession createNewSession(UUID userId) {
         log.info("Creating new chat session for user: {}", userId);
 
@@ -242,4 +348,7 @@ public class ChatbotServiceImpl implements ChatbotService {
                 .build();
         return sessionRepository.save(session);
     }
+
+    private record StreamContext(Conversation conversation, boolean standalone) {
+    }
 }
@@ -6,11 +6,15 @@ import com.capston.project.back.end.common.ReferenceType;
 import com.capston.project.back.end.common.RenewalStatus;
 import com.capston.project.back.end.entity.Contract;
 import com.capston.project.back.end.entity.ContractRenewal;
+import com.capston.project.back.end.entity.Notification;
 import com.capston.project.back.end.entity.Project;
 import com.capston.project.back.end.exception.ResourceNotFoundException;
 import com.capston.project.back.end.repository.ContractRenewalRepository;
 import com.capston.project.back.end.repository.ContractRepository;
 import com.capston.project.back.end.repository.ProjectRepository;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
+import com.capston.project.back.end.repository.projection.ContractLifecycleRow;
 import com.capston.project.back.end.request.ContractApprovalRequest;
 import com.capston.project.back.end.request.ContractRenewalRequest;
 import com.capston.project.back.end.request.ContractRequest;
@@ -21,18 +25,27 @@ import com.capston.project.back.end.response.ContractSummaryResponse;
 import com.capston.project.back.end.service.ApprovalWebSocketService;
 import com.capston.project.back.end.service.ContractService;
 import com.capston.project.back.end.service.NotificationService;
+import com.capston.project.back.end.util.TextSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -46,6 +59,22 @@ public class ContractServiceImpl implements ContractService {
     private final ProjectRepository projectRepository;
     private final NotificationService notificationService;
     private final ApprovalWebSocketService approvalWebSocketService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Các mốc cảnh báo sắp hết hạn (ngày trước end_date)
+    @Value("${contract.lifecycle.expiring-soon-days:30,7,1}")
+    private List<Integer> expiringSoonDays;
+
+    // Gia hạn tự động khi end_date còn trong khoảng này
+    @Value("${contract.lifecycle.renewal-lead-days:7}")
+    private int renewalLeadDays;
+
+    // Kỳ gia hạn = thời hạn gốc (duration_years), tối thiểu giá trị này
+    @Value("${contract.lifecycle.min-renewal-term-years:1}")
+    private int minRenewalTermYears;
+
+    @Value("${contract.lifecycle.chunk-size:500}")
+    private int lifecycleChunkSize;
 
     @Override
     public ContractResponse createContract(ContractRequest request) {
@@ -140,6 +169,12 @@ public class ContractServiceImpl implements ContractService {
         return contractRepository.findAll(pageable).map(this::mapToResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<ContractResponse> getAllContracts(KeysetPageRequest request) {
+        return contractRepository.findAll(null, request).map(this::mapToResponse);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<ContractResponse> getContractsByStatus(ContractStatus status, Pageable pageable) {
@@ -157,7 +192,8 @@ public class ContractServiceImpl implements ContractService {
     @Override
     @Transactional(readOnly = true)
     public Page<ContractResponse> searchContracts(String keyword, Pageable pageable) {
-        return contractRepository.searchByKeyword(keyword, pageable).map(this::mapToResponse);
+        return contractRepository.searchByKeyword(TextSearchIndex.fold(keyword.trim()), pageable)
+                .map(this::mapToResponse);
     }
 
     @Override
@@ -352,7 +388,9 @@ public class ContractServiceImpl implements ContractService {
             throw new IllegalStateException("Contract cannot be renewed");
         }
 
-        int renewalNumber = contract.getCurrentRenewalCount() + 1;
+        // Yêu cầu bị từ chối vẫn giữ số của nó (unique theo hợp đồng)
+        int renewalNumber = Math.max(contract.getCurrentRenewalCount(),
+                contractRenewalRepository.findMaxRenewalNumber(contract.getId()).orElse(0)) + 1;
 
         // Calculate new dates based on renewal term
         LocalDate newStartDate = contract.getEndDate() != null ? contract.getEndDate() : LocalDate.now();
@@ -482,7 +520,7 @@ public class ContractServiceImpl implements ContractService {
 
         // Count expiring soon
         LocalDate warningDate = LocalDate.now().plusDays(30);
-        long expiringSoon = contractRepository.findExpiringSoon(LocalDate.now(), warningDate).size();
+        long expiringSoon = contractRepository.countExpiringSoon(LocalDate.now(), warningDate);
 
         return ContractSummaryResponse.builder()
                 .totalContracts(total)
@@ -512,43 +550,121 @@ public class ContractServiceImpl implements ContractService {
 
     // ==================== SCHEDULED TASKS ====================
 
+    /**
+     * Mỗi mốc (30, 7, 1 ngày) xét các hợp đồng có end_date trong (mốc nhỏ hơn, mốc này] để
+     * hợp đồng chỉ nhận cảnh báo của mốc gần nhất; contract_expiry_warnings loại trùng khi chạy lại.
+     */
     @Override
-    public void checkAndUpdateExpiringSoonContracts() {
-        log.info("Checking for expiring contracts...");
+    public int checkAndUpdateExpiringSoonContracts() {
+        LocalDate today = LocalDate.now();
+        List<Integer> thresholds = expiringSoonDays.stream()
+                .distinct()
+                .sorted()
+                .toList();
+
+        List<Notification> notifications = new ArrayList<>();
+        int warned = 0;
+        for (int i = 0; i < thresholds.size(); i++) {
+            int days = thresholds.get(i);
+            LocalDate fromDate = i == 0 ? today : today.plusDays(thresholds.get(i - 1) + 1L);
+            List<ContractLifecycleRow> rows = contractRepository.recordExpiryWarnings(days, fromDate,
+                    today.plusDays(days));
+            for (ContractLifecycleRow row : rows) {
+                long daysLeft = today.until(row.getEndDate(), ChronoUnit.DAYS);
+                addPartyNotifications(notifications, row, "Hợp đồng sắp hết hạn",
+                        String.format("Hợp đồng %s sẽ hết hạn sau %d ngày (%s)", row.getContractCode(), daysLeft,
+                                row.getEndDate()),
+                        NotificationType.CONTRACT_EXPIRING_SOON);
+            }
+            warned += rows.size();
+        }
+
+        notificationService.createAndSendAll(notifications);
+        log.info("Sent expiring-soon warnings for {} contracts", warned);
+        return warned;
     }
 
     @Override
-    public void checkAndUpdateExpiredContracts() {
-        LocalDate today = LocalDate.now();
-        List<Contract> expiredContracts = contractRepository.findActiveContractsExpiredBefore(today);
-
-        for (Contract contract : expiredContracts) {
-            contract.setContractStatus(ContractStatus.EXPIRED);
-            contractRepository.save(contract);
-
-            // Notify parties
-            if (contract.getPartyAId() != null) {
-                notificationService.createAndSend(
-                        contract.getPartyAId(),
-                        "Hợp đồng đã hết hạn",
-                        String.format("Hợp đồng %s đã hết hạn", contract.getContractCode()),
-                        NotificationType.SYSTEM,
-                        ReferenceType.CONTRACT,
-                        contract.getId(),
-                        null);
-            }
+    public int checkAndUpdateExpiredContracts() {
+        List<ContractLifecycleRow> expired = contractRepository.expireActiveContractsBefore(LocalDate.now());
+
+        List<Notification> notifications = new ArrayList<>();
+        for (ContractLifecycleRow row : expired) {
+            addPartyNotifications(notifications, row, "Hợp đồng đã hết hạn",
+                    String.format("Hợp đồng %s đã hết hạn", row.getContractCode()),
+                    NotificationType.CONTRACT_EXPIRED);
         }
+        notificationService.createAndSendAll(notifications);
 
-        log.info("Updated {} expired contracts", expiredContracts.size());
+        log.info("Updated {} expired contracts", expired.size());
+        return expired.size();
     }
 
+    /**
+     * Xử lý theo chunk id tăng dần, mỗi chunk một transaction: gia hạn và notification cùng
+     * commit. Chunk lỗi được rollback và sẽ được chạy lại lần sau nhờ khoá idempotency.
+     */
     @Override
-    public void processAutoRenewals() {
-        log.info("Processing auto-renewals...");
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int processAutoRenewals() {
+        LocalDate today = LocalDate.now();
+        LocalDate leadDate = today.plusDays(renewalLeadDays);
+
+        int renewed = 0;
+        int afterId = 0;
+        List<Integer> candidates;
+        do {
+            candidates = contractRepository.findAutoRenewalCandidates(today, leadDate, afterId, lifecycleChunkSize);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            afterId = candidates.getLast();
+            List<Integer> chunk = candidates;
+            Integer count = transactionTemplate.execute(status -> renewChunk(chunk));
+            renewed += count != null ? count : 0;
+        } while (candidates.size() == lifecycleChunkSize);
+
+        log.info("Auto-renewed {} contracts", renewed);
+        return renewed;
     }
 
     // ==================== HELPER METHODS ====================
 
+    private int renewChunk(List<Integer> contractIds) {
+        List<ContractLifecycleRow> rows = contractRepository.autoRenew(contractIds, minRenewalTermYears);
+        List<Notification> notifications = new ArrayList<>();
+        for (ContractLifecycleRow row : rows) {
+            addPartyNotifications(notifications, row, "Hợp đồng đã được gia hạn tự động",
+                    String.format("Hợp đồng %s đã được gia hạn tự động đến %s", row.getContractCode(),
+                            row.getEndDate()),
+                    NotificationType.RENEWAL_APPROVED);
+        }
+        notificationService.createAndSendAll(notifications);
+        return rows.size();
+    }
+
+    // Một notification cho mỗi bên của hợp đồng
+    private void addPartyNotifications(List<Notification> notifications, ContractLifecycleRow row, String title,
+                                       String message, NotificationType type) {
+        Set<UUID> parties = new LinkedHashSet<>();
+        if (row.getPartyAId() != null) {
+            parties.add(row.getPartyAId());
+        }
+        if (row.getPartyBId() != null) {
+            parties.add(row.getPartyBId());
+        }
+        for (UUID partyId : parties) {
+            notifications.add(Notification.builder()
+                    .userId(partyId)
+                    .title(title)
+                    .message(message)
+                    .notificationType(type)
+                    .referenceType(ReferenceType.CONTRACT)
+                    .referenceId(row.getId())
+                    .build());
+        }
+    }
+
     private String generateContractCode() {
         return "CTR-" + System.currentTimeMillis();
     }
@@ -0,0 +1,210 @@
+package com.capston.project.back.end.service.impl;
+
+import com.capston.project.back.end.repository.FarmEnvironmentRecordRepository;
+import com.capston.project.back.end.repository.projection.FarmFactorRow;
+import com.capston.project.back.end.service.EnvironmentFactorService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index hệ số môi trường theo farm: mỗi farm giữ hai mảng nguyên song song
+ * (epochDay tăng dần, factor × 1000) nạp lười và giới hạn bằng LRU. Tra "hệ số
+ * vào hoặc trước ngày D" bằng binary search thay vì query mỗi growth record.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EnvironmentFactorServiceImpl implements EnvironmentFactorService {
+
+    // overall_factor là NUMERIC(6, 3)
+    private static final int FACTOR_SCALE = 3;
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    private final FarmEnvironmentRecordRepository recordRepository;
+
+    @Value("${environment.factor-index.max-farms:5000}")
+    private int maxFarms;
+
+    // LRU theo thứ tự truy cập, mọi thao tác phải synchronized trên chính map
+    private final LinkedHashMap<Integer, FactorSeries> index = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, FactorSeries> eldest) {
+            return size() > maxFarms;
+        }
+    };
+
+    // Tăng mỗi lần invalidate; invalidatedAt giữ số của lần invalidate gần nhất theo farm (truy cập
+    // trong synchronized(index)). Lần nạp bắt đầu trước lần invalidate của một farm thì không ghi farm
+    // đó vào index, các farm khác trong cùng lần nạp vẫn được ghi. Map chỉ lớn bằng số farm từng có dữ liệu mới.
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Map<Integer, Long> invalidatedAt = new HashMap<>();
+
+    @Override
+    public BigDecimal getFactor(Integer farmId, LocalDate date) {
+        if (farmId == null) {
+            return BigDecimal.ONE;
+        }
+        return seriesFor(List.of(farmId)).get(farmId).factorOn(date);
+    }
+
+    @Override
+    public BigDecimal getLatestFactor(Integer farmId) {
+        if (farmId == null) {
+            return BigDecimal.ONE;
+        }
+        return seriesFor(List.of(farmId)).get(farmId).latest();
+    }
+
+    @Override
+    public Map<FarmDate, BigDecimal> getFactors(Collection<FarmDate> keys) {
+        Set<Integer> farmIds = new HashSet<>();
+        for (FarmDate key : keys) {
+            if (key.farmId() != null) {
+                farmIds.add(key.farmId());
+            }
+        }
+        Map<Integer, FactorSeries> series = seriesFor(farmIds);
+
+        Map<FarmDate, BigDecimal> factors = new HashMap<>();
+        for (FarmDate key : keys) {
+            FactorSeries farmSeries = key.farmId() != null ? series.get(key.farmId()) : FactorSeries.EMPTY;
+            factors.put(key, farmSeries.factorOn(key.date()));
+        }
+        return factors;
+    }
+
+    @Override
+    public void invalidate(Collection<Integer> farmIds) {
+        List<Integer> ids = List.copyOf(new HashSet<>(farmIds));
+        if (ids.isEmpty()) {
+            return;
+        }
+        evict(ids);
+        // Evict thêm lần nữa sau commit để reader không cache lại dữ liệu cũ trong lúc transaction chưa xong
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(ids);
+                }
+            });
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private Map<Integer, FactorSeries> seriesFor(Collection<Integer> farmIds) {
+        Map<Integer, FactorSeries> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        synchronized (index) {
+            for (Integer farmId : farmIds) {
+                FactorSeries series = index.get(farmId);
+                if (series != null) {
+                    found.put(farmId, series);
+                } else {
+                    missing.add(farmId);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long startedAt = invalidations.get();
+            Map<Integer, FactorSeries> loaded = load(missing);
+            synchronized (index) {
+                loaded.forEach((farmId, series) -> {
+                    if (invalidatedAt.getOrDefault(farmId, 0L) <= startedAt) {
+                        index.put(farmId, series);
+                    }
+                });
+            }
+            found.putAll(loaded);
+            log.debug("Loaded environment factor series for {} farms", loaded.size());
+        }
+        return found;
+    }
+
+    private Map<Integer, FactorSeries> load(List<Integer> farmIds) {
+        Map<Integer, FactorSeries> loaded = new HashMap<>();
+        for (int from = 0; from < farmIds.size(); from += LOAD_CHUNK_SIZE) {
+            List<Integer> chunk = farmIds.subList(from, Math.min(from + LOAD_CHUNK_SIZE, farmIds.size()));
+            List<FarmFactorRow> rows = recordRepository.findFactorSeries(chunk);
+
+            // Rows đã sắp theo (farm, ngày): cắt thành từng đoạn liên tiếp của một farm
+            int start = 0;
+            while (start < rows.size()) {
+                Integer farmId = rows.get(start).getFarmId();
+                int end = start;
+                while (end < rows.size() && rows.get(end).getFarmId().equals(farmId)) {
+                    end++;
+                }
+                int[] epochDays = new int[end - start];
+                int[] factors = new int[end - start];
+                for (int i = start; i < end; i++) {
+                    FarmFactorRow row = rows.get(i);
+                    epochDays[i - start] = (int) row.getRecordedDate().toEpochDay();
+                    factors[i - start] = row.getOverallFactor().setScale(FACTOR_SCALE, RoundingMode.HALF_UP)
+                            .unscaledValue().intValueExact();
+                }
+                loaded.put(farmId, new FactorSeries(epochDays, factors));
+                start = end;
+            }
+            for (Integer farmId : chunk) {
+                loaded.putIfAbsent(farmId, FactorSeries.EMPTY);
+            }
+        }
+        return loaded;
+    }
+
+    private void evict(List<Integer> farmIds) {
+        synchronized (index) {
+            long invalidation = invalidations.incrementAndGet();
+            for (Integer farmId : farmIds) {
+                invalidatedAt.put(farmId, invalidation);
+                index.remove(farmId);
+            }
+        }
+    }
+
+    /**
+     * Chuỗi hệ số của một farm; hai mảng cùng độ dài, epochDays tăng dần
+     */
+    private record FactorSeries(int[] epochDays, int[] factors) {
+
+        private static final FactorSeries EMPTY = new FactorSeries(new int[0], new int[0]);
+
+        BigDecimal factorOn(LocalDate date) {
+            int i = Arrays.binarySearch(epochDays, (int) date.toEpochDay());
+            if (i < 0) {
+                // Vị trí chèn - 1 = record cuối cùng trước ngày
+                i = -i - 2;
+            }
+            return i >= 0 ? toDecimal(factors[i]) : latest();
+        }
+
+        BigDecimal latest() {
+            return factors.length > 0 ? toDecimal(factors[factors.length - 1]) : BigDecimal.ONE;
+        }
+
+        private static BigDecimal toDecimal(int unscaled) {
+            return BigDecimal.valueOf(unscaled, FACTOR_SCALE);
+        }
+    }
+}
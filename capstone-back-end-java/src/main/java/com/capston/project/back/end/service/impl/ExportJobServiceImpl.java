@@ -0,0 +1,313 @@
+package com.capston.project.back.end.service.impl;
+
+import com.capston.project.back.end.cache.DataVersionTracker;
+import com.capston.project.back.end.common.ExportJobStatus;
+import com.capston.project.back.end.common.ExportType;
+import com.capston.project.back.end.common.NotificationType;
+import com.capston.project.back.end.exception.ResourceNotFoundException;
+import com.capston.project.back.end.exception.ServiceUnavailableException;
+import com.capston.project.back.end.request.ExportJobRequest;
+import com.capston.project.back.end.response.ExportJobResponse;
+import com.capston.project.back.end.response.dashboard.ReportFilterRequest;
+import com.capston.project.back.end.service.ExportJobService;
+import com.capston.project.back.end.service.ExportService;
+import com.capston.project.back.end.service.WebSocketDeliveryService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Export chạy nền: request chỉ nhận jobId, worker pool giới hạn render file ra
+ * thư mục spool trên disk, tiến trình được đẩy qua /user/queue/notifications.
+ * Các request giống nhau (loại export, filter, data version) dùng chung một job
+ * và một file cho đến khi hết TTL.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportJobServiceImpl implements ExportJobService {
+
+	private static final String FILE_PREFIX = "export-";
+	private static final Duration FAILED_RETENTION = Duration.ofMinutes(5);
+	private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+	private final ExportService exportService;
+	private final DataVersionTracker dataVersionTracker;
+	private final WebSocketDeliveryService deliveryService;
+	private final ThreadPoolTaskExecutor exportExecutor;
+
+	@Value("${export.spool-dir:${java.io.tmpdir}/capstone-exports}")
+	private Path spoolDir;
+
+	@Value("${export.artifact-ttl:PT30M}")
+	private Duration artifactTtl;
+
+	// Gợi ý Retry-After khi hàng đợi export đầy (503)
+	@Value("${export.queue-full-retry-after:PT30S}")
+	private Duration queueFullRetryAfter;
+
+	private final Map<String, ExportJob> jobsById = new ConcurrentHashMap<>();
+	private final Map<String, ExportJob> jobsByKey = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	void initSpool() throws IOException {
+		Files.createDirectories(spoolDir);
+		// Job chỉ nằm trong bộ nhớ nên file của lần chạy trước không còn ai tham chiếu
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDir, FILE_PREFIX + "*")) {
+			for (Path file : files) {
+				Files.deleteIfExists(file);
+			}
+		}
+		log.info("Export spool directory: {}", spoolDir);
+	}
+
+	@Override
+	public ExportJobResponse submit(ExportJobRequest request, UUID userId) {
+		ExportType type = request.getType();
+		ReportFilterRequest filter = request.getFilter() != null ? request.getFilter() : ReportFilterRequest.empty();
+		String filterKey = usesFilter(type) ? filter.cacheKey() : "-";
+		String key = type + "|" + filterKey + "|" + dataVersionTracker.currentVersion();
+		Instant now = Instant.now();
+
+		ExportJob job = jobsByKey.compute(key, (k, existing) -> {
+			if (existing != null && existing.isReusable(now)) {
+				return existing;
+			}
+			ExportJob created = new ExportJob(k, type, filter, now);
+			jobsById.put(created.id, created);
+			return created;
+		});
+		job.subscribers.add(userId);
+
+		if (job.submitted.compareAndSet(false, true)) {
+			try {
+				exportExecutor.execute(() -> render(job));
+			} catch (TaskRejectedException e) {
+				jobsById.remove(job.id);
+				jobsByKey.remove(key, job);
+				throw new ServiceUnavailableException("Hàng đợi export đang đầy, vui lòng thử lại sau", queueFullRetryAfter);
+			}
+			log.info("Export job {} queued: type={}, user={}", job.id, type, userId);
+		} else {
+			log.info("Export request from user {} reuses job {} ({})", userId, job.id, job.status);
+		}
+		return toResponse(job);
+	}
+
+	@Override
+	public ExportJobResponse getJob(String jobId, UUID userId) {
+		return toResponse(findJob(jobId, userId));
+	}
+
+	@Override
+	public Resource loadArtifact(String jobId, UUID userId) {
+		ExportJob job = findJob(jobId, userId);
+		if (job.status != ExportJobStatus.COMPLETED) {
+			throw new IllegalStateException("Export job chưa hoàn thành: " + job.status);
+		}
+		if (job.file == null || !Files.exists(job.file)) {
+			throw new ResourceNotFoundException("Export file", "jobId", jobId);
+		}
+		return new FileSystemResource(job.file);
+	}
+
+	/**
+	 * Dọn các job/file đã hết TTL
+	 */
+	@Scheduled(fixedDelayString = "${export.cleanup-interval-ms:300000}")
+	public void evictExpired() {
+		Instant now = Instant.now();
+		jobsById.values().removeIf(job -> {
+			if (job.expiresAt == null || job.expiresAt.isAfter(now)) {
+				return false;
+			}
+			jobsByKey.remove(job.key, job);
+			if (job.file != null) {
+				deleteQuietly(job.file);
+			}
+			log.debug("Evicted export job {}", job.id);
+			return true;
+		});
+	}
+
+	// ==================== RENDERING ====================
+
+	private void render(ExportJob job) {
+		job.progress = 10;
+		job.status = ExportJobStatus.RUNNING;
+		notifySubscribers(job);
+
+		Path part = spoolDir.resolve(FILE_PREFIX + job.id + ".part");
+		Path target = spoolDir.resolve(FILE_PREFIX + job.id + job.type.getExtension());
+		try {
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part))) {
+				write(job.type, job.filter, out);
+			}
+			Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+			job.file = target;
+			job.fileSize = Files.size(target);
+			job.completedAt = Instant.now();
+			job.expiresAt = job.completedAt.plus(artifactTtl);
+			job.progress = 100;
+			job.status = ExportJobStatus.COMPLETED;
+			log.info("Export job {} completed: {} bytes", job.id, job.fileSize);
+
+		} catch (Exception e) {
+			log.error("Export job {} failed: {}", job.id, e.getMessage(), e);
+			deleteQuietly(part);
+			job.errorMessage = "Không thể tạo file export";
+			job.completedAt = Instant.now();
+			job.expiresAt = job.completedAt.plus(FAILED_RETENTION);
+			job.status = ExportJobStatus.FAILED;
+		}
+		notifySubscribers(job);
+	}
+
+	private void write(ExportType type, ReportFilterRequest filter, OutputStream out) {
+		switch (type) {
+			case CO2_EXCEL -> exportService.exportCo2ReportToExcel(filter, out);
+			case REVENUE_EXCEL -> exportService.exportRevenueReportToExcel(filter, out);
+			case CREDIT_EXCEL -> exportService.exportCreditReportToExcel(filter, out);
+			case PROJECTS_EXCEL -> exportService.exportProjectsToExcel(out);
+			case FARMS_EXCEL -> exportService.exportFarmsToExcel(out);
+			case CO2_PDF -> exportService.exportCo2ReportToPdf(filter, out);
+			case REVENUE_PDF -> exportService.exportRevenueReportToPdf(filter, out);
+			case CREDIT_PDF -> exportService.exportCreditReportToPdf(filter, out);
+		}
+	}
+
+	private static boolean usesFilter(ExportType type) {
+		return type != ExportType.PROJECTS_EXCEL && type != ExportType.FARMS_EXCEL;
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private ExportJob findJob(String jobId, UUID userId) {
+		ExportJob job = jobsById.get(jobId);
+		if (job == null || !job.subscribers.contains(userId)) {
+			throw new ResourceNotFoundException("Export job", "id", jobId);
+		}
+		return job;
+	}
+
+	private void notifySubscribers(ExportJob job) {
+		Map<String, Object> metadata = new HashMap<>();
+		metadata.put("jobId", job.id);
+		metadata.put("exportType", job.type);
+		metadata.put("status", job.status);
+		metadata.put("progress", job.progress);
+		metadata.put("downloadUrl", downloadUrl(job));
+
+		Map<String, Object> payload = new HashMap<>();
+		payload.put("type", "EXPORT_" + job.status);
+		payload.put("notificationType", NotificationType.SYSTEM);
+		payload.put("title", switch (job.status) {
+			case COMPLETED -> "File export đã sẵn sàng";
+			case FAILED -> "Export thất bại";
+			default -> "Đang tạo file export";
+		});
+		payload.put("message", fileName(job));
+		payload.put("metadata", metadata);
+		payload.put("timestamp", OffsetDateTime.now());
+
+		deliveryService.sendToUsers(job.subscribers, "/queue/notifications", payload);
+	}
+
+	private ExportJobResponse toResponse(ExportJob job) {
+		return ExportJobResponse.builder()
+				.jobId(job.id)
+				.type(job.type)
+				.status(job.status)
+				.progress(job.progress)
+				.fileName(fileName(job))
+				.fileSize(job.fileSize)
+				.downloadUrl(downloadUrl(job))
+				.errorMessage(job.errorMessage)
+				.createdAt(toOffset(job.createdAt))
+				.completedAt(toOffset(job.completedAt))
+				.expiresAt(toOffset(job.expiresAt))
+				.build();
+	}
+
+	private static String fileName(ExportJob job) {
+		return job.type.getFilePrefix() + "_"
+				+ job.createdAt.atZone(ZoneId.systemDefault()).format(FILE_DATE)
+				+ job.type.getExtension();
+	}
+
+	private static String downloadUrl(ExportJob job) {
+		return job.status == ExportJobStatus.COMPLETED ? "/api/reports/export-jobs/" + job.id + "/download" : null;
+	}
+
+	private static OffsetDateTime toOffset(Instant instant) {
+		return instant != null ? OffsetDateTime.ofInstant(instant, ZoneId.systemDefault()) : null;
+	}
+
+	private static void deleteQuietly(Path path) {
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			log.warn("Failed to delete export file {}: {}", path, e.getMessage());
+		}
+	}
+
+	/**
+	 * Trạng thái một job export (chỉ giữ trong bộ nhớ)
+	 */
+	private static final class ExportJob {
+		private final String id = UUID.randomUUID().toString();
+		private final String key;
+		private final ExportType type;
+		private final ReportFilterRequest filter;
+		private final Instant createdAt;
+		private final Set<UUID> subscribers = ConcurrentHashMap.newKeySet();
+		private final AtomicBoolean submitted = new AtomicBoolean();
+
+		private volatile ExportJobStatus status = ExportJobStatus.PENDING;
+		private volatile int progress;
+		private volatile Path file;
+		private volatile Long fileSize;
+		private volatile String errorMessage;
+		private volatile Instant completedAt;
+		private volatile Instant expiresAt;
+
+		private ExportJob(String key, ExportType type, ReportFilterRequest filter, Instant createdAt) {
+			this.key = key;
+			this.type = type;
+			this.filter = filter;
+			this.createdAt = createdAt;
+		}
+
+		// Job lỗi hoặc đã hết hạn thì request mới phải tạo job khác
+		private boolean isReusable(Instant now) {
+			return status != ExportJobStatus.FAILED && (expiresAt == null || expiresAt.isAfter(now));
+		}
+	}
+}
@@ -1,50 +1,54 @@
 package com.capston.project.back.end.service.impl;
 
+import com.capston.project.back.end.repository.FarmRepository;
+import com.capston.project.back.end.repository.ProjectRepository;
+import com.capston.project.back.end.repository.projection.FarmExportRow;
+import com.capston.project.back.end.repository.projection.ProjectExportRow;
 import com.capston.project.back.end.response.dashboard.Co2ReportResponse;
 import com.capston.project.back.end.response.dashboard.CreditReportResponse;
 import com.capston.project.back.end.response.dashboard.ReportFilterRequest;
 import com.capston.project.back.end.response.dashboard.RevenueReportResponse;
 import com.capston.project.back.end.service.ExportService;
 import com.capston.project.back.end.service.ReportService;
-import com.lowagie.text.*;
-import com.lowagie. text.Font;
-import com. lowagie.text.pdf. PdfPCell;
-import com.lowagie.text.pdf.PdfPTable;
-import com.lowagie.text.pdf.PdfWriter;
+import com.capston.project.back.end.util.PdfReportWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j. Slf4j;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache. poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.awt. Color;
-import java.io. ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
-import java.time.LocalDate;
-import java. time.format.DateTimeFormatter;
 import java.util. List;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ExportServiceImpl implements ExportService {
 
+	private static final int ROW_ACCESS_WINDOW = 200;
+
 	private final ReportService reportService;
+	private final ProjectRepository projectRepository;
+	private final FarmRepository farmRepository;
 
 	// ==================== EXCEL EXPORTS ====================
 
 	@Override
-	public byte[] exportCo2ReportToExcel(ReportFilterRequest filter) {
+	public void exportCo2ReportToExcel(ReportFilterRequest filter, OutputStream out) {
 		log.info("Exporting CO2 report to Excel");
 
 		Co2ReportResponse report = reportService.getCo2Report(filter);
 
-		try (Workbook workbook = new XSSFWorkbook();
-		     ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-
+		SXSSFWorkbook workbook = newStreamingWorkbook();
+		try {
 			// Create styles
 			CellStyle headerStyle = createHeaderStyle(workbook);
 			CellStyle dataStyle = createDataStyle(workbook);
@@ -52,75 +56,74 @@ public class ExportServiceImpl implements ExportService {
 			CellStyle titleStyle = createTitleStyle(workbook);
 
 			// Summary Sheet
-			Sheet summarySheet = workbook.createSheet("Tổng quan");
+			Sheet summarySheet = createAutoSizedSheet(workbook, "Tổng quan");
 			createCo2SummarySheet(summarySheet, report, titleStyle, headerStyle, dataStyle, numberStyle);
 
 			// Project Details Sheet
-			Sheet projectSheet = workbook.createSheet("Theo dự án");
-			createCo2ProjectSheet(projectSheet, report. getProjectDetails(), headerStyle, dataStyle, numberStyle);
+			Sheet projectSheet = createAutoSizedSheet(workbook, "Theo dự án");
+			createCo2ProjectSheet(projectSheet, report.getProjectDetails(), headerStyle, dataStyle, numberStyle);
 
 			// Farm Details Sheet
-			Sheet farmSheet = workbook.createSheet("Theo Farm");
-			createCo2FarmSheet(farmSheet, report. getFarmDetails(), headerStyle, dataStyle, numberStyle);
+			Sheet farmSheet = createAutoSizedSheet(workbook, "Theo Farm");
+			createCo2FarmSheet(farmSheet, report.getFarmDetails(), headerStyle, dataStyle, numberStyle);
 
 			// Species Details Sheet
-			Sheet speciesSheet = workbook.createSheet("Theo loại cây");
+			Sheet speciesSheet = createAutoSizedSheet(workbook, "Theo loại cây");
 			createCo2SpeciesSheet(speciesSheet, report.getSpeciesDetails(), headerStyle, dataStyle, numberStyle);
 
 			workbook.write(out);
-			return out.toByteArray();
 
 		} catch (Exception e) {
 			log.error("Error exporting CO2 report to Excel:  {}", e.getMessage(), e);
 			throw new RuntimeException("Failed to export CO2 report to Excel", e);
+		} finally {
+			dispose(workbook);
 		}
 	}
 
 	@Override
-	public byte[] exportRevenueReportToExcel(ReportFilterRequest filter) {
+	public void exportRevenueReportToExcel(ReportFilterRequest filter, OutputStream out) {
 		log.info("Exporting Revenue report to Excel");
 
 		RevenueReportResponse report = reportService.getRevenueReport(filter);
 
-		try (Workbook workbook = new XSSFWorkbook();
-		     ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-
+		SXSSFWorkbook workbook = newStreamingWorkbook();
+		try {
 			CellStyle headerStyle = createHeaderStyle(workbook);
 			CellStyle dataStyle = createDataStyle(workbook);
-			CellStyle numberStyle = createNumberStyle(workbook);
 			CellStyle currencyStyle = createCurrencyStyle(workbook);
 			CellStyle titleStyle = createTitleStyle(workbook);
 
 			// Summary Sheet
-			Sheet summarySheet = workbook.createSheet("Tổng quan");
+			Sheet summarySheet = createAutoSizedSheet(workbook, "Tổng quan");
 			createRevenueSummarySheet(summarySheet, report, titleStyle, headerStyle, dataStyle, currencyStyle);
 
 			// Project Details Sheet
-			Sheet projectSheet = workbook.createSheet("Theo dự án");
+			Sheet projectSheet = createAutoSizedSheet(workbook, "Theo dự án");
 			createRevenueProjectSheet(projectSheet, report.getProjectDetails(), headerStyle, dataStyle, currencyStyle);
 
 			// Monthly Details Sheet
-			Sheet monthlySheet = workbook.createSheet("Theo tháng");
+			Sheet monthlySheet = createAutoSizedSheet(workbook, "Theo tháng");
 			createRevenueMonthlySheet(monthlySheet, report.getMonthlyDetails(), headerStyle, dataStyle, currencyStyle);
 
 			workbook.write(out);
-			return out.toByteArray();
 
 		} catch (Exception e) {
 			log.error("Error exporting Revenue report to Excel: {}", e.getMessage(), e);
 			throw new RuntimeException("Failed to export Revenue report to Excel", e);
+		} finally {
+			dispose(workbook);
 		}
 	}
 
 	@Override
-	public byte[] exportCreditReportToExcel(ReportFilterRequest filter) {
+	public void exportCreditReportToExcel(ReportFilterRequest filter, OutputStream out) {
 		log.info("Exporting Credit report to Excel");
 
-		CreditReportResponse report = reportService. getCreditReport(filter);
-
-		try (Workbook workbook = new XSSFWorkbook();
-		     ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+		CreditReportResponse report = reportService.getCreditReport(filter);
 
+		SXSSFWorkbook workbook = newStreamingWorkbook();
+		try {
 			CellStyle headerStyle = createHeaderStyle(workbook);
 			CellStyle dataStyle = createDataStyle(workbook);
 			CellStyle numberStyle = createNumberStyle(workbook);
@@ -128,108 +131,159 @@ public class ExportServiceImpl implements ExportService {
 			CellStyle titleStyle = createTitleStyle(workbook);
 
 			// Summary Sheet
-			Sheet summarySheet = workbook.createSheet("Tổng quan");
+			Sheet summarySheet = createAutoSizedSheet(workbook, "Tổng quan");
 			createCreditSummarySheet(summarySheet, report, titleStyle, headerStyle, dataStyle, numberStyle, currencyStyle);
 
 			// Yearly Details Sheet
-			Sheet yearlySheet = workbook.createSheet("Theo năm");
+			Sheet yearlySheet = createAutoSizedSheet(workbook, "Theo năm");
 			createCreditYearlySheet(yearlySheet, report.getYearlyDetails(), headerStyle, dataStyle, numberStyle, currencyStyle);
 
 			// Project Details Sheet
-			Sheet projectSheet = workbook.createSheet("Theo dự án");
+			Sheet projectSheet = createAutoSizedSheet(workbook, "Theo dự án");
 			createCreditProjectSheet(projectSheet, report.getProjectDetails(), headerStyle, dataStyle, numberStyle, currencyStyle);
 
 			workbook.write(out);
-			return out.toByteArray();
 
 		} catch (Exception e) {
 			log.error("Error exporting Credit report to Excel: {}", e.getMessage(), e);
 			throw new RuntimeException("Failed to export Credit report to Excel", e);
+		} finally {
+			dispose(workbook);
 		}
 	}
 
 	@Override
-	public byte[] exportProjectsToExcel() {
-		// Implementation for exporting projects list
-		return new byte[0];
+	@Transactional(readOnly = true)
+	public void exportProjectsToExcel(OutputStream out) {
+		log.info("Exporting projects list to Excel");
+
+		SXSSFWorkbook workbook = newStreamingWorkbook();
+		try (Stream<ProjectExportRow> projects = projectRepository.streamAllForExport()) {
+			CellStyle headerStyle = createHeaderStyle(workbook);
+			CellStyle dataStyle = createDataStyle(workbook);
+			CellStyle numberStyle = createNumberStyle(workbook);
+			CellStyle currencyStyle = createCurrencyStyle(workbook);
+
+			Sheet sheet = workbook.createSheet("Dự án");
+			String[] headers = {"Mã dự án", "Tên dự án", "Trạng thái", "Ngân sách", "Chi phí thực tế",
+					"Mục tiêu CO2 (kg)", "CO2 thực tế (kg)", "Ngày tạo"};
+			int[] widths = {16, 40, 16, 20, 20, 20, 20, 14};
+			createListHeader(sheet, headers, widths, headerStyle);
+
+			int[] rowNum = {1};
+			projects.forEach(p -> {
+				Row row = sheet.createRow(rowNum[0]++);
+				setTextCell(row, 0, p.getCode(), dataStyle);
+				setTextCell(row, 1, p.getName(), dataStyle);
+				setTextCell(row, 2, p.getProjectStatus() != null ? p.getProjectStatus().name() : null, dataStyle);
+				setNumberCell(row, 3, p.getTotalBudget(), currencyStyle);
+				setNumberCell(row, 4, p.getActualCost(), currencyStyle);
+				setNumberCell(row, 5, p.getTargetCo2Kg(), numberStyle);
+				setNumberCell(row, 6, p.getActualCo2Kg(), numberStyle);
+				setTextCell(row, 7, p.getCreatedAt() != null ? p.getCreatedAt().toLocalDate().toString() : null, dataStyle);
+			});
+
+			workbook.write(out);
+			log.info("Exported {} projects to Excel", rowNum[0] - 1);
+
+		} catch (Exception e) {
+			log.error("Error exporting projects to Excel: {}", e.getMessage(), e);
+			throw new RuntimeException("Failed to export projects to Excel", e);
+		} finally {
+			dispose(workbook);
+		}
 	}
 
 	@Override
-	public byte[] exportFarmsToExcel() {
-		// Implementation for exporting farms list
-		return new byte[0];
+	@Transactional(readOnly = true)
+	public void exportFarmsToExcel(OutputStream out) {
+		log.info("Exporting farms list to Excel");
+
+		SXSSFWorkbook workbook = newStreamingWorkbook();
+		try (Stream<FarmExportRow> farms = farmRepository.streamActiveForExport()) {
+			CellStyle headerStyle = createHeaderStyle(workbook);
+			CellStyle dataStyle = createDataStyle(workbook);
+			CellStyle numberStyle = createNumberStyle(workbook);
+
+			Sheet sheet = workbook.createSheet("Farm");
+			String[] headers = {"Mã farm", "Tên farm", "Địa điểm", "Diện tích (m²)", "Diện tích sử dụng (m²)",
+					"Loại đất", "Vùng khí hậu", "Trạng thái", "Ngày tạo"};
+			int[] widths = {16, 32, 40, 18, 22, 16, 16, 14, 14};
+			createListHeader(sheet, headers, widths, headerStyle);
+
+			int[] rowNum = {1};
+			farms.forEach(f -> {
+				Row row = sheet.createRow(rowNum[0]++);
+				setTextCell(row, 0, f.getCode(), dataStyle);
+				setTextCell(row, 1, f.getName(), dataStyle);
+				setTextCell(row, 2, f.getLocation(), dataStyle);
+				setNumberCell(row, 3, f.getArea(), numberStyle);
+				setNumberCell(row, 4, f.getUsableArea(), numberStyle);
+				setTextCell(row, 5, f.getSoilType(), dataStyle);
+				setTextCell(row, 6, f.getClimateZone(), dataStyle);
+				setTextCell(row, 7, f.getFarmStatus() != null ? f.getFarmStatus().name() : null, dataStyle);
+				setTextCell(row, 8, f.getCreatedAt() != null ? f.getCreatedAt().toLocalDate().toString() : null, dataStyle);
+			});
+
+			workbook.write(out);
+			log.info("Exported {} farms to Excel", rowNum[0] - 1);
+
+		} catch (Exception e) {
+			log.error("Error exporting farms to Excel: {}", e.getMessage(), e);
+			throw new RuntimeException("Failed to export farms to Excel", e);
+		} finally {
+			dispose(workbook);
+		}
 	}
 
 	// ==================== PDF EXPORTS ====================
 
 	@Override
-	public byte[] exportCo2ReportToPdf(ReportFilterRequest filter) {
+	public void exportCo2ReportToPdf(ReportFilterRequest filter, OutputStream out) {
 		log.info("Exporting CO2 report to PDF");
 
 		Co2ReportResponse report = reportService.getCo2Report(filter);
 
-		try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-			Document document = new Document(PageSize.A4);
-			PdfWriter. getInstance(document, out);
-
-			document.open();
-
-			// Title
-			Font titleFont = new Font(Font.HELVETICA, 18, Font.BOLD, Color.DARK_GRAY);
-			Paragraph title = new Paragraph(report.getReportTitle(), titleFont);
-			title.setAlignment(Element. ALIGN_CENTER);
-			title.setSpacingAfter(20);
-			document. add(title);
-
-			// Report date
-			Font dateFont = new Font(Font. HELVETICA, 10, Font.NORMAL, Color. GRAY);
-			Paragraph date = new Paragraph("Ngày báo cáo: " +
-			                               report.getReportDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")), dateFont);
-			date.setAlignment(Element.ALIGN_CENTER);
-			date.setSpacingAfter(20);
-			document.add(date);
+		try (PdfReportWriter pdf = new PdfReportWriter(out)) {
+			pdf.title(report.getReportTitle(), report.getReportDate());
 
 			// Summary section
-			Font sectionFont = new Font(Font. HELVETICA, 14, Font.BOLD, Color. DARK_GRAY);
-			Paragraph summaryTitle = new Paragraph("TỔNG QUAN", sectionFont);
-			summaryTitle.setSpacingBefore(10);
-			summaryTitle.setSpacingAfter(10);
-			document.add(summaryTitle);
-
-			// Summary table
-			PdfPTable summaryTable = new PdfPTable(2);
-			summaryTable.setWidthPercentage(100);
-			addSummaryRow(summaryTable, "Tổng CO2 hấp thụ (kg):", formatNumber(report.getTotalCo2AbsorbedKg()));
-			addSummaryRow(summaryTable, "Tổng CO2 hấp thụ (tấn):", formatNumber(report. getTotalCo2AbsorbedTons()));
-			addSummaryRow(summaryTable, "Mục tiêu CO2 (kg):", formatNumber(report. getTargetCo2Kg()));
-			addSummaryRow(summaryTable, "Tỷ lệ hoàn thành:", formatNumber(report.getCompletionPercentage()) + "%");
-			document.add(summaryTable);
+			pdf.section("TỔNG QUAN");
+			pdf.summary(
+					new String[]{"Tổng CO2 hấp thụ (kg):", formatNumber(report.getTotalCo2AbsorbedKg())},
+					new String[]{"Tổng CO2 hấp thụ (tấn):", formatNumber(report.getTotalCo2AbsorbedTons())},
+					new String[]{"Mục tiêu CO2 (kg):", formatNumber(report.getTargetCo2Kg())},
+					new String[]{"Tỷ lệ hoàn thành:", formatNumber(report.getCompletionPercentage()) + "%"});
 
 			// Project details section
-			Paragraph projectTitle = new Paragraph("THEO DỰ ÁN", sectionFont);
-			projectTitle. setSpacingBefore(20);
-			projectTitle.setSpacingAfter(10);
-			document.add(projectTitle);
-
-			PdfPTable projectTable = new PdfPTable(5);
-			projectTable.setWidthPercentage(100);
-			projectTable.setWidths(new float[]{2f, 3f, 2f, 2f, 1.5f});
-
-			// Header
-			addTableHeader(projectTable, "Mã dự án", "Tên dự án", "CO2 hấp thụ (kg)", "Mục tiêu (kg)", "Tỷ lệ (%)");
-
-			// Data
-			for (Co2ReportResponse.ProjectCo2Detail p : report.getProjectDetails()) {
-				addTableCell(projectTable, p.getProjectCode());
-				addTableCell(projectTable, p.getProjectName());
-				addTableCell(projectTable, formatNumber(p.getCo2Absorbed()));
-				addTableCell(projectTable, formatNumber(p.getTargetCo2()));
-				addTableCell(projectTable, formatNumber(p.getPercentage()));
+			pdf.section("THEO DỰ ÁN");
+			try (PdfReportWriter.TableWriter table = pdf.table(new float[]{2f, 3f, 2f, 2f, 1.5f},
+					"Mã dự án", "Tên dự án", "CO2 hấp thụ (kg)", "Mục tiêu (kg)", "Tỷ lệ (%)")) {
+				for (Co2ReportResponse.ProjectCo2Detail p : nullSafe(report.getProjectDetails())) {
+					table.row(p.getProjectCode(), p.getProjectName(), formatNumber(p.getCo2Absorbed()),
+							formatNumber(p.getTargetCo2()), formatNumber(p.getPercentage()));
+				}
 			}
-			document.add(projectTable);
 
-			document.close();
-			return out. toByteArray();
+			// Farm details section
+			pdf.section("THEO FARM");
+			try (PdfReportWriter.TableWriter table = pdf.table(new float[]{2f, 3f, 2f, 1.5f, 1.5f},
+					"Mã farm", "Tên farm", "CO2 hấp thụ (kg)", "Tổng cây", "Cây sống")) {
+				for (Co2ReportResponse.FarmCo2Detail f : nullSafe(report.getFarmDetails())) {
+					table.row(f.getFarmCode(), f.getFarmName(), formatNumber(f.getCo2Absorbed()),
+							String.valueOf(f.getTotalTrees()), String.valueOf(f.getAliveTrees()));
+				}
+			}
+
+			// Species details section
+			pdf.section("THEO LOẠI CÂY");
+			try (PdfReportWriter.TableWriter table = pdf.table(new float[]{3f, 1.5f, 2f, 1.5f},
+					"Tên loại cây", "Tổng cây", "CO2 hấp thụ (kg)", "Tỷ lệ (%)")) {
+				for (Co2ReportResponse.SpeciesCo2Detail sp : nullSafe(report.getSpeciesDetails())) {
+					table.row(sp.getSpeciesName(), String.valueOf(sp.getTotalTrees()),
+							formatNumber(sp.getTotalCo2Absorbed()), formatNumber(sp.getPercentage()));
+				}
+			}
 
 		} catch (Exception e) {
 			log.error("Error exporting CO2 report to PDF: {}", e.getMessage(), e);
@@ -238,71 +292,42 @@ public class ExportServiceImpl implements ExportService {
 	}
 
 	@Override
-	public byte[] exportRevenueReportToPdf(ReportFilterRequest filter) {
+	public void exportRevenueReportToPdf(ReportFilterRequest filter, OutputStream out) {
 		log.info("Exporting Revenue report to PDF");
 
 		RevenueReportResponse report = reportService.getRevenueReport(filter);
 
-		try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-			Document document = new Document(PageSize.A4);
-			PdfWriter. getInstance(document, out);
-
-			document.open();
-
-			// Title
-			Font titleFont = new Font(Font.HELVETICA, 18, Font.BOLD, Color.DARK_GRAY);
-			Paragraph title = new Paragraph(report.getReportTitle(), titleFont);
-			title.setAlignment(Element.ALIGN_CENTER);
-			title.setSpacingAfter(20);
-			document.add(title);
-
-			// Report date
-			Font dateFont = new Font(Font.HELVETICA, 10, Font. NORMAL, Color.GRAY);
-			Paragraph date = new Paragraph("Ngày báo cáo: " +
-			                               report.getReportDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")), dateFont);
-			date.setAlignment(Element.ALIGN_CENTER);
-			date.setSpacingAfter(20);
-			document.add(date);
+		try (PdfReportWriter pdf = new PdfReportWriter(out)) {
+			pdf.title(report.getReportTitle(), report.getReportDate());
 
 			// Summary section
-			Font sectionFont = new Font(Font.HELVETICA, 14, Font. BOLD, Color.DARK_GRAY);
-			Paragraph summaryTitle = new Paragraph("TỔNG QUAN DOANH THU", sectionFont);
-			summaryTitle.setSpacingBefore(10);
-			summaryTitle.setSpacingAfter(10);
-			document. add(summaryTitle);
-
-			// Summary table
-			PdfPTable summaryTable = new PdfPTable(2);
-			summaryTable.setWidthPercentage(100);
-			addSummaryRow(summaryTable, "Tổng doanh thu:", formatCurrency(report.getTotalRevenue()));
-			addSummaryRow(summaryTable, "Doanh thu tín chỉ:", formatCurrency(report.getCreditSalesRevenue()));
-			addSummaryRow(summaryTable, "Doanh thu hợp đồng:", formatCurrency(report.getContractRevenue()));
-			addSummaryRow(summaryTable, "Tổng giao dịch:", String.valueOf(report.getTotalTransactions()));
-			document.add(summaryTable);
+			pdf.section("TỔNG QUAN DOANH THU");
+			pdf.summary(
+					new String[]{"Tổng doanh thu:", formatCurrency(report.getTotalRevenue())},
+					new String[]{"Doanh thu tín chỉ:", formatCurrency(report.getCreditSalesRevenue())},
+					new String[]{"Doanh thu hợp đồng:", formatCurrency(report.getContractRevenue())},
+					new String[]{"Tổng giao dịch:", String.valueOf(report.getTotalTransactions())});
 
 			// Project details section
-			Paragraph projectTitle = new Paragraph("DOANH THU THEO DỰ ÁN", sectionFont);
-			projectTitle.setSpacingBefore(20);
-			projectTitle.setSpacingAfter(10);
-			document.add(projectTitle);
-
-			PdfPTable projectTable = new PdfPTable(5);
-			projectTable.setWidthPercentage(100);
-			projectTable.setWidths(new float[]{1.5f, 2.5f, 2f, 2f, 2f});
-
-			addTableHeader(projectTable, "Mã DA", "Tên dự án", "DT Tín chỉ", "DT Hợp đồng", "Tổng DT");
-
-			for (RevenueReportResponse.ProjectRevenueDetail p : report.getProjectDetails()) {
-				addTableCell(projectTable, p.getProjectCode());
-				addTableCell(projectTable, p.getProjectName());
-				addTableCell(projectTable, formatCurrency(p.getCreditRevenue()));
-				addTableCell(projectTable, formatCurrency(p.getContractRevenue()));
-				addTableCell(projectTable, formatCurrency(p.getTotalRevenue()));
+			pdf.section("DOANH THU THEO DỰ ÁN");
+			try (PdfReportWriter.TableWriter table = pdf.table(new float[]{1.5f, 2.5f, 2f, 2f, 2f},
+					"Mã DA", "Tên dự án", "DT Tín chỉ", "DT Hợp đồng", "Tổng DT")) {
+				for (RevenueReportResponse.ProjectRevenueDetail p : nullSafe(report.getProjectDetails())) {
+					table.row(p.getProjectCode(), p.getProjectName(), formatCurrency(p.getCreditRevenue()),
+							formatCurrency(p.getContractRevenue()), formatCurrency(p.getTotalRevenue()));
+				}
 			}
-			document.add(projectTable);
 
-			document.close();
-			return out.toByteArray();
+			// Monthly details section
+			pdf.section("DOANH THU THEO THÁNG");
+			try (PdfReportWriter.TableWriter table = pdf.table(new float[]{1f, 1.5f, 2f, 2f, 2f, 1f},
+					"Năm", "Tháng", "DT Tín chỉ", "DT Hợp đồng", "Tổng DT", "Số GD")) {
+				for (RevenueReportResponse.MonthlyRevenueDetail m : nullSafe(report.getMonthlyDetails())) {
+					table.row(String.valueOf(m.getYear()), m.getMonthName(), formatCurrency(m.getCreditRevenue()),
+							formatCurrency(m.getContractRevenue()), formatCurrency(m.getTotalRevenue()),
+							String.valueOf(m.getTransactionCount()));
+				}
+			}
 
 		} catch (Exception e) {
 			log.error("Error exporting Revenue report to PDF: {}", e.getMessage(), e);
@@ -311,75 +336,46 @@ public class ExportServiceImpl implements ExportService {
 	}
 
 	@Override
-	public byte[] exportCreditReportToPdf(ReportFilterRequest filter) {
+	public void exportCreditReportToPdf(ReportFilterRequest filter, OutputStream out) {
 		log.info("Exporting Credit report to PDF");
 
 		CreditReportResponse report = reportService.getCreditReport(filter);
 
-		try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-			Document document = new Document(PageSize.A4);
-			PdfWriter.getInstance(document, out);
-
-			document. open();
-
-			// Title
-			Font titleFont = new Font(Font.HELVETICA, 18, Font.BOLD, Color. DARK_GRAY);
-			Paragraph title = new Paragraph(report.getReportTitle(), titleFont);
-			title.setAlignment(Element.ALIGN_CENTER);
-			title.setSpacingAfter(20);
-			document. add(title);
-
-			// Report date
-			Font dateFont = new Font(Font.HELVETICA, 10, Font.NORMAL, Color.GRAY);
-			Paragraph date = new Paragraph("Ngày báo cáo:  " +
-			                               report. getReportDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")), dateFont);
-			date.setAlignment(Element.ALIGN_CENTER);
-			date.setSpacingAfter(20);
-			document.add(date);
+		try (PdfReportWriter pdf = new PdfReportWriter(out)) {
+			pdf.title(report.getReportTitle(), report.getReportDate());
 
 			// Summary section
-			Font sectionFont = new Font(Font.HELVETICA, 14, Font.BOLD, Color.DARK_GRAY);
-			Paragraph summaryTitle = new Paragraph("TỔNG QUAN TÍN CHỈ CARBON", sectionFont);
-			summaryTitle.setSpacingBefore(10);
-			summaryTitle.setSpacingAfter(10);
-			document.add(summaryTitle);
-
-			// Summary table
-			PdfPTable summaryTable = new PdfPTable(2);
-			summaryTable.setWidthPercentage(100);
-			addSummaryRow(summaryTable, "Tổng tín chỉ phát hành:", String.valueOf(report.getTotalCreditsIssued()));
-			addSummaryRow(summaryTable, "Tín chỉ đã bán:", String.valueOf(report. getTotalCreditsSold()));
-			addSummaryRow(summaryTable, "Tín chỉ đã retire:", String.valueOf(report.getTotalCreditsRetired()));
-			addSummaryRow(summaryTable, "Tín chỉ còn lại:", String.valueOf(report.getTotalCreditsAvailable()));
-			addSummaryRow(summaryTable, "Tổng CO2 (tấn):", formatNumber(report.getTotalCo2Tons()));
-			addSummaryRow(summaryTable, "Tổng doanh thu:", formatCurrency(report.getTotalRevenue()));
-			addSummaryRow(summaryTable, "Giá TB/tín chỉ:", formatCurrency(report.getAveragePrice()));
-			document.add(summaryTable);
+			pdf.section("TỔNG QUAN TÍN CHỈ CARBON");
+			pdf.summary(
+					new String[]{"Tổng tín chỉ phát hành:", String.valueOf(report.getTotalCreditsIssued())},
+					new String[]{"Tín chỉ đã bán:", String.valueOf(report.getTotalCreditsSold())},
+					new String[]{"Tín chỉ đã retire:", String.valueOf(report.getTotalCreditsRetired())},
+					new String[]{"Tín chỉ còn lại:", String.valueOf(report.getTotalCreditsAvailable())},
+					new String[]{"Tổng CO2 (tấn):", formatNumber(report.getTotalCo2Tons())},
+					new String[]{"Tổng doanh thu:", formatCurrency(report.getTotalRevenue())},
+					new String[]{"Giá TB/tín chỉ:", formatCurrency(report.getAveragePrice())});
 
 			// Yearly details section
-			Paragraph yearlyTitle = new Paragraph("THEO NĂM", sectionFont);
-			yearlyTitle.setSpacingBefore(20);
-			yearlyTitle.setSpacingAfter(10);
-			document.add(yearlyTitle);
-
-			PdfPTable yearlyTable = new PdfPTable(6);
-			yearlyTable.setWidthPercentage(100);
-			yearlyTable.setWidths(new float[]{1f, 1.5f, 1.5f, 1.5f, 1.5f, 2f});
-
-			addTableHeader(yearlyTable, "Năm", "Phát hành", "Đã bán", "Retire", "Còn lại", "Doanh thu");
-
-			for (CreditReportResponse.YearlyCreditDetail y : report. getYearlyDetails()) {
-				addTableCell(yearlyTable, String.valueOf(y.getYear()));
-				addTableCell(yearlyTable, String.valueOf(y.getCreditsIssued()));
-				addTableCell(yearlyTable, String. valueOf(y.getCreditsSold()));
-				addTableCell(yearlyTable, String.valueOf(y.getCreditsRetired()));
-				addTableCell(yearlyTable, String.valueOf(y.getCreditsAvailable()));
-				addTableCell(yearlyTable, formatCurrency(y.getRevenue()));
+			pdf.section("THEO NĂM");
+			try (PdfReportWriter.TableWriter table = pdf.table(new float[]{1f, 1.5f, 1.5f, 1.5f, 1.5f, 2f},
+					"Năm", "Phát hành", "Đã bán", "Retire", "Còn lại", "Doanh thu")) {
+				for (CreditReportResponse.YearlyCreditDetail y : nullSafe(report.getYearlyDetails())) {
+					table.row(String.valueOf(y.getYear()), String.valueOf(y.getCreditsIssued()),
+							String.valueOf(y.getCreditsSold()), String.valueOf(y.getCreditsRetired()),
+							String.valueOf(y.getCreditsAvailable()), formatCurrency(y.getRevenue()));
+				}
 			}
-			document.add(yearlyTable);
 
-			document.close();
-			return out.toByteArray();
+			// Project details section
+			pdf.section("THEO DỰ ÁN");
+			try (PdfReportWriter.TableWriter table = pdf.table(new float[]{1.5f, 2.5f, 1.5f, 1.5f, 1.5f, 2f},
+					"Mã DA", "Tên dự án", "Phát hành", "Đã bán", "Retire", "Doanh thu")) {
+				for (CreditReportResponse.ProjectCreditDetail p : nullSafe(report.getProjectDetails())) {
+					table.row(p.getProjectCode(), p.getProjectName(), String.valueOf(p.getCreditsIssued()),
+							String.valueOf(p.getCreditsSold()), String.valueOf(p.getCreditsRetired()),
+							formatCurrency(p.getRevenue()));
+				}
+			}
 
 		} catch (Exception e) {
 			log.error("Error exporting Credit report to PDF: {}", e.getMessage(), e);
@@ -389,6 +385,57 @@ public class ExportServiceImpl implements ExportService {
 
 	// ==================== EXCEL HELPER METHODS ====================
 
+	/**
+	 * Workbook dạng streaming: chỉ giữ ROW_ACCESS_WINDOW dòng trong heap,
+	 * các dòng cũ hơn được flush ra file tạm (nén) cho đến khi write.
+	 */
+	private SXSSFWorkbook newStreamingWorkbook() {
+		SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+		workbook.setCompressTempFiles(true);
+		return workbook;
+	}
+
+	private void dispose(SXSSFWorkbook workbook) {
+		try {
+			workbook.close();
+		} catch (IOException e) {
+			log.warn("Failed to close Excel workbook: {}", e.getMessage());
+		} finally {
+			workbook.dispose();
+		}
+	}
+
+	// Sheet báo cáo nhỏ (đã aggregate) nên vẫn auto-size được
+	private Sheet createAutoSizedSheet(SXSSFWorkbook workbook, String name) {
+		SXSSFSheet sheet = workbook.createSheet(name);
+		sheet.trackAllColumnsForAutoSizing();
+		return sheet;
+	}
+
+	// Sheet danh sách dùng độ rộng cố định: auto-size trên hàng triệu dòng rất tốn CPU
+	private void createListHeader(Sheet sheet, String[] headers, int[] widths, CellStyle headerStyle) {
+		Row headerRow = sheet.createRow(0);
+		for (int i = 0; i < headers.length; i++) {
+			Cell cell = headerRow.createCell(i);
+			cell.setCellValue(headers[i]);
+			cell.setCellStyle(headerStyle);
+			sheet.setColumnWidth(i, widths[i] * 256);
+		}
+		sheet.createFreezePane(0, 1);
+	}
+
+	private void setTextCell(Row row, int column, String value, CellStyle style) {
+		Cell cell = row.createCell(column);
+		cell.setCellValue(value != null ? value : "");
+		cell.setCellStyle(style);
+	}
+
+	private void setNumberCell(Row row, int column, BigDecimal value, CellStyle style) {
+		Cell cell = row.createCell(column);
+		cell.setCellValue(value != null ? value.doubleValue() : 0);
+		cell.setCellStyle(style);
+	}
+
 	private CellStyle createHeaderStyle(Workbook workbook) {
 		CellStyle style = workbook.createCellStyle();
 		org.apache.poi.ss.usermodel.Font font = workbook.createFont();
@@ -837,38 +884,8 @@ public class ExportServiceImpl implements ExportService {
 
 	// ==================== PDF HELPER METHODS ====================
 
-	private void addSummaryRow(PdfPTable table, String label, String value) {
-		Font labelFont = new Font(Font. HELVETICA, 10, Font.BOLD);
-		Font valueFont = new Font(Font.HELVETICA, 10, Font.NORMAL);
-
-		PdfPCell labelCell = new PdfPCell(new Phrase(label, labelFont));
-		labelCell.setBorder(0);
-		labelCell.setPadding(5);
-		table.addCell(labelCell);
-
-		PdfPCell valueCell = new PdfPCell(new Phrase(value, valueFont));
-		valueCell.setBorder(0);
-		valueCell.setPadding(5);
-		table.addCell(valueCell);
-	}
-
-	private void addTableHeader(PdfPTable table, String...  headers) {
-		Font headerFont = new Font(Font.HELVETICA, 9, Font.BOLD, Color.WHITE);
-
-		for (String header : headers) {
-			PdfPCell cell = new PdfPCell(new Phrase(header, headerFont));
-			cell.setBackgroundColor(new Color(34, 139, 34)); // Forest Green
-			cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-			cell.setPadding(5);
-			table.addCell(cell);
-		}
-	}
-
-	private void addTableCell(PdfPTable table, String value) {
-		Font cellFont = new Font(Font. HELVETICA, 9, Font.NORMAL);
-		PdfPCell cell = new PdfPCell(new Phrase(value != null ? value : "", cellFont));
-		cell.setPadding(4);
-		table.addCell(cell);
+	private static <T> List<T> nullSafe(List<T> list) {
+		return list != null ? list : List.of();
 	}
 
 	private String formatNumber(BigDecimal value) {
@@ -0,0 +1,221 @@
+package com.capston.project.back.end.service.impl;
+
+import com.capston.project.back.end.common.EnrichmentStatus;
+import com.capston.project.back.end.common.NotificationType;
+import com.capston.project.back.end.common.ReferenceType;
+import com.capston.project.back.end.entity.Farm;
+import com.capston.project.back.end.event.FarmEnrichmentRequestedEvent;
+import com.capston.project.back.end.repository.FarmRepository;
+import com.capston.project.back.end.service.FarmEnrichmentService;
+import com.capston.project.back.end.service.GeocodingService;
+import com.capston.project.back.end.service.NotificationService;
+import com.capston.project.back.end.service.SoilApiService;
+import com.capston.project.back.end.service.WeatherApiService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enrichment farm chạy nền: sau khi farm được commit, worker gọi geocoding,
+ * thổ nhưỡng, khí hậu (các service này đã có cache và giới hạn theo provider)
+ * ngoài transaction, rồi ghi kết quả trong một transaction ngắn. Nếu địa chỉ đã
+ * đổi trong lúc chờ, kết quả bị bỏ và farm được đưa lại vào hàng đợi với địa chỉ
+ * mới. Chủ farm nhận thông báo qua WebSocket.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FarmEnrichmentServiceImpl implements FarmEnrichmentService {
+
+	private final FarmRepository farmRepository;
+	private final GeocodingService geocodingService;
+	private final SoilApiService soilApiService;
+	private final WeatherApiService weatherApiService;
+	private final NotificationService notificationService;
+	private final TransactionTemplate transactionTemplate;
+	private final ThreadPoolTaskExecutor farmEnrichmentExecutor;
+
+	@Value("${farm.enrichment.stale-after:PT10M}")
+	private Duration staleAfter;
+
+	// Farm đang nằm trong hàng đợi hoặc đang chạy, tránh submit trùng
+	private final Set<Integer> queued = ConcurrentHashMap.newKeySet();
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEnrichmentRequested(FarmEnrichmentRequestedEvent event) {
+		submit(event.farmId());
+	}
+
+	@Override
+	public boolean submit(Integer farmId) {
+		if (!queued.add(farmId)) {
+			return true;
+		}
+		try {
+			farmEnrichmentExecutor.execute(() -> {
+				boolean superseded = false;
+				try {
+					superseded = enrich(farmId);
+				} finally {
+					queued.remove(farmId);
+				}
+				// Event của lần đổi địa chỉ bị bỏ qua vì farm đang chạy, nên tự đưa lại
+				if (superseded) {
+					submit(farmId);
+				}
+			});
+			return true;
+		} catch (TaskRejectedException e) {
+			queued.remove(farmId);
+			log.warn("Farm enrichment queue full, farm {} will be retried by the sweep", farmId);
+			return false;
+		}
+	}
+
+	/**
+	 * Đưa lại các farm kẹt ở ENRICHMENT_PENDING (restart giữa chừng, hàng đợi đầy)
+	 */
+	@Scheduled(fixedDelayString = "${farm.enrichment.sweep-interval-ms:300000}")
+	public void resubmitStalled() {
+		OffsetDateTime before = OffsetDateTime.now().minus(staleAfter);
+		for (Integer farmId : farmRepository.findIdsByEnrichmentStatusUpdatedBefore(
+				EnrichmentStatus.ENRICHMENT_PENDING, before)) {
+			if (!submit(farmId)) {
+				break;
+			}
+		}
+	}
+
+	// ==================== PIPELINE ====================
+
+	/**
+	 * Trả về true nếu kết quả bị bỏ vì địa chỉ đã đổi trong lúc tra
+	 */
+	private boolean enrich(Integer farmId) {
+		Farm farm = farmRepository.findById(farmId).orElse(null);
+		if (farm == null || farm.getDeletedAt() != null
+				|| farm.getEnrichmentStatus() != EnrichmentStatus.ENRICHMENT_PENDING) {
+			return false;
+		}
+		String requestedLocation = farm.getLocation();
+		long startedAt = System.currentTimeMillis();
+
+		EnrichmentResult result;
+		try {
+			result = lookup(requestedLocation);
+		} catch (Exception e) {
+			log.error("Farm {} enrichment failed for location '{}'", farmId, requestedLocation, e);
+			result = null;
+		}
+
+		EnrichmentResult applied = result;
+		Farm updated = transactionTemplate.execute(status -> apply(farmId, requestedLocation, applied));
+		if (updated == null) {
+			log.info("Farm {} enrichment discarded: farm deleted or no longer pending", farmId);
+			return false;
+		}
+		if (updated.getEnrichmentStatus() == EnrichmentStatus.ENRICHMENT_PENDING) {
+			log.info("Farm {} enrichment discarded: location changed while enriching, resubmitting", farmId);
+			return true;
+		}
+		log.info("Farm {} enrichment {} in {} ms", farmId, updated.getEnrichmentStatus(),
+				System.currentTimeMillis() - startedAt);
+		notifyOwner(updated);
+		return false;
+	}
+
+	/**
+	 * Gọi API bên ngoài (không giữ transaction). Trả về null nếu không provider nào tìm được
+	 * địa chỉ: không dùng toạ độ giả để tra đất/khí hậu.
+	 */
+	private EnrichmentResult lookup(String location) {
+		GeocodingService.Coordinates coordinates = geocodingService.findCoordinates(location).orElse(null);
+		if (coordinates == null) {
+			log.warn("Location '{}' could not be geocoded", location);
+			return null;
+		}
+		SoilApiService.SoilData soilData = soilApiService.getSoilProperties(coordinates.latitude(),
+				coordinates.longitude());
+		WeatherApiService.ClimateData climateData = weatherApiService.getClimateData(coordinates.latitude(),
+				coordinates.longitude());
+		return new EnrichmentResult(coordinates, soilData, climateData);
+	}
+
+	/**
+	 * Ghi kết quả nếu farm vẫn đang chờ với đúng địa chỉ đã tra. Trả về null nếu farm
+	 * đã xoá hoặc không còn chờ; địa chỉ đã đổi thì trả về farm nguyên trạng (vẫn PENDING).
+	 */
+	private Farm apply(Integer farmId, String requestedLocation, EnrichmentResult result) {
+		Farm farm = farmRepository.findById(farmId).orElse(null);
+		if (farm == null || farm.getDeletedAt() != null
+				|| farm.getEnrichmentStatus() != EnrichmentStatus.ENRICHMENT_PENDING) {
+			return null;
+		}
+		if (!Objects.equals(farm.getLocation(), requestedLocation)) {
+			return farm;
+		}
+
+		if (result == null) {
+			farm.setEnrichmentStatus(EnrichmentStatus.ENRICHMENT_FAILED);
+			return farm;
+		}
+
+		GeocodingService.Coordinates coordinates = result.coordinates();
+		farm.setLatitude(coordinates.latitude());
+		farm.setLongitude(coordinates.longitude());
+		// Update location with formatted address if available
+		if (coordinates.formattedAddress() != null) {
+			farm.setLocation(coordinates.formattedAddress());
+		}
+		farm.setSoilType(result.soilData().soilType());
+		farm.setClimateZone(result.climateData().climateZone());
+		farm.setAvgRainfall(result.climateData().avgRainfall());
+		farm.setAvgTemperature(result.climateData().avgTemperature());
+		farm.setEnrichmentStatus(EnrichmentStatus.ENRICHED);
+		return farm;
+	}
+
+	private void notifyOwner(Farm farm) {
+		if (farm.getCreatedBy() == null) {
+			return;
+		}
+		boolean enriched = farm.getEnrichmentStatus() == EnrichmentStatus.ENRICHED;
+
+		Map<String, Object> metadata = new HashMap<>();
+		metadata.put("farmCode", farm.getCode());
+		metadata.put("enrichmentStatus", farm.getEnrichmentStatus());
+		metadata.put("latitude", farm.getLatitude());
+		metadata.put("longitude", farm.getLongitude());
+
+		try {
+			notificationService.createAndSend(farm.getCreatedBy(),
+					enriched ? "Đã cập nhật vị trí farm" : "Không lấy được dữ liệu vị trí farm",
+					enriched
+							? "Farm " + farm.getName() + " đã có toạ độ, loại đất và vùng khí hậu."
+							: "Không thể lấy toạ độ/dữ liệu môi trường cho farm " + farm.getName()
+									+ ". Vui lòng kiểm tra lại địa chỉ.",
+					NotificationType.SYSTEM, ReferenceType.FARM, farm.getId(), metadata);
+		} catch (Exception e) {
+			log.warn("Failed to notify owner of farm {}: {}", farm.getId(), e.getMessage());
+		}
+	}
+
+	private record EnrichmentResult(GeocodingService.Coordinates coordinates,
+	                                SoilApiService.SoilData soilData,
+	                                WeatherApiService.ClimateData climateData) {
+	}
+}
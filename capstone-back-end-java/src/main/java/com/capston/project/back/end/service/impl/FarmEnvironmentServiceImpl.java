@@ -4,16 +4,39 @@ import com.capston.project.back.end.entity.Farm;
 import com.capston.project.back.end.entity.FarmEnvironmentRecord;
 import com.capston.project.back.end.repository.FarmEnvironmentRecordRepository;
 import com.capston.project.back.end.repository.FarmRepository;
+import com.capston.project.back.end.repository.projection.FarmRecordedDateRow;
+import com.capston.project.back.end.repository.projection.FarmSoilPhRow;
+import com.capston.project.back.end.service.EnvironmentFactorService;
 import com.capston.project.back.end.service.FarmEnvironmentService;
 import com.capston.project.back.end.service.SoilApiService;
 import com.capston.project.back.end.service.WeatherApiService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -24,20 +47,125 @@ public class FarmEnvironmentServiceImpl implements FarmEnvironmentService {
     private final FarmEnvironmentRecordRepository recordRepository;
     private final WeatherApiService weatherApiService;
     private final SoilApiService soilApiService;
+    private final EnvironmentFactorService environmentFactorService;
 
+    @Value("${environment.ingestion.concurrency:16}")
+    private int concurrency;
+
+    @Value("${environment.ingestion.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${environment.ingestion.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${environment.ingestion.initial-backoff-ms:500}")
+    private long initialBackoffMs;
+
+    @Value("${environment.catch-up.max-days:366}")
+    private int catchUpMaxDays;
+
+    /**
+     * Ingestion cho toàn bộ farm: gọi API song song trên virtual thread (số request
+     * đồng thời giới hạn bởi semaphore, tốc độ do token bucket của từng provider),
+     * kết quả được lưu theo chunk, mỗi chunk một transaction ngắn.
+     */
     @Override
-    @Transactional
     public void fetchAndSaveForAllFarms(LocalDate date) {
-        log.info("Fetching environment data for all active farms for date: {}", date);
+        long start = System.currentTimeMillis();
         List<Farm> activeFarms = farmRepository.findAllActive();
 
+        // Một query cho cả ngày thay vì findByFarmIdAndDate từng farm
+        Set<Integer> recordedFarmIds = new HashSet<>(recordRepository.findFarmIdsWithRecordOn(date));
+        Map<Integer, BigDecimal> knownSoilPh = loadKnownSoilPh();
+
+        List<Farm> pending = new ArrayList<>();
+        int noCoordinates = 0;
         for (Farm farm : activeFarms) {
-            try {
-                fetchAndSaveForFarm(farm, date);
-            } catch (Exception e) {
-                log.error("Failed to fetch environment data for farm {}: {}", farm.getCode(), e.getMessage());
+            if (!hasCoordinates(farm)) {
+                noCoordinates++;
+            } else if (!recordedFarmIds.contains(farm.getId())) {
+                pending.add(farm);
             }
         }
+        log.info("Environment ingestion for {}: {} active farms, {} already recorded, {} without coordinates, {} to fetch",
+                date, activeFarms.size(), recordedFarmIds.size(), noCoordinates, pending.size());
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        PipelineResult result = runPipeline(pending, farm -> {
+            WeatherApiService.WeatherData weatherData = withRetry(() -> weatherApiService.fetchHistoricalWeather(
+                    farm.getLatitude(), farm.getLongitude(), date));
+            BigDecimal soilPh = resolveSoilPh(farm, knownSoilPh);
+            return List.of(toRecord(farm, weatherData, soilPh));
+        });
+
+        long elapsedMs = System.currentTimeMillis() - start;
+        log.info("Environment ingestion for {} finished in {} ms: {} saved, {} failed ({} farms/s)",
+                date, elapsedMs, result.saved(), result.failed(),
+                elapsedMs > 0 ? result.saved() * 1000L / elapsedMs : result.saved());
+    }
+
+    /**
+     * Tìm các ngày còn thiếu record của từng farm trong khoảng và lấp bằng một
+     * request Open-Meteo theo dải ngày cho mỗi farm (từ ngày thiếu đầu tiên đến
+     * ngày thiếu cuối cùng); chỉ các ngày thiếu được insert.
+     */
+    @Override
+    public void catchUpMissingRecords(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= catchUpMaxDays) {
+            throw new IllegalArgumentException("Catch-up window must not exceed " + catchUpMaxDays + " days");
+        }
+        long start = System.currentTimeMillis();
+
+        Map<Integer, Set<LocalDate>> recordedDates = new HashMap<>();
+        for (FarmRecordedDateRow row : recordRepository.findRecordedDatesBetween(from, to)) {
+            recordedDates.computeIfAbsent(row.getFarmId(), id -> new HashSet<>()).add(row.getRecordedDate());
+        }
+        Map<Integer, BigDecimal> knownSoilPh = loadKnownSoilPh();
+
+        List<Farm> pending = new ArrayList<>();
+        Map<Integer, NavigableSet<LocalDate>> missingByFarm = new HashMap<>();
+        long missingDays = 0;
+        for (Farm farm : farmRepository.findAllActive()) {
+            if (!hasCoordinates(farm)) {
+                continue;
+            }
+            Set<LocalDate> recorded = recordedDates.getOrDefault(farm.getId(), Set.of());
+            NavigableSet<LocalDate> missing = new TreeSet<>();
+            from.datesUntil(to.plusDays(1)).filter(day -> !recorded.contains(day)).forEach(missing::add);
+            if (!missing.isEmpty()) {
+                pending.add(farm);
+                missingByFarm.put(farm.getId(), missing);
+                missingDays += missing.size();
+            }
+        }
+        log.info("Environment catch-up {}..{}: {} farms with gaps, {} missing days, {} range requests",
+                from, to, pending.size(), missingDays, pending.size());
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        PipelineResult result = runPipeline(pending, farm -> {
+            NavigableSet<LocalDate> missing = missingByFarm.get(farm.getId());
+            List<WeatherApiService.WeatherData> days = withRetry(() -> weatherApiService.fetchWeatherRange(
+                    farm.getLatitude(), farm.getLongitude(), missing.first(), missing.last()));
+            BigDecimal soilPh = resolveSoilPh(farm, knownSoilPh);
+
+            List<FarmEnvironmentRecord> records = new ArrayList<>();
+            for (WeatherApiService.WeatherData day : days) {
+                if (missing.contains(day.date())) {
+                    records.add(toRecord(farm, day, soilPh));
+                }
+            }
+            return records;
+        });
+
+        log.info("Environment catch-up {}..{} finished in {} ms: {} of {} missing days filled, {} farms failed",
+                from, to, System.currentTimeMillis() - start, result.saved(), missingDays, result.failed());
     }
 
     @Override
@@ -48,6 +176,118 @@ public class FarmEnvironmentServiceImpl implements FarmEnvironmentService {
         fetchAndSaveForFarm(farm, date);
     }
 
+    // ==================== INGESTION PIPELINE ====================
+
+    /**
+     * Lấy dữ liệu cho từng farm trên virtual thread và ghi kết quả theo chunk.
+     * Farm lỗi (sau khi hết số lần retry) bị bỏ qua, không lưu dữ liệu giả.
+     */
+    private PipelineResult runPipeline(List<Farm> farms, FarmFetcher fetcher) {
+        Semaphore inFlight = new Semaphore(concurrency);
+        List<FarmEnvironmentRecord> buffer = new ArrayList<>(chunkSize);
+        int saved = 0;
+        int failed = 0;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<List<FarmEnvironmentRecord>> completion = new ExecutorCompletionService<>(executor);
+            for (Farm farm : farms) {
+                completion.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        return fetcher.fetch(farm);
+                    } catch (RuntimeException e) {
+                        throw new IllegalStateException("Farm " + farm.getCode() + ": " + e.getMessage(), e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+
+            for (int i = 0; i < farms.size(); i++) {
+                try {
+                    buffer.addAll(completion.take().get());
+                } catch (ExecutionException e) {
+                    failed++;
+                    log.warn("Environment ingestion failed: {}", e.getCause().getMessage());
+                }
+                if (buffer.size() >= chunkSize) {
+                    saved += flush(buffer);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Environment ingestion interrupted");
+        }
+        saved += flush(buffer);
+        return new PipelineResult(saved, failed);
+    }
+
+    private int flush(List<FarmEnvironmentRecord> buffer) {
+        if (buffer.isEmpty()) {
+            return 0;
+        }
+        int inserted = recordRepository.insertIgnoringExisting(buffer);
+        environmentFactorService.invalidate(buffer.stream().map(FarmEnvironmentRecord::getFarmId).toList());
+        buffer.clear();
+        return inserted;
+    }
+
+    /**
+     * Retry lỗi tạm thời (timeout, 5xx, 429) với exponential backoff + jitter
+     */
+    private <T> T withRetry(Supplier<T> call) throws InterruptedException {
+        long backoffMs = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.get();
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !isRetryable(e)) {
+                    throw e;
+                }
+                Thread.sleep(backoffMs + ThreadLocalRandom.current().nextLong(backoffMs / 2 + 1));
+                backoffMs *= 2;
+            }
+        }
+    }
+
+    private static boolean isRetryable(RuntimeException e) {
+        if (e instanceof HttpStatusCodeException http) {
+            return http.getStatusCode().is5xxServerError() || http.getStatusCode().value() == 429;
+        }
+        return e instanceof ResourceAccessException;
+    }
+
+    // pH đất gần như không đổi: dùng lại giá trị đã lưu, chỉ gọi SoilGrids cho farm chưa có
+    private BigDecimal resolveSoilPh(Farm farm, Map<Integer, BigDecimal> knownSoilPh) throws InterruptedException {
+        BigDecimal known = knownSoilPh.get(farm.getId());
+        return known != null
+                ? known
+                : withRetry(() -> soilApiService.fetchSoilPh(farm.getLatitude(), farm.getLongitude()));
+    }
+
+    private Map<Integer, BigDecimal> loadKnownSoilPh() {
+        Map<Integer, BigDecimal> knownSoilPh = new HashMap<>();
+        for (FarmSoilPhRow row : recordRepository.findLatestSoilPhPerFarm()) {
+            knownSoilPh.put(row.getFarmId(), row.getSoilPh());
+        }
+        return knownSoilPh;
+    }
+
+    private static boolean hasCoordinates(Farm farm) {
+        return farm.getLatitude() != null && farm.getLongitude() != null;
+    }
+
+    private static FarmEnvironmentRecord toRecord(Farm farm, WeatherApiService.WeatherData weatherData, BigDecimal soilPh) {
+        return FarmEnvironmentRecord.builder()
+                .farmId(farm.getId())
+                .recordedDate(weatherData.date())
+                .rainfallMm(weatherData.rainfall())
+                .temperatureC(weatherData.temperature())
+                .soilPh(soilPh)
+                .soilMoisturePercent(weatherData.humidity())
+                .build();
+    }
+
     private void fetchAndSaveForFarm(Farm farm, LocalDate date) {
         if (farm.getLatitude() == null || farm.getLongitude() == null) {
             log.warn("Farm {} has no coordinates, skipping environment record", farm.getCode());
@@ -81,6 +321,15 @@ public class FarmEnvironmentServiceImpl implements FarmEnvironmentService {
                 .build();
 
         recordRepository.save(record);
+        environmentFactorService.invalidate(List.of(farm.getId()));
         log.info("Saved environment record for farm {} on {}", farm.getCode(), date);
     }
+
+    @FunctionalInterface
+    private interface FarmFetcher {
+        List<FarmEnvironmentRecord> fetch(Farm farm) throws InterruptedException;
+    }
+
+    private record PipelineResult(int saved, int failed) {
+    }
 }
@@ -1,23 +1,27 @@
 package com.capston.project.back.end.service.impl;
 
+import com.capston.project.back.end.common.EnrichmentStatus;
 import com.capston.project.back.end.common.FarmStatus;
 import com.capston.project.back.end.entity.Farm;
 import com.capston.project.back.end.entity.TreeBatch;
+import com.capston.project.back.end.event.FarmEnrichmentRequestedEvent;
 import com.capston.project.back.end.exception.ResourceNotFoundException;
 import com.capston.project.back.end.exception.UnauthorizedException;
 import com.capston.project.back.end.repository.FarmRepository;
 import com.capston.project.back.end.repository.TreeBatchRepository;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.request.FarmRequest;
 import com.capston.project.back.end.response.FarmResponse;
 import com.capston.project.back.end.service.FarmService;
-import com.capston.project.back.end.service.GeocodingService;
-import com.capston.project.back.end.service.WeatherApiService;
-import com.capston.project.back.end.service.SoilApiService;
 import com.capston.project.back.end.util.SecurityUtils;
+import com.capston.project.back.end.util.TextSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,10 +37,8 @@ public class FarmServiceImpl implements FarmService {
 
 	private final FarmRepository farmRepository;
 	private final TreeBatchRepository treeBatchRepository;
-	private final GeocodingService geocodingService;
-	private final WeatherApiService weatherApiService;
-	private final SoilApiService soilApiService;
 	private final SecurityUtils securityUtils;
+	private final ApplicationEventPublisher eventPublisher;
 
 	@Override
 	@Transactional
@@ -56,18 +58,14 @@ public class FarmServiceImpl implements FarmService {
 				.createdBy(createdBy)
 				.build();
 
-		// Auto-fetch coordinates if location is provided
+		// Toạ độ và dữ liệu môi trường được lấy ở background sau khi commit
 		if (farm.getLocation() != null) {
-			fetchAndSetCoordinates(farm);
-		}
-
-		// Auto-fetch environment data from APIs
-		if (farm.getLatitude() != null && farm.getLongitude() != null) {
-			fetchAndSetEnvironmentData(farm);
+			farm.setEnrichmentStatus(EnrichmentStatus.ENRICHMENT_PENDING);
 		}
 
 		Farm saved = farmRepository.save(farm);
 		log.info("Created farm with code: {}", saved.getCode());
+		requestEnrichment(saved);
 
 		return mapToFarmResponse(saved);
 	}
@@ -105,11 +103,13 @@ public class FarmServiceImpl implements FarmService {
 
 		// Re-fetch coordinates and environment data if address changed
 		if (addressChanged) {
-			fetchAndSetCoordinates(farm);
-			fetchAndSetEnvironmentData(farm);
+			farm.setEnrichmentStatus(EnrichmentStatus.ENRICHMENT_PENDING);
 		}
 
 		Farm saved = farmRepository.save(farm);
+		if (addressChanged) {
+			requestEnrichment(saved);
+		}
 		return mapToFarmResponse(saved);
 	}
 
@@ -157,6 +157,13 @@ public class FarmServiceImpl implements FarmService {
 				.map(this::mapToFarmResponse);
 	}
 
+	@Override
+	public KeysetPage<FarmResponse> getAllFarms(KeysetPageRequest request) {
+		Specification<Farm> notDeleted = (root, query, cb) -> cb.isNull(root.get("deletedAt"));
+		return farmRepository.findAll(notDeleted, request)
+				.map(this::mapToFarmResponse);
+	}
+
 	@Override
 	public Page<FarmResponse> getFarmsByStatus(FarmStatus status, Pageable pageable) {
 		if (securityUtils.isAdmin()) {
@@ -171,13 +178,14 @@ public class FarmServiceImpl implements FarmService {
 
 	@Override
 	public List<FarmResponse> searchFarms(String keyword) {
+		String folded = TextSearchIndex.fold(keyword.trim());
 		if (securityUtils.isAdmin()) {
-			return farmRepository.searchByKeyword(keyword)
+			return farmRepository.searchByKeyword(folded)
 					.stream()
 					.map(this::mapToFarmResponse)
 					.collect(Collectors.toList());
 		} else {
-			return farmRepository.searchByKeywordAndCreatedBy(keyword, securityUtils.getCurrentUserId())
+			return farmRepository.searchByKeywordAndCreatedBy(folded, securityUtils.getCurrentUserId())
 					.stream()
 					.map(this::mapToFarmResponse)
 					.collect(Collectors.toList());
@@ -197,51 +205,11 @@ public class FarmServiceImpl implements FarmService {
 	}
 
 	/**
-	 * Fetch coordinates from address using Geocoding API
-	 */
-	private void fetchAndSetCoordinates(Farm farm) {
-		log.info("Fetching coordinates for location: {}", farm.getLocation());
-
-		try {
-			GeocodingService.Coordinates coordinates = geocodingService.getCoordinates(farm.getLocation());
-			farm.setLatitude(coordinates.latitude());
-			farm.setLongitude(coordinates.longitude());
-			// Update location with formatted address if available
-			if (coordinates.formattedAddress() != null) {
-				farm.setLocation(coordinates.formattedAddress());
-			}
-			log.info("Successfully geocoded: {} -> {}, {}", farm.getLocation(), coordinates.latitude(),
-					coordinates.longitude());
-		} catch (Exception e) {
-			log.error("Failed to geocode address: {}", farm.getLocation(), e);
-			// Don't throw exception, let admin input coordinates manually
-		}
-	}
-
-	/**
-	 * Fetch environment data (soil, climate) from external APIs
+	 * Enrichment chạy sau khi transaction commit, request không chờ API bên ngoài
 	 */
-	private void fetchAndSetEnvironmentData(Farm farm) {
-		log.info("Fetching environment data for coordinates: {}, {}", farm.getLatitude(), farm.getLongitude());
-
-		try {
-			// Get soil data
-			SoilApiService.SoilData soilData = soilApiService.getSoilProperties(farm.getLatitude(),
-					farm.getLongitude());
-			farm.setSoilType(soilData.soilType());
-
-			// Get climate data
-			WeatherApiService.ClimateData climateData = weatherApiService.getClimateData(farm.getLatitude(),
-					farm.getLongitude());
-			farm.setClimateZone(climateData.climateZone());
-			farm.setAvgRainfall(climateData.avgRainfall());
-			farm.setAvgTemperature(climateData.avgTemperature());
-
-			log.info("Successfully fetched environment data: soil={}, climate={}", soilData.soilType(),
-					climateData.climateZone());
-		} catch (Exception e) {
-			log.error("Failed to fetch environment data for coordinates: {}, {}", farm.getLatitude(),
-					farm.getLongitude(), e);
+	private void requestEnrichment(Farm farm) {
+		if (farm.getEnrichmentStatus() == EnrichmentStatus.ENRICHMENT_PENDING) {
+			eventPublisher.publishEvent(new FarmEnrichmentRequestedEvent(farm.getId()));
 		}
 	}
 
@@ -266,6 +234,7 @@ public class FarmServiceImpl implements FarmService {
 				.avgRainfall(farm.getAvgRainfall())
 				.avgTemperature(farm.getAvgTemperature())
 				.farmStatus(farm.getFarmStatus())
+				.enrichmentStatus(farm.getEnrichmentStatus())
 				.totalBatches(totalBatches)
 				.totalTrees(totalTrees)
 				.createdBy(farm.getCreatedBy())
@@ -1,106 +1,86 @@
 package com.capston.project.back.end.service.impl;
 
+import com.capston.project.back.end.cache.GeocodingCache;
 import com.capston.project.back.end.service.GeocodingService;
+import com.capston.project.back.end.util.CircuitBreaker;
+import com.capston.project.back.end.util.TokenBucket;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.RestClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
- * Implementation using Google Maps Geocoding API
- * Alternative: OpenStreetMap Nominatim (free but rate-limited)
+ * Implementation using OpenStreetMap Nominatim, Google Maps Geocoding API làm fallback.
+ * Kết quả được cache theo địa chỉ đã chuẩn hoá / toạ độ nên địa chỉ quen thuộc không
+ * phải gọi Nominatim; Google được bọc trong circuit breaker.
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class GeocodingServiceImpl implements GeocodingService {
 
+    private static final String DUMMY_GOOGLE_KEY = "AIzaSyDummyKeyForDevelopment";
+
     @Value("${google.maps.api.key:AIzaSyDummyKeyForDevelopment}")
     private String googleMapsApiKey;
 
     @Value("${geocoding.use-mock:true}")
     private boolean useMock;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    // Nominatim usage policy: tối đa 1 request/giây
+    @Value("${geocoding.nominatim.permits-per-second:1}")
+    private double nominatimPermitsPerSecond;
 
-    @Override
-    public Coordinates getCoordinates(String address) {
-        if (useMock) {
-            return getMockCoordinates(address);
-        }
+    @Value("${geocoding.google.failure-threshold:5}")
+    private int googleFailureThreshold;
 
-        try {
-            // Use OpenStreetMap Nominatim Geocoding - FREE!
-            String url = UriComponentsBuilder
-                    .fromUriString("https://nominatim.openstreetmap.org/search")
-                    .queryParam("q", address)
-                    .queryParam("format", "json")
-                    .queryParam("limit", 1)
-                    .toUriString();
-
-            // Set User-Agent as required by Nominatim Policy
-            restTemplate.getInterceptors().clear();
-            restTemplate.getInterceptors().add((request, body, execution) -> {
-                request.getHeaders().add("User-Agent", "CarbonCreditApp/1.0 (Educational Project)");
-                return execution.execute(request, body);
-            });
-
-            java.util.List<Map<String, Object>> response = restTemplate.getForObject(url, java.util.List.class);
-
-            if (response != null && !response.isEmpty()) {
-                Map<String, Object> firstResult = response.get(0);
-                BigDecimal lat = new BigDecimal(firstResult.get("lat").toString());
-                BigDecimal lng = new BigDecimal(firstResult.get("lon").toString());
-                String formattedAddress = (String) firstResult.get("display_name");
-
-                log.info("Geocoded address '{}' to coordinates: {}, {}", address, lat, lng);
-                return new Coordinates(lat, lng, formattedAddress);
-            }
+    @Value("${geocoding.google.open-duration:PT5M}")
+    private Duration googleOpenDuration;
 
-            // Fallback to Google Maps if configured and OSM fails
-            if (!"AIzaSyDummyKeyForDevelopment".equals(googleMapsApiKey)) {
-                return getCoordinatesFromGoogle(address);
-            }
+    private final GeocodingCache geocodingCache;
+    private final RestClient nominatimRestClient;
+    private final RestClient googleMapsRestClient;
 
+    private TokenBucket nominatimRateLimiter;
+    private CircuitBreaker googleCircuitBreaker;
+
+    @PostConstruct
+    void init() {
+        nominatimRateLimiter = new TokenBucket(nominatimPermitsPerSecond, 1);
+        googleCircuitBreaker = new CircuitBreaker("google-maps", googleFailureThreshold, googleOpenDuration);
+    }
+
+    @Override
+    public Coordinates getCoordinates(String address) {
+        return findCoordinates(address).orElseGet(() -> {
             log.warn("Failed to geocode address: {}. Using mock data.", address);
             return getMockCoordinates(address);
+        });
+    }
 
-        } catch (Exception e) {
-            log.error("Error geocoding address: {}", address, e);
-            return getMockCoordinates(address);
+    @Override
+    public Optional<Coordinates> findCoordinates(String address) {
+        if (useMock) {
+            return Optional.of(getMockCoordinates(address));
         }
-    }
 
-    private Coordinates getCoordinatesFromGoogle(String address) {
         try {
-            String url = UriComponentsBuilder
-                    .fromUriString("https://maps.googleapis.com/maps/api/geocode/json")
-                    .queryParam("address", address)
-                    .queryParam("key", googleMapsApiKey)
-                    .toUriString();
-
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            if (response != null && "OK".equals(response.get("status"))) {
-                var results = (java.util.List<?>) response.get("results");
-                if (results != null && !results.isEmpty()) {
-                    var firstResult = (Map<String, Object>) results.get(0);
-                    var geometry = (Map<String, Object>) firstResult.get("geometry");
-                    var location = (Map<String, Object>) geometry.get("location");
-                    var formattedAddress = (String) firstResult.get("formatted_address");
-
-                    BigDecimal lat = new BigDecimal(location.get("lat").toString());
-                    BigDecimal lng = new BigDecimal(location.get("lng").toString());
-
-                    return new Coordinates(lat, lng, formattedAddress);
-                }
-            }
+            return geocodingCache.forward(address, this::resolveCoordinates)
+                    .map(result -> new Coordinates(result.latitude(), result.longitude(), result.formattedAddress()));
         } catch (Exception e) {
-            log.error("Google Maps fallback failed", e);
+            log.error("Error geocoding address: {}", address, e);
+            return Optional.empty();
         }
-        return getMockCoordinates(address);
     }
 
     @Override
@@ -110,35 +90,133 @@ public class GeocodingServiceImpl implements GeocodingService {
         }
 
         try {
-            // OpenStreetMap Nominatim Reverse Geocoding - FREE!
-            String url = UriComponentsBuilder
-                    .fromUriString("https://nominatim.openstreetmap.org/reverse")
-                    .queryParam("lat", latitude)
-                    .queryParam("lon", longitude)
-                    .queryParam("format", "json")
-                    .toUriString();
-
-            // Set User-Agent header
-            restTemplate.getInterceptors().clear();
-            restTemplate.getInterceptors().add((request, body, execution) -> {
-                request.getHeaders().add("User-Agent", "CarbonCreditApp/1.0 (Educational Project)");
-                return execution.execute(request, body);
-            });
-
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-
-            if (response != null && response.containsKey("display_name")) {
-                return (String) response.get("display_name");
-            }
-
-            return "Unknown location";
-
+            return geocodingCache.reverse(latitude, longitude, this::requestAddressFromNominatim)
+                    .map(GeocodingCache.Result::formattedAddress)
+                    .orElse("Unknown location");
         } catch (Exception e) {
             log.error("Error reverse geocoding: {}, {}", latitude, longitude, e);
             return "Unknown location";
         }
     }
 
+    /**
+     * Nominatim trước, không có kết quả (hoặc lỗi) thì thử Google nếu đã cấu hình key.
+     * Trả về null nếu không provider nào tìm được.
+     */
+    private GeocodingCache.Result resolveCoordinates(String address) {
+        try {
+            GeocodingCache.Result result = requestCoordinatesFromNominatim(address);
+            if (result != null) {
+                return result;
+            }
+        } catch (Exception e) {
+            log.warn("Nominatim geocoding failed for '{}': {}", address, e.getMessage());
+        }
+
+        // Fallback to Google Maps if configured and OSM fails
+        if (DUMMY_GOOGLE_KEY.equals(googleMapsApiKey)) {
+            return null;
+        }
+        try {
+            return googleCircuitBreaker.call(() -> requestCoordinatesFromGoogle(address));
+        } catch (Exception e) {
+            log.warn("Google Maps fallback failed for '{}': {}", address, e.getMessage());
+            return null;
+        }
+    }
+
+    private GeocodingCache.Result requestCoordinatesFromNominatim(String address) {
+        // Use OpenStreetMap Nominatim Geocoding - FREE! (User-Agent gắn sẵn ở client)
+        URI uri = UriComponentsBuilder
+                .fromUriString("https://nominatim.openstreetmap.org/search")
+                .queryParam("q", address)
+                .queryParam("format", "json")
+                .queryParam("limit", 1)
+                .encode()
+                .build()
+                .toUri();
+
+        acquireNominatimPermit();
+        List<Map<String, Object>> response = nominatimRestClient.get().uri(uri).retrieve().body(List.class);
+
+        if (response != null && !response.isEmpty()) {
+            Map<String, Object> firstResult = response.get(0);
+            BigDecimal lat = new BigDecimal(firstResult.get("lat").toString());
+            BigDecimal lng = new BigDecimal(firstResult.get("lon").toString());
+            String formattedAddress = (String) firstResult.get("display_name");
+
+            log.info("Geocoded address '{}' to coordinates: {}, {}", address, lat, lng);
+            return new GeocodingCache.Result(lat, lng, formattedAddress, "nominatim");
+        }
+        return null;
+    }
+
+    /**
+     * ZERO_RESULTS là trả lời hợp lệ (null); các status lỗi khác ném exception để breaker đếm
+     */
+    private GeocodingCache.Result requestCoordinatesFromGoogle(String address) {
+        URI uri = UriComponentsBuilder
+                .fromUriString("https://maps.googleapis.com/maps/api/geocode/json")
+                .queryParam("address", address)
+                .queryParam("key", googleMapsApiKey)
+                .encode()
+                .build()
+                .toUri();
+
+        Map<String, Object> response = googleMapsRestClient.get().uri(uri).retrieve().body(Map.class);
+        String status = response != null ? (String) response.get("status") : null;
+        if ("ZERO_RESULTS".equals(status)) {
+            return null;
+        }
+        if (!"OK".equals(status)) {
+            throw new IllegalStateException("Google Maps geocoding returned status " + status);
+        }
+
+        var results = (List<?>) response.get("results");
+        if (results == null || results.isEmpty()) {
+            return null;
+        }
+        var firstResult = (Map<String, Object>) results.get(0);
+        var geometry = (Map<String, Object>) firstResult.get("geometry");
+        var location = (Map<String, Object>) geometry.get("location");
+        var formattedAddress = (String) firstResult.get("formatted_address");
+
+        BigDecimal lat = new BigDecimal(location.get("lat").toString());
+        BigDecimal lng = new BigDecimal(location.get("lng").toString());
+
+        log.info("Geocoded address '{}' via Google Maps: {}, {}", address, lat, lng);
+        return new GeocodingCache.Result(lat, lng, formattedAddress, "google-maps");
+    }
+
+    private GeocodingCache.Result requestAddressFromNominatim(BigDecimal latitude, BigDecimal longitude) {
+        // OpenStreetMap Nominatim Reverse Geocoding - FREE!
+        URI uri = UriComponentsBuilder
+                .fromUriString("https://nominatim.openstreetmap.org/reverse")
+                .queryParam("lat", latitude)
+                .queryParam("lon", longitude)
+                .queryParam("format", "json")
+                .encode()
+                .build()
+                .toUri();
+
+        acquireNominatimPermit();
+        Map<String, Object> response = nominatimRestClient.get().uri(uri).retrieve().body(Map.class);
+
+        if (response != null && response.containsKey("display_name")) {
+            return new GeocodingCache.Result(latitude, longitude, (String) response.get("display_name"), "nominatim");
+        }
+        return null;
+    }
+
+    private void acquireNominatimPermit() {
+        try {
+            nominatimRateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Nominatim rate limit", e);
+        }
+    }
+
     /**
      * Mock data for development/testing
      */
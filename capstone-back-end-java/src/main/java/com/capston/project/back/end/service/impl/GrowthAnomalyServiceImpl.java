@@ -0,0 +1,328 @@
+package com.capston.project.back.end.service.impl;
+
+import com.capston.project.back.end.entity.GrowthAnomaly;
+import com.capston.project.back.end.entity.GrowthAnomalyState;
+import com.capston.project.back.end.event.GrowthRecordSavedEvent;
+import com.capston.project.back.end.exception.ResourceNotFoundException;
+import com.capston.project.back.end.repository.GrowthAnomalyRepository;
+import com.capston.project.back.end.repository.GrowthAnomalyStateRepository;
+import com.capston.project.back.end.service.GrowthAnomalyService;
+import com.capston.project.back.end.service.HealthAlertService;
+import com.capston.project.back.end.util.GrowthAnomalyDetector;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Trạng thái thống kê của lô ("B:id") và loài ("S:id") nằm trong LRU, nạp từ
+ * growth_anomaly_states khi thiếu và ghi lại định kỳ (growth-anomaly.flush-interval-ms)
+ * cùng lúc tắt ứng dụng. Entry bị đẩy khỏi LRU mà chưa ghi vẫn giữ trong dirty đến lần flush.
+ *
+ * Nhiều node: flush khoá các dòng (SELECT ... FOR UPDATE) và gộp phần node này cộng thêm
+ * từ lần đọc/ghi trước vào bản đang lưu (GrowthAnomalyDetector#merge) thay vì ghi đè, rồi
+ * dùng bản đã gộp trong bộ nhớ. Giữa hai lần flush mỗi node vẫn phát hiện trên thống kê của
+ * riêng mình, nên bản ghi của cùng lô vào hai node trong khoảng đó có thể so với mốc cũ.
+ *
+ * Phát hiện chạy đồng bộ trên thread commit; lưu bất thường và gửi cảnh báo chạy trên
+ * healthAlertExecutor.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GrowthAnomalyServiceImpl implements GrowthAnomalyService {
+
+	private static final String BATCH_PREFIX = "B:";
+	private static final String SPECIES_PREFIX = "S:";
+
+	private final GrowthAnomalyRepository anomalyRepository;
+	private final GrowthAnomalyStateRepository stateRepository;
+	private final HealthAlertService healthAlertService;
+	private final ThreadPoolTaskExecutor healthAlertExecutor;
+	private final TransactionTemplate transactionTemplate;
+
+	@Value("${growth-anomaly.enabled:true}")
+	private boolean enabled;
+
+	@Value("${growth-anomaly.z-threshold:4.0}")
+	private double zThreshold;
+
+	@Value("${growth-anomaly.min-samples:5}")
+	private int minSamples;
+
+	@Value("${growth-anomaly.ewma-alpha:0.3}")
+	private double ewmaAlpha;
+
+	@Value("${growth-anomaly.stagnation-ratio:0.25}")
+	private double stagnationRatio;
+
+	@Value("${growth-anomaly.die-off-min-percent:2.0}")
+	private double dieOffMinPercent;
+
+	@Value("${growth-anomaly.max-cached-states:20000}")
+	private int maxCachedStates;
+
+	private GrowthAnomalyDetector detector;
+
+	// Truy cập trong synchronized(states)
+	private final LinkedHashMap<String, double[]> states = new LinkedHashMap<>(256, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, double[]> eldest) {
+			return size() > maxCachedStates;
+		}
+	};
+	private final Map<String, double[]> dirty = new HashMap<>();
+	// State của các key trong dirty tại lần đọc/ghi DB gần nhất, để flush chỉ gộp phần chênh
+	private final Map<String, double[]> baselines = new HashMap<>();
+
+	private final AtomicLong recordsProcessed = new AtomicLong();
+	private final AtomicLong detectNanos = new AtomicLong();
+	private final AtomicLong stateLoads = new AtomicLong();
+	private final AtomicLong anomaliesDetected = new AtomicLong();
+	private final AtomicLong statesFlushed = new AtomicLong();
+
+	@PostConstruct
+	void init() {
+		detector = new GrowthAnomalyDetector(zThreshold, minSamples, ewmaAlpha, stagnationRatio,
+				dieOffMinPercent / 100.0);
+	}
+
+	@Override
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onGrowthRecordSaved(GrowthRecordSavedEvent event) {
+		// Sửa bản ghi không đổi thống kê (detector cũng bỏ qua bản ghi không mới hơn)
+		if (!enabled || !event.created()) {
+			return;
+		}
+		List<GrowthAnomalyDetector.Anomaly> anomalies = detect(event);
+		recordsProcessed.incrementAndGet();
+
+		if (!anomalies.isEmpty()) {
+			anomaliesDetected.addAndGet(anomalies.size());
+			healthAlertExecutor.execute(() -> record(event, anomalies));
+		}
+	}
+
+	@Override
+	public List<GrowthAnomaly> getUnresolvedAnomalies(Integer batchId) {
+		return anomalyRepository.findByBatchIdAndResolvedAtIsNullOrderByDetectedAtDesc(batchId);
+	}
+
+	@Override
+	public GrowthAnomaly resolveAnomaly(Long anomalyId, UUID resolvedBy) {
+		GrowthAnomaly anomaly = anomalyRepository.findById(anomalyId)
+				.orElseThrow(() -> new ResourceNotFoundException("GrowthAnomaly", "id", anomalyId));
+		if (anomaly.getResolvedAt() != null) {
+			throw new IllegalStateException("Growth anomaly " + anomalyId + " is already resolved");
+		}
+		anomaly.setResolvedAt(OffsetDateTime.now());
+		anomaly.setResolvedBy(resolvedBy);
+		return anomalyRepository.save(anomaly);
+	}
+
+	@Override
+	@Scheduled(fixedDelayString = "${growth-anomaly.flush-interval-ms:30000}")
+	public void flushState() {
+		Map<String, double[]> snapshot;
+		Map<String, double[]> snapshotBaselines;
+		synchronized (states) {
+			if (dirty.isEmpty()) {
+				return;
+			}
+			snapshot = new HashMap<>(dirty.size());
+			dirty.forEach((key, state) -> snapshot.put(key, state.clone()));
+			snapshotBaselines = new HashMap<>(baselines);
+			dirty.clear();
+			baselines.clear();
+		}
+
+		Map<String, double[]> merged;
+		try {
+			merged = transactionTemplate.execute(status -> write(snapshot, snapshotBaselines));
+			statesFlushed.addAndGet(snapshot.size());
+		} catch (RuntimeException e) {
+			// Giữ lại để lần sau ghi; trạng thái mới hơn (nếu có) không bị ghi đè, mốc vẫn là bản cũ
+			synchronized (states) {
+				snapshot.forEach(dirty::putIfAbsent);
+				baselines.putAll(snapshotBaselines);
+			}
+			log.warn("Failed to flush {} growth anomaly states: {}", snapshot.size(), e.getMessage());
+			return;
+		}
+
+		synchronized (states) {
+			merged.forEach((key, state) -> {
+				if (dirty.containsKey(key)) {
+					// Đã cập nhật tiếp sau snapshot: lần sau chỉ gộp phần sau snapshot
+					baselines.put(key, snapshot.get(key));
+				} else if (states.containsKey(key)) {
+					states.put(key, state);
+				}
+			});
+		}
+	}
+	@PreDestroy
+	void shutdown() {
+		flushState();
+	}
+
+	@Override
+	public Map<String, Object> getStats() {
+		long processed = recordsProcessed.get();
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("recordsProcessed", processed);
+		stats.put("avgDetectNanos", processed > 0 ? detectNanos.get() / processed : 0);
+		stats.put("anomaliesDetected", anomaliesDetected.get());
+		stats.put("stateLoads", stateLoads.get());
+		stats.put("statesFlushed", statesFlushed.get());
+		synchronized (states) {
+			stats.put("cachedStates", states.size());
+			stats.put("dirtyStates", dirty.size());
+		}
+		return stats;
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private List<GrowthAnomalyDetector.Anomaly> detect(GrowthRecordSavedEvent event) {
+		String batchKey = BATCH_PREFIX + event.batchId();
+		String speciesKey = event.treeSpeciesId() != null ? SPECIES_PREFIX + event.treeSpeciesId() : null;
+		while (true) {
+			// Đọc DB ngoài lock để một lần load chậm không chặn các record của lô khác
+			double[] loadedBatch = loadIfAbsent(batchKey, true);
+			double[] loadedSpecies = speciesKey != null ? loadIfAbsent(speciesKey, false) : null;
+			synchronized (states) {
+				double[] batch = state(batchKey, loadedBatch);
+				double[] species = speciesKey != null ? state(speciesKey, loadedSpecies) : detector.newSpeciesState();
+				if (batch == null || species == null) {
+					// Bị đẩy khỏi LRU và đã flush giữa lúc kiểm tra và lúc lấy lock: nạp lại
+					continue;
+				}
+
+				if (!dirty.containsKey(batchKey)) {
+					baselines.put(batchKey, batch.clone());
+				}
+				if (speciesKey != null && !dirty.containsKey(speciesKey)) {
+					baselines.put(speciesKey, species.clone());
+				}
+				long started = System.nanoTime();
+				List<GrowthAnomalyDetector.Anomaly> anomalies = detector.accept(batch, species,
+						event.recordedDate().toEpochDay(), value(event.avgHeightCm()),
+						value(event.avgTrunkDiameterCm()), value(event.avgCanopyDiameterCm()),
+						event.quantityAlive() != null ? event.quantityAlive() : Double.NaN);
+				detectNanos.addAndGet(System.nanoTime() - started);
+
+				dirty.put(batchKey, batch);
+				if (speciesKey != null) {
+					dirty.put(speciesKey, species);
+				}
+				return anomalies;
+			}
+		}
+	}
+
+	// Null khi state đã có trong bộ nhớ
+	private double[] loadIfAbsent(String key, boolean batch) {
+		synchronized (states) {
+			if (states.containsKey(key) || dirty.containsKey(key)) {
+				return null;
+			}
+		}
+		stateLoads.incrementAndGet();
+		int size = batch ? GrowthAnomalyDetector.BATCH_STATE_SIZE : GrowthAnomalyDetector.SPECIES_STATE_SIZE;
+		return stateRepository.findById(key)
+				.map(GrowthAnomalyState::getState)
+				.filter(loaded -> loaded.length == size)
+				.orElseGet(() -> batch ? detector.newBatchState() : detector.newSpeciesState());
+	}
+
+	// Gọi trong synchronized(states). State trong bộ nhớ (thread khác có thể vừa nạp và cập nhật)
+	// được ưu tiên hơn bản vừa đọc từ DB
+	private double[] state(String key, double[] loaded) {
+		double[] state = states.get(key);
+		if (state == null) {
+			state = dirty.get(key);
+		}
+		if (state == null) {
+			state = loaded;
+		}
+		if (state != null) {
+			states.put(key, state);
+		}
+		return state;
+	}
+
+	// Gộp từng key vào dòng đang lưu (đã khoá theo thứ tự key để hai node không deadlock)
+	private Map<String, double[]> write(Map<String, double[]> snapshot, Map<String, double[]> snapshotBaselines) {
+		Map<String, GrowthAnomalyState> stored = new HashMap<>();
+		for (GrowthAnomalyState row : stateRepository.findAllForUpdate(new TreeSet<>(snapshot.keySet()))) {
+			stored.put(row.getStateKey(), row);
+		}
+
+		OffsetDateTime now = OffsetDateTime.now();
+		Map<String, double[]> merged = new HashMap<>(snapshot.size());
+		List<GrowthAnomalyState> rows = new ArrayList<>(snapshot.size());
+		snapshot.forEach((key, state) -> {
+			GrowthAnomalyState row = stored.get(key);
+			double[] baseline = snapshotBaselines.get(key);
+			double[] value = baseline == null
+					? state
+					: detector.merge(row != null ? row.getState() : null, baseline, state);
+			merged.put(key, value);
+			rows.add(GrowthAnomalyState.builder()
+					.stateKey(key)
+					.state(value)
+					.updatedAt(now)
+					.build());
+		});
+		stateRepository.saveAll(rows);
+		return merged;
+	}
+
+	private void record(GrowthRecordSavedEvent event, List<GrowthAnomalyDetector.Anomaly> anomalies) {
+		try {
+			List<GrowthAnomaly> entities = new ArrayList<>(anomalies.size());
+			for (GrowthAnomalyDetector.Anomaly anomaly : anomalies) {
+				entities.add(GrowthAnomaly.builder()
+						.recordId(event.recordId())
+						.batchId(event.batchId())
+						.metric(anomaly.metric())
+						.anomalyKind(anomaly.kind())
+						.observed(anomaly.observed())
+						.expected(finite(anomaly.expected()))
+						.zScore(finite(anomaly.zScore()))
+						.build());
+			}
+			List<GrowthAnomaly> saved = anomalyRepository.saveAll(entities);
+			log.info("Batch {}: {} growth anomalies on record {}", event.batchId(), saved.size(), event.recordId());
+			healthAlertService.notifyGrowthAnomalies(event.batchId(), saved);
+		} catch (Exception e) {
+			log.error("Failed to record growth anomalies for batch {}: {}", event.batchId(), e.getMessage());
+		}
+	}
+
+	private static double value(BigDecimal measurement) {
+		return measurement != null ? measurement.doubleValue() : Double.NaN;
+	}
+
+	private static Double finite(double value) {
+		return Double.isFinite(value) ? value : null;
+	}
+}
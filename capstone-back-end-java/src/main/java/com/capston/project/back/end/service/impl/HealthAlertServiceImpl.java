@@ -0,0 +1,258 @@
+package com.capston.project.back.end.service.impl;
+
+import com.capston.project.back.end.common.HealthStatus;
+import com.capston.project.back.end.common.NotificationType;
+import com.capston.project.back.end.common.ReferenceType;
+import com.capston.project.back.end.entity.GrowthAnomaly;
+import com.capston.project.back.end.entity.Notification;
+import com.capston.project.back.end.event.BatchMortalitySpikeEvent;
+import com.capston.project.back.end.event.GrowthRecordSavedEvent;
+import com.capston.project.back.end.repository.TreeBatchRepository;
+import com.capston.project.back.end.repository.projection.BatchAlertRecipientsRow;
+import com.capston.project.back.end.service.ApprovalWebSocketService;
+import com.capston.project.back.end.service.HealthAlertService;
+import com.capston.project.back.end.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Luật cảnh báo (health-alert.rules.*), mỗi luật O(1) trên một sự kiện:
+ * - status-change: tình trạng xấu đi so với trước (HEALTHY → STRESSED → DISEASED)
+ * - mortality: BatchMortalitySpikeEvent, ngưỡng % kiểm tra ở nơi phát sự kiện
+ * - height-decline: chiều cao trung bình giảm liên tiếp N bản ghi, tổng giảm ≥ X%;
+ *   chỉ giữ bản ghi cuối và chuỗi giảm hiện tại của mỗi lô (LRU, mất khi restart)
+ * - growth-anomaly: bất thường thống kê do GrowthAnomalyService gửi sang
+ *
+ * Luật chạy trên thread commit; tra người nhận và lưu notification chạy trên
+ * healthAlertExecutor để không kéo dài request.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HealthAlertServiceImpl implements HealthAlertService {
+
+	private final TreeBatchRepository treeBatchRepository;
+	private final NotificationService notificationService;
+	private final ApprovalWebSocketService webSocketService;
+	private final ThreadPoolTaskExecutor healthAlertExecutor;
+
+	@Value("${health-alert.rules.status-change.enabled:true}")
+	private boolean statusChangeEnabled;
+
+	@Value("${health-alert.rules.height-decline.enabled:true}")
+	private boolean heightDeclineEnabled;
+
+	@Value("${health-alert.rules.height-decline.consecutive-records:3}")
+	private int declineRecords;
+
+	@Value("${health-alert.rules.height-decline.min-percent:5.0}")
+	private double declineMinPercent;
+
+	@Value("${health-alert.rules.max-tracked-batches:10000}")
+	private int maxTrackedBatches;
+
+	private final LinkedHashMap<Integer, HeightTrend> heightTrends = new LinkedHashMap<>(256, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, HeightTrend> eldest) {
+			return size() > maxTrackedBatches;
+		}
+	};
+
+	@Override
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onGrowthRecordSaved(GrowthRecordSavedEvent event) {
+		if (statusChangeEnabled && rank(event.healthStatus()) > rank(event.previousStatus())) {
+			String detail = String.format("Tình trạng chuyển từ %s sang %s. Ghi nhận ngày: %s.%s",
+					event.previousStatus() != null ? event.previousStatus() : HealthStatus.HEALTHY,
+					event.healthStatus(), event.recordedDate(),
+					event.healthNotes() != null ? " Ghi chú: " + event.healthNotes() : "");
+			Map<String, Object> metadata = new HashMap<>();
+			metadata.put("rule", "STATUS_CHANGE");
+			metadata.put("previousStatus", event.previousStatus());
+			metadata.put("healthStatus", event.healthStatus());
+			metadata.put("recordedDate", event.recordedDate().toString());
+			deliver(event.batchId(), event.healthStatus().name(), statusTitle(event.healthStatus()), detail, metadata);
+		}
+
+		if (heightDeclineEnabled && event.avgHeightCm() != null) {
+			Double declinePercent = trackHeight(event.batchId(), event.recordedDate(),
+					event.avgHeightCm().doubleValue());
+			if (declinePercent != null) {
+				String detail = String.format("Chiều cao trung bình giảm %d lần liên tiếp, tổng %.1f%% (còn %s cm).",
+						declineRecords, declinePercent, event.avgHeightCm());
+				Map<String, Object> metadata = new HashMap<>();
+				metadata.put("rule", "HEIGHT_DECLINE");
+				metadata.put("declinePercent", declinePercent);
+				metadata.put("avgHeightCm", event.avgHeightCm());
+				metadata.put("recordedDate", event.recordedDate().toString());
+				deliver(event.batchId(), "HEIGHT_DECLINE", "⚠️ Cảnh báo: Lô cây chậm phát triển", detail, metadata);
+			}
+		}
+	}
+
+	@Override
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onMortalitySpike(BatchMortalitySpikeEvent event) {
+		String detail = String.format("%d cây chết (%.1f%% của tổng số cây trồng)",
+				event.newDeaths(), event.mortalityPercent());
+		Map<String, Object> metadata = new HashMap<>();
+		metadata.put("rule", "HIGH_MORTALITY");
+		metadata.put("newDeaths", event.newDeaths());
+		metadata.put("quantityPlanted", event.quantityPlanted());
+		metadata.put("mortalityPercent", event.mortalityPercent());
+		deliver(event.batchId(), "HIGH_MORTALITY", "🚨 Cảnh báo: Lô cây chết nhiều", detail, metadata);
+	}
+
+	@Override
+	public void notifyGrowthAnomalies(Integer batchId, List<GrowthAnomaly> anomalies) {
+		StringBuilder detail = new StringBuilder("Số đo bất thường:");
+		List<Map<String, Object>> items = new ArrayList<>(anomalies.size());
+		for (GrowthAnomaly anomaly : anomalies) {
+			detail.append(String.format(" %s %s (%.4f/ngày, kỳ vọng %s);", anomaly.getMetric(), anomaly.getAnomalyKind(),
+					anomaly.getObserved(), anomaly.getExpected() != null ? String.format("%.4f", anomaly.getExpected()) : "?"));
+			Map<String, Object> item = new HashMap<>();
+			item.put("anomalyId", anomaly.getId());
+			item.put("metric", anomaly.getMetric());
+			item.put("kind", anomaly.getAnomalyKind());
+			items.add(item);
+		}
+		Map<String, Object> metadata = new HashMap<>();
+		metadata.put("rule", "GROWTH_ANOMALY");
+		metadata.put("recordId", anomalies.getFirst().getRecordId());
+		metadata.put("anomalies", items);
+		deliver(batchId, "GROWTH_ANOMALY", "⚠️ Cảnh báo: Số đo sinh trưởng bất thường", detail.toString(), metadata);
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	/**
+	 * Gửi cho chủ farm và quản lý dự án (một notification mỗi người), admin qua /topic/alerts
+	 */
+	private void deliver(Integer batchId, String status, String title, String detail, Map<String, Object> metadata) {
+		healthAlertExecutor.execute(() -> {
+			try {
+				BatchAlertRecipientsRow batch = treeBatchRepository.findAlertRecipients(batchId).orElse(null);
+				if (batch == null) {
+					return;
+				}
+				metadata.put("batchId", batchId);
+				metadata.put("batchCode", batch.getBatchCode());
+				metadata.put("farmId", batch.getFarmId());
+
+				Set<UUID> recipients = new LinkedHashSet<>();
+				if (batch.getOwnerId() != null) {
+					recipients.add(batch.getOwnerId());
+				}
+				if (batch.getManagerId() != null) {
+					recipients.add(batch.getManagerId());
+				}
+				String message = "Lô cây " + batch.getBatchCode() + " tại Farm #" + batch.getFarmId() + ": " + detail;
+				List<Notification> notifications = new ArrayList<>(recipients.size());
+				for (UUID userId : recipients) {
+					notifications.add(Notification.builder()
+							.userId(userId)
+							.title(title)
+							.message(message)
+							.notificationType(NotificationType.HEALTH_ALERT)
+							.referenceType(ReferenceType.TREE_BATCH)
+							.referenceId(batchId)
+							.metadata(metadata)
+							.build());
+				}
+				notificationService.createAndSendAll(notifications);
+				webSocketService.broadcastTreeHealthAlert(batchId, batch.getBatchCode(), status, detail);
+			} catch (Exception e) {
+				log.error("Failed to deliver {} alert for batch {}: {}", status, batchId, e.getMessage());
+			}
+		});
+	}
+
+	// Trả về % giảm khi chuỗi giảm vừa đủ điều kiện cảnh báo, ngược lại null
+	private Double trackHeight(Integer batchId, LocalDate recordedDate, double height) {
+		synchronized (heightTrends) {
+			HeightTrend trend = heightTrends.get(batchId);
+			if (trend == null) {
+				heightTrends.put(batchId, new HeightTrend(recordedDate, height));
+				return null;
+			}
+			return trend.accept(recordedDate, height, declineRecords, declineMinPercent);
+		}
+	}
+
+	private static int rank(HealthStatus status) {
+		if (status == HealthStatus.DISEASED) {
+			return 2;
+		}
+		return status == HealthStatus.STRESSED ? 1 : 0;
+	}
+
+	private static String statusTitle(HealthStatus status) {
+		return status == HealthStatus.DISEASED
+				? "🚨 Cảnh báo: Lô cây bị bệnh"
+				: "⚠️ Cảnh báo: Lô cây có dấu hiệu stress";
+	}
+
+	/**
+	 * Bản ghi cuối và chuỗi giảm hiện tại của một lô; truy cập trong synchronized(heightTrends)
+	 */
+	private static final class HeightTrend {
+
+		private LocalDate lastDate;
+		private double lastHeight;
+		private int declines;
+		private double streakStart;
+		private boolean alerted;
+
+		private HeightTrend(LocalDate lastDate, double lastHeight) {
+			this.lastDate = lastDate;
+			this.lastHeight = lastHeight;
+		}
+
+		private Double accept(LocalDate date, double height, int minDeclines, double minPercent) {
+			if (date.isBefore(lastDate)) {
+				// Sửa/nhập bù bản ghi cũ: không ảnh hưởng xu hướng hiện tại
+				return null;
+			}
+			if (date.isEqual(lastDate)) {
+				// Sửa bản ghi mới nhất: chỉ thay giá trị
+				lastHeight = height;
+				return null;
+			}
+
+			if (height < lastHeight) {
+				if (declines == 0) {
+					streakStart = lastHeight;
+					alerted = false;
+				}
+				declines++;
+			} else {
+				declines = 0;
+			}
+			lastDate = date;
+			lastHeight = height;
+
+			if (declines >= minDeclines && !alerted && streakStart > 0) {
+				double percent = (streakStart - height) * 100.0 / streakStart;
+				if (percent >= minPercent) {
+					alerted = true;
+					return percent;
+				}
+			}
+			return null;
+		}
+	}
+}
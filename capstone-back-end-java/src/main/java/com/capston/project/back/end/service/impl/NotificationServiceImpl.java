@@ -5,14 +5,17 @@ import com.capston.project.back.end.common.ReferenceType;
 import com.capston.project.back.end.entity.Notification;
 import com.capston.project.back.end.repository.NotificationRepository;
 import com.capston.project.back.end.repository.UserRepository;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.util.SecurityUtils;
 import com.capston.project.back.end.response.NotificationResponse;
 import com.capston.project.back.end.service.NotificationService;
+import com.capston.project.back.end.service.WebSocketDeliveryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,7 +32,7 @@ public class NotificationServiceImpl implements NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketDeliveryService deliveryService;
     private final SecurityUtils securityUtils;
 
     @Override
@@ -73,6 +76,19 @@ public class NotificationServiceImpl implements NotificationService {
         sendToMultipleUsers(adminIds, title, message, type, refType, refId);
     }
 
+    @Override
+    public int createAndSendAll(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return 0;
+        }
+        List<Notification> saved = notificationRepository.saveAll(notifications);
+        for (Notification notification : saved) {
+            sendWebSocketNotification(notification.getUserId(), mapToResponse(notification));
+        }
+        log.info("Created {} notifications in bulk", saved.size());
+        return saved.size();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<NotificationResponse> getByUserId(UUID userId, Pageable pageable) {
@@ -80,6 +96,14 @@ public class NotificationServiceImpl implements NotificationService {
                 .map(this::mapToResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<NotificationResponse> getByUserId(UUID userId, KeysetPageRequest request) {
+        Specification<Notification> ofUser = (root, query, cb) -> cb.equal(root.get("userId"), userId);
+        return notificationRepository.findAll(ofUser, request)
+                .map(this::mapToResponse);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<NotificationResponse> getUnreadByUserId(UUID userId) {
@@ -135,10 +159,7 @@ public class NotificationServiceImpl implements NotificationService {
     private void sendWebSocketNotification(UUID userId, NotificationResponse notification) {
         try {
             // Send to user-specific queue
-            messagingTemplate.convertAndSendToUser(
-                    userId.toString(),
-                    "/queue/notifications",
-                    notification);
+            deliveryService.sendToUser(userId, "/queue/notifications", notification);
             log.debug("WebSocket notification sent to user: {}", userId);
         } catch (Exception e) {
             log.error("Failed to send WebSocket notification: {}", e.getMessage());
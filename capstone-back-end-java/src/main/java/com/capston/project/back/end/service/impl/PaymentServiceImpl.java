@@ -3,16 +3,21 @@ package com.capston.project.back.end.service.impl;
 import com.capston.project.back.end.config.payment.VNPayConfig;
 import com.capston.project.back.end.entity.Payment;
 import com.capston.project.back.end.entity.User;
+import com.capston.project.back.end.event.PaymentCompletedEvent;
 import com.capston.project.back.end.repository.PaymentRepository;
 import com.capston.project.back.end.repository.UserRepository;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.request.VNPayRequest;
 import com.capston.project.back.end.response.VNPayResponse;
 import com.capston.project.back.end.service.PaymentService;
 import com.capston.project.back.end.service.VNPayService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,13 +33,16 @@ public class PaymentServiceImpl implements PaymentService {
     private final PaymentRepository paymentRepository;
     private final VNPayService vnPayService;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PaymentServiceImpl(PaymentRepository paymentRepository,
             @Qualifier("vnPayService") VNPayService vnPayService,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.paymentRepository = paymentRepository;
         this.vnPayService = vnPayService;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -81,11 +89,16 @@ public class PaymentServiceImpl implements PaymentService {
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
 
+        boolean wasCompleted = payment.getPaymentStatus() == com.capston.project.back.end.common.PaymentStatus.COMPLETED;
         payment.setPaymentStatus(com.capston.project.back.end.common.PaymentStatus.COMPLETED);
         payment.setCompletedAt(java.time.OffsetDateTime.now());
         payment.setPaymentDate(java.time.OffsetDateTime.now());
 
-        return paymentRepository.save(payment);
+        Payment saved = paymentRepository.save(payment);
+        if (!wasCompleted) {
+            eventPublisher.publishEvent(new PaymentCompletedEvent(saved.getId(), saved.getAmount()));
+        }
+        return saved;
     }
 
     public Page<Payment> getMyPayments(Pageable pageable) {
@@ -94,4 +107,13 @@ public class PaymentServiceImpl implements PaymentService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return paymentRepository.findByPayerIdOrderByCreatedAtDesc(user.getId(), pageable);
     }
+
+    @Override
+    public KeysetPage<Payment> getMyPayments(KeysetPageRequest request) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Specification<Payment> ofPayer = (root, query, cb) -> cb.equal(root.get("payerId"), user.getId());
+        return paymentRepository.findAll(ofPayer, request);
+    }
 }
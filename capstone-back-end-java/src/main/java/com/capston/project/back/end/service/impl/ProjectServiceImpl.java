@@ -5,8 +5,10 @@ import com.capston.project.back.end.common.ProjectStatus;
 import com.capston.project.back.end.entity.Project;
 import com.capston.project.back.end.entity.ProjectPartner;
 import com.capston.project.back.end.entity.ProjectPhase;
+import com.capston.project.back.end.event.ProjectStatusChangedEvent;
 import com.capston.project.back.end.exception.DuplicateResourceException;
 import com.capston.project.back.end.exception.ResourceNotFoundException;
+import com.capston.project.back.end.mapper.MapperRegistry;
 import com.capston.project.back.end.repository.ProjectPartnerRepository;
 import com.capston.project.back.end.repository.ProjectPhaseRepository;
 import com.capston.project.back.end.request.ProjectPhaseRequest;
@@ -16,13 +18,14 @@ import com.capston.project.back.end.util.SecurityUtils;
 import com.capston.project.back.end.response.ProjectPhaseResponse;
 import com.capston.project.back.end.response.ProjectResponse;
 import com.capston.project.back.end.service.ProjectService;
+import com.capston.project.back.end.util.TextSearchIndex;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -37,15 +40,16 @@ public class ProjectServiceImpl implements ProjectService {
 	private final ProjectRepository projectRepository;
 	private final ProjectPhaseRepository projectPhaseRepository;
 	private final ProjectPartnerRepository projectPartnerRepository;
-	private final ModelMapper modelMapper;
+	private final MapperRegistry mapperRegistry;
 	private final SecurityUtils securityUtils;
+	private final ApplicationEventPublisher eventPublisher;
 
 	@Override
 	public ProjectResponse createProject(ProjectRequest request, UUID managerId) {
 		log.info("Creating new project: {}", request.getName());
 
 		// Tạo project entity
-		Project project = modelMapper.map(request, Project.class);
+		Project project = mapperRegistry.map(request, Project.class);
 
 		// Generate unique code
 		project.setCode(generateProjectCode());
@@ -72,6 +76,7 @@ public class ProjectServiceImpl implements ProjectService {
 		// Recalculate computed fields từ phases
 		savedProject.recalculateFromPhases();
 		savedProject = projectRepository.save(savedProject);
+		publishStatusChange(savedProject.getId(), null, savedProject.getProjectStatus());
 
 		log.info("Created project with code: {}", savedProject.getCode());
 		return mapToProjectResponse(savedProject);
@@ -104,6 +109,8 @@ public class ProjectServiceImpl implements ProjectService {
 					"You do not have permission to update this project");
 		}
 
+		ProjectStatus oldStatus = project.getProjectStatus();
+
 		// Update basic fields (không update computed fields)
 		if (request.getName() != null) {
 			project.setName(request.getName());
@@ -123,6 +130,7 @@ public class ProjectServiceImpl implements ProjectService {
 		// Recalculate và save
 		project.recalculateFromPhases();
 		Project savedProject = projectRepository.save(project);
+		publishStatusChange(id, oldStatus, savedProject.getProjectStatus());
 
 		log.info("Updated project with code: {}", savedProject.getCode());
 		return mapToProjectResponse(savedProject);
@@ -142,6 +150,7 @@ public class ProjectServiceImpl implements ProjectService {
 		}
 
 		projectRepository.deleteById(id);
+		publishStatusChange(id, project.getProjectStatus(), null);
 		log.info("Deleted project with id: {}", id);
 	}
 
@@ -194,11 +203,12 @@ public class ProjectServiceImpl implements ProjectService {
 
 	@Override
 	public Page<ProjectResponse> searchProjects(String keyword, Pageable pageable) {
+		String folded = TextSearchIndex.fold(keyword.trim());
 		if (securityUtils.isAdmin()) {
-			return projectRepository.searchByKeyword(keyword, pageable)
+			return projectRepository.searchByKeyword(folded, pageable)
 					.map(this::mapToProjectResponseWithoutPhases);
 		} else {
-			return projectRepository.searchByKeywordAndManager(keyword, securityUtils.getCurrentUserId(), pageable)
+			return projectRepository.searchByKeywordAndManager(folded, securityUtils.getCurrentUserId(), pageable)
 					.map(this::mapToProjectResponseWithoutPhases);
 		}
 	}
@@ -223,6 +233,7 @@ public class ProjectServiceImpl implements ProjectService {
 							request.getPhaseNumber(), projectId));
 		}
 
+		ProjectStatus oldStatus = project.getProjectStatus();
 		ProjectPhase phase = mapToPhaseEntity(request);
 		project.addPhase(phase);
 
@@ -230,6 +241,7 @@ public class ProjectServiceImpl implements ProjectService {
 		projectRepository.save(project);
 		project.recalculateFromPhases();
 		projectRepository.save(project);
+		publishStatusChange(projectId, oldStatus, project.getProjectStatus());
 
 		log.info("Added phase number {} to project {}", phase.getPhaseNumber(), projectId);
 
@@ -266,6 +278,8 @@ public class ProjectServiceImpl implements ProjectService {
 							request.getPhaseNumber(), projectId));
 		}
 
+		ProjectStatus oldStatus = project.getProjectStatus();
+
 		// Update fields
 		updatePhaseFromRequest(phase, request);
 
@@ -275,6 +289,7 @@ public class ProjectServiceImpl implements ProjectService {
 		// Recalculate project
 		project.recalculateFromPhases();
 		projectRepository.save(project);
+		publishStatusChange(projectId, oldStatus, project.getProjectStatus());
 
 		log.info("Updated phase {} in project {}", phaseId, projectId);
 		return mapToPhaseResponse(phase);
@@ -301,12 +316,14 @@ public class ProjectServiceImpl implements ProjectService {
 			throw new IllegalArgumentException("Phase does not belong to this project");
 		}
 
+		ProjectStatus oldStatus = project.getProjectStatus();
 		project.removePhase(phase);
 		projectPhaseRepository.delete(phase);
 
 		// Recalculate project
 		project.recalculateFromPhases();
 		projectRepository.save(project);
+		publishStatusChange(projectId, oldStatus, project.getProjectStatus());
 
 		log.info("Deleted phase {} from project {}", phaseId, projectId);
 	}
@@ -362,6 +379,13 @@ public class ProjectServiceImpl implements ProjectService {
 		log.info("Completed recalculation of {} projects", projectIds.size());
 	}
 
+	// Dashboard metrics cập nhật counter theo trạng thái sau khi commit
+	private void publishStatusChange(Integer projectId, ProjectStatus oldStatus, ProjectStatus newStatus) {
+		if (oldStatus != newStatus) {
+			eventPublisher.publishEvent(new ProjectStatusChangedEvent(projectId, oldStatus, newStatus));
+		}
+	}
+
 	private String generateProjectCode() {
 		String prefix = "PRJ-";
 		String timestamp = String.valueOf(System.currentTimeMillis()).substring(6);
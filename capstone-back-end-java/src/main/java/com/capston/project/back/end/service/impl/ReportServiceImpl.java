@@ -1,137 +1,404 @@
 package com.capston.project.back.end.service.impl;
 
+import com.capston.project.back.end.cache.ReportCache;
 import com.capston.project.back.end.repository.CarbonCreditRepository;
-import com.capston.project.back.end.repository.FarmRepository;
-import com.capston.project.back.end.repository.ProjectRepository;
+import com.capston.project.back.end.repository.CreditTransactionRepository;
 import com.capston.project.back.end.repository.TreeGrowthRecordRepository;
+import com.capston.project.back.end.repository.projection.*;
 import com.capston.project.back.end.response.dashboard.Co2ReportResponse;
 import com.capston.project.back.end.response.dashboard.CreditReportResponse;
+import com.capston.project.back.end.response.dashboard.MonthlyDataResponse;
 import com.capston.project.back.end.response.dashboard.ReportFilterRequest;
 import com.capston.project.back.end.response.dashboard.RevenueReportResponse;
 import com.capston.project.back.end.service.ReportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
+/**
+ * Report engine: mỗi section (theo dự án, farm, loại cây, tháng, năm...) là
+ * một câu aggregate GROUP BY trên DB, các section độc lập chạy song song trên
+ * reportExecutor. Kết quả được cache theo filter đã chuẩn hoá và tự hết hạn
+ * khi có ghi mới vào các bảng nguồn.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@Transactional(readOnly = true)
 public class ReportServiceImpl implements ReportService {
 
-	private final ProjectRepository projectRepository;
-	private final FarmRepository farmRepository;
-	private final CarbonCreditRepository creditRepository;
+	private static final int TOP_BUYERS_LIMIT = 10;
+	private static final BigDecimal HUNDRED = new BigDecimal(100);
+	private static final BigDecimal THOUSAND = new BigDecimal(1000);
+
 	private final TreeGrowthRecordRepository growthRecordRepository;
+	private final CarbonCreditRepository creditRepository;
+	private final CreditTransactionRepository transactionRepository;
+	private final ReportCache reportCache;
+	private final ThreadPoolTaskExecutor reportExecutor;
+
+	// ==================== CO2 REPORTS ====================
 
 	@Override
 	public Co2ReportResponse getCo2Report(ReportFilterRequest filter) {
 		log.info("Generating CO2 report with filter: {}", filter);
-
-		return Co2ReportResponse.builder()
-		                        .reportTitle("CO2 Absorption Report")
-		                        .reportDate(LocalDate.now())
-		                        .totalCo2AbsorbedKg(BigDecimal.ZERO)
-		                        .totalCo2AbsorbedTons(BigDecimal.ZERO)
-		                        .targetCo2Kg(BigDecimal.ZERO)
-		                        .completionPercentage(BigDecimal.ZERO)
-		                        .projectDetails(new ArrayList<>())
-		                        .farmDetails(new ArrayList<>())
-		                        .speciesDetails(new ArrayList<>())
-		                        .monthlyTrend(new ArrayList<>())
-		                        .build();
+		ReportFilterRequest f = orEmpty(filter);
+		return reportCache.get("co2|" + f.cacheKey(), () -> buildCo2Report("CO2 Absorption Report", f, true));
 	}
 
 	@Override
 	public Co2ReportResponse getCo2ReportByProject(Integer projectId, ReportFilterRequest filter) {
 		log.info("Generating CO2 report for project: {}", projectId);
-
-		return Co2ReportResponse.builder()
-		                        .reportTitle("Project CO2 Report")
-		                        .reportDate(LocalDate.now())
-		                        .totalCo2AbsorbedKg(BigDecimal.ZERO)
-		                        .totalCo2AbsorbedTons(BigDecimal.ZERO)
-		                        .targetCo2Kg(BigDecimal.ZERO)
-		                        .completionPercentage(BigDecimal.ZERO)
-		                        .projectDetails(new ArrayList<>())
-		                        .farmDetails(new ArrayList<>())
-		                        .speciesDetails(new ArrayList<>())
-		                        .monthlyTrend(new ArrayList<>())
-		                        .build();
+		ReportFilterRequest f = withProjects(orEmpty(filter), List.of(projectId));
+		return reportCache.get("co2-project|" + f.cacheKey(), () -> buildCo2Report("Project CO2 Report", f, true));
 	}
 
 	@Override
 	public Co2ReportResponse getCo2ReportByFarm(Integer farmId, ReportFilterRequest filter) {
 		log.info("Generating CO2 report for farm: {}", farmId);
+		ReportFilterRequest f = withFarms(orEmpty(filter), List.of(farmId));
+		return reportCache.get("co2-farm|" + f.cacheKey(), () -> buildCo2Report("Farm CO2 Report", f, false));
+	}
 
-		return Co2ReportResponse.builder()
-		                        .reportTitle("Farm CO2 Report")
-		                        .reportDate(LocalDate.now())
-		                        .totalCo2AbsorbedKg(BigDecimal.ZERO)
-		                        .totalCo2AbsorbedTons(BigDecimal.ZERO)
-		                        .targetCo2Kg(BigDecimal.ZERO)
-		                        .completionPercentage(BigDecimal.ZERO)
-		                        .farmDetails(new ArrayList<>())
-		                        .speciesDetails(new ArrayList<>())
-		                        .monthlyTrend(new ArrayList<>())
-		                        .build();
+	private Co2ReportResponse buildCo2Report(String title, ReportFilterRequest filter, boolean includeProjects) {
+		ReportScope s = ReportScope.of(filter);
+
+		CompletableFuture<List<ProjectCo2Row>> projectsFuture = includeProjects
+				? async(() -> growthRecordRepository.aggregateCo2ByProject(
+						s.from(), s.to(), s.allProjects(), s.projectIds(), s.allFarms(), s.farmIds()))
+				: CompletableFuture.completedFuture(List.of());
+		CompletableFuture<List<FarmCo2Row>> farmsFuture = async(() -> growthRecordRepository.aggregateCo2ByFarm(
+				s.from(), s.to(), s.allProjects(), s.projectIds(), s.allFarms(), s.farmIds()));
+		CompletableFuture<List<SpeciesCo2Row>> speciesFuture = async(() -> growthRecordRepository.aggregateCo2BySpecies(
+				s.from(), s.to(), s.allProjects(), s.projectIds(), s.allFarms(), s.farmIds()));
+		CompletableFuture<List<MonthlyValueRow>> monthlyFuture = async(() -> growthRecordRepository.aggregateMonthlyCo2(
+				s.from(), s.to(), s.allProjects(), s.projectIds(), s.allFarms(), s.farmIds()));
+
+		List<ProjectCo2Row> projects = join(projectsFuture);
+		List<FarmCo2Row> farms = join(farmsFuture);
+		List<SpeciesCo2Row> species = join(speciesFuture);
+		List<MonthlyValueRow> monthly = join(monthlyFuture);
+
+		// Farm rows phủ toàn bộ batch trong phạm vi (kể cả batch chưa gắn phase)
+		BigDecimal totalCo2Kg = farms.stream().map(FarmCo2Row::getCo2Absorbed)
+				.map(ReportServiceImpl::nz).reduce(BigDecimal.ZERO, BigDecimal::add);
+		BigDecimal targetCo2Kg = projects.stream().map(ProjectCo2Row::getTargetCo2)
+				.map(ReportServiceImpl::nz).reduce(BigDecimal.ZERO, BigDecimal::add);
+
+		Co2ReportResponse.Co2ReportResponseBuilder builder = Co2ReportResponse.builder()
+				.reportTitle(title)
+				.reportDate(LocalDate.now())
+				.fromDate(s.from())
+				.toDate(s.to())
+				.totalCo2AbsorbedKg(totalCo2Kg)
+				.totalCo2AbsorbedTons(totalCo2Kg.divide(THOUSAND, 2, RoundingMode.HALF_UP))
+				.targetCo2Kg(targetCo2Kg)
+				.completionPercentage(percentage(totalCo2Kg, targetCo2Kg))
+				.farmDetails(farms.stream().map(r -> Co2ReportResponse.FarmCo2Detail.builder()
+						.farmId(r.getFarmId())
+						.farmCode(r.getFarmCode())
+						.farmName(r.getFarmName())
+						.location(r.getLocation())
+						.co2Absorbed(nz(r.getCo2Absorbed()))
+						.totalTrees(r.getTotalTrees())
+						.aliveTrees(r.getAliveTrees())
+						.area(r.getArea())
+						.build()).toList())
+				.speciesDetails(species.stream().map(r -> Co2ReportResponse.SpeciesCo2Detail.builder()
+						.speciesId(r.getSpeciesId())
+						.speciesName(r.getSpeciesName())
+						.scientificName(r.getScientificName())
+						.carbonAbsorptionRate(r.getCarbonAbsorptionRate())
+						.totalTrees(r.getTotalTrees())
+						.totalCo2Absorbed(nz(r.getTotalCo2Absorbed()))
+						.percentage(percentage(r.getTotalCo2Absorbed(), totalCo2Kg))
+						.build()).toList())
+				.monthlyTrend(monthly.stream().map(r -> MonthlyDataResponse.builder()
+						.year(r.getYear())
+						.month(r.getMonth())
+						.monthName(monthName(r.getMonth()))
+						.value(nz(r.getValue()))
+						.count(r.getCount())
+						.build()).toList());
+
+		if (includeProjects) {
+			builder.projectDetails(projects.stream().map(r -> Co2ReportResponse.ProjectCo2Detail.builder()
+					.projectId(r.getProjectId())
+					.projectCode(r.getProjectCode())
+					.projectName(r.getProjectName())
+					.co2Absorbed(nz(r.getCo2Absorbed()))
+					.targetCo2(nz(r.getTargetCo2()))
+					.percentage(percentage(r.getCo2Absorbed(), r.getTargetCo2()))
+					.totalTrees(r.getTotalTrees())
+					.totalFarms(r.getTotalFarms())
+					.build()).toList());
+		}
+		return builder.build();
 	}
 
+	// ==================== REVENUE REPORTS ====================
+
 	@Override
 	public RevenueReportResponse getRevenueReport(ReportFilterRequest filter) {
 		log.info("Generating revenue report with filter: {}", filter);
-
-		return RevenueReportResponse.builder()
-		                            .reportTitle("Revenue Report")
-		                            .reportDate(LocalDate.now())
-		                            .totalRevenue(BigDecimal.ZERO)
-		                            .totalTransactions(0L)
-		                            .build();
+		ReportFilterRequest f = orEmpty(filter);
+		return reportCache.get("revenue|" + f.cacheKey(), () -> buildRevenueReport("Revenue Report", f));
 	}
 
 	@Override
 	public RevenueReportResponse getRevenueReportByProject(Integer projectId, ReportFilterRequest filter) {
 		log.info("Generating revenue report for project: {}", projectId);
+		ReportFilterRequest f = withProjects(orEmpty(filter), List.of(projectId));
+		return reportCache.get("revenue-project|" + f.cacheKey(), () -> buildRevenueReport("Project Revenue Report", f));
+	}
+
+	private RevenueReportResponse buildRevenueReport(String title, ReportFilterRequest filter) {
+		ReportScope s = ReportScope.of(filter);
+
+		CompletableFuture<List<ProjectRevenueRow>> projectsFuture = async(() -> transactionRepository
+				.aggregateRevenueByProject(s.from(), s.to(), s.allProjects(), s.projectIds(), s.allFarms(), s.farmIds()));
+		CompletableFuture<List<MonthlyRevenueRow>> monthlyFuture = async(() -> transactionRepository
+				.aggregateMonthlyRevenue(s.from(), s.to(), s.allProjects(), s.projectIds(), s.allFarms(), s.farmIds()));
+		CompletableFuture<List<TopBuyerRow>> buyersFuture = async(() -> transactionRepository.aggregateTopBuyers(
+				s.from(), s.to(), s.allProjects(), s.projectIds(), s.allFarms(), s.farmIds(), TOP_BUYERS_LIMIT));
+
+		List<ProjectRevenueRow> projects = join(projectsFuture);
+		List<MonthlyRevenueRow> monthly = join(monthlyFuture);
+		List<TopBuyerRow> buyers = join(buyersFuture);
+
+		BigDecimal creditRevenue = BigDecimal.ZERO;
+		BigDecimal contractRevenue = BigDecimal.ZERO;
+		long totalTransactions = 0;
+		for (MonthlyRevenueRow r : monthly) {
+			creditRevenue = creditRevenue.add(nz(r.getCreditRevenue()));
+			contractRevenue = contractRevenue.add(nz(r.getContractRevenue()));
+			totalTransactions += r.getTransactionCount() != null ? r.getTransactionCount() : 0;
+		}
 
 		return RevenueReportResponse.builder()
-		                            .reportTitle("Project Revenue Report")
-		                            .reportDate(LocalDate.now())
-		                            .totalRevenue(BigDecimal.ZERO)
-		                            .totalTransactions(0L)
-		                            .build();
+				.reportTitle(title)
+				.reportDate(LocalDate.now())
+				.fromDate(s.from())
+				.toDate(s.to())
+				.totalRevenue(creditRevenue.add(contractRevenue))
+				.creditSalesRevenue(creditRevenue)
+				.contractRevenue(contractRevenue)
+				.totalTransactions(totalTransactions)
+				.projectDetails(projects.stream().map(r -> RevenueReportResponse.ProjectRevenueDetail.builder()
+						.projectId(r.getProjectId())
+						.projectCode(r.getProjectCode())
+						.projectName(r.getProjectName())
+						.creditRevenue(nz(r.getCreditRevenue()))
+						.contractRevenue(nz(r.getContractRevenue()))
+						.totalRevenue(nz(r.getCreditRevenue()).add(nz(r.getContractRevenue())))
+						.creditsSold(r.getCreditsSold())
+						.transactionCount(r.getTransactionCount())
+						.build()).toList())
+				.monthlyDetails(monthly.stream().map(r -> RevenueReportResponse.MonthlyRevenueDetail.builder()
+						.year(r.getYear())
+						.month(r.getMonth())
+						.monthName(monthName(r.getMonth()))
+						.creditRevenue(nz(r.getCreditRevenue()))
+						.contractRevenue(nz(r.getContractRevenue()))
+						.totalRevenue(nz(r.getCreditRevenue()).add(nz(r.getContractRevenue())))
+						.transactionCount(r.getTransactionCount())
+						.build()).toList())
+				.topBuyers(buyers.stream().map(r -> RevenueReportResponse.TopBuyerDetail.builder()
+						.enterpriseId(r.getBuyerId() != null ? r.getBuyerId().toString() : null)
+						.totalSpent(nz(r.getTotalSpent()))
+						.creditsPurchased(r.getCreditsPurchased())
+						.creditsRetired(r.getCreditsRetired())
+						.transactionCount(r.getTransactionCount())
+						.build()).toList())
+				.build();
 	}
 
+	// ==================== CREDIT REPORTS ====================
+
 	@Override
 	public CreditReportResponse getCreditReport(ReportFilterRequest filter) {
 		log.info("Generating credit report with filter: {}", filter);
-
-		return CreditReportResponse.builder()
-		                           .reportTitle("Credit Report")
-		                           .reportDate(LocalDate.now())
-		                           .totalCreditsIssued(0L)
-		                           .totalCreditsSold(0L)
-		                           .totalCreditsRetired(0L)
-		                           .totalCreditsAvailable(0L)
-		                           .build();
+		ReportFilterRequest f = orEmpty(filter);
+		return reportCache.get("credit|" + f.cacheKey(), () -> buildCreditReport("Credit Report", f));
 	}
 
 	@Override
 	public CreditReportResponse getCreditReportByProject(Integer projectId, ReportFilterRequest filter) {
 		log.info("Generating credit report for project: {}", projectId);
+		ReportFilterRequest f = withProjects(orEmpty(filter), List.of(projectId));
+		return reportCache.get("credit-project|" + f.cacheKey(), () -> buildCreditReport("Project Credit Report", f));
+	}
+
+	private CreditReportResponse buildCreditReport(String title, ReportFilterRequest filter) {
+		ReportScope s = ReportScope.of(filter);
+
+		CompletableFuture<List<YearlyCreditRow>> yearlyFuture = async(() -> creditRepository.aggregateCreditsByYear(
+				s.from(), s.to(), s.allProjects(), s.projectIds(), s.allFarms(), s.farmIds()));
+		CompletableFuture<List<ProjectCreditRow>> projectsFuture = async(() -> creditRepository
+				.aggregateCreditsByProject(s.from(), s.to(), s.allProjects(), s.projectIds(), s.allFarms(), s.farmIds()));
+		CompletableFuture<List<CreditStatusRow>> statusFuture = async(() -> creditRepository.aggregateCreditsByStatus(
+				s.from(), s.to(), s.allProjects(), s.projectIds(), s.allFarms(), s.farmIds()));
+		CompletableFuture<List<MonthlyCreditRow>> monthlyFuture = async(() -> creditRepository.aggregateMonthlyCredits(
+				s.from(), s.to(), s.allProjects(), s.projectIds(), s.allFarms(), s.farmIds()));
+
+		List<YearlyCreditRow> yearly = join(yearlyFuture);
+		List<ProjectCreditRow> projects = join(projectsFuture);
+		List<CreditStatusRow> statuses = join(statusFuture);
+		List<MonthlyCreditRow> monthly = join(monthlyFuture);
+
+		long issued = 0, sold = 0, retired = 0, available = 0;
+		BigDecimal co2Tons = BigDecimal.ZERO;
+		BigDecimal revenue = BigDecimal.ZERO;
+		for (YearlyCreditRow r : yearly) {
+			issued += nz(r.getCreditsIssued());
+			sold += nz(r.getCreditsSold());
+			retired += nz(r.getCreditsRetired());
+			available += nz(r.getCreditsAvailable());
+			co2Tons = co2Tons.add(nz(r.getCo2Tons()));
+			revenue = revenue.add(nz(r.getRevenue()));
+		}
+		BigDecimal averagePrice = sold > 0
+				? revenue.divide(BigDecimal.valueOf(sold), 2, RoundingMode.HALF_UP)
+				: BigDecimal.ZERO;
+		BigDecimal totalIssued = BigDecimal.valueOf(issued);
 
 		return CreditReportResponse.builder()
-		                           .reportTitle("Project Credit Report")
-		                           .reportDate(LocalDate.now())
-		                           .totalCreditsIssued(0L)
-		                           .totalCreditsSold(0L)
-		                           .totalCreditsRetired(0L)
-		                           .totalCreditsAvailable(0L)
-		                           .build();
+				.reportTitle(title)
+				.reportDate(LocalDate.now())
+				.fromDate(s.from())
+				.toDate(s.to())
+				.totalCreditsIssued(issued)
+				.totalCreditsSold(sold)
+				.totalCreditsRetired(retired)
+				.totalCreditsAvailable(available)
+				.totalCo2Tons(co2Tons)
+				.totalRevenue(revenue)
+				.averagePrice(averagePrice)
+				.yearlyDetails(yearly.stream().map(r -> CreditReportResponse.YearlyCreditDetail.builder()
+						.year(r.getYear())
+						.creditsIssued(r.getCreditsIssued())
+						.creditsSold(r.getCreditsSold())
+						.creditsRetired(r.getCreditsRetired())
+						.creditsAvailable(r.getCreditsAvailable())
+						.co2Tons(nz(r.getCo2Tons()))
+						.revenue(nz(r.getRevenue()))
+						.build()).toList())
+				.projectDetails(projects.stream().map(r -> CreditReportResponse.ProjectCreditDetail.builder()
+						.projectId(r.getProjectId())
+						.projectCode(r.getProjectCode())
+						.projectName(r.getProjectName())
+						.creditsIssued(r.getCreditsIssued())
+						.creditsSold(r.getCreditsSold())
+						.creditsRetired(r.getCreditsRetired())
+						.co2Tons(nz(r.getCo2Tons()))
+						.revenue(nz(r.getRevenue()))
+						.build()).toList())
+				.statusDetails(statuses.stream().map(r -> CreditReportResponse.StatusDetail.builder()
+						.status(r.getStatus())
+						.count(r.getCount())
+						.totalCredits(r.getTotalCredits())
+						.percentage(percentage(BigDecimal.valueOf(nz(r.getTotalCredits())), totalIssued))
+						.build()).toList())
+				.monthlyTrend(monthly.stream().map(r -> CreditReportResponse.MonthlyCreditDetail.builder()
+						.year(r.getYear())
+						.month(r.getMonth())
+						.monthName(monthName(r.getMonth()))
+						.creditsIssued(r.getCreditsIssued())
+						.creditsSold(r.getCreditsSold())
+						.creditsRetired(r.getCreditsRetired())
+						.revenue(nz(r.getRevenue()))
+						.build()).toList())
+				.build();
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	/**
+	 * Tham số SQL đã chuẩn hoá từ filter. Danh sách id rỗng nghĩa là "không lọc";
+	 * khi đó truyền sentinel để câu IN (...) vẫn hợp lệ.
+	 */
+	private record ReportScope(LocalDate from, LocalDate to,
+			boolean allProjects, List<Integer> projectIds,
+			boolean allFarms, List<Integer> farmIds) {
+
+		private static final List<Integer> NO_IDS = List.of(-1);
+
+		static ReportScope of(ReportFilterRequest filter) {
+			List<Integer> projectIds = filter.normalizedProjectIds();
+			List<Integer> farmIds = filter.normalizedFarmIds();
+			return new ReportScope(filter.effectiveFromDate(), filter.effectiveToDate(),
+					projectIds.isEmpty(), projectIds.isEmpty() ? NO_IDS : projectIds,
+					farmIds.isEmpty(), farmIds.isEmpty() ? NO_IDS : farmIds);
+		}
+	}
+
+	private static ReportFilterRequest orEmpty(ReportFilterRequest filter) {
+		return filter != null ? filter : ReportFilterRequest.empty();
+	}
+
+	private static ReportFilterRequest withProjects(ReportFilterRequest filter, List<Integer> projectIds) {
+		return ReportFilterRequest.builder()
+				.fromDate(filter.getFromDate())
+				.toDate(filter.getToDate())
+				.year(filter.getYear())
+				.month(filter.getMonth())
+				.groupBy(filter.getGroupBy())
+				.projectIds(projectIds)
+				.farmIds(filter.getFarmIds())
+				.build();
+	}
+
+	private static ReportFilterRequest withFarms(ReportFilterRequest filter, List<Integer> farmIds) {
+		return ReportFilterRequest.builder()
+				.fromDate(filter.getFromDate())
+				.toDate(filter.getToDate())
+				.year(filter.getYear())
+				.month(filter.getMonth())
+				.groupBy(filter.getGroupBy())
+				.projectIds(filter.getProjectIds())
+				.farmIds(farmIds)
+				.build();
+	}
+
+	private <T> CompletableFuture<T> async(Supplier<T> supplier) {
+		return CompletableFuture.supplyAsync(supplier, reportExecutor);
+	}
+
+	private static <T> T join(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException re) {
+				throw re;
+			}
+			throw e;
+		}
+	}
+
+	private static BigDecimal percentage(BigDecimal value, BigDecimal total) {
+		if (value == null || total == null || total.compareTo(BigDecimal.ZERO) == 0) {
+			return BigDecimal.ZERO;
+		}
+		return value.multiply(HUNDRED).divide(total, 2, RoundingMode.HALF_UP);
 	}
-}
 
+	private static BigDecimal nz(BigDecimal value) {
+		return value != null ? value : BigDecimal.ZERO;
+	}
+
+	private static long nz(Long value) {
+		return value != null ? value : 0L;
+	}
+
+	private static String monthName(Integer month) {
+		return month != null ? "Tháng " + month : null;
+	}
+}
@@ -0,0 +1,102 @@
+package com.capston.project.back.end.service.impl;
+
+import com.capston.project.back.end.common.Role;
+import com.capston.project.back.end.common.SearchType;
+import com.capston.project.back.end.entity.User;
+import com.capston.project.back.end.exception.UnauthorizedException;
+import com.capston.project.back.end.repository.UnifiedSearchRepository;
+import com.capston.project.back.end.response.SearchHitResponse;
+import com.capston.project.back.end.response.generic.CursorPageResponse;
+import com.capston.project.back.end.service.SearchService;
+import com.capston.project.back.end.util.SecurityUtils;
+import com.capston.project.back.end.util.TextSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class SearchServiceImpl implements SearchService {
+
+	private static final int MIN_QUERY_LENGTH = 2;
+	private static final int MAX_PAGE_SIZE = 50;
+
+	private final UnifiedSearchRepository searchRepository;
+	private final SecurityUtils securityUtils;
+
+	@Override
+	public CursorPageResponse<SearchHitResponse> search(String query, Set<SearchType> types, String cursor, int size) {
+		String folded = query == null ? "" : TextSearchIndex.fold(query.trim().replaceAll("\\s+", " "));
+		if (folded.length() < MIN_QUERY_LENGTH) {
+			throw new IllegalArgumentException("Search query must have at least " + MIN_QUERY_LENGTH + " characters");
+		}
+		int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+		User currentUser = securityUtils.getCurrentUser();
+		if (currentUser == null) {
+			throw new UnauthorizedException("User not authenticated");
+		}
+		boolean admin = currentUser.getRole() == Role.ADMIN;
+		Set<SearchType> searchTypes = types == null || types.isEmpty()
+				? EnumSet.allOf(SearchType.class) : EnumSet.copyOf(types);
+		// Danh bạ người dùng chỉ admin được tìm (giống /api/admin/users)
+		if (!admin) {
+			searchTypes.remove(SearchType.USER);
+		}
+		if (searchTypes.isEmpty()) {
+			return CursorPageResponse.<SearchHitResponse>builder()
+					.content(List.of())
+					.pageSize(pageSize)
+					.hasNext(false)
+					.build();
+		}
+
+		Cursor after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor);
+		// Lấy dư một dòng để biết còn trang sau
+		List<SearchHitResponse> hits = searchRepository.search(folded, searchTypes, admin ? null : currentUser.getId(),
+				after != null ? after.score() : null, after != null ? after.type() : null,
+				after != null ? after.id() : null, pageSize + 1);
+
+		boolean hasNext = hits.size() > pageSize;
+		List<SearchHitResponse> content = hasNext ? hits.subList(0, pageSize) : hits;
+		return CursorPageResponse.<SearchHitResponse>builder()
+				.content(content)
+				.pageSize(pageSize)
+				.nextCursor(hasNext ? encodeCursor(content.get(content.size() - 1)) : null)
+				.hasNext(hasNext)
+				.build();
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	// Cursor là vị trí của kết quả cuối trang: base64url("score|type|id")
+	private static String encodeCursor(SearchHitResponse last) {
+		String raw = last.getScore().toPlainString() + "|" + last.getType().name() + "|" + last.getId();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static Cursor decodeCursor(String cursor) {
+		try {
+			String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 3);
+			if (parts.length != 3 || parts[2].isEmpty()) {
+				throw new IllegalArgumentException("Invalid search cursor");
+			}
+			return new Cursor(new BigDecimal(parts[0]), SearchType.valueOf(parts[1]), parts[2]);
+		} catch (IllegalArgumentException e) {
+			// Base64, số và enum không hợp lệ đều là IllegalArgumentException
+			throw new IllegalArgumentException("Invalid search cursor", e);
+		}
+	}
+
+	private record Cursor(BigDecimal score, SearchType type, String id) {}
+}
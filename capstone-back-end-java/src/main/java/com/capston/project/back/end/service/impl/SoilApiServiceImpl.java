@@ -1,10 +1,15 @@
 package com.capston.project.back.end.service.impl;
 
+import com.capston.project.back.end.cache.SpatialTileCache;
+import com.capston.project.back.end.common.TileDataType;
 import com.capston.project.back.end.service.SoilApiService;
+import com.capston.project.back.end.util.TokenBucket;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.RestClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.math.BigDecimal;
@@ -16,13 +21,29 @@ import java.util.Map;
  * Free API: https://rest.isric.org/soilgrids/v2.0
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class SoilApiServiceImpl implements SoilApiService {
 
     @Value("${soil.use-mock:true}")
     private boolean useMock;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    // SoilGrids fair use: ~5 request/phút
+    @Value("${soil.rate-limit.permits-per-second:0.08}")
+    private double permitsPerSecond;
+
+    @Value("${soil.rate-limit.burst:5}")
+    private int burst;
+
+    private final SpatialTileCache tileCache;
+    private final RestClient soilGridsRestClient;
+
+    private TokenBucket rateLimiter;
+
+    @PostConstruct
+    void initRateLimiter() {
+        rateLimiter = new TokenBucket(permitsPerSecond, burst);
+    }
 
     @Override
     public SoilData getSoilProperties(BigDecimal latitude, BigDecimal longitude) {
@@ -31,54 +52,82 @@ public class SoilApiServiceImpl implements SoilApiService {
         }
 
         try {
-            // Get soil classification
-            String classUrl = UriComponentsBuilder
-                    .fromUriString("https://rest.isric.org/soilgrids/v2.0/classification")
-                    .queryParam("lat", latitude)
-                    .queryParam("lon", longitude)
-                    .queryParam("number_classes", 5)
-                    .toUriString();
-
-            Map<String, Object> classResponse = restTemplate.getForObject(classUrl, Map.class);
-
-            String soilType = "Unknown";
-            if (classResponse != null) {
-                soilType = (String) classResponse.get("wrb_class_name");
-            }
-
-            // Get soil properties (pH, organic carbon)
-            String propUrl = UriComponentsBuilder
-                    .fromUriString("https://rest.isric.org/soilgrids/v2.0/properties/query")
-                    .queryParam("lat", latitude)
-                    .queryParam("lon", longitude)
-                    .queryParam("property", "phh2o")
-                    .queryParam("depth", "0-5cm")
-                    .toUriString();
-
-            Map<String, Object> propResponse = restTemplate.getForObject(propUrl, Map.class);
-
-            BigDecimal ph = new BigDecimal("6.5"); // Default
-            if (propResponse != null) {
-                var properties = (Map<String, Object>) propResponse.get("properties");
-                var phData = (Map<String, Object>) properties.get("phh2o");
-                ph = new BigDecimal(phData.get("mean").toString()).divide(new BigDecimal("10"), 2, RoundingMode.HALF_UP);
-            }
-
-            log.info("Fetched soil data for {}, {}: {}", latitude, longitude, soilType);
-            return new SoilData(soilType, ph, new BigDecimal("2.5"), "Loam");
-
+            return tileCache.get(TileDataType.SOIL, latitude, longitude, "properties", SoilData.class,
+                    this::requestSoilProperties);
         } catch (Exception e) {
             log.error("Error fetching soil data: {}", e.getMessage());
             return getMockSoilData(latitude, longitude);
         }
     }
 
+    @Override
+    public BigDecimal fetchSoilPh(BigDecimal latitude, BigDecimal longitude) {
+        if (useMock) {
+            return getMockSoilData(latitude, longitude).ph();
+        }
+        return tileCache.get(TileDataType.SOIL, latitude, longitude, "ph", BigDecimal.class, this::requestSoilPh);
+    }
+
     @Override
     public String getSoilType(BigDecimal latitude, BigDecimal longitude) {
         SoilData data = getSoilProperties(latitude, longitude);
         return data.soilType();
     }
 
+    private SoilData requestSoilProperties(BigDecimal latitude, BigDecimal longitude) {
+        // Get soil classification
+        String classUrl = UriComponentsBuilder
+                .fromUriString("https://rest.isric.org/soilgrids/v2.0/classification")
+                .queryParam("lat", latitude)
+                .queryParam("lon", longitude)
+                .queryParam("number_classes", 5)
+                .toUriString();
+
+        acquirePermit();
+        Map<String, Object> classResponse = soilGridsRestClient.get().uri(classUrl).retrieve().body(Map.class);
+
+        String soilType = "Unknown";
+        if (classResponse != null) {
+            soilType = (String) classResponse.get("wrb_class_name");
+        }
+
+        // Get soil properties (pH, organic carbon) - pH có key riêng trong cùng tile
+        BigDecimal ph = fetchSoilPh(latitude, longitude);
+
+        log.info("Fetched soil data for {}, {}: {}", latitude, longitude, soilType);
+        return new SoilData(soilType, ph, new BigDecimal("2.5"), "Loam");
+    }
+
+    private BigDecimal requestSoilPh(BigDecimal latitude, BigDecimal longitude) {
+        String propUrl = UriComponentsBuilder
+                .fromUriString("https://rest.isric.org/soilgrids/v2.0/properties/query")
+                .queryParam("lat", latitude)
+                .queryParam("lon", longitude)
+                .queryParam("property", "phh2o")
+                .queryParam("depth", "0-5cm")
+                .toUriString();
+
+        acquirePermit();
+        Map<String, Object> propResponse = soilGridsRestClient.get().uri(propUrl).retrieve().body(Map.class);
+
+        BigDecimal ph = new BigDecimal("6.5"); // Default
+        if (propResponse != null) {
+            var properties = (Map<String, Object>) propResponse.get("properties");
+            var phData = (Map<String, Object>) properties.get("phh2o");
+            ph = new BigDecimal(phData.get("mean").toString()).divide(new BigDecimal("10"), 2, RoundingMode.HALF_UP);
+        }
+        return ph;
+    }
+
+    private void acquirePermit() {
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for SoilGrids rate limit", e);
+        }
+    }
+
     // ==================== MOCK DATA ====================
 
     private SoilData getMockSoilData(BigDecimal latitude, BigDecimal longitude) {
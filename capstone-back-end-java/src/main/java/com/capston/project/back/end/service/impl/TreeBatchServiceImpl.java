@@ -3,18 +3,25 @@ package com.capston.project.back.end.service.impl;
 import com.capston.project.back.end.common.BatchStatus;
 import com.capston.project.back.end.entity.Farm;
 import com.capston.project.back.end.entity.TreeBatch;
+import com.capston.project.back.end.event.TreeBatchChangedEvent;
 import com.capston.project.back.end.exception.ResourceNotFoundException;
 import com.capston.project.back.end.repository.FarmRepository;
 import com.capston.project.back.end.repository.ProjectPhaseRepository;
 import com.capston.project.back.end.repository.TreeBatchRepository;
 import com.capston.project.back.end.repository.TreeSpeciesRepository;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.request.TreeBatchRequest;
 import com.capston.project.back.end.response.TreeBatchResponse;
 import com.capston.project.back.end.service.TreeBatchService;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.capston.project.back.end.util.SecurityUtils;
@@ -23,6 +30,7 @@ import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
@@ -36,6 +44,7 @@ public class TreeBatchServiceImpl implements TreeBatchService {
     private final TreeSpeciesRepository treeSpeciesRepository;
     private final ProjectPhaseRepository projectPhaseRepository;
     private final SecurityUtils securityUtils;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ==================== CRUD ====================
 
@@ -93,6 +102,7 @@ public class TreeBatchServiceImpl implements TreeBatchService {
                 .build();
 
         TreeBatch saved = treeBatchRepository.save(batch);
+        eventPublisher.publishEvent(new TreeBatchChangedEvent(saved.getId(), null, 0, saved.getPhaseId(), activeTrees(saved)));
         log.info("Tree batch created: {}", saved.getBatchCode());
 
         return mapToResponse(saved);
@@ -138,6 +148,9 @@ public class TreeBatchServiceImpl implements TreeBatchService {
             validatePlantingArea(batch.getFarmId(), request.getPlantingAreaM2(), id);
         }
 
+        Integer oldPhaseId = batch.getPhaseId();
+        long oldActiveTrees = activeTrees(batch);
+
         // Update fields
         if (request.getFarmId() != null && !request.getFarmId().equals(batch.getFarmId())) {
             if (!farmRepository.existsById(request.getFarmId())) {
@@ -183,6 +196,10 @@ public class TreeBatchServiceImpl implements TreeBatchService {
         }
 
         TreeBatch saved = treeBatchRepository.save(batch);
+        if (!Objects.equals(oldPhaseId, saved.getPhaseId()) || oldActiveTrees != activeTrees(saved)) {
+            eventPublisher.publishEvent(new TreeBatchChangedEvent(
+                    saved.getId(), oldPhaseId, oldActiveTrees, saved.getPhaseId(), activeTrees(saved)));
+        }
         log.info("Tree batch updated: {}", saved.getBatchCode());
 
         return mapToResponse(saved);
@@ -204,8 +221,11 @@ public class TreeBatchServiceImpl implements TreeBatchService {
                         "You are not authorized to delete batches in this farm");
             }
         }
+        long oldActiveTrees = activeTrees(batch);
         batch.setBatchStatus(BatchStatus.REMOVED);
         treeBatchRepository.save(batch);
+        eventPublisher.publishEvent(new TreeBatchChangedEvent(
+                batch.getId(), batch.getPhaseId(), oldActiveTrees, batch.getPhaseId(), 0));
 
         log.info("Tree batch marked as REMOVED: {}", batch.getBatchCode());
     }
@@ -239,6 +259,26 @@ public class TreeBatchServiceImpl implements TreeBatchService {
         return treeBatchRepository.findAll(pageable).map(this::mapToResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<TreeBatchResponse> getAllTreeBatches(KeysetPageRequest request) {
+        // FARMER: lọc theo farm sở hữu ngay trong query để trang luôn đủ kích thước
+        Specification<TreeBatch> scope = securityUtils.isFarmer()
+                ? inFarmsCreatedBy(securityUtils.getCurrentUserId())
+                : null;
+        return treeBatchRepository.findAll(scope, request).map(this::mapToResponse);
+    }
+
+    // Lô cây thuộc các farm do user tạo
+    static Specification<TreeBatch> inFarmsCreatedBy(UUID userId) {
+        return (root, query, cb) -> {
+            Subquery<Integer> farmIds = query.subquery(Integer.class);
+            Root<Farm> farm = farmIds.from(Farm.class);
+            farmIds.select(farm.get("id")).where(cb.equal(farm.get("createdBy"), userId));
+            return root.get("farmId").in(farmIds);
+        };
+    }
+
     // @Override
     // @Transactional(readOnly = true)
     // public List<TreeBatchResponse> getTreeBatchesByFarmId(Integer farmId) {
@@ -359,6 +399,12 @@ public class TreeBatchServiceImpl implements TreeBatchService {
 
     // ==================== HELPER ====================
 
+    // Số cây batch đóng góp vào dashboard (chỉ batch ACTIVE)
+    private static long activeTrees(TreeBatch batch) {
+        return batch.getBatchStatus() == BatchStatus.ACTIVE && batch.getQuantityPlanted() != null
+                ? batch.getQuantityPlanted() : 0;
+    }
+
     private String generateBatchCode(Integer farmId) {
         long count = treeBatchRepository.countByFarmId(farmId);
         return String.format("BATCH-%d-%04d", farmId, count + 1);
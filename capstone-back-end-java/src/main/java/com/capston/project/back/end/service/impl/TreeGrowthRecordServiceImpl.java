@@ -2,16 +2,25 @@ package com.capston.project.back.end.service.impl;
 
 import com.capston.project.back.end.common.HealthStatus;
 import com.capston.project.back.end.entity.*;
+import com.capston.project.back.end.event.BatchMortalitySpikeEvent;
+import com.capston.project.back.end.event.GrowthRecordSavedEvent;
 import com.capston.project.back.end.exception.ResourceNotFoundException;
 import com.capston.project.back.end.repository.*;
+import com.capston.project.back.end.repository.keyset.KeysetPage;
+import com.capston.project.back.end.repository.keyset.KeysetPageRequest;
 import com.capston.project.back.end.request.TreeGrowthRecordRequest;
-import com.capston.project.back.end.service.ApprovalWebSocketService;
+import com.capston.project.back.end.service.EnvironmentFactorService;
 import com.capston.project.back.end.service.TreeGrowthRecordService;
 import com.capston.project.back.end.util.SecurityUtils;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,7 +31,6 @@ import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -34,12 +42,15 @@ public class TreeGrowthRecordServiceImpl implements TreeGrowthRecordService {
     private final TreeGrowthRecordRepository growthRecordRepository;
     private final TreeBatchRepository treeBatchRepository;
     private final TreeSpeciesRepository treeSpeciesRepository;
-    private final FarmEnvironmentRecordRepository environmentRecordRepository;
+    private final EnvironmentFactorService environmentFactorService;
     private final FarmRepository farmRepository;
     private final ProjectRepository projectRepository;
     private final ProjectPhaseRepository projectPhaseRepository;
     private final SecurityUtils securityUtils;
-    private final ApprovalWebSocketService webSocketService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${health-alert.rules.mortality-percent:5.0}")
+    private double mortalityAlertPercent;
 
     // ==================== CRUD ====================
 
@@ -110,40 +121,18 @@ public class TreeGrowthRecordServiceImpl implements TreeGrowthRecordService {
         BigDecimal co2Absorbed = calculateCO2Absorbed(batch, record);
         record.setCo2AbsorbedKg(co2Absorbed);
 
+        HealthStatus previousStatus = growthRecordRepository.findLatestByBatchId(request.getBatchId())
+                .map(TreeGrowthRecord::getHealthStatus)
+                .orElse(null);
         TreeGrowthRecord saved = growthRecordRepository.save(record);
         log.info("Growth record created with CO2: {} kg, Alive: {}, New deaths: {}",
                 co2Absorbed, quantityAlive, newDeaths);
 
         updateProjectCO2(batch);
 
-        // Notify if health issue detected
-        if (saved.getHealthStatus() != HealthStatus.HEALTHY) {
-            Farm farm = farmRepository.findById(batch.getFarmId()).orElse(null);
-            if (farm != null && farm.getCreatedBy() != null) {
-                webSocketService.notifyTreeHealthIssue(
-                        farm.getCreatedBy(),
-                        saved.getBatchId(),
-                        batch.getBatchCode(),
-                        saved.getHealthStatus().name(),
-                        saved.getHealthNotes());
-            }
-        }
-
-        // Notify if significant deaths occurred
-        if (newDeaths > 0) {
-            Farm farm = farmRepository.findById(batch.getFarmId()).orElse(null);
-            if (farm != null && farm.getCreatedBy() != null) {
-                double deathRate = (newDeaths * 100.0) / quantityPlanted;
-                if (deathRate > 5.0) { // Alert if more than 5% mortality in one record
-                    webSocketService.notifyTreeHealthIssue(
-                            farm.getCreatedBy(),
-                            saved.getBatchId(),
-                            batch.getBatchCode(),
-                            "HIGH_MORTALITY",
-                            String.format("%d cây chết (%.1f%% của tổng số cây trồng)", newDeaths, deathRate));
-                }
-            }
-        }
+        // Cảnh báo sức khỏe và phát hiện bất thường xử lý sau commit
+        eventPublisher.publishEvent(GrowthRecordSavedEvent.of(saved, batch.getTreeSpeciesId(), previousStatus, true));
+        publishMortalitySpike(saved, newDeaths, quantityPlanted);
 
         return saved;
     }
@@ -160,6 +149,8 @@ public class TreeGrowthRecordServiceImpl implements TreeGrowthRecordService {
         log.info("Updating growth record: {}", id);
 
         TreeGrowthRecord record = getGrowthRecordById(id);
+        HealthStatus previousStatus = record.getHealthStatus();
+        int previousDeaths = record.getQuantityDead() != null ? record.getQuantityDead() : 0;
         TreeBatch batch = treeBatchRepository.findById(record.getBatchId())
                 .orElseThrow(() -> new ResourceNotFoundException("Tree batch not found"));
 
@@ -234,17 +225,10 @@ public class TreeGrowthRecordServiceImpl implements TreeGrowthRecordService {
         TreeGrowthRecord saved = growthRecordRepository.save(record);
         updateProjectCO2(batch);
 
-        // Notify if health issue detected
-        if (saved.getHealthStatus() != HealthStatus.HEALTHY) {
-            Farm farm = farmRepository.findById(batch.getFarmId()).orElse(null);
-            if (farm != null && farm.getCreatedBy() != null) {
-                webSocketService.notifyTreeHealthIssue(
-                        farm.getCreatedBy(),
-                        saved.getBatchId(),
-                        batch.getBatchCode(),
-                        saved.getHealthStatus().name(),
-                        saved.getHealthNotes());
-            }
+        eventPublisher.publishEvent(GrowthRecordSavedEvent.of(saved, batch.getTreeSpeciesId(), previousStatus, false));
+        // Chỉ phần chết thêm so với trước khi sửa; sửa lại cùng số hoặc giảm thì không cảnh báo
+        if (request.getQuantityDead() != null) {
+            publishMortalitySpike(saved, saved.getQuantityDead() - previousDeaths, batch.getQuantityPlanted());
         }
 
         return saved;
@@ -309,6 +293,23 @@ public class TreeGrowthRecordServiceImpl implements TreeGrowthRecordService {
         return growthRecordRepository.findAll(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<TreeGrowthRecord> getAllGrowthRecords(KeysetPageRequest request) {
+        // FARMER: chỉ record của lô cây thuộc farm mình tạo, lọc trong query
+        Specification<TreeGrowthRecord> scope = null;
+        if (securityUtils.isFarmer()) {
+            Specification<TreeBatch> ownBatches = TreeBatchServiceImpl.inFarmsCreatedBy(securityUtils.getCurrentUserId());
+            scope = (root, query, cb) -> {
+                Subquery<Integer> batchIds = query.subquery(Integer.class);
+                Root<TreeBatch> batch = batchIds.from(TreeBatch.class);
+                batchIds.select(batch.get("id")).where(ownBatches.toPredicate(batch, query, cb));
+                return root.get("batchId").in(batchIds);
+            };
+        }
+        return growthRecordRepository.findAll(scope, request);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<TreeGrowthRecord> getGrowthRecordsByBatchId(Integer batchId) {
@@ -435,6 +436,17 @@ public class TreeGrowthRecordServiceImpl implements TreeGrowthRecordService {
 
     // ==================== HELPER METHODS ====================
 
+    private void publishMortalitySpike(TreeGrowthRecord record, int newDeaths, int quantityPlanted) {
+        if (newDeaths <= 0 || quantityPlanted <= 0) {
+            return;
+        }
+        double deathRate = (newDeaths * 100.0) / quantityPlanted;
+        if (deathRate > mortalityAlertPercent) {
+            eventPublisher.publishEvent(new BatchMortalitySpikeEvent(record.getId(), record.getBatchId(),
+                    newDeaths, quantityPlanted, deathRate));
+        }
+    }
+
     /**
      * Get cumulative deaths BEFORE a given date (excluding the date itself)
      * This is used to calculate how many trees have died before creating/updating a
@@ -463,16 +475,7 @@ public class TreeGrowthRecordServiceImpl implements TreeGrowthRecordService {
     }
 
     private BigDecimal getEnvironmentFactor(Integer farmId, LocalDate date) {
-        Optional<FarmEnvironmentRecord> envRecord = environmentRecordRepository.findByFarmIdAndRecordedDate(farmId,
-                date);
-        if (envRecord.isPresent() && envRecord.get().getOverallFactor() != null)
-            return envRecord.get().getOverallFactor();
-
-        Optional<FarmEnvironmentRecord> latestRecord = environmentRecordRepository.findLatestByFarmId(farmId);
-        if (latestRecord.isPresent() && latestRecord.get().getOverallFactor() != null)
-            return latestRecord.get().getOverallFactor();
-
-        return BigDecimal.ONE;
+        return environmentFactorService.getFactor(farmId, date);
     }
 
     private void updateProjectCO2(TreeBatch batch) {
@@ -5,6 +5,7 @@ import com.capston.project.back.end.common.PaymentStatus;
 import com.capston.project.back.end.common.ReferenceType;
 import com.capston.project.back.end.config.payment.VNPayConfig;
 import com.capston.project.back.end.entity.Payment;
+import com.capston.project.back.end.event.PaymentCompletedEvent;
 import com.capston.project.back.end.repository.PaymentRepository;
 import com.capston.project.back.end.request.VNPayRequest;
 import com.capston.project.back.end.response.VNPayResponse;
@@ -12,6 +13,7 @@ import com.capston.project.back.end.service.NotificationService;
 import com.capston.project.back.end.service.VNPayService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,6 +35,7 @@ public class VNPayServiceImpl implements VNPayService {
     private final VNPayConfig vnPayConfig;
     private final PaymentRepository paymentRepository;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
 
@@ -135,6 +138,8 @@ public class VNPayServiceImpl implements VNPayService {
                     .build();
         }
 
+        boolean wasCompleted = payment.getPaymentStatus() == PaymentStatus.COMPLETED;
+
         // Update payment
         payment.setVnpTransactionNo(transactionNo);
         payment.setVnpResponseCode(responseCode);
@@ -146,6 +151,9 @@ public class VNPayServiceImpl implements VNPayService {
             payment.setPaymentStatus(PaymentStatus.COMPLETED);
             payment.setCompletedAt(OffsetDateTime.now());
             payment.setPaymentDate(OffsetDateTime.now());
+            if (!wasCompleted) {
+                eventPublisher.publishEvent(new PaymentCompletedEvent(payment.getId(), payment.getAmount()));
+            }
 
             // Send notification
             notificationService.createAndSend(
@@ -219,6 +227,7 @@ public class VNPayServiceImpl implements VNPayService {
         if ("00".equals(responseCode)) {
             payment.setPaymentStatus(PaymentStatus.COMPLETED);
             payment.setCompletedAt(OffsetDateTime.now());
+            eventPublisher.publishEvent(new PaymentCompletedEvent(payment.getId(), payment.getAmount()));
         } else {
             payment.setPaymentStatus(PaymentStatus.FAILED);
         }
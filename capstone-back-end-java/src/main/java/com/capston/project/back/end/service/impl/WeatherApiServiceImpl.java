@@ -1,15 +1,24 @@
 package com.capston.project.back.end.service.impl;
 
+import com.capston.project.back.end.cache.SpatialTileCache;
+import com.capston.project.back.end.common.TileDataType;
 import com.capston.project.back.end.service.WeatherApiService;
+import com.capston.project.back.end.util.TokenBucket;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.RestClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,16 +26,38 @@ import java.util.Map;
  * For production: sign up for API keys
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class WeatherApiServiceImpl implements WeatherApiService {
 
+    private static final ZoneId ZONE = ZoneId.of("Asia/Bangkok");
+
     @Value("${openweathermap.api.key:dummy_key}")
     private String openWeatherMapApiKey;
 
+    // Endpoint archive của Open-Meteo (trỏ sang server giả khi test)
+    @Value("${weather.open-meteo.archive-url:https://archive-api.open-meteo.com/v1/archive}")
+    private String archiveUrl;
+
     @Value("${weather.use-mock:true}")
     private boolean useMock;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${weather.rate-limit.permits-per-second:10}")
+    private double permitsPerSecond;
+
+    @Value("${weather.rate-limit.burst:10}")
+    private int burst;
+
+    private final SpatialTileCache tileCache;
+    private final RestClient openMeteoRestClient;
+
+    // Open-Meteo giới hạn theo IP, dùng chung cho mọi luồng gọi
+    private TokenBucket rateLimiter;
+
+    @PostConstruct
+    void initRateLimiter() {
+        rateLimiter = new TokenBucket(permitsPerSecond, burst);
+    }
 
     @Override
     public WeatherData getHistoricalWeather(BigDecimal latitude, BigDecimal longitude, LocalDate date) {
@@ -35,35 +66,7 @@ public class WeatherApiServiceImpl implements WeatherApiService {
         }
 
         try {
-            // Use Open-Meteo Historical Weather API - FREE!
-            String url = UriComponentsBuilder
-                    .fromUriString("https://archive-api.open-meteo.com/v1/archive")
-                    .queryParam("latitude", latitude)
-                    .queryParam("longitude", longitude)
-                    .queryParam("start_date", date.toString())
-                    .queryParam("end_date", date.toString())
-                    .queryParam("daily", "precipitation_sum,temperature_2m_mean")
-                    .queryParam("timezone", "Asia/Bangkok")
-                    .toUriString();
-
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-
-            if (response != null && response.containsKey("daily")) {
-                var daily = (Map<String, Object>) response.get("daily");
-                var precipitationList = (java.util.List<?>) daily.get("precipitation_sum");
-                var temperatureList = (java.util.List<?>) daily.get("temperature_2m_mean");
-
-                if (!precipitationList.isEmpty() && !temperatureList.isEmpty()) {
-                    BigDecimal rainfall = new BigDecimal(precipitationList.get(0).toString());
-                    BigDecimal temp = new BigDecimal(temperatureList.get(0).toString());
-
-                    log.info("Fetched historical weather from Open-Meteo for {}, {} on {}", latitude, longitude, date);
-                    return new WeatherData(date, rainfall, temp, new BigDecimal("70"));
-                }
-            }
-
-            return getMockWeatherData(latitude, longitude, date);
-
+            return fetchHistoricalWeather(latitude, longitude, date);
         } catch (Exception e) {
             log.error("Error fetching historical weather data: {}", e.getMessage());
             return getMockWeatherData(latitude, longitude, date);
@@ -71,67 +74,167 @@ public class WeatherApiServiceImpl implements WeatherApiService {
     }
 
     @Override
-    public ClimateData getClimateData(BigDecimal latitude, BigDecimal longitude) {
+    public WeatherData fetchHistoricalWeather(BigDecimal latitude, BigDecimal longitude, LocalDate date) {
+        List<WeatherData> days = fetchWeatherRange(latitude, longitude, date, date);
+        if (days.isEmpty()) {
+            throw new IllegalStateException("Open-Meteo returned no data for " + date);
+        }
+        return days.get(0);
+    }
+
+    @Override
+    public List<WeatherData> fetchWeatherRange(BigDecimal latitude, BigDecimal longitude,
+                                               LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
         if (useMock) {
-            return getMockClimateData(latitude, longitude);
+            return startDate.datesUntil(endDate.plusDays(1))
+                    .map(date -> getMockWeatherData(latitude, longitude, date))
+                    .toList();
         }
 
-        try {
-            // Open-Meteo Climate Statistics API - FREE!
-            // Get last year's data as climate average
-            LocalDate endDate = LocalDate.now().minusDays(1);
-            LocalDate startDate = endDate.minusYears(1);
-
-            String url = UriComponentsBuilder
-                    .fromUriString("https://archive-api.open-meteo.com/v1/archive")
-                    .queryParam("latitude", latitude)
-                    .queryParam("longitude", longitude)
-                    .queryParam("start_date", startDate.toString())
-                    .queryParam("end_date", endDate.toString())
-                    .queryParam("daily", "precipitation_sum,temperature_2m_mean")
-                    .queryParam("timezone", "Asia/Bangkok")
-                    .toUriString();
-
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-
-            if (response != null && response.containsKey("daily")) {
-                var daily = (Map<String, Object>) response.get("daily");
-                var precipitationList = (java.util.List<?>) daily.get("precipitation_sum");
-                var temperatureList = (java.util.List<?>) daily.get("temperature_2m_mean");
-
-                // Calculate averages
-                double totalRainfall = precipitationList.stream()
-                        .mapToDouble(p -> Double.parseDouble(p.toString()))
-                        .sum();
-
-                double avgTemp = temperatureList.stream()
-                        .mapToDouble(t -> Double.parseDouble(t.toString()))
-                        .average()
-                        .orElse(25.0);
-
-                // Convert to yearly rainfall
-                BigDecimal avgRainfall = new BigDecimal(totalRainfall).setScale(2, RoundingMode.HALF_UP);
-                BigDecimal avgTemperature = new BigDecimal(avgTemp).setScale(2, RoundingMode.HALF_UP);
-
-                // Calculate recent 7 days rainfall for soil moisture
-                double rainfall7Days = precipitationList.subList(
-                        Math.max(0, precipitationList.size() - 7),
-                        precipitationList.size()).stream().mapToDouble(p -> Double.parseDouble(p.toString())).sum();
-
-                String climateZone = getClimateZone(latitude, longitude, avgTemperature);
-
-                log.info("Fetched climate data for {}, {} using Open-Meteo", latitude, longitude);
-                return new ClimateData(avgRainfall, avgTemperature, new BigDecimal(rainfall7Days), climateZone);
+        // Ngày đã có trong tile cache không cần gọi lại; chỉ request dải ngày còn thiếu
+        SpatialTileCache.Tile tile = tileCache.tile(TileDataType.WEATHER_DAILY, latitude, longitude);
+        List<LocalDate> dates = startDate.datesUntil(endDate.plusDays(1)).toList();
+        Map<String, DailyWeather> byDate = new HashMap<>(tileCache.peekAll(
+                tile, dates.stream().map(LocalDate::toString).toList(), DailyWeather.class));
+        List<LocalDate> missing = dates.stream().filter(date -> !byDate.containsKey(date.toString())).toList();
+
+        if (!missing.isEmpty()) {
+            LocalDate today = LocalDate.now(ZONE);
+            Map<String, DailyWeather> immutableDays = new HashMap<>();
+            for (WeatherData day : requestWeatherRange(tile.latitude(), tile.longitude(),
+                    missing.get(0), missing.get(missing.size() - 1))) {
+                DailyWeather value = new DailyWeather(day.rainfall(), day.temperature(), day.humidity());
+                byDate.putIfAbsent(day.date().toString(), value);
+                // Ngày đã qua không đổi nữa nên mới cache
+                if (day.date().isBefore(today)) {
+                    immutableDays.put(day.date().toString(), value);
+                }
             }
+            tileCache.putAll(tile, immutableDays);
+        }
 
+        List<WeatherData> days = new ArrayList<>(dates.size());
+        for (LocalDate date : dates) {
+            DailyWeather value = byDate.get(date.toString());
+            if (value != null) {
+                days.add(new WeatherData(date, value.rainfall(), value.temperature(), value.humidity()));
+            }
+        }
+        return days;
+    }
+
+    private List<WeatherData> requestWeatherRange(BigDecimal latitude, BigDecimal longitude,
+                                                  LocalDate startDate, LocalDate endDate) {
+        // Use Open-Meteo Historical Weather API - FREE! Một request cho cả khoảng ngày
+        String url = UriComponentsBuilder
+                .fromUriString(archiveUrl)
+                .queryParam("latitude", latitude)
+                .queryParam("longitude", longitude)
+                .queryParam("start_date", startDate.toString())
+                .queryParam("end_date", endDate.toString())
+                .queryParam("daily", "precipitation_sum,temperature_2m_mean")
+                .queryParam("timezone", "Asia/Bangkok")
+                .toUriString();
+
+        acquirePermit();
+        Map<String, Object> response = openMeteoRestClient.get().uri(url).retrieve().body(Map.class);
+        if (response == null || !response.containsKey("daily")) {
+            throw new IllegalStateException("Open-Meteo returned no daily data for " + startDate + ".." + endDate);
+        }
+
+        var daily = (Map<String, Object>) response.get("daily");
+        var timeList = (List<?>) daily.get("time");
+        var precipitationList = (List<?>) daily.get("precipitation_sum");
+        var temperatureList = (List<?>) daily.get("temperature_2m_mean");
+
+        List<WeatherData> days = new ArrayList<>(timeList.size());
+        for (int i = 0; i < timeList.size(); i++) {
+            Object rainfall = precipitationList.get(i);
+            Object temperature = temperatureList.get(i);
+            // Archive có độ trễ vài ngày: ngày chưa có dữ liệu trả về null
+            if (rainfall == null || temperature == null) {
+                continue;
+            }
+            days.add(new WeatherData(LocalDate.parse(timeList.get(i).toString()),
+                    new BigDecimal(rainfall.toString()), new BigDecimal(temperature.toString()),
+                    new BigDecimal("70")));
+        }
+
+        log.debug("Fetched {} days of weather from Open-Meteo for {}, {} ({}..{})",
+                days.size(), latitude, longitude, startDate, endDate);
+        return days;
+    }
+
+    @Override
+    public ClimateData getClimateData(BigDecimal latitude, BigDecimal longitude) {
+        if (useMock) {
             return getMockClimateData(latitude, longitude);
+        }
 
+        try {
+            return tileCache.get(TileDataType.CLIMATE, latitude, longitude, null, ClimateData.class,
+                    this::requestClimateData);
         } catch (Exception e) {
             log.error("Error fetching climate data: {}", e.getMessage());
             return getMockClimateData(latitude, longitude);
         }
     }
 
+    private ClimateData requestClimateData(BigDecimal latitude, BigDecimal longitude) {
+        // Open-Meteo Climate Statistics API - FREE!
+        // Get last year's data as climate average
+        LocalDate endDate = LocalDate.now().minusDays(1);
+        LocalDate startDate = endDate.minusYears(1);
+
+        String url = UriComponentsBuilder
+                .fromUriString(archiveUrl)
+                .queryParam("latitude", latitude)
+                .queryParam("longitude", longitude)
+                .queryParam("start_date", startDate.toString())
+                .queryParam("end_date", endDate.toString())
+                .queryParam("daily", "precipitation_sum,temperature_2m_mean")
+                .queryParam("timezone", "Asia/Bangkok")
+                .toUriString();
+
+        acquirePermit();
+        Map<String, Object> response = openMeteoRestClient.get().uri(url).retrieve().body(Map.class);
+
+        if (response != null && response.containsKey("daily")) {
+            var daily = (Map<String, Object>) response.get("daily");
+            var precipitationList = (java.util.List<?>) daily.get("precipitation_sum");
+            var temperatureList = (java.util.List<?>) daily.get("temperature_2m_mean");
+
+            // Calculate averages
+            double totalRainfall = precipitationList.stream()
+                    .mapToDouble(p -> Double.parseDouble(p.toString()))
+                    .sum();
+
+            double avgTemp = temperatureList.stream()
+                    .mapToDouble(t -> Double.parseDouble(t.toString()))
+                    .average()
+                    .orElse(25.0);
+
+            // Convert to yearly rainfall
+            BigDecimal avgRainfall = new BigDecimal(totalRainfall).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal avgTemperature = new BigDecimal(avgTemp).setScale(2, RoundingMode.HALF_UP);
+
+            // Calculate recent 7 days rainfall for soil moisture
+            double rainfall7Days = precipitationList.subList(
+                    Math.max(0, precipitationList.size() - 7),
+                    precipitationList.size()).stream().mapToDouble(p -> Double.parseDouble(p.toString())).sum();
+
+            String climateZone = getClimateZone(latitude, longitude, avgTemperature);
+
+            log.info("Fetched climate data for {}, {} using Open-Meteo", latitude, longitude);
+            return new ClimateData(avgRainfall, avgTemperature, new BigDecimal(rainfall7Days), climateZone);
+        }
+
+        throw new IllegalStateException("Open-Meteo returned no climate data");
+    }
+
     @Override
     public String getClimateZone(BigDecimal latitude, BigDecimal longitude, BigDecimal avgTemperature) {
         // Simple classification based on latitude and temperature
@@ -149,6 +252,15 @@ public class WeatherApiServiceImpl implements WeatherApiService {
         }
     }
 
+    private void acquirePermit() {
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Open-Meteo rate limit", e);
+        }
+    }
+
     // ==================== MOCK DATA ====================
 
     private WeatherData getMockWeatherData(BigDecimal latitude, BigDecimal longitude, LocalDate date) {
@@ -214,4 +326,9 @@ public class WeatherApiServiceImpl implements WeatherApiService {
 
         return new ClimateData(avgRainfall, avgTemperature, new BigDecimal("50"), climateZone);
     }
+
+    /**
+     * Giá trị một ngày lưu trong tile cache (ngày nằm ở qualifier của key)
+     */
+    private record DailyWeather(BigDecimal rainfall, BigDecimal temperature, BigDecimal humidity) {}
 }
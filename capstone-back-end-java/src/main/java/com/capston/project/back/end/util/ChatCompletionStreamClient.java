@@ -0,0 +1,80 @@
+package com.capston.project.back.end.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Client non-blocking cho API chat completions (OpenAI-compatible) ở chế độ
+ * {@code stream: true}. Mỗi phần tử của Flux là một đoạn nội dung (delta) theo
+ * thứ tự nhận được; Flux kết thúc khi gặp {@code [DONE]} hoặc server đóng stream.
+ */
+public class ChatCompletionStreamClient {
+
+	private static final String DONE = "[DONE]";
+	private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+			new ParameterizedTypeReference<>() {};
+
+	private final WebClient webClient;
+	private final String model;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	/**
+	 * @param idleTimeout thời gian tối đa giữa hai lần nhận dữ liệu (không phải tổng thời gian stream)
+	 */
+	public ChatCompletionStreamClient(String apiUrl, String token, String model,
+	                                  Duration connectTimeout, Duration idleTimeout) {
+		HttpClient httpClient = HttpClient.create()
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+				.responseTimeout(idleTimeout);
+		this.webClient = WebClient.builder()
+				.baseUrl(apiUrl)
+				.clientConnector(new ReactorClientHttpConnector(httpClient))
+				.defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+				.build();
+		this.model = model;
+	}
+
+	public Flux<String> stream(List<Map<String, String>> messages, double temperature, int maxTokens) {
+		Map<String, Object> requestBody = new HashMap<>();
+		requestBody.put("messages", messages);
+		requestBody.put("model", model);
+		requestBody.put("temperature", temperature);
+		requestBody.put("max_tokens", maxTokens);
+		requestBody.put("stream", true);
+
+		return webClient.post()
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.TEXT_EVENT_STREAM)
+				.bodyValue(requestBody)
+				.retrieve()
+				.bodyToFlux(SSE_TYPE)
+				.map(ServerSentEvent::data)
+				.filter(Objects::nonNull)
+				.takeWhile(data -> !DONE.equals(data.trim()))
+				.map(this::extractDelta)
+				.filter(delta -> !delta.isEmpty());
+	}
+
+	private String extractDelta(String data) {
+		try {
+			return objectMapper.readTree(data).path("choices").path(0).path("delta").path("content").asText("");
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Invalid completion chunk: " + e.getOriginalMessage(), e);
+		}
+	}
+}
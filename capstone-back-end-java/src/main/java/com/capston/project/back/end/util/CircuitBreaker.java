@@ -0,0 +1,82 @@
+package com.capston.project.back.end.util;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker đơn giản cho API bên ngoài: sau {@code failureThreshold} lỗi
+ * liên tiếp thì mở mạch trong {@code openDuration}, hết thời gian cho đúng một
+ * request thử (half-open); thành công thì đóng lại, lỗi thì mở tiếp.
+ */
+public class CircuitBreaker {
+
+	public enum State { CLOSED, OPEN, HALF_OPEN }
+
+	private final String name;
+	private final int failureThreshold;
+	private final long openNanos;
+
+	private State state = State.CLOSED;
+	private int consecutiveFailures;
+	private long openedAtNanos;
+
+	public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+		if (failureThreshold <= 0 || openDuration.isNegative() || openDuration.isZero()) {
+			throw new IllegalArgumentException("failureThreshold and openDuration must be positive");
+		}
+		this.name = name;
+		this.failureThreshold = failureThreshold;
+		this.openNanos = openDuration.toNanos();
+	}
+
+	/**
+	 * Chạy call qua breaker. Mạch đang mở thì ném {@link IllegalStateException}
+	 * ngay, không gọi API.
+	 */
+	public <T> T call(Supplier<T> call) {
+		if (!tryAcquire()) {
+			throw new IllegalStateException("Circuit breaker '" + name + "' is open");
+		}
+		try {
+			T result = call.get();
+			onSuccess();
+			return result;
+		} catch (RuntimeException e) {
+			onFailure();
+			throw e;
+		}
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	private synchronized boolean tryAcquire() {
+		switch (state) {
+			case CLOSED:
+				return true;
+			case OPEN:
+				if (System.nanoTime() - openedAtNanos < openNanos) {
+					return false;
+				}
+				state = State.HALF_OPEN;
+				return true;
+			default:
+				// Đang có một request thử, các request khác bị chặn
+				return false;
+		}
+	}
+
+	private synchronized void onSuccess() {
+		consecutiveFailures = 0;
+		state = State.CLOSED;
+	}
+
+	private synchronized void onFailure() {
+		consecutiveFailures++;
+		if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+			state = State.OPEN;
+			openedAtNanos = System.nanoTime();
+		}
+	}
+}
@@ -0,0 +1,283 @@
+package com.capston.project.back.end.util;
+
+import com.capston.project.back.end.common.AnomalyKind;
+import com.capston.project.back.end.common.GrowthMetric;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Phát hiện bất thường theo luồng cho số đo sinh trưởng. Mỗi bản ghi được đổi thành tốc độ
+ * theo ngày so với bản ghi trước của lô (chiều cao, đường kính thân, tán; tỉ lệ chết) rồi so
+ * với thống kê chạy của chính lô và của loài cây: mean/variance theo Welford và EWMA.
+ *
+ * Trạng thái là mảng double kích thước cố định (xem {@link #newBatchState()},
+ * {@link #newSpeciesState()}), cập nhật tại chỗ không cấp phát. Lớp không giữ trạng thái,
+ * người gọi tự đồng bộ truy cập vào các mảng.
+ */
+public class GrowthAnomalyDetector {
+
+	private static final GrowthMetric[] GROWTH_METRICS = {
+			GrowthMetric.HEIGHT, GrowthMetric.TRUNK_DIAMETER, GrowthMetric.CANOPY_DIAMETER };
+
+	// Mỗi metric: n, mean, m2 (Welford), ewma
+	private static final int STATS = 4;
+	private static final int N = 0;
+	private static final int MEAN = 1;
+	private static final int M2 = 2;
+	private static final int EWMA = 3;
+
+	// Lô: ngày (epoch day) của bản ghi cuối; với mỗi metric (3 số đo + số cây sống) giá trị làm mốc,
+	// ngày của giá trị đó và số lần OUTLIER liên tiếp; cờ đang bật; thống kê
+	private static final int LAST_DAY = 0;
+	private static final int LAST_VALUES = 1;
+	private static final int LAST_VALUE_DAYS = LAST_VALUES + 4;
+	private static final int OUTLIER_RUNS = LAST_VALUE_DAYS + 4;
+	private static final int ALIVE = GrowthMetric.MORTALITY.ordinal();
+	private static final int ACTIVE_FLAGS = OUTLIER_RUNS + 4;
+	private static final int BATCH_STATS = ACTIVE_FLAGS + 1;
+
+	// Lệch liên tiếp chừng này lần thì coi là thay đổi thật (đo lại, tỉa tán) và lấy làm mốc mới
+	private static final int REBASELINE_AFTER_OUTLIERS = 2;
+
+	public static final int BATCH_STATE_SIZE = BATCH_STATS + GrowthMetric.values().length * STATS;
+	public static final int SPECIES_STATE_SIZE = GrowthMetric.values().length * STATS;
+
+	// Độ lệch chuẩn tối thiểu, tránh z-score vô hạn khi các tốc độ trước đó bằng nhau
+	private static final double MIN_RELATIVE_STD = 0.05;
+	private static final double MIN_STD = 1e-3;
+
+	private final double zThreshold;
+	private final int minSamples;
+	private final double ewmaAlpha;
+	private final double stagnationRatio;
+	private final double dieOffMinFraction;
+
+	public record Anomaly(GrowthMetric metric, AnomalyKind kind, double observed, double expected, double zScore) {
+	}
+
+	/**
+	 * @param zThreshold        |z| từ ngưỡng này trở lên là bất thường
+	 * @param minSamples        số mẫu tối thiểu trước khi thống kê được dùng để so sánh
+	 * @param ewmaAlpha         trọng số của giá trị mới trong EWMA (0..1]
+	 * @param stagnationRatio   EWMA tốc độ lớn của lô dưới tỉ lệ này của trung bình loài là chậm phát triển
+	 * @param dieOffMinFraction tỉ lệ cây sống bị mất giữa hai bản ghi tối thiểu để xét chết hàng loạt
+	 */
+	public GrowthAnomalyDetector(double zThreshold, int minSamples, double ewmaAlpha, double stagnationRatio,
+								 double dieOffMinFraction) {
+		if (zThreshold <= 0 || minSamples < 2 || ewmaAlpha <= 0 || ewmaAlpha > 1) {
+			throw new IllegalArgumentException("zThreshold must be positive, minSamples >= 2, ewmaAlpha in (0, 1]");
+		}
+		this.zThreshold = zThreshold;
+		this.minSamples = minSamples;
+		this.ewmaAlpha = ewmaAlpha;
+		this.stagnationRatio = stagnationRatio;
+		this.dieOffMinFraction = dieOffMinFraction;
+	}
+
+	public double[] newBatchState() {
+		double[] state = new double[BATCH_STATE_SIZE];
+		Arrays.fill(state, LAST_DAY, OUTLIER_RUNS, Double.NaN);
+		return state;
+	}
+
+	public double[] newSpeciesState() {
+		return new double[SPECIES_STATE_SIZE];
+	}
+
+	/**
+	 * Đưa một bản ghi mới vào trạng thái lô và loài, trả về các bất thường phát hiện được.
+	 * Số đo không có truyền NaN. Bản ghi không mới hơn bản ghi cuối của lô (sửa, nhập bù)
+	 * bị bỏ qua để thống kê không bị tính hai lần.
+	 */
+	public List<Anomaly> accept(double[] batch, double[] species, long epochDay,
+								double height, double trunk, double canopy, double alive) {
+		double lastDay = batch[LAST_DAY];
+		if (!Double.isNaN(lastDay) && epochDay <= lastDay) {
+			return List.of();
+		}
+
+		List<Anomaly> anomalies = null;
+		anomalies = growth(GROWTH_METRICS[0], height, epochDay, batch, species, anomalies);
+		anomalies = growth(GROWTH_METRICS[1], trunk, epochDay, batch, species, anomalies);
+		anomalies = growth(GROWTH_METRICS[2], canopy, epochDay, batch, species, anomalies);
+		anomalies = mortality(alive, epochDay, batch, species, anomalies);
+
+		batch[LAST_DAY] = epochDay;
+		return anomalies != null ? anomalies : List.of();
+	}
+
+	/**
+	 * Gộp phần {@code current} đã cộng thêm so với {@code baseline} (bản đã đọc/ghi lần trước)
+	 * vào {@code stored} (bản đang lưu, có thể đã có node khác ghi). Welford gộp chính xác theo
+	 * công thức song song của Chan; EWMA lấy của {@code current} nếu có mẫu mới. Với lô, mốc và
+	 * cờ lấy của bên có bản ghi cuối mới hơn. Trả về mảng mới, không sửa tham số.
+	 */
+	public double[] merge(double[] stored, double[] baseline, double[] current) {
+		if (stored == null || stored.length != current.length || Arrays.equals(stored, baseline)) {
+			return current.clone();
+		}
+		int statsStart = current.length == BATCH_STATE_SIZE ? BATCH_STATS : 0;
+		double[] merged = stored.clone();
+		if (statsStart > 0 && newer(current[LAST_DAY], stored[LAST_DAY])) {
+			System.arraycopy(current, 0, merged, 0, statsStart);
+		}
+		for (int offset = statsStart; offset < current.length; offset += STATS) {
+			mergeStats(merged, baseline, current, offset);
+		}
+		return merged;
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	// merged đang là stored: cộng thêm phần chênh current - baseline
+	private static void mergeStats(double[] merged, double[] baseline, double[] current, int offset) {
+		double nB = baseline[offset + N];
+		double nC = current[offset + N];
+		double nD = nC - nB;
+		if (nD <= 0) {
+			return;
+		}
+		double meanD = current[offset + MEAN];
+		double m2D = current[offset + M2];
+		if (nB > 0) {
+			meanD = (nC * current[offset + MEAN] - nB * baseline[offset + MEAN]) / nD;
+			double delta = meanD - baseline[offset + MEAN];
+			m2D = Math.max(0, current[offset + M2] - baseline[offset + M2] - delta * delta * nB * nD / nC);
+		}
+
+		double nS = merged[offset + N];
+		double n = nS + nD;
+		double delta = meanD - merged[offset + MEAN];
+		merged[offset + N] = n;
+		merged[offset + MEAN] += delta * nD / n;
+		merged[offset + M2] += m2D + delta * delta * nS * nD / n;
+		merged[offset + EWMA] = current[offset + EWMA];
+	}
+
+	// NaN (chưa có bản ghi) cũ hơn mọi ngày
+	private static boolean newer(double day, double than) {
+		return !Double.isNaN(day) && (Double.isNaN(than) || day > than);
+	}
+
+
+	private List<Anomaly> growth(GrowthMetric metric, double value, long epochDay, double[] batch,
+								 double[] species, List<Anomaly> anomalies) {
+		if (Double.isNaN(value)) {
+			return anomalies;
+		}
+		int i = metric.ordinal();
+		double last = batch[LAST_VALUES + i];
+		if (Double.isNaN(last)) {
+			remember(batch, i, value, epochDay);
+			return anomalies;
+		}
+		// Tính từ giá trị làm mốc, có thể cũ hơn bản ghi trước nếu bản ghi đó bị coi là OUTLIER
+		double rate = (value - last) / (epochDay - batch[LAST_VALUE_DAYS + i]);
+		int b = BATCH_STATS + metric.ordinal() * STATS;
+		int s = metric.ordinal() * STATS;
+
+		// So với lịch sử của lô; lô mới chưa đủ mẫu thì so với loài
+		double z = zScore(batch, b, rate);
+		double expected = batch[b + MEAN];
+		if (Double.isNaN(z)) {
+			z = zScore(species, s, rate);
+			expected = species[s + MEAN];
+		}
+		if (!Double.isNaN(z) && Math.abs(z) >= zThreshold) {
+			// Giá trị lệch không vào thống kê và không làm mốc cho bản ghi sau, để một lần nhập sai
+			// không làm lệch baseline hay khiến bản ghi đúng tiếp theo bị báo
+			if (++batch[OUTLIER_RUNS + i] >= REBASELINE_AFTER_OUTLIERS) {
+				remember(batch, i, value, epochDay);
+			}
+			return add(anomalies, new Anomaly(metric, AnomalyKind.OUTLIER, rate, expected, z));
+		}
+		update(batch, b, rate);
+		update(species, s, rate);
+		remember(batch, i, value, epochDay);
+
+		double speciesMean = species[s + MEAN];
+		boolean stagnant = batch[b + N] >= minSamples && species[s + N] >= minSamples && speciesMean > 0
+				&& batch[b + EWMA] < stagnationRatio * speciesMean;
+		if (raise(batch, metric.ordinal(), stagnant)) {
+			anomalies = add(anomalies, new Anomaly(metric, AnomalyKind.STAGNATION, batch[b + EWMA], speciesMean,
+					zScore(species, s, batch[b + EWMA])));
+		}
+		return anomalies;
+	}
+
+	private List<Anomaly> mortality(double alive, long epochDay, double[] batch, double[] species,
+									List<Anomaly> anomalies) {
+		if (Double.isNaN(alive)) {
+			return anomalies;
+		}
+		double lastAlive = batch[LAST_VALUES + ALIVE];
+		double days = epochDay - batch[LAST_VALUE_DAYS + ALIVE];
+		// Cây chết là thật nên số cây sống luôn làm mốc, kể cả khi báo DIE_OFF
+		remember(batch, ALIVE, alive, epochDay);
+		if (Double.isNaN(lastAlive) || lastAlive <= 0) {
+			return anomalies;
+		}
+		double lost = Math.max(0, (lastAlive - alive) / lastAlive);
+		double rate = lost / days;
+		int b = BATCH_STATS + ALIVE * STATS;
+		int s = ALIVE * STATS;
+
+		// Chết hàng loạt: mất đủ nhiều cây và tỉ lệ chết/ngày vượt xa mức thường gặp của loài
+		double z = zScore(species, s, rate);
+		boolean dieOff = lost >= dieOffMinFraction && (Double.isNaN(z) || z >= zThreshold);
+		if (!dieOff) {
+			update(batch, b, rate);
+			update(species, s, rate);
+		}
+		if (raise(batch, ALIVE, dieOff)) {
+			anomalies = add(anomalies, new Anomaly(GrowthMetric.MORTALITY, AnomalyKind.DIE_OFF, rate,
+					species[s + MEAN], z));
+		}
+		return anomalies;
+	}
+
+	// Welford cho mean/variance, EWMA khởi tạo bằng giá trị đầu tiên
+	private void update(double[] state, int offset, double x) {
+		double n = state[offset + N] + 1;
+		double delta = x - state[offset + MEAN];
+		state[offset + N] = n;
+		state[offset + MEAN] += delta / n;
+		state[offset + M2] += delta * (x - state[offset + MEAN]);
+		state[offset + EWMA] = n == 1 ? x : ewmaAlpha * x + (1 - ewmaAlpha) * state[offset + EWMA];
+	}
+
+	// NaN khi chưa đủ mẫu
+	private double zScore(double[] state, int offset, double x) {
+		double n = state[offset + N];
+		if (n < minSamples) {
+			return Double.NaN;
+		}
+		double mean = state[offset + MEAN];
+		double std = Math.sqrt(state[offset + M2] / (n - 1));
+		return (x - mean) / Math.max(std, Math.max(MIN_RELATIVE_STD * Math.abs(mean), MIN_STD));
+	}
+
+	// Cờ STAGNATION/DIE_OFF chỉ báo khi chuyển sang bật, tắt lại khi điều kiện hết
+	private static boolean raise(double[] batch, int bit, boolean active) {
+		int flags = (int) batch[ACTIVE_FLAGS];
+		int mask = 1 << bit;
+		batch[ACTIVE_FLAGS] = active ? flags | mask : flags & ~mask;
+		return active && (flags & mask) == 0;
+	}
+
+	private static void remember(double[] batch, int index, double value, long epochDay) {
+		batch[LAST_VALUES + index] = value;
+		batch[LAST_VALUE_DAYS + index] = epochDay;
+		batch[OUTLIER_RUNS + index] = 0;
+	}
+
+	private static List<Anomaly> add(List<Anomaly> anomalies, Anomaly anomaly) {
+		if (anomalies == null) {
+			anomalies = new ArrayList<>(2);
+		}
+		anomalies.add(anomaly);
+		return anomalies;
+	}
+}
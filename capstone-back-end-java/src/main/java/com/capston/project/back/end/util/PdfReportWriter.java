@@ -0,0 +1,132 @@
+package com.capston.project.back.end.util;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+
+import java.awt.Color;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Pipeline PDF dùng chung cho các báo cáo (OpenPDF). Ghi thẳng ra OutputStream;
+ * bảng lớn được add vào document theo từng chunk (PdfPTable không complete) nên
+ * các dòng đã render được giải phóng thay vì giữ cả bảng trong heap.
+ */
+public class PdfReportWriter implements AutoCloseable {
+
+	private static final int CHUNK_ROWS = 500;
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+	// Font/màu chỉ đọc, tạo một lần cho mọi báo cáo
+	private static final Font TITLE_FONT = new Font(Font.HELVETICA, 18, Font.BOLD, Color.DARK_GRAY);
+	private static final Font DATE_FONT = new Font(Font.HELVETICA, 10, Font.NORMAL, Color.GRAY);
+	private static final Font SECTION_FONT = new Font(Font.HELVETICA, 14, Font.BOLD, Color.DARK_GRAY);
+	private static final Font LABEL_FONT = new Font(Font.HELVETICA, 10, Font.BOLD);
+	private static final Font VALUE_FONT = new Font(Font.HELVETICA, 10, Font.NORMAL);
+	private static final Font HEADER_FONT = new Font(Font.HELVETICA, 9, Font.BOLD, Color.WHITE);
+	private static final Font CELL_FONT = new Font(Font.HELVETICA, 9, Font.NORMAL);
+	private static final Color HEADER_BACKGROUND = new Color(34, 139, 34); // Forest Green
+
+	private final Document document;
+
+	public PdfReportWriter(OutputStream out) throws DocumentException {
+		this.document = new Document(PageSize.A4);
+		PdfWriter.getInstance(document, out);
+		document.open();
+	}
+
+	public void title(String title, LocalDate reportDate) throws DocumentException {
+		Paragraph titleParagraph = new Paragraph(title, TITLE_FONT);
+		titleParagraph.setAlignment(Element.ALIGN_CENTER);
+		titleParagraph.setSpacingAfter(20);
+		document.add(titleParagraph);
+
+		Paragraph date = new Paragraph("Ngày báo cáo: " + reportDate.format(DATE_FORMAT), DATE_FONT);
+		date.setAlignment(Element.ALIGN_CENTER);
+		date.setSpacingAfter(20);
+		document.add(date);
+	}
+
+	public void section(String title) throws DocumentException {
+		Paragraph section = new Paragraph(title, SECTION_FONT);
+		section.setSpacingBefore(15);
+		section.setSpacingAfter(10);
+		document.add(section);
+	}
+
+	/**
+	 * Bảng 2 cột nhãn/giá trị không viền
+	 */
+	public void summary(String[]... rows) throws DocumentException {
+		PdfPTable table = new PdfPTable(2);
+		table.setWidthPercentage(100);
+		table.getDefaultCell().setBorder(0);
+		table.getDefaultCell().setPadding(5);
+		for (String[] row : rows) {
+			table.addCell(new Phrase(row[0], LABEL_FONT));
+			table.addCell(new Phrase(row[1], VALUE_FONT));
+		}
+		document.add(table);
+	}
+
+	/**
+	 * Mở một bảng dữ liệu; header lặp lại ở mỗi trang. Phải đóng (try-with-resources)
+	 * để ghi phần còn lại.
+	 */
+	public TableWriter table(float[] widths, String... headers) throws DocumentException {
+		return new TableWriter(widths, headers);
+	}
+
+	@Override
+	public void close() {
+		document.close();
+	}
+
+	public final class TableWriter implements AutoCloseable {
+
+		private final PdfPTable table;
+		private int pendingRows;
+
+		private TableWriter(float[] widths, String... headers) throws DocumentException {
+			table = new PdfPTable(headers.length);
+			table.setWidthPercentage(100);
+			table.setWidths(widths);
+			table.setComplete(false);
+			for (String header : headers) {
+				PdfPCell cell = new PdfPCell(new Phrase(header, HEADER_FONT));
+				cell.setBackgroundColor(HEADER_BACKGROUND);
+				cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+				cell.setPadding(5);
+				table.addCell(cell);
+			}
+			table.setHeaderRows(1);
+			table.getDefaultCell().setPadding(4);
+		}
+
+		public void row(String... values) throws DocumentException {
+			for (String value : values) {
+				table.addCell(new Phrase(value != null ? value : "", CELL_FONT));
+			}
+			if (++pendingRows >= CHUNK_ROWS) {
+				// Bảng chưa complete: document ghi các dòng đã đủ trang rồi bỏ khỏi bảng
+				document.add(table);
+				pendingRows = 0;
+			}
+		}
+
+		@Override
+		public void close() throws DocumentException {
+			table.setComplete(true);
+			document.add(table);
+		}
+	}
+}
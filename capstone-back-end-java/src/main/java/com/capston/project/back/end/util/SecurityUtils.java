@@ -30,6 +30,13 @@ public class SecurityUtils {
         return user != null ? user.getId() : null;
     }
 
+    /**
+     * User id theo username (dùng cho STOMP, nơi không có SecurityContext mà chỉ có Principal)
+     */
+    public UUID getUserIdByUsername(String username) {
+        return userRepository.findByUsername(username).map(User::getId).orElse(null);
+    }
+
     public boolean isAdmin() {
         User user = getCurrentUser();
         return user != null && user.getRole() == Role.ADMIN;
@@ -0,0 +1,339 @@
+package com.capston.project.back.end.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index trong bộ nhớ cho văn bản tiếng Việt: từ đã bỏ dấu (cùng cặp
+ * âm tiết liền kề) → danh sách document. Xếp hạng kiểu BM25; tiêu đề có trọng
+ * số cao hơn nội dung. Thêm/xoá từng document được: document bị xoá được gỡ
+ * khỏi posting list ngay (df, độ dài trung bình luôn đúng), docId được đánh lại
+ * khi số chỗ trống vượt một phần tư.
+ *
+ * @param <K> khoá document
+ */
+public class TextSearchIndex<K> {
+
+	private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+	private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+
+	// Từ chức năng thường gặp trong câu hỏi (đã bỏ dấu). Không đưa vào các từ trùng với
+	// từ có nghĩa sau khi bỏ dấu như "ban" (bán), "khi" (khí), "an" (án)
+	private static final Set<String> STOP_WORDS = Set.of(
+			"la", "co", "cac", "nhung", "cua", "va", "voi", "cho", "toi", "minh", "nao", "gi", "the",
+			"duoc", "khong", "mot", "nay", "do", "thi", "ma", "tai", "ve", "nhu", "hay", "hoac", "de",
+			"can", "muon", "sao", "nhieu", "nhe", "is", "are", "what", "which", "how", "of", "to", "in",
+			"and", "or", "for", "my");
+
+	private static final float TITLE_BOOST = 2.0f;
+	private static final float K1 = 1.2f;
+	private static final float B = 0.75f;
+	private static final int COMPACT_MIN_REMOVED = 64;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Map<K, Integer> docIdByKey = new HashMap<>();
+	// docId → khoá và term của document; null nếu document đã bị xoá
+	private final List<K> keys = new ArrayList<>();
+	private final List<Doc> docs = new ArrayList<>();
+	private final Map<String, Postings> postings = new HashMap<>();
+	private long totalLength;
+	private int removedSlots;
+
+	/**
+	 * Kết quả tìm kiếm
+	 */
+	public record Hit<K>(K key, float score) {}
+
+	/**
+	 * Bỏ dấu tiếng Việt (kể cả đ → d) và chuyển chữ thường
+	 */
+	public static String fold(String text) {
+		String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+		return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+				.replace('đ', 'd').replace('Đ', 'D')
+				.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Tách từ đã bỏ dấu; bỏ từ chức năng và từ một ký tự (trừ số)
+	 */
+	public static List<String> words(String text) {
+		List<String> words = new ArrayList<>();
+		if (text == null) {
+			return words;
+		}
+		for (String word : NON_ALPHANUMERIC.split(fold(text))) {
+			if (!word.isEmpty() && !STOP_WORDS.contains(word)
+					&& (word.length() > 1 || Character.isDigit(word.charAt(0)))) {
+				words.add(word);
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Thêm hoặc thay thế document
+	 */
+	public void put(K key, String title, String body) {
+		Map<String, Float> termWeights = new HashMap<>();
+		int length = addTerms(termWeights, title, TITLE_BOOST) + addTerms(termWeights, body, 1.0f);
+		if (termWeights.isEmpty()) {
+			remove(key);
+			return;
+		}
+
+		lock.writeLock().lock();
+		try {
+			removeLocked(key);
+			int docId = keys.size();
+			keys.add(key);
+			docs.add(new Doc(termWeights.keySet().toArray(new String[0]), length));
+			docIdByKey.put(key, docId);
+			totalLength += length;
+
+			// Chuẩn hoá độ dài theo độ dài trung bình tại thời điểm thêm (đủ chính xác để xếp hạng)
+			float lengthNorm = 1 - B + B * length / Math.max(1f, (float) totalLength / docIdByKey.size());
+			for (Map.Entry<String, Float> term : termWeights.entrySet()) {
+				float tf = term.getValue();
+				postings.computeIfAbsent(term.getKey(), t -> new Postings())
+						.add(docId, tf * (K1 + 1) / (tf + K1 * lengthNorm));
+			}
+			compactIfNeeded();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(K key) {
+		lock.writeLock().lock();
+		try {
+			removeLocked(key);
+			compactIfNeeded();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return docIdByKey.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Tối đa {@code limit} document có điểm cao nhất (và ít nhất {@code minScore}), điểm giảm dần
+	 */
+	public List<Hit<K>> search(String query, int limit, float minScore) {
+		Set<String> terms = new LinkedHashSet<>(terms(query));
+		if (terms.isEmpty() || limit <= 0) {
+			return List.of();
+		}
+
+		lock.readLock().lock();
+		try {
+			int liveDocs = docIdByKey.size();
+			if (liveDocs == 0) {
+				return List.of();
+			}
+			float[] scores = new float[keys.size()];
+			for (String term : terms) {
+				Postings termPostings = postings.get(term);
+				if (termPostings == null) {
+					continue;
+				}
+				int df = termPostings.size;
+				float idf = (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+				int[] docIds = termPostings.docIds;
+				float[] weights = termPostings.weights;
+				for (int i = 0; i < termPostings.size; i++) {
+					scores[docIds[i]] += idf * weights[i];
+				}
+			}
+			return topHits(scores, limit, minScore);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	// Từ đơn và cặp âm tiết liền kề ("du_an", "tin_chi") vì từ tiếng Việt thường gồm hai âm tiết
+	private static List<String> terms(String text) {
+		List<String> words = words(text);
+		List<String> terms = new ArrayList<>(words.size() * 2);
+		for (int i = 0; i < words.size(); i++) {
+			terms.add(words.get(i));
+			if (i > 0) {
+				terms.add(words.get(i - 1) + "_" + words.get(i));
+			}
+		}
+		return terms;
+	}
+
+	private static int addTerms(Map<String, Float> termWeights, String text, float boost) {
+		List<String> terms = terms(text);
+		for (String term : terms) {
+			termWeights.merge(term, boost, Float::sum);
+		}
+		return terms.size();
+	}
+
+	private void removeLocked(K key) {
+		Integer docId = docIdByKey.remove(key);
+		if (docId == null) {
+			return;
+		}
+		keys.set(docId, null);
+		Doc doc = docs.set(docId, null);
+		totalLength -= doc.length();
+		for (String term : doc.terms()) {
+			Postings termPostings = postings.get(term);
+			if (termPostings.remove(docId) == 0) {
+				postings.remove(term);
+			}
+		}
+		removedSlots++;
+	}
+
+	// Đánh lại docId liên tiếp để mảng điểm mỗi truy vấn không lớn dần theo số lần sửa document
+	private void compactIfNeeded() {
+		if (removedSlots < COMPACT_MIN_REMOVED || removedSlots * 4 < keys.size()) {
+			return;
+		}
+		int[] newIds = new int[keys.size()];
+		int next = 0;
+		for (int docId = 0; docId < keys.size(); docId++) {
+			K key = keys.get(docId);
+			if (key != null) {
+				newIds[docId] = next;
+				keys.set(next, key);
+				docs.set(next, docs.get(docId));
+				docIdByKey.put(key, next);
+				next++;
+			}
+		}
+		keys.subList(next, keys.size()).clear();
+		docs.subList(next, docs.size()).clear();
+		for (Postings termPostings : postings.values()) {
+			termPostings.renumber(newIds);
+		}
+		removedSlots = 0;
+	}
+
+	private List<Hit<K>> topHits(float[] scores, int limit, float minScore) {
+		// Min-heap kích thước limit trên docId, phần tử đầu là điểm thấp nhất đang giữ
+		int[] heap = new int[limit];
+		int heapSize = 0;
+		for (int docId = 0; docId < scores.length; docId++) {
+			float score = scores[docId];
+			if (score <= 0 || score < minScore || keys.get(docId) == null) {
+				continue;
+			}
+			if (heapSize < limit) {
+				heap[heapSize] = docId;
+				siftUp(heap, heapSize++, scores);
+			} else if (score > scores[heap[0]]) {
+				heap[0] = docId;
+				siftDown(heap, heapSize, scores);
+			}
+		}
+
+		List<Hit<K>> hits = new ArrayList<>(heapSize);
+		for (int i = 0; i < heapSize; i++) {
+			hits.add(new Hit<>(keys.get(heap[i]), scores[heap[i]]));
+		}
+		hits.sort((a, b) -> Float.compare(b.score(), a.score()));
+		return hits;
+	}
+
+	private static void siftUp(int[] heap, int index, float[] scores) {
+		while (index > 0) {
+			int parent = (index - 1) / 2;
+			if (scores[heap[parent]] <= scores[heap[index]]) {
+				return;
+			}
+			swap(heap, parent, index);
+			index = parent;
+		}
+	}
+
+	private static void siftDown(int[] heap, int size, float[] scores) {
+		int index = 0;
+		while (true) {
+			int smallest = index;
+			int left = 2 * index + 1;
+			int right = left + 1;
+			if (left < size && scores[heap[left]] < scores[heap[smallest]]) {
+				smallest = left;
+			}
+			if (right < size && scores[heap[right]] < scores[heap[smallest]]) {
+				smallest = right;
+			}
+			if (smallest == index) {
+				return;
+			}
+			swap(heap, index, smallest);
+			index = smallest;
+		}
+	}
+
+	private static void swap(int[] heap, int i, int j) {
+		int tmp = heap[i];
+		heap[i] = heap[j];
+		heap[j] = tmp;
+	}
+
+	/**
+	 * Danh sách docId tăng dần kèm trọng số đã chuẩn hoá của term trong document
+	 */
+	private static final class Postings {
+
+		private int[] docIds = new int[4];
+		private float[] weights = new float[4];
+		private int size;
+
+		void add(int docId, float weight) {
+			if (size == docIds.length) {
+				docIds = Arrays.copyOf(docIds, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+			}
+			docIds[size] = docId;
+			weights[size] = weight;
+			size++;
+		}
+
+		// Trả về số document còn lại
+		int remove(int docId) {
+			int i = Arrays.binarySearch(docIds, 0, size, docId);
+			if (i >= 0) {
+				System.arraycopy(docIds, i + 1, docIds, i, size - i - 1);
+				System.arraycopy(weights, i + 1, weights, i, size - i - 1);
+				size--;
+			}
+			return size;
+		}
+
+		// newIds tăng dần theo docId cũ nên thứ tự vẫn giữ nguyên
+		void renumber(int[] newIds) {
+			for (int i = 0; i < size; i++) {
+				docIds[i] = newIds[docIds[i]];
+			}
+		}
+	}
+
+	private record Doc(String[] terms, int length) {
+	}
+}
@@ -0,0 +1,55 @@
+package com.capston.project.back.end.util;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Rate limiter kiểu token bucket cho API bên ngoài. Token được nạp đều theo
+ * thời gian, tối đa {@code burst} token; {@link #acquire()} chờ (park) đến khi
+ * có token nên phù hợp với virtual thread.
+ */
+public class TokenBucket {
+
+	private final double permitsPerNano;
+	private final double capacity;
+
+	private double tokens;
+	private long lastRefillNanos;
+
+	public TokenBucket(double permitsPerSecond, int burst) {
+		if (permitsPerSecond <= 0 || burst <= 0) {
+			throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+		}
+		this.permitsPerNano = permitsPerSecond / Duration.ofSeconds(1).toNanos();
+		this.capacity = burst;
+		this.tokens = burst;
+		this.lastRefillNanos = System.nanoTime();
+	}
+
+	/**
+	 * Lấy một token, chờ nếu bucket đang rỗng
+	 */
+	public void acquire() throws InterruptedException {
+		long waitNanos;
+		while ((waitNanos = reserve()) > 0) {
+			LockSupport.parkNanos(this, waitNanos);
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+	}
+
+	/**
+	 * Trả về 0 nếu đã lấy được token, ngược lại là thời gian cần chờ (ns)
+	 */
+	private synchronized long reserve() {
+		long now = System.nanoTime();
+		tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * permitsPerNano);
+		lastRefillNanos = now;
+		if (tokens >= 1) {
+			tokens -= 1;
+			return 0;
+		}
+		return (long) Math.ceil((1 - tokens) / permitsPerNano);
+	}
+}
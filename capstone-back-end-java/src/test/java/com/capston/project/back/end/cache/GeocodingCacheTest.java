@@ -0,0 +1,127 @@
+package com.capston.project.back.end.cache;
+
+import com.capston.project.back.end.entity.GeocodingCacheEntry;
+import com.capston.project.back.end.repository.GeocodingCacheRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Chuẩn hoá địa chỉ làm key và cache forward/reverse trên bảng geocoding_cache giả
+ */
+class GeocodingCacheTest {
+
+	private static final GeocodingCache.Result BEN_TRE = new GeocodingCache.Result(
+			new BigDecimal("10.2434"), new BigDecimal("106.3756"), "Tân Phú, Châu Thành, Bến Tre", "nominatim");
+
+	private final Map<String, GeocodingCacheEntry> table = new HashMap<>();
+
+	@Test
+	void normalizesCaseWhitespaceAndCommas() {
+		String expected = "xã tân phú, huyện châu thành, tỉnh bến tre";
+
+		assertEquals(expected, GeocodingCache.normalizeAddress("Xã Tân Phú, Huyện Châu Thành, Tỉnh Bến Tre"));
+		assertEquals(expected, GeocodingCache.normalizeAddress("  XÃ  TÂN PHÚ ,Huyện Châu Thành,,\tTỉnh Bến Tre.  "));
+		assertEquals(expected, GeocodingCache.normalizeAddress(", xã tân phú,huyện châu thành , tỉnh bến tre,"));
+	}
+
+	@Test
+	void normalizesDecomposedUnicodeToComposedForm() {
+		// "Tân Phú" gõ bằng dấu tổ hợp (NFD) phải trùng key với dạng dựng sẵn
+		String decomposed = "Ta\u0302n Phu\u0301";
+
+		assertEquals("tân phú", GeocodingCache.normalizeAddress(decomposed));
+	}
+
+	@Test
+	void truncatesVeryLongAddresses() {
+		String normalized = GeocodingCache.normalizeAddress("ấp ".repeat(300));
+
+		assertEquals(500, normalized.length());
+	}
+
+	@Test
+	void differentSpellingsOfSameAddressShareOneLookup() {
+		GeocodingCache cache = cache();
+		List<String> loaded = new ArrayList<>();
+
+		Optional<GeocodingCache.Result> first = cache.forward("Tân Phú, Châu Thành, Bến Tre",
+				address -> record(loaded, address));
+		Optional<GeocodingCache.Result> second = cache.forward("tân phú ,châu thành,  BẾN TRE",
+				address -> record(loaded, address));
+
+		assertEquals(Optional.of(BEN_TRE), first);
+		assertEquals(first, second);
+		// Loader nhận địa chỉ gốc, không phải key đã chuẩn hoá
+		assertEquals(List.of("Tân Phú, Châu Thành, Bến Tre"), loaded);
+		assertTrue(table.containsKey("F:tân phú, châu thành, bến tre"));
+	}
+
+	@Test
+	void notFoundIsNotCached() {
+		GeocodingCache cache = cache();
+		List<String> loaded = new ArrayList<>();
+
+		assertTrue(cache.forward("Không tồn tại", address -> {
+			loaded.add(address);
+			return null;
+		}).isEmpty());
+		assertEquals(Optional.of(BEN_TRE), cache.forward("Không tồn tại", address -> record(loaded, address)));
+
+		assertEquals(2, loaded.size());
+	}
+
+	@Test
+	void reverseLookupRoundsCoordinatesToFiveDecimals() {
+		GeocodingCache cache = cache();
+		List<String> loaded = new ArrayList<>();
+
+		cache.reverse(new BigDecimal("10.243412"), new BigDecimal("106.375648"), (lat, lon) -> {
+			loaded.add(lat + "," + lon);
+			return BEN_TRE;
+		});
+		cache.reverse(new BigDecimal("10.243409"), new BigDecimal("106.3756504"), (lat, lon) -> {
+			loaded.add(lat + "," + lon);
+			return BEN_TRE;
+		});
+
+		assertEquals(List.of("10.24341,106.37565"), loaded);
+		assertTrue(table.containsKey("R:10.24341,106.37565"));
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private static GeocodingCache.Result record(List<String> loaded, String address) {
+		loaded.add(address);
+		return BEN_TRE;
+	}
+
+	private GeocodingCache cache() {
+		GeocodingCacheRepository repository = (GeocodingCacheRepository) Proxy.newProxyInstance(
+				GeocodingCacheRepository.class.getClassLoader(), new Class<?>[]{GeocodingCacheRepository.class},
+				(proxy, method, args) -> switch (method.getName()) {
+					case "findById" -> Optional.ofNullable(table.get((String) args[0]));
+					case "save" -> {
+						GeocodingCacheEntry entry = (GeocodingCacheEntry) args[0];
+						table.put(entry.getCacheKey(), entry);
+						yield entry;
+					}
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+		GeocodingCache cache = new GeocodingCache(repository);
+		ReflectionTestUtils.setField(cache, "maxEntries", 100);
+		ReflectionTestUtils.setField(cache, "ttl", Duration.ofDays(180));
+		return cache;
+	}
+}
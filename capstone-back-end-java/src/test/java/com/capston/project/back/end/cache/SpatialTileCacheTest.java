@@ -0,0 +1,193 @@
+package com.capston.project.back.end.cache;
+
+import com.capston.project.back.end.common.TileDataType;
+import com.capston.project.back.end.entity.SpatialTileCacheEntry;
+import com.capston.project.back.end.repository.SpatialTileCacheRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Làm tròn ô lưới, TTL ở cả hai tầng và gộp các lần load trùng ô, trên bảng spatial_tile_cache giả trong bộ nhớ
+ */
+class SpatialTileCacheTest {
+
+	private static final BigDecimal LATITUDE = new BigDecimal("10.0312");
+	private static final BigDecimal LONGITUDE = new BigDecimal("105.7684");
+
+	private final Map<String, SpatialTileCacheEntry> table = new ConcurrentHashMap<>();
+
+	@Test
+	void roundsCoordinatesDownToTileAndCallsApiAtTileCenter() {
+		SpatialTileCache cache = cache(Duration.ofDays(1));
+
+		SpatialTileCache.Tile tile = cache.tile(TileDataType.WEATHER_DAILY, LATITUDE, LONGITUDE);
+		assertEquals(200, tile.latIndex());
+		assertEquals(2115, tile.lonIndex());
+		assertEquals(new BigDecimal("10.025000"), tile.latitude());
+		assertEquals(new BigDecimal("105.775000"), tile.longitude());
+		assertEquals("WEATHER_DAILY:0.05:200:2115:2025-09-01", tile.key("2025-09-01"));
+		assertEquals("WEATHER_DAILY:0.05:200:2115", tile.key(null));
+
+		// Cùng ô thì cùng key; toạ độ âm làm tròn xuống chứ không về 0
+		assertEquals(tile, cache.tile(TileDataType.WEATHER_DAILY, new BigDecimal("10.0499"), new BigDecimal("105.7501")));
+		SpatialTileCache.Tile south = cache.tile(TileDataType.WEATHER_DAILY, new BigDecimal("-0.01"), LONGITUDE);
+		assertEquals(-1, south.latIndex());
+		assertEquals(new BigDecimal("-0.025000"), south.latitude());
+
+		// Độ phân giải khác nhau theo loại dữ liệu nên key không lẫn
+		SpatialTileCache.Tile soil = cache.tile(TileDataType.SOIL, LATITUDE, LONGITUDE);
+		assertEquals("SOIL:0.0025:4012:42307", soil.key(null));
+		assertNotEquals(tile.key(null), cache.tile(TileDataType.CLIMATE, LATITUDE, LONGITUDE).key(null));
+	}
+
+	@Test
+	void servesFromMemoryThenStoreUntilTtlExpires() throws InterruptedException {
+		AtomicInteger loads = new AtomicInteger();
+		SpatialTileCache cache = cache(Duration.ofMillis(300));
+
+		assertEquals("v1", load(cache, loads));
+		assertEquals("v1", load(cache, loads));
+		assertEquals(1, loads.get());
+
+		// Restart: bộ nhớ trống, đọc lại từ bảng
+		SpatialTileCache restarted = cache(Duration.ofMillis(300));
+		assertEquals("v1", load(restarted, loads));
+		assertEquals(1, loads.get());
+
+		// Hết hạn ở cả bộ nhớ lẫn bảng: load lại một lần, instance kia đọc giá trị mới từ bảng
+		Thread.sleep(400);
+		assertEquals("v2", load(cache, loads));
+		assertEquals("v2", load(restarted, loads));
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void loaderFailureIsNotCached() {
+		SpatialTileCache cache = cache(Duration.ofDays(1));
+		AtomicInteger loads = new AtomicInteger();
+
+		assertThrows(IllegalStateException.class, () -> cache.get(TileDataType.CLIMATE, LATITUDE, LONGITUDE, null,
+				String.class, (lat, lon) -> {
+					throw new IllegalStateException("API down");
+				}));
+		assertEquals("v1", load(cache, loads));
+		assertTrue(table.values().stream().allMatch(entry -> entry.getPayload().equals("\"v1\"")));
+	}
+
+	@Test
+	void concurrentLoadsOfSameTileShareOneApiCall() throws Exception {
+		SpatialTileCache cache = cache(Duration.ofDays(1));
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+			CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get(TileDataType.CLIMATE,
+					LATITUDE, LONGITUDE, null, String.class, (lat, lon) -> {
+						loads.incrementAndGet();
+						started.countDown();
+						await(release);
+						return "climate";
+					}), executor);
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+
+			// Toạ độ khác nhưng cùng ô 0.1°: chờ lần load đang chạy
+			List<CompletableFuture<String>> waiting = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				waiting.add(CompletableFuture.supplyAsync(() -> cache.get(TileDataType.CLIMATE,
+						new BigDecimal("10.0999"), new BigDecimal("105.7001"), null, String.class, (lat, lon) -> {
+							loads.incrementAndGet();
+							return "duplicate";
+						}), executor));
+			}
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (coalesced(cache) < 3 && System.nanoTime() < deadline) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+
+			assertEquals("climate", first.get(5, TimeUnit.SECONDS));
+			for (CompletableFuture<String> future : waiting) {
+				assertEquals("climate", future.get(5, TimeUnit.SECONDS));
+			}
+		}
+		assertEquals(1, loads.get());
+		assertEquals(3L, coalesced(cache));
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private String load(SpatialTileCache cache, AtomicInteger loads) {
+		return cache.get(TileDataType.CLIMATE, LATITUDE, LONGITUDE, null, String.class,
+				(lat, lon) -> "v" + loads.incrementAndGet());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static long coalesced(SpatialTileCache cache) {
+		Map<String, Object> climate = (Map<String, Object>) cache.getStats().get(TileDataType.CLIMATE.name());
+		return (Long) climate.get("coalesced");
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// Bảng spatial_tile_cache giả dùng chung giữa các instance (giả lập restart)
+	@SuppressWarnings("unchecked")
+	private SpatialTileCache cache(Duration climateTtl) {
+		SpatialTileCacheRepository repository = (SpatialTileCacheRepository) Proxy.newProxyInstance(
+				SpatialTileCacheRepository.class.getClassLoader(), new Class<?>[]{SpatialTileCacheRepository.class},
+				(proxy, method, args) -> switch (method.getName()) {
+					case "findAllById" -> {
+						List<SpatialTileCacheEntry> found = new ArrayList<>();
+						for (String key : (Iterable<String>) args[0]) {
+							SpatialTileCacheEntry entry = table.get(key);
+							if (entry != null) {
+								found.add(entry);
+							}
+						}
+						yield found;
+					}
+					case "saveAll" -> {
+						for (SpatialTileCacheEntry entry : (Iterable<SpatialTileCacheEntry>) args[0]) {
+							table.put(entry.getCacheKey(), entry);
+						}
+						yield args[0];
+					}
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+		SpatialTileCache cache = new SpatialTileCache(repository);
+		ReflectionTestUtils.setField(cache, "maxEntries", 1_000);
+		ReflectionTestUtils.setField(cache, "weatherResolution", 0.05);
+		ReflectionTestUtils.setField(cache, "weatherTtl", Duration.ofDays(365));
+		ReflectionTestUtils.setField(cache, "climateResolution", 0.1);
+		ReflectionTestUtils.setField(cache, "climateTtl", climateTtl);
+		ReflectionTestUtils.setField(cache, "soilResolution", 0.0025);
+		ReflectionTestUtils.setField(cache, "soilTtl", Duration.ofDays(3650));
+		cache.initStats();
+		return cache;
+	}
+}
@@ -0,0 +1,369 @@
+package com.capston.project.back.end.config;
+
+import com.capston.project.back.end.service.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.BrokerAvailabilityEvent;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Đo số message/giây một node đẩy được tới client, với outbound pool giống application.yml.
+ * Publisher giới hạn số message đang chờ trong outbound queue để đo tốc độ bền vững
+ * thay vì làm tràn queue. Mọi phép đo kiểm tra mỗi session nhận đúng số message.
+ *
+ * Simple broker chỉ chạy khi bật: mvn test -Dtest=StompBrokerThroughputTest -Dbenchmark=true
+ *
+ * Chế độ relay dựng hai node từ WebSocketConfig (websocket.broker.mode=relay) và cần broker
+ * STOMP đang chạy (docker compose --profile relay up -d rabbitmq):
+ * mvn test -Dtest=StompBrokerThroughputTest -Dstomp.relay.host=localhost
+ */
+class StompBrokerThroughputTest {
+
+	private static final Logger log = LoggerFactory.getLogger(StompBrokerThroughputTest.class);
+
+	private static final List<String> PREFIXES = List.of("/topic", "/queue");
+	private static final int OUTBOUND_QUEUE_CAPACITY = 50000;
+	private static final byte[] PAYLOAD = "{\"type\":\"ALERT\",\"message\":\"Cảnh báo sức khoẻ lô cây\"}"
+			.getBytes(StandardCharsets.UTF_8);
+
+	private final List<ThreadPoolTaskExecutor> executors = new ArrayList<>();
+	private final List<Runnable> stopActions = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() {
+		stopActions.forEach(Runnable::run);
+		executors.forEach(ThreadPoolTaskExecutor::shutdown);
+	}
+
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void simpleBrokerTopicFanOut() throws InterruptedException {
+		Node node = simpleNode();
+		int subscribers = 200;
+		int messages = 5000;
+		List<String> sessions = new ArrayList<>();
+		for (int i = 0; i < subscribers; i++) {
+			sessions.add("session-" + i);
+			node.inbound.send(subscribe(SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE),
+					"session-" + i, "/topic/alerts"));
+		}
+
+		double perSecond = publish(node, node, "/topic/alerts", messages, subscribers);
+		assertDeliveredToEach(node, sessions, messages);
+		log.info("simple broker, /topic fan-out to {} sessions: {} deliveries/s", subscribers, Math.round(perSecond));
+	}
+
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void simpleBrokerUserQueues() throws InterruptedException {
+		Node node = simpleNode();
+		int sessionCount = 1000;
+		int messagesPerSession = 200;
+		List<String> sessions = new ArrayList<>();
+		for (int i = 0; i < sessionCount; i++) {
+			sessions.add("session-" + i);
+			// Đích đã resolve của /user/queue/notifications
+			node.inbound.send(subscribe(SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE),
+					"session-" + i, "/queue/notifications-usersession-" + i));
+		}
+
+		long started = System.nanoTime();
+		for (int round = 0; round < messagesPerSession; round++) {
+			for (int i = 0; i < sessionCount; i++) {
+				awaitCapacity(node, (long) round * sessionCount + i);
+				node.broker.send(message("/queue/notifications-usersession-" + i));
+			}
+		}
+		double perSecond = awaitDeliveries(node, (long) sessionCount * messagesPerSession, started);
+		assertDeliveredToEach(node, sessions, messagesPerSession);
+		log.info("simple broker, point-to-point to {} sessions: {} deliveries/s", sessionCount, Math.round(perSecond));
+	}
+
+	@Test
+	@EnabledIfSystemProperty(named = "stomp.relay.host", matches = ".+")
+	void relayDeliversTopicAcrossNodes() throws InterruptedException {
+		Node subscriberNode = relayNode("node-a");
+		Node publisherNode = relayNode("node-b");
+
+		// Client kết nối vào node A; message publish ở node B phải đi qua broker để tới được
+		connect(subscriberNode, "relay-session", null);
+		StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+		subscribe.setReceipt("subscribed");
+		awaitReceipt(subscriberNode, subscribe(subscribe, "relay-session", "/topic/throughput-test"));
+
+		int messages = 20000;
+		double perSecond = publish(publisherNode, subscriberNode, "/topic/throughput-test", messages, 1);
+		assertDeliveredToEach(subscriberNode, List.of("relay-session"), messages);
+		log.info("broker relay, node B -> broker -> node A: {} messages/s", Math.round(perSecond));
+	}
+
+	@Test
+	@EnabledIfSystemProperty(named = "stomp.relay.host", matches = ".+")
+	void relayResolvesUserDestinationAcrossNodes() throws InterruptedException {
+		Node userNode = relayNode("node-a");
+		Node senderNode = relayNode("node-b");
+		Principal alice = () -> "alice";
+
+		// User chỉ kết nối vào node A: node B không có session của user nên phải nhờ registry
+		// được broadcast hoặc /topic/unresolved-user-destination để tới được node A
+		connect(userNode, "alice-session", alice);
+		StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+		subscribe.setReceipt("subscribed");
+		subscribe.setUser(alice);
+		awaitReceipt(userNode, subscribe(subscribe, "alice-session", "/user/queue/notifications"));
+
+		int messages = 1000;
+		SimpMessagingTemplate template = senderNode.context.getBean("brokerMessagingTemplate",
+				SimpMessagingTemplate.class);
+		long started = System.nanoTime();
+		for (int i = 0; i < messages; i++) {
+			template.convertAndSendToUser("alice", "/queue/notifications", PAYLOAD);
+		}
+		double perSecond = awaitDeliveries(userNode, messages, started);
+		// Không được nhận trùng khi cả hai đường (registry và broadcast) cùng hoạt động
+		Thread.sleep(500);
+		assertDeliveredToEach(userNode, List.of("alice-session"), messages);
+		log.info("broker relay, /user destination node B -> node A: {} messages/s", Math.round(perSecond));
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private Node simpleNode() {
+		Node node = new Node(new ExecutorSubscribableChannel(), new ExecutorSubscribableChannel(executor("outbound")),
+				new ExecutorSubscribableChannel(), null);
+		SimpleBrokerMessageHandler handler = new SimpleBrokerMessageHandler(node.inbound, node.outbound,
+				(SubscribableChannel) node.broker, PREFIXES);
+		node.countMessages();
+		handler.start();
+		stopActions.add(handler::stop);
+		return node;
+	}
+
+	/**
+	 * Node dựng từ WebSocketConfig như ứng dụng chạy thật, broker relay trỏ tới stomp.relay.host
+	 */
+	private Node relayNode(String name) throws InterruptedException {
+		Map<String, Object> properties = new HashMap<>();
+		properties.put("websocket.broker.mode", "relay");
+		properties.put("websocket.broker.relay.host", System.getProperty("stomp.relay.host"));
+		properties.put("websocket.broker.relay.port", Integer.getInteger("stomp.relay.port", 61613));
+		properties.put("websocket.broker.relay.client-login", System.getProperty("stomp.relay.login", "guest"));
+		properties.put("websocket.broker.relay.client-passcode", System.getProperty("stomp.relay.passcode", "guest"));
+		properties.put("websocket.broker.relay.system-login", System.getProperty("stomp.relay.login", "guest"));
+		properties.put("websocket.broker.relay.system-passcode", System.getProperty("stomp.relay.passcode", "guest"));
+		properties.put("websocket.channel.outbound.queue-capacity", OUTBOUND_QUEUE_CAPACITY);
+
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.getEnvironment().getPropertySources().addFirst(new MapPropertySource(name, properties));
+		CountDownLatch available = new CountDownLatch(1);
+		context.addApplicationListener(event -> {
+			if (event instanceof BrokerAvailabilityEvent availability && availability.isBrokerAvailable()) {
+				available.countDown();
+			}
+		});
+		context.register(WebSocketConfig.class, WebSocketCollaborators.class);
+		context.refresh();
+		stopActions.add(context::close);
+		assertTrue(available.await(10, TimeUnit.SECONDS), name + " could not connect to the STOMP broker");
+
+		Node node = new Node(context.getBean("clientInboundChannel", SubscribableChannel.class),
+				context.getBean("clientOutboundChannel", SubscribableChannel.class),
+				context.getBean("brokerChannel", MessageChannel.class), context);
+		node.countMessages();
+		return node;
+	}
+
+	/**
+	 * Các bean WebSocketConfig cần; xác thực JWT không dùng tới vì frame CONNECT không có token
+	 */
+	@Configuration
+	static class WebSocketCollaborators {
+
+		@Bean
+		JwtService jwtService() {
+			return Mockito.mock(JwtService.class);
+		}
+
+		@Bean
+		UserDetailsService userDetailsService() {
+			return username -> {
+				throw new UsernameNotFoundException(username);
+			};
+		}
+
+		@Bean
+		WebSocketSessionMonitor webSocketSessionMonitor() {
+			return new WebSocketSessionMonitor();
+		}
+	}
+
+	// Relay bỏ qua frame của client gửi trước CONNECTED
+	private void connect(Node node, String sessionId, Principal user) throws InterruptedException {
+		CountDownLatch connected = new CountDownLatch(1);
+		node.outbound.subscribe(message -> {
+			StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+			if (accessor.getCommand() == StompCommand.CONNECTED && sessionId.equals(accessor.getSessionId())) {
+				connected.countDown();
+			}
+		});
+		StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+		connect.setSessionId(sessionId);
+		connect.setAcceptVersion("1.2");
+		connect.setHeartbeat(0, 0);
+		connect.setUser(user);
+		Message<byte[]> connectMessage = MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders());
+		node.inbound.send(connectMessage);
+		assertTrue(connected.await(10, TimeUnit.SECONDS), "relay session " + sessionId + " did not connect");
+
+		if (user != null) {
+			// Trong ứng dụng StompSubProtocolHandler phát event này; user registry của node dựa vào nó
+			node.context.publishEvent(new SessionConnectedEvent(this, connectMessage, user));
+		}
+	}
+
+	private void awaitReceipt(Node node, Message<byte[]> subscribe) throws InterruptedException {
+		String receipt = StompHeaderAccessor.wrap(subscribe).getReceipt();
+		CountDownLatch received = new CountDownLatch(1);
+		node.outbound.subscribe(message -> {
+			StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+			if (accessor.getCommand() == StompCommand.RECEIPT && receipt.equals(accessor.getReceiptId())) {
+				received.countDown();
+			}
+		});
+		node.inbound.send(subscribe);
+		assertTrue(received.await(10, TimeUnit.SECONDS), "relay subscription was not confirmed");
+	}
+
+	// Publish qua brokerChannel của publisher, đếm MESSAGE ở outbound của receiver
+	private double publish(Node publisher, Node receiver, String destination, int messages, int fanOut)
+			throws InterruptedException {
+		long started = System.nanoTime();
+		for (int i = 0; i < messages; i++) {
+			awaitCapacity(receiver, (long) i * fanOut);
+			publisher.broker.send(message(destination));
+		}
+		return awaitDeliveries(receiver, (long) messages * fanOut, started);
+	}
+
+	private void awaitCapacity(Node node, long sent) {
+		while (sent - node.delivered.get() > OUTBOUND_QUEUE_CAPACITY / 2) {
+			LockSupport.parkNanos(50_000);
+		}
+	}
+
+	private double awaitDeliveries(Node node, long expected, long startedNanos) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+		while (node.delivered.get() < expected && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		long delivered = node.delivered.get();
+		assertEquals(expected, delivered, "delivered " + delivered + " of " + expected);
+		double seconds = (System.nanoTime() - startedNanos) / 1_000_000_000.0;
+		return delivered / seconds;
+	}
+
+	private static void assertDeliveredToEach(Node node, List<String> sessionIds, long expectedEach) {
+		for (String sessionId : sessionIds) {
+			AtomicLong received = node.deliveredBySession.get(sessionId);
+			assertEquals(expectedEach, received == null ? 0 : received.get(), "messages delivered to " + sessionId);
+		}
+		assertEquals((long) sessionIds.size() * expectedEach, node.delivered.get());
+	}
+
+	private ThreadPoolTaskExecutor executor(String name) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(8);
+		executor.setMaxPoolSize(32);
+		executor.setQueueCapacity(OUTBOUND_QUEUE_CAPACITY);
+		executor.setThreadNamePrefix(name + "-");
+		executor.initialize();
+		executors.add(executor);
+		return executor;
+	}
+
+	private static Message<byte[]> subscribe(SimpMessageHeaderAccessor accessor, String sessionId, String destination) {
+		accessor.setSessionId(sessionId);
+		accessor.setSubscriptionId("sub-" + sessionId);
+		accessor.setDestination(destination);
+		return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+	}
+
+	private static Message<byte[]> message(String destination) {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		accessor.setDestination(destination);
+		accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+		return MessageBuilder.createMessage(PAYLOAD, accessor.getMessageHeaders());
+	}
+
+	/**
+	 * Các channel của một node. Node simple broker có inbound đồng bộ để SUBSCRIBE được xử lý
+	 * xong trước khi publish; outbound có thread pool như ứng dụng
+	 */
+	private static final class Node {
+
+		private final SubscribableChannel inbound;
+		private final SubscribableChannel outbound;
+		private final MessageChannel broker;
+		// Chỉ có ở node dựng từ WebSocketConfig
+		private final AnnotationConfigApplicationContext context;
+		private final AtomicLong delivered = new AtomicLong();
+		private final Map<String, AtomicLong> deliveredBySession = new ConcurrentHashMap<>();
+
+		private Node(SubscribableChannel inbound, SubscribableChannel outbound, MessageChannel broker,
+		             AnnotationConfigApplicationContext context) {
+			this.inbound = inbound;
+			this.outbound = outbound;
+			this.broker = broker;
+			this.context = context;
+		}
+
+		private void countMessages() {
+			outbound.subscribe(message -> {
+				if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+					String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+					deliveredBySession.computeIfAbsent(String.valueOf(sessionId), id -> new AtomicLong())
+							.incrementAndGet();
+					delivered.incrementAndGet();
+				}
+			});
+		}
+	}
+}
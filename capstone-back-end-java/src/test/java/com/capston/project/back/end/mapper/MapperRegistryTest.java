@@ -0,0 +1,258 @@
+package com.capston.project.back.end.mapper;
+
+import com.capston.project.back.end.common.ProjectStatus;
+import com.capston.project.back.end.entity.CarbonCredit;
+import com.capston.project.back.end.entity.CreditAllocation;
+import com.capston.project.back.end.entity.CreditTransaction;
+import com.capston.project.back.end.entity.Project;
+import com.capston.project.back.end.request.ProjectRequest;
+import com.capston.project.back.end.response.CarbonCreditResponse;
+import com.capston.project.back.end.response.CreditAllocationResponse;
+import com.capston.project.back.end.response.CreditTransactionResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.PropertyMap;
+import org.modelmapper.convention.MatchingStrategies;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Đối chiếu output của các mapper viết tay với cấu hình ModelMapper cũ (STRICT, skip null,
+ * field access) và benchmark chi phí mỗi object.
+ *
+ * Benchmark chỉ chạy khi bật: mvn test -Dtest=MapperRegistryTest -Dbenchmark=true
+ */
+class MapperRegistryTest {
+
+	private static final Logger log = LoggerFactory.getLogger(MapperRegistryTest.class);
+
+	// Các field service tự điền sau khi map (tra project, farm, lô; giá trị tính toán)
+	private static final String[] CREDIT_SERVICE_FIELDS = {"projectName", "projectCode", "origins", "pricePerCredit",
+			"creditsStatus", "hasAvailableCredits", "isExpired", "totalTransactions", "totalRevenue",
+			"allocations.creditCode", "allocations.projectId", "allocations.projectName"};
+	private static final String[] ALLOCATION_SERVICE_FIELDS = {"creditCode", "projectId", "projectName"};
+	private static final String[] TRANSACTION_SERVICE_FIELDS = {"creditCode", "projectId", "projectName", "origins"};
+
+	private static final int BENCHMARK_OBJECTS = 200_000;
+
+	private final CreditAllocationMapper allocationMapper = new CreditAllocationMapper();
+	private final MapperRegistry registry = new MapperRegistry(List.of(
+			allocationMapper,
+			new CarbonCreditMapper(allocationMapper),
+			new CreditTransactionMapper(),
+			new ProjectRequestMapper()));
+	private final ModelMapper modelMapper = legacyModelMapper();
+
+	@Test
+	void carbonCreditMatchesModelMapper() {
+		CarbonCredit credit = credit(1);
+		assertThat(registry.map(credit, CarbonCreditResponse.class))
+				.usingRecursiveComparison()
+				.ignoringFields(CREDIT_SERVICE_FIELDS)
+				.isEqualTo(modelMapper.map(credit, CarbonCreditResponse.class));
+	}
+
+	@Test
+	void creditAllocationMatchesModelMapper() {
+		CreditAllocation allocation = allocation(7, 1);
+		assertThat(registry.map(allocation, CreditAllocationResponse.class))
+				.usingRecursiveComparison()
+				.ignoringFields(ALLOCATION_SERVICE_FIELDS)
+				.isEqualTo(modelMapper.map(allocation, CreditAllocationResponse.class));
+	}
+
+	@Test
+	void creditTransactionMatchesModelMapper() {
+		CreditTransaction transaction = transaction(3);
+		assertThat(registry.map(transaction, CreditTransactionResponse.class))
+				.usingRecursiveComparison()
+				.ignoringFields(TRANSACTION_SERVICE_FIELDS)
+				.isEqualTo(modelMapper.map(transaction, CreditTransactionResponse.class));
+	}
+
+	@Test
+	void projectRequestMatchesModelMapper() {
+		ProjectRequest withStatus = projectRequest(ProjectStatus.ACTIVE);
+		assertThat(registry.map(withStatus, Project.class))
+				.usingRecursiveComparison()
+				.isEqualTo(modelMapper.map(withStatus, Project.class));
+
+		// skipNull: status mặc định của entity được giữ
+		ProjectRequest withoutStatus = projectRequest(null);
+		assertThat(registry.map(withoutStatus, Project.class))
+				.usingRecursiveComparison()
+				.isEqualTo(modelMapper.map(withoutStatus, Project.class));
+	}
+
+	@Test
+	void resolvesSubclassesAndRejectsUnknownPairs() {
+		// Proxy Hibernate là lớp con của entity
+		CreditAllocation proxy = new CreditAllocation() {
+		};
+		proxy.setId(5);
+		assertThat(registry.map(proxy, CreditAllocationResponse.class).getId()).isEqualTo(5);
+
+		assertThrows(IllegalArgumentException.class, () -> registry.map(proxy, CarbonCreditResponse.class));
+		assertThrows(IllegalStateException.class, () -> new MapperRegistry(List.of(
+				new CreditTransactionMapper(), new CreditTransactionMapper())));
+	}
+
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void handWrittenMappersAreCheaperThanModelMapper() {
+		List<CarbonCredit> credits = new ArrayList<>(BENCHMARK_OBJECTS);
+		for (int i = 0; i < BENCHMARK_OBJECTS; i++) {
+			credits.add(credit(i));
+		}
+
+		Cost handWritten = measure(credits, c -> registry.map(c, CarbonCreditResponse.class));
+		Cost reflective = measure(credits, c -> modelMapper.map(c, CarbonCreditResponse.class));
+		log.info("CarbonCredit -> CarbonCreditResponse, {} objects: registry {} ns / {} B per object, "
+						+ "ModelMapper {} ns / {} B per object", BENCHMARK_OBJECTS,
+				handWritten.nanosPerObject(), handWritten.bytesPerObject(),
+				reflective.nanosPerObject(), reflective.bytesPerObject());
+
+		assertTrue(handWritten.nanosPerObject() < reflective.nanosPerObject(), "registry slower than ModelMapper");
+		assertTrue(handWritten.bytesPerObject() < reflective.bytesPerObject(), "registry allocates more than ModelMapper");
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	// Vòng đầu để JIT biên dịch xong, vòng sau mới đo
+	private static Cost measure(List<CarbonCredit> credits, Function<CarbonCredit, CarbonCreditResponse> mapper) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().threadId();
+		long nanos = 0;
+		long bytes = 0;
+		long checksum = 0;
+		for (int round = 0; round < 2; round++) {
+			long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+			long started = System.nanoTime();
+			for (CarbonCredit credit : credits) {
+				checksum += mapper.apply(credit).getAllocations().size();
+			}
+			nanos = System.nanoTime() - started;
+			bytes = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+		}
+		assertTrue(checksum > 0);
+		return new Cost(nanos / credits.size(), bytes / credits.size());
+	}
+
+	private record Cost(long nanosPerObject, long bytesPerObject) {
+	}
+
+	/**
+	 * Cấu hình ModelMapperConfig trước khi chuyển sang mapper viết tay
+	 */
+	private static ModelMapper legacyModelMapper() {
+		ModelMapper modelMapper = new ModelMapper();
+		modelMapper.getConfiguration()
+				.setMatchingStrategy(MatchingStrategies.STRICT)
+				.setSkipNullEnabled(true)
+				.setFieldMatchingEnabled(true)
+				.setFieldAccessLevel(org.modelmapper.config.Configuration.AccessLevel.PRIVATE);
+		modelMapper.addMappings(new PropertyMap<ProjectRequest, Project>() {
+			@Override
+			protected void configure() {
+				skip(destination.getId());
+				skip(destination.getCode());
+				skip(destination.getTotalBudget());
+				skip(destination.getTargetCo2Kg());
+				skip(destination.getActualCo2Kg());
+				skip(destination.getCreatedAt());
+				skip(destination.getUpdatedAt());
+				skip(destination.getPhases());
+			}
+		});
+		return modelMapper;
+	}
+
+	private static CarbonCredit credit(int id) {
+		OffsetDateTime now = OffsetDateTime.parse("2026-01-15T08:30:00+07:00");
+		CarbonCredit credit = CarbonCredit.builder()
+				.id(id)
+				.creditCode("CC-2026-" + id)
+				.projectId(10)
+				.issuanceYear(2026)
+				.totalCo2Tons(new BigDecimal("1250.50"))
+				.creditsIssued(1250)
+				.basePricePerCredit(new BigDecimal("15.00"))
+				.currentPricePerCredit(new BigDecimal("18.00"))
+				.creditsAvailable(1000)
+				.creditsAllocated(150)
+				.creditsSold(80)
+				.creditsRetired(20)
+				.verificationStandard("VCS")
+				.certificateUrl("https://example.org/cert/" + id)
+				.issuedBy(UUID.fromString("00000000-0000-0000-0000-000000000001"))
+				.issuedAt(now)
+				.expiresAt(now.plusYears(10))
+				.createdAt(now)
+				.updatedAt(now)
+				.build();
+		List<CreditAllocation> allocations = new ArrayList<>();
+		allocations.add(allocation(id * 10 + 1, id));
+		allocations.add(allocation(id * 10 + 2, id));
+		credit.setAllocations(allocations);
+		return credit;
+	}
+
+	private static CreditAllocation allocation(int id, int creditId) {
+		OffsetDateTime now = OffsetDateTime.parse("2026-02-01T10:00:00+07:00");
+		return CreditAllocation.builder()
+				.id(id)
+				.creditId(creditId)
+				.contractId(4)
+				.ownerId(UUID.fromString("00000000-0000-0000-0000-000000000002"))
+				.allocatedCredits(75)
+				.allocationPercentage(new BigDecimal("6.00"))
+				.allocatedAt(now)
+				.claimedAt(now.plusDays(3))
+				.notes("Phân bổ theo hợp đồng")
+				.createdAt(now)
+				.updatedAt(now)
+				.build();
+	}
+
+	private static CreditTransaction transaction(int id) {
+		OffsetDateTime now = OffsetDateTime.parse("2026-03-01T09:00:00+07:00");
+		return CreditTransaction.builder()
+				.id(id)
+				.transactionCode("TX-" + id)
+				.creditId(1)
+				.sellerId(UUID.fromString("00000000-0000-0000-0000-000000000003"))
+				.buyerId(UUID.fromString("00000000-0000-0000-0000-000000000004"))
+				.quantity(12)
+				.unitPrice(new BigDecimal("18.00"))
+				.totalAmount(new BigDecimal("216.00"))
+				.retirementReason("Bù trừ phát thải")
+				.retirementCertificateUrl("https://example.org/retire/" + id)
+				.transactionDate(now)
+				.retiredAt(now.plusDays(1))
+				.notes("ghi chú")
+				.createdAt(now)
+				.build();
+	}
+
+	private static ProjectRequest projectRequest(ProjectStatus status) {
+		return ProjectRequest.builder()
+				.name("Dự án rừng ngập mặn")
+				.description("Trồng mới 50 ha")
+				.projectStatus(status)
+				.managerId(UUID.fromString("00000000-0000-0000-0000-000000000005"))
+				.build();
+	}
+}
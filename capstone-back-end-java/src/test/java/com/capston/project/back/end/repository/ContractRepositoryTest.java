@@ -0,0 +1,212 @@
+package com.capston.project.back.end.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SQL native của vòng đời hợp đồng (ContractRepository) chạy trên PostgreSQL thật, với các cột
+ * của database.sql mà câu lệnh dùng tới. Chạy đúng chuỗi trong @Query của repository.
+ *
+ * Chỉ chạy khi có database, xem {@link PostgresTestDatabase}:
+ * mvn test -Dtest=ContractRepositoryTest -Dpostgres.url=jdbc:postgresql://localhost:5432/mypostgresdb -Dpostgres.password=123
+ */
+@EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+class ContractRepositoryTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2026, 3, 1);
+
+	private PostgresTestDatabase database;
+	private NamedParameterJdbcTemplate jdbc;
+
+	@BeforeEach
+	void createTables() {
+		database = PostgresTestDatabase.create("""
+				CREATE TABLE contracts (
+				    id                    INTEGER PRIMARY KEY,
+				    contract_code         VARCHAR(50) NOT NULL,
+				    party_a_id            UUID,
+				    party_b_id            UUID,
+				    end_date              DATE,
+				    duration_years        INTEGER,
+				    is_renewable          BOOLEAN     DEFAULT FALSE,
+				    max_renewals          INTEGER,
+				    current_renewal_count INTEGER     DEFAULT 0,
+				    contract_status       VARCHAR(20) DEFAULT 'DRAFT',
+				    updated_at            TIMESTAMPTZ
+				)""", """
+				CREATE TABLE contract_renewals (
+				    id                   INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+				    original_contract_id INTEGER NOT NULL REFERENCES contracts (id),
+				    renewal_number       INTEGER NOT NULL,
+				    new_start_date       DATE    NOT NULL,
+				    new_end_date         DATE    NOT NULL,
+				    renewal_status       VARCHAR(20) DEFAULT 'PENDING',
+				    requested_at         TIMESTAMPTZ,
+				    approved_at          TIMESTAMPTZ,
+				    notes                TEXT,
+				    idempotency_key      VARCHAR(80) UNIQUE,
+				    UNIQUE (original_contract_id, renewal_number)
+				)""", """
+				CREATE TABLE contract_expiry_warnings (
+				    contract_id    INTEGER     NOT NULL REFERENCES contracts (id),
+				    threshold_days INTEGER     NOT NULL,
+				    end_date       DATE        NOT NULL,
+				    sent_at        TIMESTAMPTZ NOT NULL,
+				    PRIMARY KEY (contract_id, threshold_days, end_date)
+				)""");
+		jdbc = database.namedJdbc();
+	}
+
+	@AfterEach
+	void dropTables() {
+		database.close();
+	}
+
+	@Test
+	void expiryWarningsFallIntoNearestThresholdOnce() {
+		// id = số ngày còn lại + 100; id 99 đã quá hạn, id 200 không ACTIVE
+		for (int daysLeft : new int[]{-1, 0, 1, 2, 7, 8, 30, 31}) {
+			contract(100 + daysLeft, TODAY.plusDays(daysLeft), "ACTIVE", false);
+		}
+		contract(200, TODAY.plusDays(5), "TERMINATED", false);
+
+		assertEquals(Set.of(100, 101), warn(1, TODAY, TODAY.plusDays(1)));
+		assertEquals(Set.of(102, 107), warn(7, TODAY.plusDays(2), TODAY.plusDays(7)));
+		assertEquals(Set.of(108, 130), warn(30, TODAY.plusDays(8), TODAY.plusDays(30)));
+
+		// Chạy lại cùng ngày không cảnh báo lại
+		assertEquals(Set.of(), warn(7, TODAY.plusDays(2), TODAY.plusDays(7)));
+		// end_date đổi thì được cảnh báo lại
+		jdbc.update("UPDATE contracts SET end_date = :endDate WHERE id = 107",
+				Map.of("endDate", TODAY.plusDays(6)));
+		assertEquals(Set.of(107), warn(7, TODAY.plusDays(2), TODAY.plusDays(7)));
+	}
+
+	@Test
+	void autoRenewUsesSameRenewalNumberForIdempotencyKey() {
+		// Đã có yêu cầu thủ công số 3 dù current_renewal_count = 1
+		contract(1, TODAY.plusDays(3), "ACTIVE", true);
+		jdbc.update("UPDATE contracts SET current_renewal_count = 1, duration_years = 2 WHERE id = 1", Map.of());
+		renewal(1, 3, "APPROVED", null);
+		// Đang có yêu cầu PENDING: không tự gia hạn
+		contract(2, TODAY.plusDays(3), "ACTIVE", true);
+		renewal(2, 1, "PENDING", null);
+		// Đã đạt max_renewals
+		contract(3, TODAY.plusDays(3), "ACTIVE", true);
+		jdbc.update("UPDATE contracts SET current_renewal_count = 2, max_renewals = 2 WHERE id = 3", Map.of());
+
+		assertEquals(Set.of(1), autoRenew(List.of(1, 2, 3)));
+
+		Map<String, Object> renewal = jdbc.queryForMap("SELECT renewal_number, idempotency_key, new_end_date " +
+				"FROM contract_renewals WHERE original_contract_id = 1 AND renewal_status = 'APPROVED' " +
+				"AND idempotency_key IS NOT NULL", Map.of());
+		assertEquals(4, renewal.get("renewal_number"));
+		assertEquals("AUTO:1:4", renewal.get("idempotency_key"));
+		assertEquals(TODAY.plusDays(3).plusYears(2), ((Date) renewal.get("new_end_date")).toLocalDate());
+		assertEquals(TODAY.plusDays(3).plusYears(2), endDate(1));
+		assertEquals(TODAY.plusDays(3), endDate(2));
+		assertEquals(TODAY.plusDays(3), endDate(3));
+	}
+
+	@Test
+	void concurrentAutoRenewRenewsOnce() throws Exception {
+		contract(1, TODAY.plusDays(3), "ACTIVE", true);
+
+		try (Connection first = database.dataSource().getConnection();
+		     Connection second = database.dataSource().getConnection()) {
+			first.setAutoCommit(false);
+			second.setAutoCommit(false);
+			assertEquals(Set.of(1), autoRenew(first, List.of(1)));
+
+			// Node thứ hai đọc cùng trạng thái (chưa thấy renewal chưa commit) nên tính cùng khoá AUTO:1:1
+			// và chờ unique index của node đầu
+			CompletableFuture<Set<Integer>> concurrent = CompletableFuture.supplyAsync(() -> autoRenew(second, List.of(1)));
+			awaitBlockedOnLock();
+			first.commit();
+
+			assertTrue(concurrent.get(5, TimeUnit.SECONDS).isEmpty());
+			second.commit();
+		}
+		assertEquals(TODAY.plusDays(3).plusYears(1), endDate(1));
+		assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM contract_renewals", Map.of(), Integer.class));
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private Set<Integer> warn(int thresholdDays, LocalDate fromDate, LocalDate toDate) {
+		return ids(jdbc, sql("recordExpiryWarnings"), Map.of("thresholdDays", thresholdDays, "fromDate", fromDate,
+				"toDate", toDate));
+	}
+
+	private Set<Integer> autoRenew(List<Integer> ids) {
+		return ids(jdbc, sql("autoRenew"), Map.of("ids", ids, "minTermYears", 1));
+	}
+
+	// Trong transaction của connection cho trước
+	private static Set<Integer> autoRenew(Connection connection, List<Integer> ids) {
+		return ids(new NamedParameterJdbcTemplate(new SingleConnectionDataSource(connection, true)), sql("autoRenew"),
+				Map.of("ids", ids, "minTermYears", 1));
+	}
+
+	private static Set<Integer> ids(NamedParameterJdbcTemplate jdbc, String sql, Map<String, Object> params) {
+		return jdbc.query(sql, params, (rs, i) -> rs.getInt("id")).stream().collect(Collectors.toSet());
+	}
+
+	private void awaitBlockedOnLock() throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (System.nanoTime() < deadline) {
+			Integer waiting = jdbc.queryForObject("SELECT COUNT(*) FROM pg_stat_activity " +
+					"WHERE datname = current_database() AND wait_event_type = 'Lock'", Map.of(), Integer.class);
+			if (waiting != null && waiting > 0) {
+				return;
+			}
+			Thread.sleep(10);
+		}
+		throw new AssertionError("second auto-renew never waited for the first");
+	}
+
+	private LocalDate endDate(int id) {
+		return jdbc.queryForObject("SELECT end_date FROM contracts WHERE id = :id", Map.of("id", id),
+				LocalDate.class);
+	}
+
+	private void contract(int id, LocalDate endDate, String status, boolean renewable) {
+		jdbc.update("INSERT INTO contracts (id, contract_code, end_date, contract_status, is_renewable) " +
+						"VALUES (:id, :code, :endDate, :status, :renewable)",
+				Map.of("id", id, "code", "CTR-" + id, "endDate", endDate, "status", status, "renewable", renewable));
+	}
+
+	private void renewal(int contractId, int number, String status, String idempotencyKey) {
+		jdbc.getJdbcTemplate().update("INSERT INTO contract_renewals (original_contract_id, renewal_number, " +
+						"new_start_date, new_end_date, renewal_status, idempotency_key) VALUES (?, ?, ?, ?, ?, ?)",
+				contractId, number, TODAY, TODAY.plusYears(1), status, idempotencyKey);
+	}
+
+	private static String sql(String method) {
+		Method query = Arrays.stream(ContractRepository.class.getMethods())
+				.filter(candidate -> candidate.getName().equals(method))
+				.findFirst()
+				.orElseThrow();
+		return query.getAnnotation(Query.class).value();
+	}
+}
@@ -0,0 +1,138 @@
+package com.capston.project.back.end.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SQL lease của ClusterJobRunner (JobLeaseRepository) trên PostgreSQL thật: lấy lease trống hoặc
+ * đã hết hạn, min-hold sau khi nhả, node khác nhận lại lease hết hạn, gia hạn/nhả chỉ bởi chủ lease.
+ *
+ * Chỉ chạy khi có database, xem {@link PostgresTestDatabase}:
+ * mvn test -Dtest=JobLeaseRepositoryTest -Dpostgres.url=jdbc:postgresql://localhost:5432/mypostgresdb -Dpostgres.password=123
+ */
+@EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+class JobLeaseRepositoryTest {
+
+	private static final String JOB = "carbon-recompute#3";
+
+	private PostgresTestDatabase database;
+	private NamedParameterJdbcTemplate jdbc;
+
+	@BeforeEach
+	void createTable() {
+		database = PostgresTestDatabase.create("""
+				CREATE TABLE job_leases (
+				    job_name    VARCHAR(100) PRIMARY KEY,
+				    owner       VARCHAR(120) NOT NULL,
+				    lease_until TIMESTAMPTZ  NOT NULL,
+				    acquired_at TIMESTAMPTZ  NOT NULL
+				)""");
+		jdbc = database.namedJdbc();
+	}
+
+	@AfterEach
+	void dropTable() {
+		database.close();
+	}
+
+	@Test
+	void acquiresFreeLeaseOnlyOnce() {
+		assertEquals(1, acquire("node-a", 60));
+		assertEquals(0, acquire("node-b", 60));
+		// Chủ lease gọi lại khi lease còn hạn cũng không lấy lại được
+		assertEquals(0, acquire("node-a", 60));
+		assertEquals("node-a", owner());
+	}
+
+	@Test
+	void takesOverExpiredLease() {
+		assertEquals(1, acquire("node-a", 60));
+		// Node a chết, lease hết hạn
+		jdbc.update("UPDATE job_leases SET lease_until = NOW() - INTERVAL '1 second', " +
+				"acquired_at = NOW() - INTERVAL '2 hours'", Map.of());
+
+		assertEquals(1, acquire("node-b", 60));
+		assertEquals("node-b", owner());
+		assertTrue(secondsSinceAcquired() < 60);
+		assertTrue(secondsLeft() > 50);
+		// Node a sống lại: không gia hạn hay nhả được lease của node b
+		assertEquals(0, lease("renew", "node-a", 600));
+		assertEquals(0, lease("release", "node-a", 0));
+		assertEquals("node-b", owner());
+		assertTrue(secondsLeft() > 50);
+	}
+
+	@Test
+	void releaseHoldsLeaseForMinHoldFromAcquisition() {
+		assertEquals(1, acquire("node-a", 3600));
+		assertEquals(1, lease("release", "node-a", 600));
+
+		// Node có cron lệch vài giây không lấy được trong min-hold
+		assertEquals(0, acquire("node-b", 3600));
+		assertTrue(secondsLeft() > 590 && secondsLeft() <= 600);
+
+		// Job chạy lâu hơn min-hold: nhả là hết hạn ngay
+		jdbc.update("UPDATE job_leases SET acquired_at = NOW() - INTERVAL '20 minutes', " +
+				"lease_until = NOW() + INTERVAL '1 hour'", Map.of());
+		assertEquals(1, lease("release", "node-a", 600));
+		assertEquals(1, acquire("node-b", 3600));
+		assertEquals("node-b", owner());
+	}
+
+	@Test
+	void renewExtendsLeaseOfOwner() {
+		assertEquals(1, acquire("node-a", 1));
+		assertEquals(0, lease("renew", "node-b", 600));
+		assertTrue(secondsLeft() <= 1);
+
+		assertEquals(1, lease("renew", "node-a", 600));
+		assertTrue(secondsLeft() > 590);
+		assertEquals(0, acquire("node-b", 60));
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private int acquire(String owner, long leaseSeconds) {
+		return jdbc.update(sql("tryAcquire"), Map.of("jobName", JOB, "owner", owner, "leaseSeconds", leaseSeconds));
+	}
+
+	// renew (leaseSeconds) hoặc release (minHoldSeconds)
+	private int lease(String method, String owner, long seconds) {
+		String secondsParam = method.equals("renew") ? "leaseSeconds" : "minHoldSeconds";
+		return jdbc.update(sql(method), Map.of("jobName", JOB, "owner", owner, secondsParam, seconds));
+	}
+
+	private String owner() {
+		return jdbc.queryForObject("SELECT owner FROM job_leases WHERE job_name = :jobName",
+				Map.of("jobName", JOB), String.class);
+	}
+
+	private double secondsLeft() {
+		return jdbc.queryForObject("SELECT EXTRACT(EPOCH FROM lease_until - NOW()) FROM job_leases " +
+				"WHERE job_name = :jobName", Map.of("jobName", JOB), Double.class);
+	}
+
+	private double secondsSinceAcquired() {
+		return jdbc.queryForObject("SELECT EXTRACT(EPOCH FROM NOW() - acquired_at) FROM job_leases " +
+				"WHERE job_name = :jobName", Map.of("jobName", JOB), Double.class);
+	}
+
+	private static String sql(String method) {
+		Method query = Arrays.stream(JobLeaseRepository.class.getMethods())
+				.filter(candidate -> candidate.getName().equals(method))
+				.findFirst()
+				.orElseThrow();
+		return query.getAnnotation(Query.class).value();
+	}
+}
@@ -0,0 +1,64 @@
+package com.capston.project.back.end.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+/**
+ * Schema tạm trên PostgreSQL thật cho các test chạy SQL native của repository. Mỗi instance
+ * tạo một schema riêng (search_path trỏ vào đó) và xoá khi đóng. Test dùng class này chỉ chạy
+ * khi có -Dpostgres.url, ví dụ với postgres của docker-compose:
+ * mvn test -Dpostgres.url=jdbc:postgresql://localhost:5432/mypostgresdb -Dpostgres.password=123
+ */
+public final class PostgresTestDatabase implements AutoCloseable {
+
+	public static final String URL_PROPERTY = "postgres.url";
+
+	private final DriverManagerDataSource dataSource;
+	private final JdbcTemplate jdbc;
+	private final String schema;
+
+	private PostgresTestDatabase(String schema) {
+		this.schema = schema;
+		dataSource = new DriverManagerDataSource(System.getProperty(URL_PROPERTY),
+				System.getProperty("postgres.user", "postgres"), System.getProperty("postgres.password", ""));
+		new JdbcTemplate(dataSource).execute("CREATE SCHEMA " + schema);
+		dataSource.setSchema(schema);
+		jdbc = new JdbcTemplate(dataSource);
+	}
+
+	/**
+	 * Tạo schema tạm rồi chạy các câu DDL trong đó
+	 */
+	public static PostgresTestDatabase create(String... ddl) {
+		PostgresTestDatabase database = new PostgresTestDatabase(
+				"test_" + UUID.randomUUID().toString().replace("-", ""));
+		for (String statement : ddl) {
+			database.jdbc.execute(statement);
+		}
+		return database;
+	}
+
+	public DriverManagerDataSource dataSource() {
+		return dataSource;
+	}
+
+	public String schema() {
+		return schema;
+	}
+
+	public JdbcTemplate jdbc() {
+		return jdbc;
+	}
+
+	public NamedParameterJdbcTemplate namedJdbc() {
+		return new NamedParameterJdbcTemplate(jdbc);
+	}
+
+	@Override
+	public void close() {
+		jdbc.execute("DROP SCHEMA " + schema + " CASCADE");
+	}
+}
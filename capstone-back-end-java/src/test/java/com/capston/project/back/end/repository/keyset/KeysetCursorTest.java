@@ -0,0 +1,77 @@
+package com.capston.project.back.end.repository.keyset;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Mã hoá/giải mã cursor: giá trị NULL ("~") khác chuỗi rỗng, giá trị có '|' vẫn nguyên vẹn,
+ * cursor sửa tay bị từ chối
+ */
+class KeysetCursorTest {
+
+	@Test
+	void roundTripsValuesIncludingNullMarker() {
+		assertRoundTrip(new KeysetCursor("createdAt", Sort.Direction.DESC, "42", "2025-09-01T08:30:00+07:00"));
+		assertRoundTrip(new KeysetCursor("name", Sort.Direction.ASC, "7", "Lô A|Khu 2"));
+		assertRoundTrip(new KeysetCursor("name", Sort.Direction.ASC, "7", "~"));
+		assertRoundTrip(new KeysetCursor("name", Sort.Direction.ASC, "7", ""));
+
+		KeysetCursor nullValue = KeysetCursor.decode(
+				new KeysetCursor("plantingDate", Sort.Direction.ASC, "9", null).encode());
+		assertNull(nullValue.value());
+		assertEquals("plantingDate|ASC|9|~", raw(new KeysetCursor("plantingDate", Sort.Direction.ASC, "9", null)));
+		assertEquals("plantingDate|ASC|9|=", raw(new KeysetCursor("plantingDate", Sort.Direction.ASC, "9", "")));
+	}
+
+	@Test
+	void rejectsTamperedCursors() {
+		assertInvalid("not base64!");
+		assertInvalid(encode("name|ASC|7"));
+		assertInvalid(encode("name|UP|7|=a"));
+		assertInvalid(encode("|ASC|7|=a"));
+		assertInvalid(encode("name|ASC||=a"));
+		assertInvalid(encode("name|ASC|7|a"));
+	}
+
+	@Test
+	void pageRequestTakesSortFromCursor() {
+		String cursor = new KeysetCursor("createdAt", Sort.Direction.DESC, "42", null).encode();
+
+		KeysetPageRequest request = KeysetPageRequest.of("name", Sort.Direction.ASC, 20, cursor, true);
+		assertEquals("createdAt", request.sortBy());
+		assertEquals(Sort.Direction.DESC, request.direction());
+		assertEquals("42", request.cursor().id());
+
+		KeysetPageRequest first = KeysetPageRequest.of("name", Sort.Direction.ASC, 20, " ", false);
+		assertEquals("name", first.sortBy());
+		assertNull(first.cursor());
+		assertThrows(IllegalArgumentException.class,
+				() -> KeysetPageRequest.of("name", Sort.Direction.ASC, 0, null, false));
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private static void assertRoundTrip(KeysetCursor cursor) {
+		assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+	}
+
+	private static void assertInvalid(String cursor) {
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor));
+		assertEquals("Invalid page cursor", e.getMessage());
+	}
+
+	private static String raw(KeysetCursor cursor) {
+		return new String(Base64.getUrlDecoder().decode(cursor.encode()), StandardCharsets.UTF_8);
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,133 @@
+package com.capston.project.back.end.repository.keyset;
+
+import com.capston.project.back.end.repository.PostgresTestDatabase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Seek qua nhóm NULL của khoá sắp xếp trên PostgreSQL thật: duyệt hết các trang phải ra đúng
+ * thứ tự ORDER BY (NULLS LAST khi ASC, NULLS FIRST khi DESC), không lặp, không sót dòng.
+ *
+ * Chỉ chạy khi có database, xem {@link PostgresTestDatabase}:
+ * mvn test -Dtest=KeysetJpaRepositoryTest -Dpostgres.url=jdbc:postgresql://localhost:5432/mypostgresdb -Dpostgres.password=123
+ */
+@EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+class KeysetJpaRepositoryTest {
+
+	// id → priority; NULL nằm xen giữa các id có giá trị
+	private static final Integer[][] ROWS = {
+			{1, 10}, {2, null}, {3, 20}, {4, null}, {5, 10}, {6, null}, {7, 30}};
+
+	private PostgresTestDatabase database;
+	private EntityManagerFactory entityManagerFactory;
+	private EntityManager entityManager;
+	private KeysetJpaRepository<Item, Integer> repository;
+
+	@BeforeEach
+	void createTable() {
+		database = PostgresTestDatabase.create(
+				"CREATE TABLE keyset_item (id INTEGER PRIMARY KEY, priority INTEGER)");
+		for (Integer[] row : ROWS) {
+			database.jdbc().update("INSERT INTO keyset_item (id, priority) VALUES (?, ?)", row[0], row[1]);
+		}
+
+		LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+		factory.setDataSource(database.dataSource());
+		factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+		factory.setManagedTypes(PersistenceManagedTypes.of(Item.class.getName()));
+		factory.setJpaPropertyMap(Map.of("hibernate.default_schema", database.schema()));
+		factory.afterPropertiesSet();
+		entityManagerFactory = factory.getObject();
+		entityManager = entityManagerFactory.createEntityManager();
+		repository = new KeysetJpaRepository<>(
+				JpaEntityInformationSupport.getEntityInformation(Item.class, entityManager), entityManager);
+	}
+
+	@AfterEach
+	void dropTable() {
+		entityManager.close();
+		entityManagerFactory.close();
+		database.close();
+	}
+
+	@Test
+	void ascendingSeeksIntoAndThroughNullGroup() {
+		List<Integer> expected = List.of(1, 5, 3, 7, 2, 4, 6);
+		// Trang 2 dòng: cursor rơi vào giá trị trùng (10), giá trị cuối (30) và giữa nhóm NULL
+		assertEquals(expected, pageThrough(Sort.Direction.ASC, 2));
+		assertEquals(expected, pageThrough(Sort.Direction.ASC, 3));
+		assertEquals(expected, pageThrough(Sort.Direction.ASC, 1));
+	}
+
+	@Test
+	void descendingSeeksFromNullGroupIntoValues() {
+		List<Integer> expected = List.of(6, 4, 2, 7, 3, 5, 1);
+		assertEquals(expected, pageThrough(Sort.Direction.DESC, 2));
+		assertEquals(expected, pageThrough(Sort.Direction.DESC, 3));
+		assertEquals(expected, pageThrough(Sort.Direction.DESC, 1));
+	}
+
+	@Test
+	void cursorRecordsNullSortValue() {
+		KeysetPage<Item> page = repository.findAll(null,
+				KeysetPageRequest.of("priority", Sort.Direction.DESC, 2, null, false));
+
+		assertEquals(List.of(6, 4), page.content().stream().map(Item::getId).toList());
+		KeysetCursor cursor = KeysetCursor.decode(page.nextCursor());
+		assertEquals("4", cursor.id());
+		assertNull(cursor.value());
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private List<Integer> pageThrough(Sort.Direction direction, int size) {
+		List<Integer> ids = new ArrayList<>();
+		String cursor = null;
+		do {
+			KeysetPage<Item> page = repository.findAll(null,
+					KeysetPageRequest.of("priority", direction, size, cursor, false));
+			page.content().forEach(item -> ids.add(item.getId()));
+			cursor = page.nextCursor();
+		} while (cursor != null && ids.size() <= ROWS.length);
+		return ids;
+	}
+
+	@Entity
+	@Table(name = "keyset_item")
+	static class Item {
+
+		@Id
+		private Integer id;
+
+		@Column(name = "priority")
+		private Integer priority;
+
+		Integer getId() {
+			return id;
+		}
+
+		Integer getPriority() {
+			return priority;
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package com.capston.project.back.end.scheduler;
+
+import com.capston.project.back.end.common.JobRunStatus;
+import com.capston.project.back.end.entity.JobRun;
+import com.capston.project.back.end.repository.JobLeaseRepository;
+import com.capston.project.back.end.repository.JobRunRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Trigger bị bỏ qua khi lần trước chưa xong, partition đã SUCCEEDED cho mốc cron không chạy lại,
+ * lease được gia hạn trong lúc task chạy và cách tính mốc kích hoạt của cron
+ */
+class ClusterJobRunnerTest {
+
+	private static final String JOB = "test-job";
+	private static final String NODE = "node-a";
+	private static final ZoneId ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
+
+	private final MockEnvironment environment = new MockEnvironment();
+	private final List<JobRun> savedRuns = new CopyOnWriteArrayList<>();
+	private final List<Object[]> renewals = new CopyOnWriteArrayList<>();
+	private final AtomicInteger releases = new AtomicInteger();
+	private Function<Object[], Object> completed = args -> false;
+	private ClusterJobRunner runner;
+
+	@AfterEach
+	void stopRunner() {
+		if (runner != null) {
+			runner.shutdown();
+		}
+	}
+
+	@Test
+	void skipsTriggerWhileJobStillRunningOnNode() throws Exception {
+		runner = runner();
+		CountDownLatch finish = new CountDownLatch(1);
+		AtomicInteger runs = new AtomicInteger();
+
+		runner.submit(JOB, () -> {
+			runs.incrementAndGet();
+			assertTrue(finish.await(5, TimeUnit.SECONDS));
+			return 1;
+		});
+		runner.submit(JOB, () -> runs.incrementAndGet());
+		assertEquals(1L, runner.getStats().get("triggersSkipped"));
+
+		finish.countDown();
+		awaitIdle();
+		assertEquals(1, runs.get());
+
+		// Lần trước xong thì trigger sau chạy bình thường
+		runner.submit(JOB, () -> runs.incrementAndGet());
+		awaitIdle();
+		assertEquals(2, runs.get());
+		assertEquals(1L, runner.getStats().get("triggersSkipped"));
+		assertEquals(2L, runner.getStats().get("runsSucceeded"));
+	}
+
+	@Test
+	void skipsPartitionsAlreadySucceededForTrigger() throws Exception {
+		environment.setProperty("scheduler.jobs." + JOB + ".partitions", "3");
+		environment.setProperty("scheduler.jobs." + JOB + ".pool-size", "2");
+		List<Object[]> completionChecks = new CopyOnWriteArrayList<>();
+		// Node khác đã chạy xong partition 1 của mốc này
+		completed = args -> {
+			completionChecks.add(args);
+			return Integer.valueOf(1).equals(args[1]);
+		};
+		runner = runner();
+		Set<Integer> partitionsRun = ConcurrentHashMap.newKeySet();
+
+		String cron = "0 0 1 * * ?";
+		OffsetDateTime trigger = ClusterJobRunner.scheduledAt(cron, ZonedDateTime.now());
+		runner.submitPartitioned(JOB, cron, (partition, partitions) -> {
+			partitionsRun.add(partition);
+			return 0;
+		});
+		awaitIdle();
+
+		assertEquals(Set.of(0, 2), partitionsRun);
+		assertEquals(1L, runner.getStats().get("partitionsAlreadyDone"));
+		assertEquals(3, completionChecks.size());
+		for (Object[] check : completionChecks) {
+			assertEquals(JOB, check[0]);
+			assertEquals(trigger, check[2]);
+			assertEquals(JobRunStatus.SUCCEEDED, check[3]);
+		}
+		// Partition bỏ qua vẫn nhả lease; các lần chạy ghi kèm mốc kích hoạt
+		assertEquals(3, releases.get());
+		assertTrue(savedRuns.stream().allMatch(run -> trigger.equals(run.getScheduledAt())));
+		assertTrue(savedRuns.stream().noneMatch(run -> Integer.valueOf(1).equals(run.getPartitionNo())));
+	}
+
+	@Test
+	void jobWithoutCronIsNotCheckedForCompletion() throws Exception {
+		completed = args -> {
+			throw new AssertionError("fixedDelay job has no trigger to check");
+		};
+		runner = runner();
+
+		runner.submit(JOB, () -> 1);
+		awaitIdle();
+
+		assertEquals(1L, runner.getStats().get("runsSucceeded"));
+		assertNull(savedRuns.getFirst().getScheduledAt());
+	}
+
+	@Test
+	void renewsLeaseWhileTaskRuns() throws Exception {
+		environment.setProperty("scheduler.jobs." + JOB + ".lease", "PT0.3S");
+		runner = runner();
+
+		runner.submit(JOB, () -> {
+			// Chạy lâu hơn lease tới khi được gia hạn hai lần
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+			while (renewals.size() < 2 && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+			return null;
+		});
+		awaitIdle();
+
+		assertTrue(renewals.size() >= 2);
+		assertEquals(JOB, renewals.getFirst()[0]);
+		assertEquals(NODE, renewals.getFirst()[1]);
+		// Task xong thì heartbeat dừng
+		int afterRun = renewals.size();
+		Thread.sleep(400);
+		assertEquals(afterRun, renewals.size());
+		assertEquals(1L, runner.getStats().get("runsSucceeded"));
+	}
+
+	@Test
+	void scheduledAtIsLatestFireTimeAcrossLateAndEarlyTriggers() {
+		String daily = "0 0 1 * * ?";
+		OffsetDateTime fire = at(2026, 3, 2, 1, 0, 0);
+
+		assertEquals(fire, ClusterJobRunner.scheduledAt(daily, zoned(2026, 3, 2, 1, 0, 0).plusNanos(3_000_000)));
+		// Executor gọi sớm vài ms
+		assertEquals(fire, ClusterJobRunner.scheduledAt(daily, zoned(2026, 3, 2, 0, 59, 59).plusNanos(990_000_000)));
+		// Node có trigger trễ 12 giờ vẫn ra cùng mốc
+		assertEquals(fire, ClusterJobRunner.scheduledAt(daily, zoned(2026, 3, 2, 13, 0, 0)));
+		// Cron hàng tuần và hàng năm
+		assertEquals(at(2026, 3, 1, 3, 30, 0),
+				ClusterJobRunner.scheduledAt("0 30 3 * * SUN", zoned(2026, 3, 7, 23, 0, 0)));
+		assertEquals(at(2026, 1, 1, 0, 0, 0),
+				ClusterJobRunner.scheduledAt("0 0 0 1 1 ?", zoned(2026, 12, 31, 23, 0, 0)));
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private ClusterJobRunner runner() {
+		JobLeaseRepository leaseRepository = stub(JobLeaseRepository.class, Map.of(
+				"tryAcquire", args -> 1,
+				"renew", args -> {
+					renewals.add(args);
+					return 1;
+				},
+				"release", args -> {
+					releases.incrementAndGet();
+					return 1;
+				}));
+		JobRunRepository runRepository = stub(JobRunRepository.class, Map.of(
+				"save", args -> {
+					savedRuns.add((JobRun) args[0]);
+					return args[0];
+				},
+				"existsByJobNameAndPartitionNoAndScheduledAtAndStatus", args -> completed.apply(args)));
+		ClusterJobRunner runner = new ClusterJobRunner(leaseRepository, runRepository, environment);
+		ReflectionTestUtils.setField(runner, "configuredNodeId", NODE);
+		ReflectionTestUtils.setField(runner, "enabled", true);
+		runner.init();
+		return runner;
+	}
+
+	private void awaitIdle() throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!((List<?>) runner.getStats().get("runningJobs")).isEmpty()) {
+			if (System.nanoTime() > deadline) {
+				throw new AssertionError("job did not finish");
+			}
+			Thread.sleep(10);
+		}
+	}
+
+	private static ZonedDateTime zoned(int year, int month, int day, int hour, int minute, int second) {
+		return LocalDateTime.of(year, month, day, hour, minute, second).atZone(ZONE);
+	}
+
+	private static OffsetDateTime at(int year, int month, int day, int hour, int minute, int second) {
+		return zoned(year, month, day, hour, minute, second).toOffsetDateTime();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+			Function<Object[], Object> answer = answers.get(method.getName());
+			if (answer == null) {
+				throw new UnsupportedOperationException(method.getName());
+			}
+			return answer.apply(args);
+		});
+	}
+}
@@ -0,0 +1,126 @@
+package com.capston.project.back.end.service.impl;
+
+import com.capston.project.back.end.entity.Notification;
+import com.capston.project.back.end.repository.ContractRepository;
+import com.capston.project.back.end.repository.projection.ContractLifecycleRow;
+import com.capston.project.back.end.service.NotificationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Các khoảng cảnh báo sắp hết hạn: mỗi hợp đồng chỉ rơi vào khoảng của mốc gần nhất
+ * (1 ngày: hôm nay..+1, 7 ngày: +2..+7, 30 ngày: +8..+30)
+ */
+class ContractServiceImplTest {
+
+	private static final UUID PARTY_A = UUID.randomUUID();
+	private static final UUID PARTY_B = UUID.randomUUID();
+
+	private final List<Object[]> warningQueries = new ArrayList<>();
+	private final List<Notification> notifications = new ArrayList<>();
+
+	@Test
+	void queriesNonOverlappingWindowPerThreshold() {
+		ContractServiceImpl service = service(args -> List.of());
+		// Thứ tự cấu hình và mốc trùng không ảnh hưởng
+		ReflectionTestUtils.setField(service, "expiringSoonDays", List.of(30, 1, 7, 7));
+
+		assertEquals(0, service.checkAndUpdateExpiringSoonContracts());
+
+		assertEquals(3, warningQueries.size());
+		LocalDate today = (LocalDate) warningQueries.get(0)[1];
+		assertWindow(warningQueries.get(0), 1, today, today.plusDays(1));
+		assertWindow(warningQueries.get(1), 7, today.plusDays(2), today.plusDays(7));
+		assertWindow(warningQueries.get(2), 30, today.plusDays(8), today.plusDays(30));
+	}
+
+	@Test
+	void notifiesBothPartiesWithDaysLeft() {
+		ContractServiceImpl service = service(args -> (int) args[0] == 7
+				? List.of(row(5, ((LocalDate) args[1]).plusDays(3)))
+				: List.of());
+		ReflectionTestUtils.setField(service, "expiringSoonDays", List.of(30, 7, 1));
+
+		assertEquals(1, service.checkAndUpdateExpiringSoonContracts());
+
+		assertEquals(2, notifications.size());
+		assertEquals(PARTY_A, notifications.get(0).getUserId());
+		assertEquals(PARTY_B, notifications.get(1).getUserId());
+		assertEquals(5, notifications.get(0).getReferenceId());
+		assertEquals("Hợp đồng CTR-5 sẽ hết hạn sau 5 ngày (" + ((LocalDate) warningQueries.get(0)[1]).plusDays(5)
+				+ ")", notifications.get(0).getMessage());
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private static void assertWindow(Object[] query, int thresholdDays, LocalDate from, LocalDate to) {
+		assertEquals(thresholdDays, query[0]);
+		assertEquals(from, query[1]);
+		assertEquals(to, query[2]);
+	}
+
+	@SuppressWarnings("unchecked")
+	private ContractServiceImpl service(Function<Object[], List<ContractLifecycleRow>> warnings) {
+		ContractRepository contractRepository = stub(ContractRepository.class, Map.of(
+				"recordExpiryWarnings", args -> {
+					warningQueries.add(args);
+					return warnings.apply(args);
+				}));
+		NotificationService notificationService = stub(NotificationService.class, Map.of(
+				"createAndSendAll", args -> {
+					notifications.addAll((List<Notification>) args[0]);
+					return ((List<Notification>) args[0]).size();
+				}));
+		return new ContractServiceImpl(contractRepository, null, null, notificationService, null, null);
+	}
+
+	private static ContractLifecycleRow row(int id, LocalDate endDate) {
+		return new ContractLifecycleRow() {
+			@Override
+			public Integer getId() {
+				return id;
+			}
+
+			@Override
+			public String getContractCode() {
+				return "CTR-" + id;
+			}
+
+			@Override
+			public LocalDate getEndDate() {
+				return endDate;
+			}
+
+			@Override
+			public UUID getPartyAId() {
+				return PARTY_A;
+			}
+
+			@Override
+			public UUID getPartyBId() {
+				return PARTY_B;
+			}
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+			Function<Object[], Object> answer = answers.get(method.getName());
+			if (answer == null) {
+				throw new UnsupportedOperationException(method.getName());
+			}
+			return answer.apply(args);
+		});
+	}
+}
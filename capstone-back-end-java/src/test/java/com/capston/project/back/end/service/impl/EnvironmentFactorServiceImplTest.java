@@ -0,0 +1,178 @@
+package com.capston.project.back.end.service.impl;
+
+import com.capston.project.back.end.repository.FarmEnvironmentRecordRepository;
+import com.capston.project.back.end.repository.projection.FarmFactorRow;
+import com.capston.project.back.end.service.EnvironmentFactorService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tra hệ số "vào hoặc trước ngày" bằng binary search và invalidate theo từng farm,
+ * trên repository giả
+ */
+class EnvironmentFactorServiceImplTest {
+
+	private static final LocalDate DAY_1 = LocalDate.of(2025, 9, 1);
+	private static final LocalDate DAY_5 = LocalDate.of(2025, 9, 5);
+	private static final LocalDate DAY_9 = LocalDate.of(2025, 9, 9);
+
+	private final List<FarmFactorRow> rows = new ArrayList<>(List.of(
+			row(1, DAY_1, "0.850"),
+			row(1, DAY_5, "1.100"),
+			row(1, DAY_9, "0.975"),
+			row(2, DAY_5, "1.2345")));
+	private final List<Collection<Integer>> queries = Collections.synchronizedList(new ArrayList<>());
+	private volatile CountDownLatch loadStarted;
+	private volatile CountDownLatch releaseLoad;
+
+	@Test
+	void looksUpFactorOnOrBeforeDate() {
+		EnvironmentFactorServiceImpl service = service();
+
+		// Trúng đúng ngày
+		assertEquals(new BigDecimal("0.850"), service.getFactor(1, DAY_1));
+		assertEquals(new BigDecimal("1.100"), service.getFactor(1, DAY_5));
+		assertEquals(new BigDecimal("0.975"), service.getFactor(1, DAY_9));
+		// Giữa hai điểm: điểm trước đó
+		assertEquals(new BigDecimal("0.850"), service.getFactor(1, DAY_1.plusDays(3)));
+		assertEquals(new BigDecimal("1.100"), service.getFactor(1, DAY_9.minusDays(1)));
+		// Sau điểm cuối: điểm cuối
+		assertEquals(new BigDecimal("0.975"), service.getFactor(1, DAY_9.plusYears(1)));
+		// Trước điểm đầu: chưa có record nào trước ngày thì dùng hệ số mới nhất
+		assertEquals(new BigDecimal("0.975"), service.getFactor(1, DAY_1.minusDays(1)));
+		assertEquals(new BigDecimal("0.975"), service.getLatestFactor(1));
+
+		// Làm tròn về NUMERIC(6, 3); farm không có record thì hệ số 1
+		assertEquals(new BigDecimal("1.235"), service.getFactor(2, DAY_5));
+		assertEquals(BigDecimal.ONE, service.getFactor(3, DAY_5));
+		assertEquals(BigDecimal.ONE, service.getFactor(null, DAY_5));
+		assertEquals(1, queries.stream().filter(query -> query.contains(1)).count());
+	}
+
+	@Test
+	void batchLookupLoadsEachFarmOnce() {
+		EnvironmentFactorServiceImpl service = service();
+
+		Map<EnvironmentFactorService.FarmDate, BigDecimal> factors = service.getFactors(List.of(
+				new EnvironmentFactorService.FarmDate(1, DAY_5.plusDays(1)),
+				new EnvironmentFactorService.FarmDate(2, DAY_9),
+				new EnvironmentFactorService.FarmDate(null, DAY_9)));
+
+		assertEquals(new BigDecimal("1.100"), factors.get(new EnvironmentFactorService.FarmDate(1, DAY_5.plusDays(1))));
+		assertEquals(new BigDecimal("1.235"), factors.get(new EnvironmentFactorService.FarmDate(2, DAY_9)));
+		assertEquals(BigDecimal.ONE, factors.get(new EnvironmentFactorService.FarmDate(null, DAY_9)));
+		assertEquals(1, queries.size());
+	}
+
+	@Test
+	void invalidateReloadsOnlyThatFarm() {
+		EnvironmentFactorServiceImpl service = service();
+		service.getFactors(List.of(new EnvironmentFactorService.FarmDate(1, DAY_9),
+				new EnvironmentFactorService.FarmDate(2, DAY_9)));
+
+		rows.add(row(1, DAY_9.plusDays(1), "0.500"));
+		service.invalidate(List.of(1));
+
+		assertEquals(new BigDecimal("0.500"), service.getFactor(1, DAY_9.plusDays(1)));
+		assertEquals(new BigDecimal("1.235"), service.getFactor(2, DAY_9));
+		assertEquals(List.of(List.of(1)), queries.subList(1, queries.size()));
+	}
+
+	@Test
+	void invalidatingAnotherFarmDoesNotDiscardInFlightLoad() throws Exception {
+		EnvironmentFactorServiceImpl service = service();
+		loadStarted = new CountDownLatch(1);
+		releaseLoad = new CountDownLatch(1);
+
+		CompletableFuture<BigDecimal> loading = CompletableFuture.supplyAsync(() -> service.getFactor(1, DAY_9));
+		assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+		// Ingestion flush của farm khác trong lúc farm 1 đang nạp
+		service.invalidate(List.of(2));
+		loadStarted = null;
+		releaseLoad.countDown();
+		assertEquals(new BigDecimal("0.975"), loading.get(5, TimeUnit.SECONDS));
+
+		service.getFactor(1, DAY_5);
+		assertEquals(1, queries.size(), "farm 1 was not cached after an unrelated invalidation");
+	}
+
+	@Test
+	void invalidatingSameFarmDiscardsInFlightLoad() throws Exception {
+		EnvironmentFactorServiceImpl service = service();
+		loadStarted = new CountDownLatch(1);
+		releaseLoad = new CountDownLatch(1);
+
+		CompletableFuture<BigDecimal> loading = CompletableFuture.supplyAsync(() -> service.getFactor(1, DAY_9));
+		assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+		rows.add(row(1, DAY_9.plusDays(1), "0.500"));
+		service.invalidate(List.of(1));
+		loadStarted = null;
+		releaseLoad.countDown();
+		loading.get(5, TimeUnit.SECONDS);
+
+		// Lần nạp cũ có thể đã đọc dữ liệu trước invalidate nên không được cache
+		assertEquals(new BigDecimal("0.500"), service.getFactor(1, DAY_9.plusDays(1)));
+		assertEquals(2, queries.size());
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	@SuppressWarnings("unchecked")
+	private EnvironmentFactorServiceImpl service() {
+		FarmEnvironmentRecordRepository repository = (FarmEnvironmentRecordRepository) Proxy.newProxyInstance(
+				FarmEnvironmentRecordRepository.class.getClassLoader(),
+				new Class<?>[]{FarmEnvironmentRecordRepository.class},
+				(proxy, method, args) -> {
+					if (!method.getName().equals("findFactorSeries")) {
+						throw new UnsupportedOperationException(method.getName());
+					}
+					Collection<Integer> farmIds = List.copyOf((Collection<Integer>) args[0]);
+					// Chụp dữ liệu trước khi chờ, như một query đã đọc xong
+					List<FarmFactorRow> result = rows.stream().filter(row -> farmIds.contains(row.getFarmId())).toList();
+					queries.add(farmIds);
+					CountDownLatch started = loadStarted;
+					if (started != null) {
+						started.countDown();
+						releaseLoad.await(5, TimeUnit.SECONDS);
+					}
+					return result;
+				});
+		EnvironmentFactorServiceImpl service = new EnvironmentFactorServiceImpl(repository);
+		ReflectionTestUtils.setField(service, "maxFarms", 100);
+		return service;
+	}
+
+	private static FarmFactorRow row(Integer farmId, LocalDate date, String factor) {
+		return new FarmFactorRow() {
+			@Override
+			public Integer getFarmId() {
+				return farmId;
+			}
+
+			@Override
+			public LocalDate getRecordedDate() {
+				return date;
+			}
+
+			@Override
+			public BigDecimal getOverallFactor() {
+				return new BigDecimal(factor);
+			}
+		};
+	}
+}
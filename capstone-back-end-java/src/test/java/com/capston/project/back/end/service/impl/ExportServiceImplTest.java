@@ -0,0 +1,196 @@
+package com.capston.project.back.end.service.impl;
+
+import com.capston.project.back.end.common.FarmStatus;
+import com.capston.project.back.end.repository.FarmRepository;
+import com.capston.project.back.end.repository.projection.FarmExportRow;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Export danh sách farm qua SXSSF với repository giả trả về stream sinh dòng theo yêu cầu.
+ *
+ * Export 1 triệu dòng chạy trong JVM con giới hạn heap, chỉ khi bật:
+ * mvn test -Dtest=ExportServiceImplTest -Dbenchmark=true
+ */
+class ExportServiceImplTest {
+
+	private static final int CAPPED_ROWS = 1_000_000;
+	private static final String CAPPED_HEAP = "-Xmx64m";
+	private static final byte[] ROW_TAG = "<row ".getBytes(StandardCharsets.US_ASCII);
+
+	@Test
+	void exportsFarmRowsWithHeader() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exportService(2_000).exportFarmsToExcel(out);
+
+		try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+			Sheet sheet = workbook.getSheet("Farm");
+			assertEquals(2_000, sheet.getLastRowNum());
+			assertEquals("Mã farm", sheet.getRow(0).getCell(0).getStringCellValue());
+			assertEquals("FARM-1999", sheet.getRow(2_000).getCell(0).getStringCellValue());
+			assertEquals(1999.5, sheet.getRow(2_000).getCell(3).getNumericCellValue(), 0.0);
+			assertEquals("ACTIVE", sheet.getRow(1).getCell(7).getStringCellValue());
+		}
+	}
+
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void exportsMillionRowsWithCappedHeap(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("farms.xlsx");
+		Process process = new ProcessBuilder(
+				Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+				CAPPED_HEAP,
+				"-cp", System.getProperty("java.class.path"),
+				CappedHeapExport.class.getName(),
+				String.valueOf(CAPPED_ROWS),
+				file.toString())
+				.redirectErrorStream(true)
+				.redirectOutput(dir.resolve("export.log").toFile())
+				.start();
+
+		assertTrue(process.waitFor(10, TimeUnit.MINUTES), "export did not finish");
+		assertEquals(0, process.exitValue(), () -> "export failed: " + readLog(dir.resolve("export.log")));
+		assertEquals(CAPPED_ROWS + 1, countSheetRows(file));
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	/**
+	 * Tiến trình con chạy với heap bị giới hạn; OutOfMemoryError làm exit code khác 0
+	 */
+	static final class CappedHeapExport {
+
+		public static void main(String[] args) throws IOException {
+			try (OutputStream out = Files.newOutputStream(Path.of(args[1]))) {
+				exportService(Integer.parseInt(args[0])).exportFarmsToExcel(out);
+			}
+		}
+	}
+
+	private static ExportServiceImpl exportService(int rows) {
+		FarmRepository farmRepository = (FarmRepository) Proxy.newProxyInstance(
+				FarmRepository.class.getClassLoader(), new Class<?>[]{FarmRepository.class},
+				(proxy, method, args) -> {
+					if (method.getName().equals("streamActiveForExport")) {
+						return IntStream.range(0, rows).mapToObj(ExportServiceImplTest::farm);
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+		return new ExportServiceImpl(null, null, farmRepository);
+	}
+
+	private static FarmExportRow farm(int i) {
+		OffsetDateTime createdAt = OffsetDateTime.parse("2026-01-01T00:00:00Z").plusMinutes(i);
+		return new FarmExportRow() {
+			@Override
+			public String getCode() {
+				return "FARM-" + i;
+			}
+
+			@Override
+			public String getName() {
+				return "Farm số " + i;
+			}
+
+			@Override
+			public String getLocation() {
+				return "Xã " + (i % 500) + ", Cà Mau";
+			}
+
+			@Override
+			public BigDecimal getArea() {
+				return BigDecimal.valueOf(i).add(new BigDecimal("0.5"));
+			}
+
+			@Override
+			public BigDecimal getUsableArea() {
+				return BigDecimal.valueOf(i);
+			}
+
+			@Override
+			public String getSoilType() {
+				return "Đất phù sa";
+			}
+
+			@Override
+			public String getClimateZone() {
+				return "Nhiệt đới";
+			}
+
+			@Override
+			public FarmStatus getFarmStatus() {
+				return FarmStatus.ACTIVE;
+			}
+
+			@Override
+			public OffsetDateTime getCreatedAt() {
+				return createdAt;
+			}
+		};
+	}
+
+	// Đếm thẻ <row trong sheet1.xml bằng cách đọc luồng, không mở workbook vào heap
+	private static long countSheetRows(Path file) throws IOException {
+		try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(file))) {
+			ZipEntry entry;
+			while ((entry = zip.getNextEntry()) != null) {
+				if (entry.getName().equals("xl/worksheets/sheet1.xml")) {
+					return countOccurrences(zip, ROW_TAG);
+				}
+			}
+		}
+		throw new AssertionError("sheet1.xml not found in " + file);
+	}
+
+	private static long countOccurrences(InputStream in, byte[] pattern) throws IOException {
+		byte[] buffer = new byte[64 * 1024];
+		long count = 0;
+		int matched = 0;
+		int read;
+		while ((read = in.read(buffer)) > 0) {
+			for (int i = 0; i < read; i++) {
+				// Mẫu không có tiền tố lặp nên khi lệch chỉ cần thử lại từ đầu mẫu
+				if (buffer[i] == pattern[matched]) {
+					matched++;
+				} else {
+					matched = buffer[i] == pattern[0] ? 1 : 0;
+				}
+				if (matched == pattern.length) {
+					count++;
+					matched = 0;
+				}
+			}
+		}
+		return count;
+	}
+
+	private static String readLog(Path log) {
+		try {
+			return Files.readString(log);
+		} catch (IOException e) {
+			return e.getMessage();
+		}
+	}
+}
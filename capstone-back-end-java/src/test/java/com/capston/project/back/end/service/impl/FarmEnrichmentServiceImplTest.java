@@ -0,0 +1,171 @@
+package com.capston.project.back.end.service.impl;
+
+import com.capston.project.back.end.common.EnrichmentStatus;
+import com.capston.project.back.end.entity.Farm;
+import com.capston.project.back.end.repository.FarmRepository;
+import com.capston.project.back.end.service.GeocodingService;
+import com.capston.project.back.end.service.NotificationService;
+import com.capston.project.back.end.service.SoilApiService;
+import com.capston.project.back.end.service.WeatherApiService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pipeline enrichment với provider giả: đổi địa chỉ giữa chừng thì tra lại với địa chỉ mới,
+ * không geocode được thì ENRICHMENT_FAILED chứ không dùng toạ độ giả
+ */
+class FarmEnrichmentServiceImplTest {
+
+	private static final GeocodingService.Coordinates CAN_THO = new GeocodingService.Coordinates(
+			new BigDecimal("10.0452"), new BigDecimal("105.7469"), "Cần Thơ, Việt Nam");
+	private static final GeocodingService.Coordinates BEN_TRE = new GeocodingService.Coordinates(
+			new BigDecimal("10.2434"), new BigDecimal("106.3756"), "Bến Tre, Việt Nam");
+
+	private final Farm farm = Farm.builder()
+			.id(1)
+			.code("FARM-1")
+			.name("Farm 1")
+			.location("Cần Thơ")
+			.enrichmentStatus(EnrichmentStatus.ENRICHMENT_PENDING)
+			.createdBy(UUID.randomUUID())
+			.build();
+	private final List<String> geocoded = Collections.synchronizedList(new ArrayList<>());
+	private final List<BigDecimal> soilLookups = Collections.synchronizedList(new ArrayList<>());
+	private final List<String> notifications = Collections.synchronizedList(new ArrayList<>());
+	private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void resubmitsWithNewAddressWhenLocationChangedMidRun() throws InterruptedException {
+		FarmEnrichmentServiceImpl service = service(address -> {
+			if (address.equals("Cần Thơ")) {
+				// Người dùng sửa địa chỉ trong lúc đang tra
+				farm.setLocation("Bến Tre");
+				return Optional.of(CAN_THO);
+			}
+			return Optional.of(BEN_TRE);
+		});
+
+		assertTrue(service.submit(farm.getId()));
+		awaitStatusOtherThanPending();
+
+		assertEquals(List.of("Cần Thơ", "Bến Tre"), geocoded);
+		assertEquals(EnrichmentStatus.ENRICHED, farm.getEnrichmentStatus());
+		assertEquals(BEN_TRE.latitude(), farm.getLatitude());
+		assertEquals("Bến Tre, Việt Nam", farm.getLocation());
+		assertEquals("Ferralsols", farm.getSoilType());
+		// Kết quả của địa chỉ cũ bị bỏ, chỉ một thông báo cho lần áp dụng
+		assertEquals(List.of("Đã cập nhật vị trí farm"), notifications);
+	}
+
+	@Test
+	void marksFailedWhenAddressCannotBeGeocoded() throws InterruptedException {
+		FarmEnrichmentServiceImpl service = service(address -> Optional.empty());
+
+		assertTrue(service.submit(farm.getId()));
+		awaitStatusOtherThanPending();
+
+		assertEquals(EnrichmentStatus.ENRICHMENT_FAILED, farm.getEnrichmentStatus());
+		assertNull(farm.getLatitude());
+		assertTrue(soilLookups.isEmpty(), "soil looked up for coordinates that were never geocoded");
+		assertEquals(List.of("Không lấy được dữ liệu vị trí farm"), notifications);
+	}
+
+	@Test
+	void discardsResultWhenFarmDeletedMidRun() throws InterruptedException {
+		FarmEnrichmentServiceImpl service = service(address -> {
+			farm.setDeletedAt(OffsetDateTime.now());
+			return Optional.of(CAN_THO);
+		});
+
+		assertTrue(service.submit(farm.getId()));
+		executor.getThreadPoolExecutor().shutdown();
+		assertTrue(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS));
+
+		assertEquals(EnrichmentStatus.ENRICHMENT_PENDING, farm.getEnrichmentStatus());
+		assertNull(farm.getLatitude());
+		assertTrue(notifications.isEmpty());
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private void awaitStatusOtherThanPending() throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (farm.getEnrichmentStatus() == EnrichmentStatus.ENRICHMENT_PENDING && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		// Chờ worker gửi thông báo xong
+		executor.getThreadPoolExecutor().shutdown();
+		assertTrue(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS));
+	}
+
+	private FarmEnrichmentServiceImpl service(Function<String, Optional<GeocodingService.Coordinates>> geocoder) {
+		FarmRepository farmRepository = stub(FarmRepository.class, Map.of(
+				"findById", args -> Optional.of(farm)));
+		GeocodingService geocodingService = stub(GeocodingService.class, Map.of(
+				"findCoordinates", args -> {
+					geocoded.add((String) args[0]);
+					return geocoder.apply((String) args[0]);
+				}));
+		SoilApiService soilApiService = stub(SoilApiService.class, Map.of(
+				"getSoilProperties", args -> {
+					soilLookups.add((BigDecimal) args[0]);
+					return new SoilApiService.SoilData("Ferralsols", new BigDecimal("5.5"), new BigDecimal("1.2"),
+							"Clay loam");
+				}));
+		WeatherApiService weatherApiService = stub(WeatherApiService.class, Map.of(
+				"getClimateData", args -> new WeatherApiService.ClimateData(new BigDecimal("1800"),
+						new BigDecimal("27.1"), new BigDecimal("35"), "Tropical monsoon")));
+		NotificationService notificationService = stub(NotificationService.class, Map.of(
+				"createAndSend", args -> {
+					notifications.add((String) args[1]);
+					return null;
+				}));
+		PlatformTransactionManager transactionManager = stub(PlatformTransactionManager.class, Map.of(
+				"getTransaction", args -> new SimpleTransactionStatus(),
+				"commit", args -> null,
+				"rollback", args -> null));
+
+		executor.setCorePoolSize(1);
+		executor.setMaxPoolSize(1);
+		executor.setQueueCapacity(10);
+		executor.initialize();
+		return new FarmEnrichmentServiceImpl(farmRepository, geocodingService, soilApiService, weatherApiService,
+				notificationService, new TransactionTemplate(transactionManager), executor);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+			Function<Object[], Object> answer = answers.get(method.getName());
+			if (answer == null) {
+				throw new UnsupportedOperationException(method.getName());
+			}
+			return answer.apply(args);
+		});
+	}
+}
@@ -0,0 +1,227 @@
+package com.capston.project.back.end.service.impl;
+
+import com.capston.project.back.end.entity.Farm;
+import com.capston.project.back.end.entity.FarmEnvironmentRecord;
+import com.capston.project.back.end.repository.FarmEnvironmentRecordRepository;
+import com.capston.project.back.end.repository.FarmRepository;
+import com.capston.project.back.end.repository.projection.FarmRecordedDateRow;
+import com.capston.project.back.end.repository.projection.FarmSoilPhRow;
+import com.capston.project.back.end.service.EnvironmentFactorService;
+import com.capston.project.back.end.service.SoilApiService;
+import com.capston.project.back.end.service.WeatherApiService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ingestion song song và catch-up gọi Open-Meteo giả trên localhost (OpenMeteoStubServer),
+ * repository giả ghi lại các record được insert.
+ *
+ * Benchmark throughput chỉ chạy khi bật: mvn test -Dtest=FarmEnvironmentServiceImplTest -Dbenchmark=true
+ */
+class FarmEnvironmentServiceImplTest {
+
+	private static final Logger log = LoggerFactory.getLogger(FarmEnvironmentServiceImplTest.class);
+
+	private static final LocalDate DAY = LocalDate.of(2026, 9, 1);
+	private static final BigDecimal SOIL_PH = new BigDecimal("6.5");
+
+	private static final long BENCHMARK_LATENCY_MS = 50;
+	private static final int BENCHMARK_FARMS = 2_000;
+	private static final int SEQUENTIAL_FARMS = 100;
+	private static final int RATE_LIMITED_FARMS = 1_000;
+	private static final double RATE_LIMIT = 100;
+	private static final double UNLIMITED = 1_000_000;
+
+	private final List<FarmEnvironmentRecord> inserted = Collections.synchronizedList(new ArrayList<>());
+	private final List<FarmRecordedDateRow> recorded = new ArrayList<>();
+
+	@Test
+	void ingestsEveryFarmWithOneRequestWithinConcurrencyLimit() throws IOException {
+		List<Farm> farms = farms(60);
+		try (OpenMeteoStubServer server = new OpenMeteoStubServer(20)) {
+			service(farms, server.weatherService(UNLIMITED, 100), 4).fetchAndSaveForAllFarms(DAY);
+
+			assertEquals(60, server.requestCount());
+			assertTrue(server.maxConcurrentRequests() > 1, "requests were not issued in parallel");
+			assertTrue(server.maxConcurrentRequests() <= 4,
+					"concurrency limit exceeded: " + server.maxConcurrentRequests());
+		}
+
+		assertEquals(60, inserted.size());
+		assertEquals(60, inserted.stream().map(FarmEnvironmentRecord::getFarmId).distinct().count());
+		assertTrue(inserted.stream().allMatch(record -> DAY.equals(record.getRecordedDate())
+				&& SOIL_PH.equals(record.getSoilPh())));
+	}
+
+	@Test
+	void catchUpRequestsOneRangePerFarmAndInsertsOnlyMissingDays() throws IOException {
+		LocalDate from = LocalDate.of(2025, 9, 1);
+		LocalDate to = LocalDate.of(2025, 9, 10);
+		recorded(1, from, to);
+		recorded(2, from, from.plusDays(2));
+		recorded(2, to.minusDays(1), to);
+		recorded(3, from.plusDays(4), from.plusDays(4));
+
+		try (OpenMeteoStubServer server = new OpenMeteoStubServer(0)) {
+			service(farms(3), server.weatherService(UNLIMITED, 100), 4).catchUpMissingRecords(from, to);
+
+			// Farm 1 đủ ngày: không request; farm 3 thiếu hai đầu: một request cả dải
+			assertEquals(Set.of("2025-09-04..2025-09-08", "2025-09-01..2025-09-10"),
+					Set.copyOf(server.requestedRanges()));
+			assertEquals(2, server.requestCount());
+		}
+
+		Set<String> expected = IntStream.rangeClosed(1, 10)
+				.mapToObj(day -> LocalDate.of(2025, 9, day))
+				.flatMap(day -> {
+					List<String> keys = new ArrayList<>();
+					if (day.getDayOfMonth() >= 4 && day.getDayOfMonth() <= 8) {
+						keys.add("2@" + day);
+					}
+					if (day.getDayOfMonth() != 5) {
+						keys.add("3@" + day);
+					}
+					return keys.stream();
+				})
+				.collect(Collectors.toSet());
+		assertEquals(14, inserted.size());
+		assertEquals(expected, inserted.stream()
+				.map(record -> record.getFarmId() + "@" + record.getRecordedDate())
+				.collect(Collectors.toSet()));
+	}
+
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void parallelIngestionThroughput() throws IOException {
+		Throughput sequential = ingest(SEQUENTIAL_FARMS, 1, UNLIMITED);
+		Throughput parallel = ingest(BENCHMARK_FARMS, 16, UNLIMITED);
+		Throughput rateLimited = ingest(RATE_LIMITED_FARMS, 16, RATE_LIMIT);
+
+		log.info("Ingestion with {} ms API latency: sequential {} farms/s, 16 in flight {} farms/s (max {} concurrent), "
+						+ "rate limited to {}/s {} farms/s", BENCHMARK_LATENCY_MS, sequential.farmsPerSecond(),
+				parallel.farmsPerSecond(), parallel.maxConcurrent(), RATE_LIMIT, rateLimited.farmsPerSecond());
+
+		assertTrue(parallel.farmsPerSecond() > sequential.farmsPerSecond() * 8,
+				"parallel " + parallel.farmsPerSecond() + " vs sequential " + sequential.farmsPerSecond() + " farms/s");
+		// Token bucket giữ tốc độ gọi API dưới giới hạn (burst chỉ cho vượt ở đầu)
+		assertTrue(rateLimited.farmsPerSecond() <= RATE_LIMIT * 1.1,
+				"rate limit exceeded: " + rateLimited.farmsPerSecond() + " farms/s");
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private Throughput ingest(int farmCount, int concurrency, double permitsPerSecond) throws IOException {
+		inserted.clear();
+		try (OpenMeteoStubServer server = new OpenMeteoStubServer(BENCHMARK_LATENCY_MS)) {
+			FarmEnvironmentServiceImpl service = service(farms(farmCount), server.weatherService(permitsPerSecond, 10),
+					concurrency);
+			long started = System.nanoTime();
+			service.fetchAndSaveForAllFarms(DAY);
+			long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+			assertEquals(farmCount, inserted.size());
+			assertEquals(farmCount, server.requestCount());
+			return new Throughput(farmCount * 1000L / Math.max(1, elapsedMs), server.maxConcurrentRequests());
+		}
+	}
+
+	private record Throughput(long farmsPerSecond, int maxConcurrent) {
+	}
+
+	private FarmEnvironmentServiceImpl service(List<Farm> farms, WeatherApiService weatherService, int concurrency) {
+		FarmRepository farmRepository = stub(FarmRepository.class, Map.of(
+				"findAllActive", args -> farms));
+		FarmEnvironmentRecordRepository recordRepository = stub(FarmEnvironmentRecordRepository.class, Map.of(
+				"findFarmIdsWithRecordOn", args -> List.of(),
+				"findRecordedDatesBetween", args -> recorded,
+				"findLatestSoilPhPerFarm", args -> farms.stream().map(farm -> soilPh(farm.getId())).toList(),
+				"insertIgnoringExisting", args -> {
+					List<?> records = (List<?>) args[0];
+					records.forEach(record -> inserted.add((FarmEnvironmentRecord) record));
+					return records.size();
+				}));
+		// pH đã có cho mọi farm nên không được gọi SoilGrids
+		SoilApiService soilApiService = stub(SoilApiService.class, Map.of());
+		EnvironmentFactorService environmentFactorService = stub(EnvironmentFactorService.class, Map.of(
+				"invalidate", args -> null));
+
+		FarmEnvironmentServiceImpl service = new FarmEnvironmentServiceImpl(farmRepository, recordRepository,
+				weatherService, soilApiService, environmentFactorService);
+		ReflectionTestUtils.setField(service, "concurrency", concurrency);
+		ReflectionTestUtils.setField(service, "chunkSize", 100);
+		ReflectionTestUtils.setField(service, "maxAttempts", 3);
+		ReflectionTestUtils.setField(service, "initialBackoffMs", 10L);
+		ReflectionTestUtils.setField(service, "catchUpMaxDays", 366);
+		return service;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+			Function<Object[], Object> answer = answers.get(method.getName());
+			if (answer == null) {
+				throw new UnsupportedOperationException(method.getName());
+			}
+			return answer.apply(args);
+		});
+	}
+
+	// Mỗi farm một ô lưới thời tiết (0.1° > độ phân giải 0.05°) để không dùng chung cache
+	private static List<Farm> farms(int count) {
+		return IntStream.range(0, count)
+				.mapToObj(i -> Farm.builder()
+						.id(i + 1)
+						.code("FARM-" + i)
+						.latitude(BigDecimal.valueOf(800 + i / 100 * 10L, 2))
+						.longitude(BigDecimal.valueOf(10_400 + i % 100 * 10L, 2))
+						.build())
+				.toList();
+	}
+
+	private void recorded(int farmId, LocalDate first, LocalDate last) {
+		first.datesUntil(last.plusDays(1)).forEach(day -> recorded.add(new FarmRecordedDateRow() {
+			@Override
+			public Integer getFarmId() {
+				return farmId;
+			}
+
+			@Override
+			public LocalDate getRecordedDate() {
+				return day;
+			}
+		}));
+	}
+
+	private static FarmSoilPhRow soilPh(Integer farmId) {
+		return new FarmSoilPhRow() {
+			@Override
+			public Integer getFarmId() {
+				return farmId;
+			}
+
+			@Override
+			public BigDecimal getSoilPh() {
+				return SOIL_PH;
+			}
+		};
+	}
+}
@@ -0,0 +1,177 @@
+package com.capston.project.back.end.service.impl;
+
+import com.capston.project.back.end.cache.SpatialTileCache;
+import com.capston.project.back.end.repository.SpatialTileCacheRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server Open-Meteo archive giả trên localhost: trả dữ liệu ngày cố định sau một độ trễ
+ * giả lập mạng, ghi lại dải ngày của từng request và số request đồng thời lớn nhất.
+ */
+final class OpenMeteoStubServer implements AutoCloseable {
+
+	private static final String ARCHIVE_PATH = "/v1/archive";
+
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final long latencyMs;
+
+	private final AtomicInteger requests = new AtomicInteger();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+	private final Queue<String> ranges = new ConcurrentLinkedQueue<>();
+
+	// Archive có độ trễ: các ngày sau mốc này trả về null
+	private volatile LocalDate publishedUntil = LocalDate.MAX;
+
+	OpenMeteoStubServer(long latencyMs) throws IOException {
+		this.latencyMs = latencyMs;
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		// Executor mặc định của HttpServer xử lý tuần tự, không đo được request song song
+		server.setExecutor(executor);
+		server.createContext(ARCHIVE_PATH, this::archive);
+		server.start();
+	}
+
+	String archiveUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + ARCHIVE_PATH;
+	}
+
+	int requestCount() {
+		return requests.get();
+	}
+
+	int maxConcurrentRequests() {
+		return maxInFlight.get();
+	}
+
+	/**
+	 * Dải ngày đã được request, dạng "start..end"
+	 */
+	List<String> requestedRanges() {
+		return List.copyOf(ranges);
+	}
+
+	void publishUntil(LocalDate lastPublishedDay) {
+		publishedUntil = lastPublishedDay;
+	}
+
+	/**
+	 * WeatherApiServiceImpl gọi server này, tile cache chỉ nằm trong bộ nhớ
+	 */
+	WeatherApiServiceImpl weatherService(double permitsPerSecond, int burst) {
+		WeatherApiServiceImpl service = new WeatherApiServiceImpl(inMemoryTileCache(), restClient());
+		ReflectionTestUtils.setField(service, "useMock", false);
+		ReflectionTestUtils.setField(service, "archiveUrl", archiveUrl());
+		ReflectionTestUtils.setField(service, "permitsPerSecond", permitsPerSecond);
+		ReflectionTestUtils.setField(service, "burst", burst);
+		ReflectionTestUtils.invokeMethod(service, "initRateLimiter");
+		return service;
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.close();
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private void archive(HttpExchange exchange) throws IOException {
+		requests.incrementAndGet();
+		maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+		try {
+			Thread.sleep(latencyMs);
+			Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+			ranges.add(query.get("start_date") + ".." + query.get("end_date"));
+			List<LocalDate> days = LocalDate.parse(query.get("start_date"))
+					.datesUntil(LocalDate.parse(query.get("end_date")).plusDays(1))
+					.toList();
+
+			byte[] body = daily(days).getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			exchange.sendResponseHeaders(503, -1);
+		} finally {
+			inFlight.decrementAndGet();
+			exchange.close();
+		}
+	}
+
+	private String daily(List<LocalDate> days) {
+		StringBuilder time = new StringBuilder();
+		StringBuilder precipitation = new StringBuilder();
+		StringBuilder temperature = new StringBuilder();
+		for (LocalDate day : days) {
+			String separator = time.isEmpty() ? "" : ",";
+			time.append(separator).append('"').append(day).append('"');
+			boolean published = !day.isAfter(publishedUntil);
+			precipitation.append(separator).append(published ? String.valueOf(day.getDayOfMonth() / 10.0) : "null");
+			temperature.append(separator).append(published ? "27.5" : "null");
+		}
+		return "{\"daily\":{\"time\":[" + time + "],\"precipitation_sum\":[" + precipitation
+				+ "],\"temperature_2m_mean\":[" + temperature + "]}}";
+	}
+
+	private static Map<String, String> query(String rawQuery) {
+		Map<String, String> params = new HashMap<>();
+		for (String pair : rawQuery.split("&")) {
+			int eq = pair.indexOf('=');
+			params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+					URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+		}
+		return params;
+	}
+
+	private static RestClient restClient() {
+		HttpClient httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(2))
+				.build();
+		return RestClient.builder().requestFactory(new JdkClientHttpRequestFactory(httpClient)).build();
+	}
+
+	// Bảng spatial_tile_cache giả: luôn miss, ghi thì bỏ qua
+	private static SpatialTileCache inMemoryTileCache() {
+		SpatialTileCacheRepository repository = (SpatialTileCacheRepository) Proxy.newProxyInstance(
+				SpatialTileCacheRepository.class.getClassLoader(), new Class<?>[]{SpatialTileCacheRepository.class},
+				(proxy, method, args) -> switch (method.getName()) {
+					case "findAllById" -> List.of();
+					case "saveAll" -> args[0];
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+		SpatialTileCache cache = new SpatialTileCache(repository);
+		ReflectionTestUtils.setField(cache, "maxEntries", 20_000);
+		ReflectionTestUtils.setField(cache, "weatherResolution", 0.05);
+		ReflectionTestUtils.setField(cache, "weatherTtl", Duration.ofDays(365));
+		ReflectionTestUtils.invokeMethod(cache, "initStats");
+		return cache;
+	}
+}
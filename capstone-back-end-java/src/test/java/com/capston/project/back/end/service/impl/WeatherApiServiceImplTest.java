@@ -0,0 +1,79 @@
+package com.capston.project.back.end.service.impl;
+
+import com.capston.project.back.end.service.WeatherApiService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Lấy thời tiết theo dải ngày từ Open-Meteo giả trên localhost, qua tile cache trong bộ nhớ
+ */
+class WeatherApiServiceImplTest {
+
+	private static final BigDecimal LATITUDE = new BigDecimal("10.0312");
+	private static final BigDecimal LONGITUDE = new BigDecimal("105.7684");
+	private static final LocalDate FROM = LocalDate.of(2025, 9, 1);
+	private static final LocalDate TO = LocalDate.of(2025, 9, 10);
+
+	private OpenMeteoStubServer server;
+	private WeatherApiServiceImpl service;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = new OpenMeteoStubServer(0);
+		service = server.weatherService(1_000, 100);
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.close();
+	}
+
+	@Test
+	void fetchesWholeRangeInOneRequest() {
+		List<WeatherApiService.WeatherData> days = service.fetchWeatherRange(LATITUDE, LONGITUDE, FROM, TO);
+
+		assertEquals(10, days.size());
+		assertEquals(FROM, days.get(0).date());
+		assertEquals(TO, days.get(9).date());
+		assertEquals(new BigDecimal("1.0"), days.get(9).rainfall());
+		assertEquals(new BigDecimal("27.5"), days.get(9).temperature());
+		assertEquals(List.of("2025-09-01..2025-09-10"), server.requestedRanges());
+	}
+
+	@Test
+	void requestsOnlyDaysMissingFromTileCache() {
+		service.fetchWeatherRange(LATITUDE, LONGITUDE, FROM, FROM.plusDays(4));
+		// Cùng ô lưới 0.05° nên dùng lại 5 ngày đầu
+		List<WeatherApiService.WeatherData> days = service.fetchWeatherRange(
+				new BigDecimal("10.0350"), new BigDecimal("105.7650"), FROM, TO);
+		service.fetchWeatherRange(LATITUDE, LONGITUDE, FROM, TO);
+
+		assertEquals(10, days.size());
+		assertEquals(List.of("2025-09-01..2025-09-05", "2025-09-06..2025-09-10"), server.requestedRanges());
+	}
+
+	@Test
+	void skipsDaysNotYetPublishedAndRetriesThemLater() {
+		server.publishUntil(TO.minusDays(3));
+
+		List<WeatherApiService.WeatherData> days = service.fetchWeatherRange(LATITUDE, LONGITUDE, FROM, TO);
+		assertEquals(7, days.size());
+		assertEquals(TO.minusDays(3), days.get(6).date());
+		assertThrows(IllegalStateException.class, () -> service.fetchHistoricalWeather(LATITUDE, LONGITUDE, TO));
+
+		// Ngày thiếu không được cache: lần sau request lại đúng phần còn thiếu
+		server.publishUntil(TO);
+		assertEquals(10, service.fetchWeatherRange(LATITUDE, LONGITUDE, FROM, TO).size());
+		assertEquals(List.of("2025-09-01..2025-09-10", "2025-09-10..2025-09-10", "2025-09-08..2025-09-10"),
+				server.requestedRanges());
+	}
+}
@@ -0,0 +1,103 @@
+package com.capston.project.back.end.util;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Chạy client với một completions server giả trên localhost trả về SSE chunked
+ */
+class ChatCompletionStreamClientTest {
+
+	private static final List<Map<String, String>> MESSAGES = List.of(Map.of("role", "user", "content", "Xin chào"));
+
+	private HttpServer server;
+	private final AtomicReference<String> requestBody = new AtomicReference<>();
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.stop(0);
+	}
+
+	@Test
+	void relaysDeltasInOrderUntilDone() {
+		serve(200, List.of(
+				chunk("{\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}"),
+				chunk("{\"choices\":[{\"delta\":{\"content\":\"Tín chỉ \"}}]}"),
+				chunk("{\"choices\":[{\"delta\":{\"content\":\"carbon\"}}]}"),
+				chunk("{\"choices\":[{\"delta\":{\"content\":\" là...\"}}]}"),
+				chunk("[DONE]"),
+				chunk("{\"choices\":[{\"delta\":{\"content\":\"ignored\"}}]}")));
+
+		List<String> deltas = client().stream(MESSAGES, 0.7, 500).collectList().block(Duration.ofSeconds(10));
+
+		assertEquals(List.of("Tín chỉ ", "carbon", " là..."), deltas);
+		assertTrue(requestBody.get().contains("\"stream\":true"));
+		assertTrue(requestBody.get().contains("\"model\":\"test-model\""));
+	}
+
+	@Test
+	void completesWhenServerClosesWithoutDone() {
+		serve(200, List.of(chunk("{\"choices\":[{\"delta\":{\"content\":\"ok\"}}]}")));
+
+		List<String> deltas = client().stream(MESSAGES, 0.7, 500).collectList().block(Duration.ofSeconds(10));
+
+		assertEquals(List.of("ok"), deltas);
+	}
+
+	@Test
+	void failsOnErrorStatus() {
+		serve(429, List.of("{\"error\":\"rate limited\"}"));
+
+		assertThrows(RuntimeException.class,
+				() -> client().stream(MESSAGES, 0.7, 500).collectList().block(Duration.ofSeconds(10)));
+	}
+
+	private ChatCompletionStreamClient client() {
+		String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/chat/completions";
+		return new ChatCompletionStreamClient(url, "test-token", "test-model", Duration.ofSeconds(2),
+				Duration.ofSeconds(5));
+	}
+
+	private static String chunk(String data) {
+		return "data: " + data + "\n\n";
+	}
+
+	// Mỗi phần được flush riêng với độ trễ nhỏ để client nhận nhiều chunk HTTP
+	private void serve(int status, List<String> parts) {
+		server.createContext("/chat/completions", exchange -> {
+			requestBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+			exchange.getResponseHeaders().add("Content-Type", status == 200 ? "text/event-stream" : "application/json");
+			exchange.sendResponseHeaders(status, 0);
+			try (OutputStream out = exchange.getResponseBody()) {
+				for (String part : parts) {
+					out.write(part.getBytes(StandardCharsets.UTF_8));
+					out.flush();
+					Thread.sleep(20);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+	}
+}
@@ -0,0 +1,104 @@
+package com.capston.project.back.end.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Chuyển trạng thái CLOSED → OPEN → HALF_OPEN → CLOSED/OPEN
+ */
+class CircuitBreakerTest {
+
+	private static final Duration OPEN_DURATION = Duration.ofMillis(200);
+
+	private final CircuitBreaker breaker = new CircuitBreaker("nominatim", 3, OPEN_DURATION);
+	private final AtomicInteger calls = new AtomicInteger();
+
+	@Test
+	void opensAfterConsecutiveFailuresAndRejectsWithoutCalling() {
+		fail();
+		fail();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		fail();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+		assertThrows(IllegalStateException.class, this::succeed);
+		assertEquals(3, calls.get());
+	}
+
+	@Test
+	void successResetsFailureCount() {
+		fail();
+		fail();
+		assertEquals("ok", succeed());
+		fail();
+		fail();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void halfOpenAllowsSingleTrialAndClosesOnSuccess() throws InterruptedException {
+		open();
+		Thread.sleep(OPEN_DURATION.toMillis() + 50);
+
+		String result = breaker.call(() -> {
+			assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+			// Trong lúc request thử đang chạy, request khác vẫn bị chặn
+			assertThrows(IllegalStateException.class, this::succeed);
+			return "trial";
+		});
+
+		assertEquals("trial", result);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		// Đóng lại với bộ đếm lỗi về 0: một lỗi không mở mạch ngay
+		fail();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void failedTrialReopensForAnotherFullPeriod() throws InterruptedException {
+		open();
+		Thread.sleep(OPEN_DURATION.toMillis() + 50);
+
+		fail();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertThrows(IllegalStateException.class, this::succeed);
+
+		Thread.sleep(OPEN_DURATION.toMillis() + 50);
+		assertEquals("ok", succeed());
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void rejectsNonPositiveSettings() {
+		assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker("x", 0, OPEN_DURATION));
+		assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker("x", 3, Duration.ZERO));
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private void open() {
+		for (int i = 0; i < 3; i++) {
+			fail();
+		}
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	private void fail() {
+		assertThrows(IllegalArgumentException.class, () -> breaker.call(() -> {
+			calls.incrementAndGet();
+			throw new IllegalArgumentException("provider down");
+		}));
+	}
+
+	private String succeed() {
+		return breaker.call(() -> {
+			calls.incrementAndGet();
+			return "ok";
+		});
+	}
+}
@@ -0,0 +1,249 @@
+package com.capston.project.back.end.util;
+
+import com.capston.project.back.end.common.AnomalyKind;
+import com.capston.project.back.end.common.GrowthMetric;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Các loại bất thường và benchmark chi phí mỗi bản ghi (1 triệu bản ghi, 10k lô).
+ *
+ * Benchmark chỉ chạy khi bật: mvn test -Dtest=GrowthAnomalyDetectorTest -Dbenchmark=true
+ */
+class GrowthAnomalyDetectorTest {
+
+	private static final Logger log = LoggerFactory.getLogger(GrowthAnomalyDetectorTest.class);
+
+	private static final int BENCHMARK_BATCHES = 10_000;
+	private static final int BENCHMARK_SPECIES = 50;
+	private static final int RECORDS_PER_BATCH = 100;
+	private static final long PER_RECORD_BUDGET_NANOS = 2_000;
+
+	private final GrowthAnomalyDetector detector = new GrowthAnomalyDetector(4.0, 5, 0.3, 0.25, 0.02);
+
+	@Test
+	void flagsDataEntryOutlierWithoutSkewingBaseline() {
+		double[] batch = detector.newBatchState();
+		double[] species = detector.newSpeciesState();
+		double height = 50;
+		long day = 0;
+		for (int i = 0; i < 8; i++) {
+			height += i % 2 == 0 ? 9 : 11;
+			assertTrue(accept(batch, species, day += 10, height, 1000).isEmpty());
+		}
+
+		// Một lần nhập 250 thay vì 25 cm
+		List<GrowthAnomalyDetector.Anomaly> spike = accept(batch, species, day += 10, height + 250, 1000);
+		assertEquals(1, spike.size());
+		assertEquals(GrowthMetric.HEIGHT, spike.getFirst().metric());
+		assertEquals(AnomalyKind.OUTLIER, spike.getFirst().kind());
+
+		// Các lần đo sau trở lại giá trị thật: so với giá trị hợp lệ cuối chứ không với giá trị nhập sai
+		height += 20;
+		assertTrue(accept(batch, species, day += 10, height, 1000).isEmpty());
+		height += 10;
+		assertTrue(accept(batch, species, day += 10, height, 1000).isEmpty());
+	}
+
+	@Test
+	void acceptsPersistentLevelShiftAsNewBaseline() {
+		double[] batch = detector.newBatchState();
+		double[] species = detector.newSpeciesState();
+		double height = 50;
+		long day = 0;
+		for (int i = 0; i < 8; i++) {
+			height += i % 2 == 0 ? 9 : 11;
+			assertTrue(accept(batch, species, day += 10, height, 1000).isEmpty());
+		}
+
+		// Tỉa ngọn: hai lần đo liên tiếp đều thấp hơn hẳn thì lấy làm mốc mới
+		assertEquals(AnomalyKind.OUTLIER, accept(batch, species, day += 10, 40, 1000).getFirst().kind());
+		assertEquals(AnomalyKind.OUTLIER, accept(batch, species, day += 10, 50, 1000).getFirst().kind());
+		assertTrue(accept(batch, species, day += 10, 60, 1000).isEmpty());
+		assertTrue(accept(batch, species, day += 10, 69, 1000).isEmpty());
+	}
+
+	@Test
+	void flagsStagnationAgainstSpeciesOnce() {
+		double[] species = detector.newSpeciesState();
+		for (int b = 0; b < 10; b++) {
+			double[] batch = detector.newBatchState();
+			double rate = 0.6 + 0.09 * b;
+			for (int i = 0; i <= 6; i++) {
+				assertTrue(accept(batch, species, i * 10L, 50 + rate * i * 10, 1000).isEmpty());
+			}
+		}
+
+		double[] slow = detector.newBatchState();
+		List<GrowthAnomalyDetector.Anomaly> anomalies = new ArrayList<>();
+		for (int i = 0; i <= 8; i++) {
+			anomalies.addAll(accept(slow, species, i * 10L, 50 + 0.1 * i * 10, 1000));
+		}
+		assertEquals(1, anomalies.size());
+		assertEquals(AnomalyKind.STAGNATION, anomalies.getFirst().kind());
+		assertEquals(GrowthMetric.HEIGHT, anomalies.getFirst().metric());
+	}
+
+	@Test
+	void flagsDieOffAgainstSpecies() {
+		double[] species = detector.newSpeciesState();
+		for (int b = 0; b < 5; b++) {
+			double[] batch = detector.newBatchState();
+			double alive = 1000;
+			for (int i = 0; i <= 4; i++) {
+				assertTrue(accept(batch, species, i * 30L, Double.NaN, alive).isEmpty());
+				alive -= 1;
+			}
+		}
+
+		double[] batch = detector.newBatchState();
+		accept(batch, species, 0, Double.NaN, 1000);
+		accept(batch, species, 30, Double.NaN, 999);
+		// Mất 20% cây sống trong 7 ngày
+		List<GrowthAnomalyDetector.Anomaly> anomalies = accept(batch, species, 37, Double.NaN, 799);
+		assertEquals(1, anomalies.size());
+		assertEquals(AnomalyKind.DIE_OFF, anomalies.getFirst().kind());
+		assertEquals(GrowthMetric.MORTALITY, anomalies.getFirst().metric());
+	}
+
+	@Test
+	void ignoresEditsAndBackfilledRecords() {
+		double[] batch = detector.newBatchState();
+		double[] species = detector.newSpeciesState();
+		accept(batch, species, 100, 50, 1000);
+		double[] before = batch.clone();
+
+		assertTrue(accept(batch, species, 100, 500, 1000).isEmpty());
+		assertTrue(accept(batch, species, 90, 5, 1000).isEmpty());
+		assertEquals(before.length, batch.length);
+		for (int i = 0; i < before.length; i++) {
+			assertEquals(before[i], batch[i], 0.0);
+		}
+	}
+
+	@Test
+	void mergesUpdatesFromTwoNodesWithoutLosingEither() {
+		// Thống kê loài đã lưu, hai node cùng nạp rồi mỗi node nhận bản ghi của lô khác nhau
+		double[] stored = detector.newSpeciesState();
+		feed(detector.newBatchState(), stored, 50, 10, 8);
+		double[] nodeA = stored.clone();
+		double[] nodeB = stored.clone();
+		feed(detector.newBatchState(), nodeA, 30, 11, 6);
+		feed(detector.newBatchState(), nodeB, 70, 9, 9);
+
+		double[] single = stored.clone();
+		feed(detector.newBatchState(), single, 30, 11, 6);
+		feed(detector.newBatchState(), single, 70, 9, 9);
+
+		double[] afterA = detector.merge(stored, stored, nodeA);
+		double[] afterB = detector.merge(afterA, stored, nodeB);
+		// n, mean, m2 của mỗi metric (EWMA ở vị trí thứ 4 phụ thuộc thứ tự nên không so)
+		for (int i = 0; i < single.length; i++) {
+			if (i % 4 != 3) {
+				assertEquals(single[i], afterB[i], 1e-9 * Math.max(1, Math.abs(single[i])), "index " + i);
+			}
+		}
+		assertEquals(afterA[0] + nodeB[0] - stored[0], afterB[0], 0.0);
+
+		// Không node nào khác ghi: giữ nguyên bản của node
+		double[] unchanged = detector.merge(nodeA, nodeA, afterA);
+		assertEquals(afterA.length, unchanged.length);
+		for (int i = 0; i < afterA.length; i++) {
+			assertEquals(afterA[i], unchanged[i], 0.0);
+		}
+	}
+
+	@Test
+	void mergedBatchKeepsBaselineOfNewestRecord() {
+		double[] species = detector.newSpeciesState();
+		double[] stored = detector.newBatchState();
+		accept(stored, species, 0, 50, 1000);
+		accept(stored, species, 10, 60, 1000);
+
+		double[] stale = stored.clone();
+		double[] newer = stored.clone();
+		accept(newer, species, 20, 70, 1000);
+		accept(newer, species, 30, 80, 1000);
+		accept(stale, species, 25, 75, 1000);
+
+		// Node có bản ghi ngày 30 đã ghi trước; node kia có bản ngày 25 gộp sau
+		double[] merged = detector.merge(newer, stored, stale);
+		// Ngày bản ghi cuối và chiều cao làm mốc (hai phần tử đầu) lấy của bản ngày 30
+		assertEquals(30, merged[0], 0.0);
+		assertEquals(80, merged[1], 0.0);
+		// Thống kê chiều cao của lô có đủ 4 tốc độ (ngày 10, 20, 30 và 25)
+		double[] reversed = detector.merge(stale, stored, newer);
+		assertEquals(30, reversed[0], 0.0);
+		assertEquals(80, reversed[1], 0.0);
+		int heightSamples = GrowthAnomalyDetector.BATCH_STATE_SIZE - GrowthAnomalyDetector.SPECIES_STATE_SIZE;
+		assertEquals(4, merged[heightSamples], 0.0);
+		assertEquals(4, reversed[heightSamples], 0.0);
+	}
+
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void perRecordCostIsNegligible() {
+		Random random = new Random(42);
+		double[][] batches = new double[BENCHMARK_BATCHES][];
+		double[][] species = new double[BENCHMARK_SPECIES][];
+		double[][] heights = new double[BENCHMARK_BATCHES][3];
+		for (int s = 0; s < BENCHMARK_SPECIES; s++) {
+			species[s] = detector.newSpeciesState();
+		}
+
+		// Vòng đầu để JIT biên dịch xong, vòng sau mới đo
+		long measured = 0;
+		long anomalies = 0;
+		for (int round = 0; round < 2; round++) {
+			for (int b = 0; b < BENCHMARK_BATCHES; b++) {
+				batches[b] = detector.newBatchState();
+				heights[b][0] = 30;
+				heights[b][1] = 2;
+				heights[b][2] = 40;
+			}
+			long started = System.nanoTime();
+			for (int r = 0; r < RECORDS_PER_BATCH; r++) {
+				for (int b = 0; b < BENCHMARK_BATCHES; b++) {
+					double[] h = heights[b];
+					h[0] += 10 * (1 + 0.2 * random.nextGaussian());
+					h[1] += 0.5 * (1 + 0.2 * random.nextGaussian());
+					h[2] += 8 * (1 + 0.2 * random.nextGaussian());
+					anomalies += detector.accept(batches[b], species[b % BENCHMARK_SPECIES], r * 30L,
+							h[0], h[1], h[2], 1000 - r).size();
+				}
+			}
+			measured = System.nanoTime() - started;
+		}
+
+		long records = (long) BENCHMARK_BATCHES * RECORDS_PER_BATCH;
+		double perRecord = (double) measured / records;
+		log.info("GrowthAnomalyDetector {} records: {} ns/record, state {} + {} doubles, {} anomalies",
+				records, Math.round(perRecord), GrowthAnomalyDetector.BATCH_STATE_SIZE,
+				GrowthAnomalyDetector.SPECIES_STATE_SIZE, anomalies);
+
+		assertTrue(perRecord < PER_RECORD_BUDGET_NANOS, perRecord + " ns/record exceeds budget");
+	}
+
+	// records bản ghi cách nhau 10 ngày, tốc độ cao dao động ±20% quanh rate cm/ngày
+	private void feed(double[] batch, double[] species, double startHeight, double rate, int records) {
+		double height = startHeight;
+		for (int i = 0; i < records; i++) {
+			height += 10 * rate * (i % 2 == 0 ? 0.8 : 1.2);
+			accept(batch, species, i * 10L, height, 1000);
+		}
+	}
+
+	private List<GrowthAnomalyDetector.Anomaly> accept(double[] batch, double[] species, long day, double height,
+													   double alive) {
+		return detector.accept(batch, species, day, height, Double.NaN, Double.NaN, alive);
+	}
+}
@@ -0,0 +1,155 @@
+package com.capston.project.back.end.util;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfWriter;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bảng nhiều trang (header lặp lại) và benchmark bộ nhớ so với cách render cũ:
+ * PdfPCell + Font mới cho mỗi ô, cả bảng add một lần, document giữ trong ByteArrayOutputStream.
+ *
+ * Benchmark chỉ chạy khi bật (bản cũ cần heap lớn cho 100k dòng):
+ * mvn test -Dtest=PdfReportWriterTest -Dbenchmark=true -DargLine=-Xmx2g
+ */
+class PdfReportWriterTest {
+
+	private static final Logger log = LoggerFactory.getLogger(PdfReportWriterTest.class);
+
+	private static final float[] WIDTHS = {2f, 3f, 2f, 2f, 1.5f};
+	private static final String[] HEADERS = {"Mã dự án", "Tên dự án", "CO2 hấp thụ (kg)", "Mục tiêu (kg)", "Tỷ lệ (%)"};
+	private static final int BENCHMARK_ROWS = 100_000;
+
+	@Test
+	void splitsLargeTableAcrossPagesWithRepeatedHeader() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		render(out, 2_000, null);
+
+		PdfReader reader = new PdfReader(out.toByteArray());
+		try {
+			int pages = reader.getNumberOfPages();
+			assertTrue(pages > 10, "expected a multi-page table, got " + pages + " pages");
+
+			PdfTextExtractor extractor = new PdfTextExtractor(reader);
+			String firstPage = extractor.getTextFromPage(1);
+			String lastPage = extractor.getTextFromPage(pages);
+			assertTrue(firstPage.contains("PRJ-0"), "first row missing");
+			assertTrue(lastPage.contains("PRJ-1999"), "last row missing");
+			// Helvetica không có dấu tiếng Việt nên kiểm tra phần ASCII của header
+			assertTrue(lastPage.contains("(kg)"), "header not repeated on last page");
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void retainsFarLessHeapThanLegacyRenderer() throws Exception {
+		// Đo heap còn sống (sau GC) khi đã render 90% số dòng, lúc bảng cũ lớn nhất mà chưa được add
+		int checkpoint = BENCHMARK_ROWS * 9 / 10;
+		long[] streamingRetained = new long[1];
+		render(OutputStream.nullOutputStream(), BENCHMARK_ROWS, row -> {
+			if (row == checkpoint) {
+				streamingRetained[0] = retainedHeap();
+			}
+		});
+
+		long[] legacyRetained = new long[1];
+		renderLegacy(BENCHMARK_ROWS, row -> {
+			if (row == checkpoint) {
+				legacyRetained[0] = retainedHeap();
+			}
+		});
+
+		log.info("PDF {} rows, retained heap at 90%: PdfReportWriter {} KB, legacy {} KB", BENCHMARK_ROWS,
+				streamingRetained[0] / 1024, legacyRetained[0] / 1024);
+		assertTrue(streamingRetained[0] * 4 < legacyRetained[0],
+				"streaming retained " + streamingRetained[0] + " B vs legacy " + legacyRetained[0] + " B");
+	}
+
+	// ==================== HELPER METHODS ====================
+
+	private static void render(OutputStream out, int rows, RowListener listener) throws Exception {
+		try (PdfReportWriter writer = new PdfReportWriter(out)) {
+			writer.title("CO2 Absorption Report", LocalDate.of(2026, 10, 19));
+			writer.section("THEO DỰ ÁN");
+			try (PdfReportWriter.TableWriter table = writer.table(WIDTHS, HEADERS)) {
+				for (int i = 0; i < rows; i++) {
+					String[] row = row(i);
+					table.row(row[0], row[1], row[2], row[3], row[4]);
+					if (listener != null) {
+						listener.afterRow(i + 1);
+					}
+				}
+			}
+		}
+	}
+
+	// Cách render trước PdfReportWriter (ExportServiceImpl cũ)
+	private static byte[] renderLegacy(int rows, RowListener listener) throws Exception {
+		try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			Document document = new Document(PageSize.A4);
+			PdfWriter.getInstance(document, out);
+			document.open();
+
+			PdfPTable table = new PdfPTable(HEADERS.length);
+			table.setWidthPercentage(100);
+			table.setWidths(WIDTHS);
+			for (String header : HEADERS) {
+				PdfPCell cell = new PdfPCell(new Phrase(header, new Font(Font.HELVETICA, 9, Font.BOLD, Color.WHITE)));
+				cell.setBackgroundColor(new Color(34, 139, 34));
+				cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+				cell.setPadding(5);
+				table.addCell(cell);
+			}
+			for (int i = 0; i < rows; i++) {
+				for (String value : row(i)) {
+					PdfPCell cell = new PdfPCell(new Phrase(value, new Font(Font.HELVETICA, 9, Font.NORMAL)));
+					cell.setPadding(4);
+					table.addCell(cell);
+				}
+				listener.afterRow(i + 1);
+			}
+			document.add(table);
+			document.close();
+			return out.toByteArray();
+		}
+	}
+
+	private static String[] row(int i) {
+		return new String[]{"PRJ-" + i, "Dự án trồng rừng số " + i, String.format("%,d.50", i * 37L),
+				String.format("%,d.00", i * 50L), String.format("%.2f", (i % 100) + 0.5)};
+	}
+
+	private static long retainedHeap() {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+
+	@FunctionalInterface
+	private interface RowListener {
+		void afterRow(int rowsWritten);
+	}
+}
@@ -0,0 +1,137 @@
+package com.capston.project.back.end.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Độ chính xác xếp hạng và benchmark truy vấn trên 100k document.
+ *
+ * Benchmark chỉ chạy khi bật: mvn test -Dtest=TextSearchIndexTest -Dbenchmark=true
+ */
+class TextSearchIndexTest {
+
+	private static final Logger log = LoggerFactory.getLogger(TextSearchIndexTest.class);
+
+	private static final int BENCHMARK_DOCS = 100_000;
+	private static final int BENCHMARK_QUERIES = 500;
+	private static final long LATENCY_BUDGET_NANOS = 5_000_000;
+
+	@Test
+	void matchesWithoutDiacriticsAndRanksTitleFirst() {
+		TextSearchIndex<String> index = new TextSearchIndex<>();
+		index.put("P:1", "Dự án rừng ngập mặn Cà Mau", "Trồng đước và mắm ven biển");
+		index.put("P:2", "Dự án keo lai Đắk Lắk", "Rừng trồng keo, xen canh cà phê");
+		index.put("S:1", "Cây đước", "Loài cây ngập mặn hấp thụ nhiều CO2");
+
+		List<TextSearchIndex.Hit<String>> hits = index.search("rung ngap man ca mau", 3, 0);
+
+		assertEquals("P:1", hits.get(0).key());
+		assertEquals("S:1", index.search("cây Đước", 1, 0).get(0).key());
+	}
+
+	@Test
+	void removedAndReplacedDocumentsAreNotReturned() {
+		TextSearchIndex<String> index = new TextSearchIndex<>();
+		index.put("C:1", "Tín chỉ VCS-2024-001", "Dự án Cà Mau còn 120 tín chỉ");
+		index.put("C:2", "Tín chỉ VCS-2024-002", "Dự án Đắk Lắk còn 40 tín chỉ");
+
+		index.remove("C:1");
+		index.put("C:2", "Tín chỉ VCS-2024-002", "Dự án Gia Lai còn 40 tín chỉ");
+
+		assertEquals(1, index.size());
+		assertTrue(index.search("Cà Mau", 5, 0).isEmpty());
+		assertEquals("C:2", index.search("tín chỉ Gia Lai", 5, 0).get(0).key());
+	}
+
+	@Test
+	void repeatedUpdatesDoNotSkewScoresOrGrowIndex() {
+		TextSearchIndex<String> updated = new TextSearchIndex<>();
+		updated.put("P:1", "Dự án rừng ngập mặn Cà Mau", "Trồng đước ven biển");
+		// Mỗi PostUpdate thay thế document; df và độ dài trung bình phải như index dựng mới
+		for (int i = 0; i < 1_000; i++) {
+			updated.put("P:2", "Dự án keo lai Đắk Lắk", "Rừng trồng keo, cập nhật lần " + i % 2);
+		}
+		TextSearchIndex<String> fresh = new TextSearchIndex<>();
+		fresh.put("P:1", "Dự án rừng ngập mặn Cà Mau", "Trồng đước ven biển");
+		fresh.put("P:2", "Dự án keo lai Đắk Lắk", "Rừng trồng keo, cập nhật lần 1");
+
+		List<TextSearchIndex.Hit<String>> expected = fresh.search("rừng keo Cà Mau", 5, 0);
+		List<TextSearchIndex.Hit<String>> actual = updated.search("rừng keo Cà Mau", 5, 0);
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).key(), actual.get(i).key());
+			assertEquals(expected.get(i).score(), actual.get(i).score(), 1e-5);
+		}
+
+		// Chỗ trống của document bị thay thế được thu hồi
+		List<?> slots = (List<?>) ReflectionTestUtils.getField(updated, "keys");
+		assertTrue(slots.size() < 100, "doc id space grew to " + slots.size());
+		updated.remove("P:2");
+		assertTrue(updated.search("keo lai", 5, 0).isEmpty());
+		assertEquals(1, updated.size());
+	}
+
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void searchOver100kDocumentsStaysUnderFiveMilliseconds() {
+		Random random = new Random(42);
+		String[] vocabulary = new String[3000];
+		for (int i = 0; i < vocabulary.length; i++) {
+			vocabulary[i] = syllable(random) + syllable(random);
+		}
+
+		TextSearchIndex<Integer> index = new TextSearchIndex<>();
+		for (int i = 0; i < BENCHMARK_DOCS; i++) {
+			String kind = i % 3 == 0 ? "Dự án" : i % 3 == 1 ? "Tín chỉ carbon" : "Loài cây";
+			index.put(i, kind + " " + phrase(random, vocabulary, 3), phrase(random, vocabulary, 25));
+		}
+
+		String[] queries = new String[BENCHMARK_QUERIES];
+		for (int i = 0; i < queries.length; i++) {
+			queries[i] = "Dự án nào còn tín chỉ carbon " + phrase(random, vocabulary, 4);
+		}
+		// Warm-up để JIT biên dịch xong trước khi đo
+		for (int round = 0; round < 5; round++) {
+			for (String query : queries) {
+				index.search(query, 5, 0);
+			}
+		}
+
+		long[] latencies = new long[queries.length];
+		for (int i = 0; i < queries.length; i++) {
+			long start = System.nanoTime();
+			index.search(queries[i], 5, 0);
+			latencies[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(latencies);
+		long p50 = latencies[latencies.length / 2];
+		long p95 = latencies[(int) (latencies.length * 0.95)];
+		log.info("TextSearchIndex {} docs: p50 {} µs, p95 {} µs", BENCHMARK_DOCS, p50 / 1_000, p95 / 1_000);
+
+		assertTrue(p95 < LATENCY_BUDGET_NANOS, "p95 latency " + p95 / 1e6 + " ms exceeds 5 ms");
+	}
+
+	private static String syllable(Random random) {
+		String[] onsets = {"b", "c", "d", "đ", "g", "h", "k", "l", "m", "n", "ng", "nh", "ph", "s", "t", "th", "tr", "v", "x"};
+		String[] rhymes = {"a", "á", "an", "ăn", "âm", "ê", "iên", "ô", "ơn", "uy", "ươc", "ưng", "oa", "ai", "ao"};
+		return onsets[random.nextInt(onsets.length)] + rhymes[random.nextInt(rhymes.length)];
+	}
+
+	private static String phrase(Random random, String[] vocabulary, int words) {
+		StringBuilder phrase = new StringBuilder();
+		for (int i = 0; i < words; i++) {
+			phrase.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+		}
+		return phrase.toString().trim();
+	}
+}